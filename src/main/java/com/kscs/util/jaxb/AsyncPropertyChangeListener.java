@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.Executor;
+
+/**
+ * Decorates a {@link PropertyChangeListener} so that it is notified
+ * asynchronously on an {@link Executor}, in the order the events occurred.
+ * Vetoable listeners cannot be notified asynchronously, since their
+ * veto must be known before the change is made.
+ *
+ * @author agent 2026-10-19
+ */
+public class AsyncPropertyChangeListener implements PropertyChangeListener {
+	private final PropertyChangeListener delegate;
+	private final SerialEventDispatcher dispatcher;
+
+	/**
+	 * @param executor Executor on which the delegate will be notified.
+	 * @param queueCapacity Maximum number of pending events, setters block while it is exceeded.
+	 * @param delegate The listener to notify.
+	 */
+	public AsyncPropertyChangeListener(final Executor executor, final int queueCapacity, final PropertyChangeListener delegate) {
+		this.delegate = delegate;
+		this.dispatcher = new SerialEventDispatcher(executor, queueCapacity);
+	}
+
+	@Override
+	public void propertyChange(final PropertyChangeEvent evt) {
+		this.dispatcher.dispatch(new Runnable() {
+			@Override
+			public void run() {
+				AsyncPropertyChangeListener.this.delegate.propertyChange(evt);
+			}
+		});
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.io.IOException;
+
+/**
+ * Implemented by classes generated with "-Xbinary-codec" to write
+ * and read their state in a compact binary format without reflection.
+ *
+ * @author agent 2026-10-19
+ */
+public interface BinaryCodable {
+	/**
+	 * Writes the type id of this object followed by the values of all its properties.
+	 * @param encoder The encoder to write to
+	 * @throws IOException If writing fails, or a property value cannot be encoded
+	 */
+	void writeBinary(final BinaryEncoder encoder) throws IOException;
+
+	/**
+	 * Reads the values of all properties of this object, as written by {@link #writeBinary(BinaryEncoder)}
+	 * after the type id.
+	 * @param decoder The decoder to read from
+	 * @throws IOException If reading fails, or the data is malformed
+	 */
+	void readBinary(final BinaryDecoder decoder) throws IOException;
+}
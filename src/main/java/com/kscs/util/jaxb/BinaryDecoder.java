@@ -0,0 +1,365 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+/**
+ * Reads values written by a {@link BinaryEncoder}.
+ * Input is buffered, so the decoder may read ahead
+ * of the data actually consumed.
+ *
+ * @author agent 2026-10-19
+ */
+public class BinaryDecoder {
+	private static final ClassValue<Object[]> ENUM_CONSTANTS = new ClassValue<Object[]>() {
+		@Override
+		protected Object[] computeValue(final Class<?> type) {
+			return type.getEnumConstants();
+		}
+	};
+	private final InputStream in;
+	private final BinaryTypes types;
+	private final byte[] buffer;
+	private int position = 0;
+	private int limit = 0;
+	private DatatypeFactory datatypeFactory = null;
+	// the objects read so far, in the order they were written
+	private final List<BinaryCodable> objects = new ArrayList<BinaryCodable>();
+
+	public BinaryDecoder(final InputStream in, final BinaryTypes types) {
+		this(in, types, 8192);
+	}
+
+	public BinaryDecoder(final InputStream in, final BinaryTypes types, final int bufferSize) {
+		this.in = in;
+		this.types = types;
+		this.buffer = new byte[Math.max(bufferSize, 16)];
+	}
+
+	/**
+	 * Creates a decoder reading the custom data of an {@link java.io.Externalizable} object.
+	 * The decoder may read ahead, which is safe here because
+	 * {@link java.io.ObjectInputStream} ends the input at the end of the data of the object being read.
+	 * @param in The object stream passed to <tt>readExternal</tt>
+	 * @param types Creates the objects for type ids read
+	 * @return A new decoder with a buffer sized for single objects
+	 */
+	public static BinaryDecoder forObjectInput(final ObjectInput in, final BinaryTypes types) {
+		return new BinaryDecoder(new InputStream() {
+			@Override
+			public int read() throws IOException {
+				return in.read();
+			}
+
+			@Override
+			public int read(final byte[] b, final int off, final int len) throws IOException {
+				return in.read(b, off, len);
+			}
+		}, types, 512);
+	}
+
+	public int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			final int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length int");
+	}
+
+	public long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			final int b = readByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length long");
+	}
+
+	public int readInt() throws IOException {
+		final int v = readVarInt();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public long readLong() throws IOException {
+		final long v = readVarLong();
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	public long readFixedLong() throws IOException {
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | readByte();
+		}
+		return value;
+	}
+
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	public float readFloat() throws IOException {
+		int bits = 0;
+		for (int i = 0; i < 4; i++) {
+			bits = (bits << 8) | readByte();
+		}
+		return Float.intBitsToFloat(bits);
+	}
+
+	public double readDouble() throws IOException {
+		return Double.longBitsToDouble(readFixedLong());
+	}
+
+	public String readString() throws IOException {
+		final int length = readLength();
+		if (length < 0) {
+			return null;
+		}
+		if (length <= this.buffer.length) {
+			fill(length);
+			final String value = new String(this.buffer, this.position, length, BinaryEncoder.UTF_8);
+			this.position += length;
+			return value;
+		} else {
+			return new String(readRaw(length), BinaryEncoder.UTF_8);
+		}
+	}
+
+	public byte[] readBytes() throws IOException {
+		final int length = readLength();
+		return length < 0 ? null : readRaw(length);
+	}
+
+	public BigInteger readBigInteger() throws IOException {
+		final byte[] bytes = readBytes();
+		return bytes == null ? null : new BigInteger(bytes);
+	}
+
+	public BigDecimal readBigDecimal() throws IOException {
+		final BigInteger unscaledValue = readBigInteger();
+		return unscaledValue == null ? null : new BigDecimal(unscaledValue, readInt());
+	}
+
+	public QName readQName() throws IOException {
+		final String localPart = readString();
+		if (localPart == null) {
+			return null;
+		}
+		final String namespaceURI = readString();
+		return new QName(namespaceURI, localPart, readString());
+	}
+
+	public XMLGregorianCalendar readCalendar() throws IOException {
+		final String lexicalRepresentation = readString();
+		return lexicalRepresentation == null ? null : getDatatypeFactory().newXMLGregorianCalendar(lexicalRepresentation);
+	}
+
+	public Duration readDuration() throws IOException {
+		final String lexicalRepresentation = readString();
+		return lexicalRepresentation == null ? null : getDatatypeFactory().newDuration(lexicalRepresentation);
+	}
+
+	public Date readDate() throws IOException {
+		return readBoolean() ? new Date(readLong()) : null;
+	}
+
+	public <E extends Enum<E>> E readEnum(final Class<E> enumClass) throws IOException {
+		final Object[] constants = BinaryDecoder.ENUM_CONSTANTS.get(enumClass);
+		final int ordinal = readVarInt();
+		if (ordinal < 0 || ordinal >= constants.length) {
+			throw new IOException("Invalid ordinal " + ordinal + " for enum " + enumClass.getName());
+		}
+		return enumClass.cast(constants[ordinal]);
+	}
+
+	/**
+	 * Reads a generated object written by {@link BinaryEncoder#writeObject(BinaryCodable)}.
+	 */
+	public BinaryCodable readObject() throws IOException {
+		final int typeId = readVarInt();
+		if (typeId == 0) {
+			return null;
+		}
+		if (typeId == BinaryEncoder.OBJECT_REFERENCE) {
+			final int position = readVarInt();
+			if (position < 0 || position >= this.objects.size()) {
+				throw new IOException("Invalid object reference " + position);
+			}
+			return this.objects.get(position);
+		}
+		final BinaryCodable object = this.types.create(typeId);
+		if (object == null) {
+			throw new IOException("Unknown type id " + typeId);
+		}
+		// registered before its fields are read, so that references back to it can be resolved
+		registerObject(object);
+		object.readBinary(this);
+		return object;
+	}
+
+	/**
+	 * Counterpart of {@link BinaryEncoder#registerObject(BinaryCodable)}.
+	 * @param object The object being read
+	 */
+	public void registerObject(final BinaryCodable object) {
+		this.objects.add(object);
+	}
+
+	/**
+	 * Reads a value written by {@link BinaryEncoder#writeValue(Object)}.
+	 */
+	public Object readValue() throws IOException {
+		final int tag = readVarInt();
+		switch (tag) {
+			case BinaryEncoder.TAG_NULL:
+				return null;
+			case BinaryEncoder.TAG_STRING:
+				return readString();
+			case BinaryEncoder.TAG_OBJECT:
+				return readObject();
+			case BinaryEncoder.TAG_ELEMENT:
+				return readElement();
+			case BinaryEncoder.TAG_BOOLEAN:
+				return readBoolean();
+			case BinaryEncoder.TAG_INT:
+				return readInt();
+			case BinaryEncoder.TAG_LONG:
+				return readLong();
+			case BinaryEncoder.TAG_SHORT:
+				return (short)readInt();
+			case BinaryEncoder.TAG_BYTE:
+				return (byte)readInt();
+			case BinaryEncoder.TAG_FLOAT:
+				return readFloat();
+			case BinaryEncoder.TAG_DOUBLE:
+				return readDouble();
+			case BinaryEncoder.TAG_BIG_INTEGER:
+				return readBigInteger();
+			case BinaryEncoder.TAG_BIG_DECIMAL:
+				return readBigDecimal();
+			case BinaryEncoder.TAG_BYTES:
+				return readBytes();
+			case BinaryEncoder.TAG_QNAME:
+				return readQName();
+			case BinaryEncoder.TAG_CALENDAR:
+				return readCalendar();
+			case BinaryEncoder.TAG_DURATION:
+				return readDuration();
+			case BinaryEncoder.TAG_DATE:
+				return readDate();
+			default:
+				throw new IOException("Unknown value tag " + tag);
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private JAXBElement<?> readElement() throws IOException {
+		final QName name = readQName();
+		final Object value = readValue();
+		return new JAXBElement(name, value == null ? Object.class : value.getClass(), value);
+	}
+
+	private DatatypeFactory getDatatypeFactory() throws IOException {
+		if (this.datatypeFactory == null) {
+			try {
+				this.datatypeFactory = DatatypeFactory.newInstance();
+			} catch (final DatatypeConfigurationException e) {
+				throw new IOException(e);
+			}
+		}
+		return this.datatypeFactory;
+	}
+
+	private int readLength() throws IOException {
+		final int length = readVarInt() - 1;
+		if (length < -1) {
+			throw new IOException("Invalid length " + length);
+		}
+		return length;
+	}
+
+	private int readByte() throws IOException {
+		if (this.position == this.limit) {
+			fill(1);
+		}
+		return this.buffer[this.position++] & 0xFF;
+	}
+
+	private byte[] readRaw(final int length) throws IOException {
+		final byte[] bytes = new byte[length];
+		int offset = Math.min(length, this.limit - this.position);
+		System.arraycopy(this.buffer, this.position, bytes, 0, offset);
+		this.position += offset;
+		while (offset < length) {
+			final int count = this.in.read(bytes, offset, length - offset);
+			if (count < 0) {
+				throw new EOFException();
+			}
+			offset += count;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Makes sure that at least the given number of bytes,
+	 * which must not exceed the buffer size, is available in the buffer.
+	 */
+	private void fill(final int length) throws IOException {
+		if (this.limit - this.position >= length) {
+			return;
+		}
+		System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+		this.limit -= this.position;
+		this.position = 0;
+		while (this.limit < length) {
+			final int count = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+			if (count < 0) {
+				throw new EOFException();
+			}
+			this.limit += count;
+		}
+	}
+}
@@ -0,0 +1,363 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+/**
+ * Writes values in the compact binary format used by classes
+ * generated with "-Xbinary-codec".
+ * Unsigned integers are written as variable length quantities of
+ * 7 bits per byte, signed integers are zigzag-encoded first, so that
+ * small absolute values take few bytes. Strings and byte arrays are
+ * written with their length plus one, so that 0 encodes null.
+ * Each generated object is written only once, later occurrences of the same
+ * object are written as a reference to it, so that objects shared by IDREF
+ * properties are read back shared, and cycles don't recurse endlessly.
+ * Output is buffered, {@link #flush()} or {@link #close()} must be called
+ * when done.
+ *
+ * @author agent 2026-10-19
+ */
+public class BinaryEncoder implements Closeable, Flushable {
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+	static final int TAG_NULL = 0;
+	static final int TAG_STRING = 1;
+	static final int TAG_BOOLEAN = 2;
+	static final int TAG_INT = 3;
+	static final int TAG_LONG = 4;
+	static final int TAG_SHORT = 5;
+	static final int TAG_BYTE = 6;
+	static final int TAG_FLOAT = 7;
+	static final int TAG_DOUBLE = 8;
+	static final int TAG_BIG_INTEGER = 9;
+	static final int TAG_BIG_DECIMAL = 10;
+	static final int TAG_BYTES = 11;
+	static final int TAG_QNAME = 12;
+	static final int TAG_CALENDAR = 13;
+	static final int TAG_DURATION = 14;
+	static final int TAG_DATE = 15;
+	static final int TAG_OBJECT = 16;
+	static final int TAG_ELEMENT = 17;
+	/**
+	 * Type id of the first generated class. Type id 0 stands for null,
+	 * and 1 for a reference to an object written before.
+	 */
+	public static final int FIRST_TYPE_ID = 2;
+	static final int OBJECT_REFERENCE = 1;
+
+	private final OutputStream out;
+	private final byte[] buffer;
+	private int position = 0;
+	// positions of the objects written so far, in the order they were written
+	private final Map<BinaryCodable, Integer> objects = new IdentityHashMap<BinaryCodable, Integer>();
+
+	public BinaryEncoder(final OutputStream out) {
+		this(out, 8192);
+	}
+
+	public BinaryEncoder(final OutputStream out, final int bufferSize) {
+		this.out = out;
+		this.buffer = new byte[Math.max(bufferSize, 16)];
+	}
+
+	/**
+	 * Creates an encoder writing to the custom data of an {@link java.io.Externalizable} object.
+	 * {@link #flush()} writes the buffered data without flushing the object stream itself.
+	 * @param out The object stream passed to <tt>writeExternal</tt>
+	 * @return A new encoder with a buffer sized for single objects
+	 */
+	public static BinaryEncoder forObjectOutput(final ObjectOutput out) {
+		return new BinaryEncoder(new OutputStream() {
+			@Override
+			public void write(final int b) throws IOException {
+				out.write(b);
+			}
+
+			@Override
+			public void write(final byte[] b, final int off, final int len) throws IOException {
+				out.write(b, off, len);
+			}
+		}, 512);
+	}
+
+	/**
+	 * Writes a non-negative int as variable length quantity.
+	 * Negative values are written as 5 bytes.
+	 */
+	public void writeVarInt(final int value) throws IOException {
+		ensure(5);
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			this.buffer[this.position++] = (byte)((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		this.buffer[this.position++] = (byte)v;
+	}
+
+	/**
+	 * Writes a non-negative long as variable length quantity.
+	 * Negative values are written as 10 bytes.
+	 */
+	public void writeVarLong(final long value) throws IOException {
+		ensure(10);
+		long v = value;
+		while ((v & ~0x7FL) != 0) {
+			this.buffer[this.position++] = (byte)((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		this.buffer[this.position++] = (byte)v;
+	}
+
+	public void writeInt(final int value) throws IOException {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	public void writeLong(final long value) throws IOException {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	public void writeFixedLong(final long value) throws IOException {
+		ensure(8);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			this.buffer[this.position++] = (byte)(value >>> shift);
+		}
+	}
+
+	public void writeBoolean(final boolean value) throws IOException {
+		ensure(1);
+		this.buffer[this.position++] = value ? (byte)1 : (byte)0;
+	}
+
+	public void writeFloat(final float value) throws IOException {
+		final int bits = Float.floatToIntBits(value);
+		ensure(4);
+		for (int shift = 24; shift >= 0; shift -= 8) {
+			this.buffer[this.position++] = (byte)(bits >>> shift);
+		}
+	}
+
+	public void writeDouble(final double value) throws IOException {
+		writeFixedLong(Double.doubleToLongBits(value));
+	}
+
+	public void writeString(final String value) throws IOException {
+		writeBytes(value == null ? null : value.getBytes(BinaryEncoder.UTF_8));
+	}
+
+	public void writeBytes(final byte[] value) throws IOException {
+		if (value == null) {
+			writeVarInt(0);
+		} else {
+			writeVarInt(value.length + 1);
+			writeRaw(value, 0, value.length);
+		}
+	}
+
+	public void writeBigInteger(final BigInteger value) throws IOException {
+		writeBytes(value == null ? null : value.toByteArray());
+	}
+
+	public void writeBigDecimal(final BigDecimal value) throws IOException {
+		writeBigInteger(value == null ? null : value.unscaledValue());
+		if (value != null) {
+			writeInt(value.scale());
+		}
+	}
+
+	public void writeQName(final QName value) throws IOException {
+		writeString(value == null ? null : value.getLocalPart());
+		if (value != null) {
+			writeString(value.getNamespaceURI());
+			writeString(value.getPrefix());
+		}
+	}
+
+	public void writeCalendar(final XMLGregorianCalendar value) throws IOException {
+		writeString(value == null ? null : value.toXMLFormat());
+	}
+
+	public void writeDuration(final Duration value) throws IOException {
+		writeString(value == null ? null : value.toString());
+	}
+
+	public void writeDate(final Date value) throws IOException {
+		writeBoolean(value != null);
+		if (value != null) {
+			writeLong(value.getTime());
+		}
+	}
+
+	public void writeEnum(final Enum<?> value) throws IOException {
+		writeVarInt(value.ordinal());
+	}
+
+	/**
+	 * Writes a generated object, preceded by its type id, or 0 if the object is null.
+	 * If the object has been written before, only a reference to it is written.
+	 */
+	public void writeObject(final BinaryCodable value) throws IOException {
+		if (value == null) {
+			writeVarInt(0);
+			return;
+		}
+		final Integer position = this.objects.get(value);
+		if (position != null) {
+			writeVarInt(BinaryEncoder.OBJECT_REFERENCE);
+			writeVarInt(position);
+		} else {
+			registerObject(value);
+			value.writeBinary(this);
+		}
+	}
+
+	/**
+	 * Makes later occurrences of an object be written as references to it,
+	 * for objects whose fields are written without {@link #writeObject(BinaryCodable)}.
+	 * The decoder must register the object it reads at the same point.
+	 * @param value The object being written
+	 */
+	public void registerObject(final BinaryCodable value) {
+		this.objects.put(value, this.objects.size());
+	}
+
+	/**
+	 * Writes a value whose type is not known in advance, preceded by a type tag.
+	 * Supports all types that can be written by the other methods of this class except enums,
+	 * and {@link JAXBElement}s containing one of those.
+	 * @throws IOException If the type of the value is not supported.
+	 */
+	public void writeValue(final Object value) throws IOException {
+		if (value == null) {
+			writeVarInt(BinaryEncoder.TAG_NULL);
+		} else if (value instanceof String) {
+			writeVarInt(BinaryEncoder.TAG_STRING);
+			writeString((String)value);
+		} else if (value instanceof BinaryCodable) {
+			writeVarInt(BinaryEncoder.TAG_OBJECT);
+			writeObject((BinaryCodable)value);
+		} else if (value instanceof JAXBElement) {
+			final JAXBElement<?> element = (JAXBElement<?>)value;
+			writeVarInt(BinaryEncoder.TAG_ELEMENT);
+			writeQName(element.getName());
+			writeValue(element.getValue());
+		} else if (value instanceof Boolean) {
+			writeVarInt(BinaryEncoder.TAG_BOOLEAN);
+			writeBoolean((Boolean)value);
+		} else if (value instanceof Integer) {
+			writeVarInt(BinaryEncoder.TAG_INT);
+			writeInt((Integer)value);
+		} else if (value instanceof Long) {
+			writeVarInt(BinaryEncoder.TAG_LONG);
+			writeLong((Long)value);
+		} else if (value instanceof Short) {
+			writeVarInt(BinaryEncoder.TAG_SHORT);
+			writeInt((Short)value);
+		} else if (value instanceof Byte) {
+			writeVarInt(BinaryEncoder.TAG_BYTE);
+			writeInt((Byte)value);
+		} else if (value instanceof Float) {
+			writeVarInt(BinaryEncoder.TAG_FLOAT);
+			writeFloat((Float)value);
+		} else if (value instanceof Double) {
+			writeVarInt(BinaryEncoder.TAG_DOUBLE);
+			writeDouble((Double)value);
+		} else if (value instanceof BigInteger) {
+			writeVarInt(BinaryEncoder.TAG_BIG_INTEGER);
+			writeBigInteger((BigInteger)value);
+		} else if (value instanceof BigDecimal) {
+			writeVarInt(BinaryEncoder.TAG_BIG_DECIMAL);
+			writeBigDecimal((BigDecimal)value);
+		} else if (value instanceof byte[]) {
+			writeVarInt(BinaryEncoder.TAG_BYTES);
+			writeBytes((byte[])value);
+		} else if (value instanceof QName) {
+			writeVarInt(BinaryEncoder.TAG_QNAME);
+			writeQName((QName)value);
+		} else if (value instanceof XMLGregorianCalendar) {
+			writeVarInt(BinaryEncoder.TAG_CALENDAR);
+			writeCalendar((XMLGregorianCalendar)value);
+		} else if (value instanceof Duration) {
+			writeVarInt(BinaryEncoder.TAG_DURATION);
+			writeDuration((Duration)value);
+		} else if (value instanceof Date) {
+			writeVarInt(BinaryEncoder.TAG_DATE);
+			writeDate((Date)value);
+		} else {
+			throw new IOException("Cannot encode value of type " + value.getClass().getName());
+		}
+	}
+
+	public void writeRaw(final byte[] bytes, final int offset, final int length) throws IOException {
+		if (length > this.buffer.length - this.position) {
+			flushBuffer();
+			if (length > this.buffer.length) {
+				this.out.write(bytes, offset, length);
+				return;
+			}
+		}
+		System.arraycopy(bytes, offset, this.buffer, this.position, length);
+		this.position += length;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flushBuffer();
+		this.out.close();
+	}
+
+	private void ensure(final int length) throws IOException {
+		if (this.buffer.length - this.position < length) {
+			flushBuffer();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (this.position > 0) {
+			this.out.write(this.buffer, 0, this.position);
+			this.position = 0;
+		}
+	}
+}
@@ -31,8 +31,33 @@ import java.util.List;
  * Created by jaxb2-rich-contract-plugin.
  * Defines the contract for a List implementaion
  * that supports change and vetoable change events.
+ * Listeners can be added and removed from any thread,
+ * the list itself is not thread-safe.
  */
 public interface BoundList<E> extends List<E> {
 	void addCollectionChangeListener(final CollectionChangeListener<E> collectionChangeListener);
 	void addVetoableCollectionChangeListener(final VetoableCollectionChangeListener<E> vetoableCollectionChangeListener);
+	void removeCollectionChangeListener(final CollectionChangeListener<E> collectionChangeListener);
+	void removeVetoableCollectionChangeListener(final VetoableCollectionChangeListener<E> vetoableCollectionChangeListener);
+
+	/**
+	 * Starts a batch of changes. Until the matching {@link #commitChanges()},
+	 * no change events are sent, then all changes are sent as one {@link CompoundCollectionChangeEvent}.
+	 * Vetoable listeners are still asked before each single change.
+	 * Batches can be nested, and must be opened and committed by the thread making the changes.
+	 */
+	void beginChanges();
+
+	/**
+	 * Ends a batch of changes started by {@link #beginChanges()}. If the outermost batch
+	 * is ended, the changes made in it are sent to the change listeners as one event.
+	 */
+	void commitChanges();
+
+	/**
+	 * Gets the number of changes made to this list so far, including
+	 * changes made while nobody listened. Can be used to find out whether
+	 * the list has changed since some point without registering a listener.
+	 */
+	int getModificationCount();
 }
@@ -28,13 +28,22 @@ import java.beans.PropertyVetoException;
 import java.util.*;
 
 /**
- * @author klemm0 2014-03-27
+ * Like the list it wraps, the proxy is not thread-safe: Changes, including
+ * batches of changes, must be made by one thread at a time. Only adding and
+ * removing listeners is safe from any thread.
  *
+ * @author klemm0 2014-03-27
  */
 public class BoundListProxy<E> implements BoundList<E> {
 	private final List<E> list;
-	private final List<VetoableCollectionChangeListener<E>> vetoableCollectionChangeListeners = new ArrayList<VetoableCollectionChangeListener<E>>();
-	private final List<CollectionChangeListener<E>> collectionChangeListeners = new ArrayList<CollectionChangeListener<E>>();
+	private static final Object[] NO_LISTENERS = new Object[0];
+	// copy-on-write, so that listeners can be notified without holding a lock
+	private volatile Object[] vetoableCollectionChangeListeners = BoundListProxy.NO_LISTENERS;
+	private volatile Object[] collectionChangeListeners = BoundListProxy.NO_LISTENERS;
+	private int batchDepth = 0;
+	private List<CollectionChangeEvent<E>> batchChanges = null;
+	// counts all changes, so that observers can tell whether the list has been changed
+	private int version = 0;
 
 	public BoundListProxy(final List<E> list) {
 		this.list = list;
@@ -71,7 +80,11 @@ public class BoundListProxy<E> implements BoundList<E> {
 	}
 
 	public boolean add(final E e) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD, new ArrayList<E>(this.list), Arrays.asList(e), this.list.size());
+		if (!isObserved()) {
+			this.version++;
+			return this.list.add(e);
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD, this.list.size(), Collections.singletonList(e), Collections.<E>emptyList());
 		final boolean retVal = this.list.add(e);
 		fireCollectionChange(event);
 		return retVal;
@@ -79,10 +92,17 @@ public class BoundListProxy<E> implements BoundList<E> {
 
 	@Override
 	public boolean remove(final Object o) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE, new ArrayList<E>(this.list), Arrays.asList((E)o), -1);
-		final boolean retVal = this.list.remove(o);
+		if (!isObserved()) {
+			return changed(this.list.remove(o));
+		}
+		final int index = this.list.indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE, index, Collections.<E>emptyList(), Collections.singletonList(this.list.get(index)));
+		this.list.remove(index);
 		fireCollectionChange(event);
-		return retVal;
+		return true;
 	}
 
 	@Override
@@ -91,40 +111,63 @@ public class BoundListProxy<E> implements BoundList<E> {
 	}
 
 	public boolean addAll(final Collection<? extends E> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL, new ArrayList<E>(this.list), c, this.list.size());
-		final boolean retVal = this.list.addAll(c);
+		if (!isObserved()) {
+			return changed(this.list.addAll(c));
+		}
+		if (c.isEmpty()) {
+			return false;
+		}
+		final List<E> newItems = new ArrayList<E>(c);
+		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL, this.list.size(), newItems, Collections.<E>emptyList());
+		final boolean retVal = this.list.addAll(newItems);
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	public boolean addAll(final int index, final Collection<? extends E> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL_AT, new ArrayList<E>(this.list), c, this.list.size());
-		final boolean retVal = this.list.addAll(index, c);
+		if (!isObserved()) {
+			return changed(this.list.addAll(index, c));
+		}
+		if (c.isEmpty()) {
+			// still validates the index
+			return this.list.addAll(index, c);
+		}
+		final List<E> newItems = new ArrayList<E>(c);
+		final CollectionChangeEvent<E> event = checkCollectionChange("addAll", CollectionChangeEventType.ADD_ALL_AT, index, newItems, Collections.<E>emptyList());
+		final boolean retVal = this.list.addAll(index, newItems);
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	@Override
 	public boolean removeAll(final Collection<?> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("removeAll", CollectionChangeEventType.REMOVE_ALL, new ArrayList<E>(this.list), (Collection<E>)c, -1);
-		final boolean retVal = this.list.removeAll(c);
-		fireCollectionChange(event);
-		return retVal;
+		if (!isObserved()) {
+			return changed(this.list.removeAll(c));
+		}
+		return removeMatching("removeAll", CollectionChangeEventType.REMOVE_ALL, c, true);
 	}
 
 	@Override
 	public boolean retainAll(final Collection<?> c) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("retainAll", CollectionChangeEventType.RETAIN_ALL, new ArrayList<E>(this.list), (Collection<E>)c, -1);
-		final boolean retVal = this.list.retainAll(c);
-		fireCollectionChange(event);
-		return retVal;
+		if (!isObserved()) {
+			return changed(this.list.retainAll(c));
+		}
+		return removeMatching("retainAll", CollectionChangeEventType.RETAIN_ALL, c, false);
 	}
 
 	@Override
 	public void clear() {
-		final CollectionChangeEvent<E> event = checkCollectionChange("clear", CollectionChangeEventType.RETAIN_ALL, new ArrayList<E>(this.list), Collections.<E>emptyList(), -1);
-		this.list.clear();
-		fireCollectionChange(event);
+		if (!isObserved()) {
+			this.version++;
+			this.list.clear();
+			return;
+		}
+		if (!this.list.isEmpty()) {
+			final List<E> removedItems = new ArrayList<E>(this.list);
+			final CollectionChangeEvent<E> event = checkCollectionChange("clear", CollectionChangeEventType.CLEAR, 0, Collections.<E>emptyList(), removedItems);
+			this.list.clear();
+			fireCollectionChange(event);
+		}
 	}
 
 	@Override
@@ -137,27 +180,45 @@ public class BoundListProxy<E> implements BoundList<E> {
 		return this.list.hashCode();
 	}
 
+	@Override
+	public String toString() {
+		return this.list.toString();
+	}
+
 	@Override
 	public E get(final int index) {
 		return this.list.get(index);
 	}
 
 	public E set(final int index, final E element) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("set", CollectionChangeEventType.SET_AT, new ArrayList<E>(this.list), Arrays.asList(element), index);
+		if (!isObserved()) {
+			this.version++;
+			return this.list.set(index, element);
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("set", CollectionChangeEventType.SET_AT, index, Collections.singletonList(element), Collections.singletonList(this.list.get(index)));
 		final E retVal = this.list.set(index, element);
 		fireCollectionChange(event);
 		return retVal;
 	}
 
 	public void add(final int index, final E element) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD_AT, new ArrayList<E>(this.list), Arrays.asList(element), index);
+		if (!isObserved()) {
+			this.version++;
+			this.list.add(index, element);
+			return;
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("add", CollectionChangeEventType.ADD_AT, index, Collections.singletonList(element), Collections.<E>emptyList());
 		this.list.add(index, element);
 		fireCollectionChange(event);
 	}
 
 	@Override
 	public E remove(final int index) {
-		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE_AT, new ArrayList<E>(this.list), Collections.<E>emptyList(), index);
+		if (!isObserved()) {
+			this.version++;
+			return this.list.remove(index);
+		}
+		final CollectionChangeEvent<E> event = checkCollectionChange("remove", CollectionChangeEventType.REMOVE_AT, index, Collections.<E>emptyList(), Collections.singletonList(this.list.get(index)));
 		final E retVal = this.list.remove(index);
 		fireCollectionChange(event);
 		return retVal;
@@ -188,39 +249,174 @@ public class BoundListProxy<E> implements BoundList<E> {
 		return this.list.subList(fromIndex, toIndex);
 	}
 
-	protected CollectionChangeEvent<E> checkCollectionChange(final String methodName, final CollectionChangeEventType eventType, final Collection<E> oldItems, final Collection<? extends E> newItems, final int index) {
+	/**
+	 * Events are only created if somebody listens, so an unobserved
+	 * list costs no more than the list it wraps.
+	 */
+	protected boolean hasListeners() {
+		return this.vetoableCollectionChangeListeners.length > 0 || this.collectionChangeListeners.length > 0;
+	}
+
+	private boolean isObserved() {
+		// an open batch records its changes even if nobody listens yet, since listeners may be added before it ends
+		return this.batchChanges != null || hasListeners();
+	}
+
+	@Override
+	public int getModificationCount() {
+		return this.version;
+	}
+
+	/**
+	 * Called if the wrapped list has been changed directly, without
+	 * going through the proxy, e.g. when a journaled change is undone.
+	 */
+	void modifiedDirectly() {
+		this.version++;
+	}
+
+	private boolean changed(final boolean changed) {
+		if (changed) {
+			this.version++;
+		}
+		return changed;
+	}
+
+	private boolean removeMatching(final String methodName, final CollectionChangeEventType eventType, final Collection<?> c, final boolean remove) {
+		final List<E> removedItems = new ArrayList<E>();
+		int[] removedIndexes = new int[8];
+		int position = 0;
+		for (final E item : this.list) {
+			if (c.contains(item) == remove) {
+				if (removedItems.size() == removedIndexes.length) {
+					removedIndexes = Arrays.copyOf(removedIndexes, removedIndexes.length * 2);
+				}
+				removedIndexes[removedItems.size()] = position;
+				removedItems.add(item);
+			}
+			position++;
+		}
+		if (removedItems.isEmpty()) {
+			return false;
+		}
+		// removed items aren't contiguous, so the event records where each of them was
+		final CollectionChangeEvent<E> event = checkCollectionChange(methodName, eventType, -1, Collections.<E>emptyList(), removedItems, Arrays.copyOf(removedIndexes, removedItems.size()));
+		if (remove) {
+			this.list.removeAll(c);
+		} else {
+			this.list.retainAll(c);
+		}
+		fireCollectionChange(event);
+		return true;
+	}
+
+	protected CollectionChangeEvent<E> checkCollectionChange(final String methodName, final CollectionChangeEventType eventType, final int index, final Collection<? extends E> newItems, final Collection<? extends E> removedItems) {
+		return checkCollectionChange(methodName, eventType, index, newItems, removedItems, null);
+	}
+
+	protected CollectionChangeEvent<E> checkCollectionChange(final String methodName, final CollectionChangeEventType eventType, final int index, final Collection<? extends E> newItems, final Collection<? extends E> removedItems, final int[] removedIndexes) {
+		final CollectionChangeEvent<E> event = new CollectionChangeEvent<E>(
+				this,
+				methodName,
+				eventType,
+				index,
+				newItems,
+				removedItems,
+				removedIndexes
+		);
+		if (this.batchChanges != null && !this.batchChanges.isEmpty()) {
+			event.setPrevious(this.batchChanges.get(this.batchChanges.size() - 1));
+		} else {
+			event.setOldItems(new ArrayList<E>(this.list));
+		}
+		checkVeto(event);
+		return event;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void checkVeto(final CollectionChangeEvent<E> event) {
 		try {
-			final CollectionChangeEvent<E> event = new CollectionChangeEvent<E>(
-					this,
-					methodName,
-					eventType,
-					oldItems,
-					newItems,
-					index
-			);
-
-			for(final VetoableCollectionChangeListener<E> listener : this.vetoableCollectionChangeListeners) {
-				listener.vetoableCollectionChange(event);
+			for(final Object listener : this.vetoableCollectionChangeListeners) {
+				((VetoableCollectionChangeListener<E>)listener).vetoableCollectionChange(event);
 			}
-			return event;
 		} catch(final PropertyVetoException pvx) {
 			throw new RuntimeException(pvx);
 		}
 	}
 
+	@Override
+	public void beginChanges() {
+		if (this.batchDepth++ == 0) {
+			this.batchChanges = new ArrayList<CollectionChangeEvent<E>>();
+		}
+	}
+
+	@Override
+	public void commitChanges() {
+		if (this.batchDepth == 0) {
+			throw new IllegalStateException("No batch of changes has been started.");
+		}
+		if (--this.batchDepth == 0) {
+			final List<CollectionChangeEvent<E>> changes = this.batchChanges;
+			this.batchChanges = null;
+			if (!changes.isEmpty() && this.collectionChangeListeners.length > 0) {
+				fireCollectionChange(new CompoundCollectionChangeEvent<E>(this, changes));
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
 	protected void fireCollectionChange(final CollectionChangeEvent<E> event) {
-		for(final CollectionChangeListener<E> listener : this.collectionChangeListeners) {
-			listener.collectionChange(event);
+		if (!(event instanceof CompoundCollectionChangeEvent)) {
+			this.version++;
+		}
+		if (this.batchChanges != null) {
+			this.batchChanges.add(event);
+			return;
 		}
+		for(final Object listener : this.collectionChangeListeners) {
+			((CollectionChangeListener<E>)listener).collectionChange(event);
+		}
+	}
+
+	@Override
+	public synchronized void addCollectionChangeListener(final CollectionChangeListener<E> collectionChangeListener) {
+		this.collectionChangeListeners = add(this.collectionChangeListeners, collectionChangeListener);
 	}
 
 	@Override
-	public void addCollectionChangeListener(final CollectionChangeListener<E> collectionChangeListener) {
-		this.collectionChangeListeners.add(collectionChangeListener);
+	public synchronized void removeCollectionChangeListener(final CollectionChangeListener<E> collectionChangeListener) {
+		this.collectionChangeListeners = remove(this.collectionChangeListeners, collectionChangeListener);
 	}
 
 	@Override
-	public void addVetoableCollectionChangeListener(final VetoableCollectionChangeListener<E> vetoableCollectionChangeListener) {
-		this.vetoableCollectionChangeListeners.add(vetoableCollectionChangeListener);
+	public synchronized void addVetoableCollectionChangeListener(final VetoableCollectionChangeListener<E> vetoableCollectionChangeListener) {
+		this.vetoableCollectionChangeListeners = add(this.vetoableCollectionChangeListeners, vetoableCollectionChangeListener);
+	}
+
+	@Override
+	public synchronized void removeVetoableCollectionChangeListener(final VetoableCollectionChangeListener<E> vetoableCollectionChangeListener) {
+		this.vetoableCollectionChangeListeners = remove(this.vetoableCollectionChangeListeners, vetoableCollectionChangeListener);
+	}
+
+	private static Object[] add(final Object[] listeners, final Object listener) {
+		final Object[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+		newListeners[listeners.length] = listener;
+		return newListeners;
+	}
+
+	private static Object[] remove(final Object[] listeners, final Object listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener) {
+				if (listeners.length == 1) {
+					return BoundListProxy.NO_LISTENERS;
+				}
+				final Object[] newListeners = new Object[listeners.length - 1];
+				System.arraycopy(listeners, 0, newListeners, 0, i);
+				System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+				return newListeners;
+			}
+		}
+		return listeners;
 	}
 }
@@ -0,0 +1,743 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * An {@link XMLStreamReader} over an object of a class generated with
+ * "-Xstax", to pass it to XSLT, validation or any other StAX consumer
+ * without writing it to characters and parsing it again.
+ * <p>
+ * This is a convenience buffer, not a pull-based reader: the generated
+ * <tt>writeTo</tt> methods push their output, so when the first event after
+ * the start of the document is requested, one call of <tt>writeTo</tt>
+ * records the events of the whole tree, and they are then handed out one by one.
+ * The events keep the names and strings straight from the fields, without
+ * copying them, but the list of events takes memory proportional to the
+ * size of the tree until the reader is closed or no longer referenced.
+ * </p>
+ *
+ * @author agent 2026-10-19
+ */
+public final class BufferedStaxObjectReader implements XMLStreamReader {
+	private static final Location LOCATION = new Location() {
+		@Override
+		public int getLineNumber() {
+			return -1;
+		}
+
+		@Override
+		public int getColumnNumber() {
+			return -1;
+		}
+
+		@Override
+		public int getCharacterOffset() {
+			return -1;
+		}
+
+		@Override
+		public String getPublicId() {
+			return null;
+		}
+
+		@Override
+		public String getSystemId() {
+			return null;
+		}
+	};
+	private static final Event START_DOCUMENT = new Event(XMLStreamConstants.START_DOCUMENT, null);
+	private static final Event END_DOCUMENT = new Event(XMLStreamConstants.END_DOCUMENT, null);
+	private final StaxWritable object;
+	private final QName elementName;
+	private final boolean typeSubstituted;
+	private List<Event> events = null;
+	private int index = 0;
+	private Event event = BufferedStaxObjectReader.START_DOCUMENT;
+
+	/**
+	 * Creates a reader over an object of a class bound to a root element.
+	 */
+	public BufferedStaxObjectReader(final StaxWritable object) {
+		this(object, null, false);
+	}
+
+	/**
+	 * Creates a reader over an object as an element with the given name.
+	 * @param typeSubstituted Whether the class of the object differs from the declared type
+	 *                        of the element, so that its type is given as "xsi:type"
+	 */
+	public BufferedStaxObjectReader(final StaxWritable object, final QName elementName, final boolean typeSubstituted) {
+		this.object = object;
+		this.elementName = elementName;
+		this.typeSubstituted = typeSubstituted;
+	}
+
+	@Override
+	public int next() throws XMLStreamException {
+		if (this.events == null) {
+			final Recorder recorder = new Recorder();
+			if (this.elementName == null) {
+				this.object.writeTo(recorder);
+			} else {
+				this.object.writeTo(recorder, this.elementName, this.typeSubstituted);
+			}
+			recorder.writeEndDocument();
+			this.events = recorder.events;
+		}
+		if (this.index >= this.events.size()) {
+			throw new IllegalStateException("No more events after END_DOCUMENT");
+		}
+		this.event = this.events.get(this.index++);
+		return this.event.type;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.event.type != XMLStreamConstants.END_DOCUMENT;
+	}
+
+	@Override
+	public int nextTag() throws XMLStreamException {
+		int eventType = next();
+		while ((eventType == XMLStreamConstants.CHARACTERS && isWhiteSpace()) || eventType == XMLStreamConstants.COMMENT || eventType == XMLStreamConstants.PROCESSING_INSTRUCTION) {
+			eventType = next();
+		}
+		if (eventType != XMLStreamConstants.START_ELEMENT && eventType != XMLStreamConstants.END_ELEMENT) {
+			throw new XMLStreamException("Expected start or end tag", BufferedStaxObjectReader.LOCATION);
+		}
+		return eventType;
+	}
+
+	@Override
+	public String getElementText() throws XMLStreamException {
+		require(XMLStreamConstants.START_ELEMENT, null, null);
+		final StringBuilder text = new StringBuilder();
+		for (int eventType = next(); eventType != XMLStreamConstants.END_ELEMENT; eventType = next()) {
+			if (eventType == XMLStreamConstants.CHARACTERS || eventType == XMLStreamConstants.CDATA) {
+				text.append(this.event.text);
+			} else if (eventType == XMLStreamConstants.START_ELEMENT) {
+				throw new XMLStreamException("Element text must not contain elements", BufferedStaxObjectReader.LOCATION);
+			}
+		}
+		return text.toString();
+	}
+
+	@Override
+	public void require(final int type, final String namespaceURI, final String localName) throws XMLStreamException {
+		if (type != this.event.type || (namespaceURI != null && !namespaceURI.equals(getNamespaceURI())) || (localName != null && !localName.equals(getLocalName()))) {
+			throw new XMLStreamException("Expected event " + type + " " + new QName(namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI, localName == null ? "*" : localName), BufferedStaxObjectReader.LOCATION);
+		}
+	}
+
+	@Override
+	public void close() {
+		this.events = Collections.emptyList();
+		this.index = 0;
+		this.event = BufferedStaxObjectReader.END_DOCUMENT;
+	}
+
+	@Override
+	public Object getProperty(final String name) {
+		return null;
+	}
+
+	@Override
+	public int getEventType() {
+		return this.event.type;
+	}
+
+	@Override
+	public boolean isStartElement() {
+		return this.event.type == XMLStreamConstants.START_ELEMENT;
+	}
+
+	@Override
+	public boolean isEndElement() {
+		return this.event.type == XMLStreamConstants.END_ELEMENT;
+	}
+
+	@Override
+	public boolean isCharacters() {
+		return this.event.type == XMLStreamConstants.CHARACTERS;
+	}
+
+	@Override
+	public boolean isWhiteSpace() {
+		return this.event.type == XMLStreamConstants.CHARACTERS && this.event.text.trim().isEmpty();
+	}
+
+	@Override
+	public boolean hasName() {
+		return this.event.type == XMLStreamConstants.START_ELEMENT || this.event.type == XMLStreamConstants.END_ELEMENT;
+	}
+
+	@Override
+	public QName getName() {
+		return element().name;
+	}
+
+	@Override
+	public String getLocalName() {
+		return this.event.type == XMLStreamConstants.ENTITY_REFERENCE ? this.event.text : element().name.getLocalPart();
+	}
+
+	@Override
+	public String getNamespaceURI() {
+		return hasName() ? emptyToNull(this.event.name.getNamespaceURI()) : null;
+	}
+
+	@Override
+	public String getPrefix() {
+		return hasName() ? this.event.name.getPrefix() : null;
+	}
+
+	@Override
+	public String getNamespaceURI(final String prefix) {
+		return getNamespaceContext().getNamespaceURI(prefix);
+	}
+
+	@Override
+	public NamespaceContext getNamespaceContext() {
+		return this.event.scope == null ? Scope.EMPTY : this.event.scope;
+	}
+
+	@Override
+	public int getNamespaceCount() {
+		return element().namespaces.size() / 2;
+	}
+
+	@Override
+	public String getNamespacePrefix(final int index) {
+		return emptyToNull(element().namespaces.get(2 * index));
+	}
+
+	@Override
+	public String getNamespaceURI(final int index) {
+		return element().namespaces.get(2 * index + 1);
+	}
+
+	@Override
+	public int getAttributeCount() {
+		return startElement().attributes.size();
+	}
+
+	@Override
+	public QName getAttributeName(final int index) {
+		return startElement().attributes.get(index).name;
+	}
+
+	@Override
+	public String getAttributeNamespace(final int index) {
+		return emptyToNull(getAttributeName(index).getNamespaceURI());
+	}
+
+	@Override
+	public String getAttributeLocalName(final int index) {
+		return getAttributeName(index).getLocalPart();
+	}
+
+	@Override
+	public String getAttributePrefix(final int index) {
+		return getAttributeName(index).getPrefix();
+	}
+
+	@Override
+	public String getAttributeType(final int index) {
+		return "CDATA";
+	}
+
+	@Override
+	public String getAttributeValue(final int index) {
+		return startElement().attributes.get(index).text;
+	}
+
+	@Override
+	public String getAttributeValue(final String namespaceURI, final String localName) {
+		for (final Event attribute : startElement().attributes) {
+			if (attribute.name.getLocalPart().equals(localName) && (namespaceURI == null || namespaceURI.equals(attribute.name.getNamespaceURI()))) {
+				return attribute.text;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public boolean isAttributeSpecified(final int index) {
+		return true;
+	}
+
+	@Override
+	public boolean hasText() {
+		switch (this.event.type) {
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.COMMENT:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+			case XMLStreamConstants.DTD:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	@Override
+	public String getText() {
+		if (!hasText()) {
+			throw new IllegalStateException("No text at event " + this.event.type);
+		}
+		return this.event.type == XMLStreamConstants.ENTITY_REFERENCE ? null : this.event.text;
+	}
+
+	@Override
+	public char[] getTextCharacters() {
+		return getText().toCharArray();
+	}
+
+	@Override
+	public int getTextCharacters(final int sourceStart, final char[] target, final int targetStart, final int length) {
+		final String text = getText();
+		final int count = Math.max(0, Math.min(length, text.length() - sourceStart));
+		text.getChars(sourceStart, sourceStart + count, target, targetStart);
+		return count;
+	}
+
+	@Override
+	public int getTextStart() {
+		return 0;
+	}
+
+	@Override
+	public int getTextLength() {
+		return getText().length();
+	}
+
+	@Override
+	public String getPITarget() {
+		return this.event.type == XMLStreamConstants.PROCESSING_INSTRUCTION ? this.event.name.getLocalPart() : null;
+	}
+
+	@Override
+	public String getPIData() {
+		return this.event.type == XMLStreamConstants.PROCESSING_INSTRUCTION ? this.event.text : null;
+	}
+
+	@Override
+	public Location getLocation() {
+		return BufferedStaxObjectReader.LOCATION;
+	}
+
+	@Override
+	public String getEncoding() {
+		return null;
+	}
+
+	@Override
+	public String getVersion() {
+		return null;
+	}
+
+	@Override
+	public boolean isStandalone() {
+		return false;
+	}
+
+	@Override
+	public boolean standaloneSet() {
+		return false;
+	}
+
+	@Override
+	public String getCharacterEncodingScheme() {
+		return null;
+	}
+
+	private Event element() {
+		if (!hasName()) {
+			throw new IllegalStateException("No element at event " + this.event.type);
+		}
+		return this.event;
+	}
+
+	private Event startElement() {
+		if (this.event.type != XMLStreamConstants.START_ELEMENT) {
+			throw new IllegalStateException("No start tag at event " + this.event.type);
+		}
+		return this.event;
+	}
+
+	private static String emptyToNull(final String s) {
+		return s == null || s.isEmpty() ? null : s;
+	}
+
+	/**
+	 * An event, or an attribute of a start tag. Names and text
+	 * are the objects passed to the writer, without copying.
+	 */
+	private static final class Event {
+		final int type;
+		final Scope scope;
+		QName name = null;
+		String text = null;
+		List<Event> attributes = Collections.emptyList();
+		List<String> namespaces = Collections.emptyList();
+
+		Event(final int type, final Scope scope) {
+			this.type = type;
+			this.scope = scope;
+		}
+	}
+
+	/**
+	 * The namespace bindings in scope of an element.
+	 */
+	private static final class Scope implements NamespaceContext {
+		static final Scope EMPTY = new Scope(null);
+		final Scope parent;
+		final Map<String, String> bindings = new LinkedHashMap<String, String>(4);
+
+		Scope(final Scope parent) {
+			this.parent = parent;
+		}
+
+		@Override
+		public String getNamespaceURI(final String prefix) {
+			if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+				return XMLConstants.XML_NS_URI;
+			} else if (XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+				return XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+			}
+			for (Scope scope = this; scope != null; scope = scope.parent) {
+				final String namespaceURI = scope.bindings.get(prefix);
+				if (namespaceURI != null) {
+					return namespaceURI;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public String getPrefix(final String namespaceURI) {
+			final Iterator<String> prefixes = getPrefixes(namespaceURI);
+			return prefixes.hasNext() ? prefixes.next() : null;
+		}
+
+		@Override
+		public Iterator<String> getPrefixes(final String namespaceURI) {
+			final List<String> prefixes = new ArrayList<String>(1);
+			if (XMLConstants.XML_NS_URI.equals(namespaceURI)) {
+				prefixes.add(XMLConstants.XML_NS_PREFIX);
+			} else if (XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceURI)) {
+				prefixes.add(XMLConstants.XMLNS_ATTRIBUTE);
+			} else {
+				for (Scope scope = this; scope != null; scope = scope.parent) {
+					for (final Map.Entry<String, String> binding : scope.bindings.entrySet()) {
+						if (binding.getValue().equals(namespaceURI) && !prefixes.contains(binding.getKey()) && namespaceURI.equals(getNamespaceURI(binding.getKey()))) {
+							prefixes.add(binding.getKey());
+						}
+					}
+				}
+			}
+			return prefixes.iterator();
+		}
+	}
+
+	/**
+	 * Takes the calls of the generated <tt>writeTo</tt> methods as events.
+	 * A start tag is completed by the first call that is not an attribute
+	 * or a namespace declaration, as in a writer producing text.
+	 */
+	private static final class Recorder implements XMLStreamWriter {
+		final List<Event> events = new ArrayList<Event>();
+		private final List<Event> openElements = new ArrayList<Event>();
+		private Scope scope = new Scope(null);
+		private Event startElement = null;
+		private boolean empty = false;
+
+		@Override
+		public void writeStartElement(final String localName) {
+			writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, localName, null);
+		}
+
+		@Override
+		public void writeStartElement(final String namespaceURI, final String localName) throws XMLStreamException {
+			writeStartElement(prefix(namespaceURI), localName, namespaceURI);
+		}
+
+		@Override
+		public void writeStartElement(final String prefix, final String localName, final String namespaceURI) {
+			closeStartElement();
+			this.scope = new Scope(this.scope);
+			this.startElement = new Event(XMLStreamConstants.START_ELEMENT, this.scope);
+			this.startElement.name = new QName(namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI, localName, prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix);
+			this.startElement.attributes = new ArrayList<Event>(2);
+			this.startElement.namespaces = new ArrayList<String>(2);
+		}
+
+		@Override
+		public void writeEmptyElement(final String localName) {
+			writeStartElement(localName);
+			this.empty = true;
+		}
+
+		@Override
+		public void writeEmptyElement(final String namespaceURI, final String localName) throws XMLStreamException {
+			writeStartElement(namespaceURI, localName);
+			this.empty = true;
+		}
+
+		@Override
+		public void writeEmptyElement(final String prefix, final String localName, final String namespaceURI) {
+			writeStartElement(prefix, localName, namespaceURI);
+			this.empty = true;
+		}
+
+		@Override
+		public void writeEndElement() throws XMLStreamException {
+			closeStartElement();
+			if (this.openElements.isEmpty()) {
+				throw new XMLStreamException("No open element to end");
+			}
+			endElement();
+		}
+
+		@Override
+		public void writeEndDocument() throws XMLStreamException {
+			closeStartElement();
+			while (!this.openElements.isEmpty()) {
+				writeEndElement();
+			}
+			if (this.events.isEmpty() || this.events.get(this.events.size() - 1) != BufferedStaxObjectReader.END_DOCUMENT) {
+				this.events.add(BufferedStaxObjectReader.END_DOCUMENT);
+			}
+		}
+
+		@Override
+		public void writeAttribute(final String localName, final String value) throws XMLStreamException {
+			writeAttribute(XMLConstants.DEFAULT_NS_PREFIX, XMLConstants.NULL_NS_URI, localName, value);
+		}
+
+		@Override
+		public void writeAttribute(final String namespaceURI, final String localName, final String value) throws XMLStreamException {
+			writeAttribute(prefix(namespaceURI), namespaceURI, localName, value);
+		}
+
+		@Override
+		public void writeAttribute(final String prefix, final String namespaceURI, final String localName, final String value) throws XMLStreamException {
+			final Event attribute = new Event(XMLStreamConstants.ATTRIBUTE, null);
+			attribute.name = new QName(namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI, localName, prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix);
+			attribute.text = value;
+			openStartElement().attributes.add(attribute);
+		}
+
+		@Override
+		public void writeNamespace(final String prefix, final String namespaceURI) throws XMLStreamException {
+			if (prefix == null || prefix.isEmpty() || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+				writeDefaultNamespace(namespaceURI);
+			} else {
+				openStartElement().namespaces.add(prefix);
+				this.startElement.namespaces.add(namespaceURI);
+				this.scope.bindings.put(prefix, namespaceURI);
+			}
+		}
+
+		@Override
+		public void writeDefaultNamespace(final String namespaceURI) throws XMLStreamException {
+			openStartElement().namespaces.add(XMLConstants.DEFAULT_NS_PREFIX);
+			this.startElement.namespaces.add(namespaceURI);
+			this.scope.bindings.put(XMLConstants.DEFAULT_NS_PREFIX, namespaceURI);
+		}
+
+		@Override
+		public void writeComment(final String data) {
+			add(XMLStreamConstants.COMMENT, data);
+		}
+
+		@Override
+		public void writeProcessingInstruction(final String target) {
+			writeProcessingInstruction(target, null);
+		}
+
+		@Override
+		public void writeProcessingInstruction(final String target, final String data) {
+			add(XMLStreamConstants.PROCESSING_INSTRUCTION, data).name = new QName(target);
+		}
+
+		@Override
+		public void writeCData(final String data) {
+			add(XMLStreamConstants.CDATA, data);
+		}
+
+		@Override
+		public void writeDTD(final String dtd) {
+			add(XMLStreamConstants.DTD, dtd);
+		}
+
+		@Override
+		public void writeEntityRef(final String name) {
+			add(XMLStreamConstants.ENTITY_REFERENCE, name);
+		}
+
+		@Override
+		public void writeStartDocument() {
+			// the document events are added by the reader
+		}
+
+		@Override
+		public void writeStartDocument(final String version) {
+			// the document events are added by the reader
+		}
+
+		@Override
+		public void writeStartDocument(final String encoding, final String version) {
+			// the document events are added by the reader
+		}
+
+		@Override
+		public void writeCharacters(final String text) {
+			closeStartElement();
+			final Event last = this.events.isEmpty() ? null : this.events.get(this.events.size() - 1);
+			if (last != null && last.type == XMLStreamConstants.CHARACTERS) {
+				last.text = last.text.concat(text);
+			} else {
+				add(XMLStreamConstants.CHARACTERS, text);
+			}
+		}
+
+		@Override
+		public void writeCharacters(final char[] text, final int start, final int len) {
+			writeCharacters(new String(text, start, len));
+		}
+
+		@Override
+		public String getPrefix(final String namespaceURI) {
+			return this.scope.getPrefix(namespaceURI);
+		}
+
+		@Override
+		public void setPrefix(final String prefix, final String namespaceURI) {
+			this.scope.bindings.put(prefix, namespaceURI);
+		}
+
+		@Override
+		public void setDefaultNamespace(final String namespaceURI) {
+			this.scope.bindings.put(XMLConstants.DEFAULT_NS_PREFIX, namespaceURI);
+		}
+
+		@Override
+		public void setNamespaceContext(final NamespaceContext context) {
+			throw new UnsupportedOperationException("Namespace context is determined by the object tree");
+		}
+
+		@Override
+		public NamespaceContext getNamespaceContext() {
+			return this.scope;
+		}
+
+		@Override
+		public Object getProperty(final String name) {
+			throw new IllegalArgumentException("Property not supported: " + name);
+		}
+
+		@Override
+		public void flush() {
+			// nothing buffered
+		}
+
+		@Override
+		public void close() {
+			// nothing to release
+		}
+
+		private String prefix(final String namespaceURI) throws XMLStreamException {
+			final String prefix = this.scope.getPrefix(namespaceURI);
+			if (prefix == null) {
+				throw new XMLStreamException("Prefix for namespace " + namespaceURI + " has not been bound");
+			}
+			return prefix;
+		}
+
+		private Event openStartElement() throws XMLStreamException {
+			if (this.startElement == null) {
+				throw new XMLStreamException("Attributes and namespaces can only be written in a start tag");
+			}
+			return this.startElement;
+		}
+
+		private Event add(final int type, final String text) {
+			closeStartElement();
+			final Event event = new Event(type, this.scope);
+			event.text = text;
+			this.events.add(event);
+			return event;
+		}
+
+		private void endElement() {
+			final Event start = this.openElements.remove(this.openElements.size() - 1);
+			final Event end = new Event(XMLStreamConstants.END_ELEMENT, start.scope);
+			end.name = start.name;
+			end.namespaces = start.namespaces;
+			this.events.add(end);
+			this.scope = start.scope.parent;
+		}
+
+		/**
+		 * Completes the start tag. The namespace of an unprefixed element
+		 * is the default namespace declared in the tag, if any.
+		 */
+		private void closeStartElement() {
+			if (this.startElement != null) {
+				final Event start = this.startElement;
+				this.startElement = null;
+				if (start.name.getPrefix().isEmpty() && start.name.getNamespaceURI().isEmpty()) {
+					final String defaultNamespaceURI = start.scope.getNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX);
+					if (defaultNamespaceURI != null && !defaultNamespaceURI.isEmpty()) {
+						start.name = new QName(defaultNamespaceURI, start.name.getLocalPart());
+					}
+				}
+				this.events.add(start);
+				this.openElements.add(start);
+				if (this.empty) {
+					this.empty = false;
+					endElement();
+				}
+			}
+		}
+	}
+}
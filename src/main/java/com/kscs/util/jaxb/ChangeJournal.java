@@ -0,0 +1,492 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the property and collection changes made to an object tree
+ * in a ring buffer of fixed capacity, so they can be undone, redone, or
+ * replayed on a copy of the tree. Each entry only holds the changed object,
+ * the property name and the old and new value, or for collections the position,
+ * the added items and the removed items with their positions, so memory use
+ * is proportional to the size of the changes, not the size of the tree.
+ * If the buffer is full, the oldest entry is discarded.
+ * Objects removed from the tree are no longer recorded, until a change
+ * adds them again or an undo restores them.
+ * Undo, redo and replay set the values directly, so no listeners are notified.
+ *
+ * @author agent 2026-10-19
+ */
+public class ChangeJournal implements PropertyChangeListener {
+	private final Entry[] entries;
+	private int start = 0;
+	private int size = 0;
+	private int cursor = 0;
+	private int discarded = 0;
+	private boolean replaying = false;
+	private Journaled root = null;
+	private final Map<Object, Owner> owners = new IdentityHashMap<Object, Owner>();
+	private final Map<Object, Map<String, CollectionRecorder<?>>> collectionRecorders = new IdentityHashMap<Object, Map<String, CollectionRecorder<?>>>();
+
+	/**
+	 * @param capacity Maximum number of changes kept in this journal.
+	 */
+	public ChangeJournal(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Journal capacity must be at least 1, but is " + capacity);
+		}
+		this.entries = new Entry[capacity];
+	}
+
+	/**
+	 * Starts recording all changes made to the given object and the objects reachable from it.
+	 * Objects added to the tree later are included automatically.
+	 * @param root The root of the object tree.
+	 */
+	public synchronized void attach(final Journaled root) {
+		if (this.root != null) {
+			throw new IllegalStateException("Journal is already attached to " + this.root);
+		}
+		this.root = root;
+		root.attachJournal(this);
+	}
+
+	/**
+	 * Stops recording changes. The recorded entries remain available.
+	 */
+	public synchronized void detach() {
+		if (this.root != null) {
+			this.root.detachJournal(this);
+			this.root = null;
+		}
+		this.owners.clear();
+		this.collectionRecorders.clear();
+	}
+
+	/**
+	 * Called by generated code to record changes of a child object.
+	 * Values that don't implement {@link Journaled} are ignored.
+	 * @param child The child object
+	 * @param owner The object holding the child
+	 * @param propertyName The property of the owner that holds the child
+	 */
+	public synchronized void attach(final Object child, final Journaled owner, final String propertyName) {
+		attach(child, owner, propertyName, -1);
+	}
+
+	private void attach(final Object child, final Journaled owner, final String propertyName, final int index) {
+		if (child instanceof Journaled && child != this.root && this.owners.put(child, new Owner(owner, propertyName, index)) == null) {
+			((Journaled) child).attachJournal(this);
+		}
+	}
+
+	/**
+	 * Called by generated code to stop recording changes of a child object.
+	 * @param child The child object
+	 */
+	public synchronized void detach(final Object child) {
+		if (child instanceof Journaled && this.owners.remove(child) != null) {
+			((Journaled) child).detachJournal(this);
+		}
+	}
+
+	/**
+	 * Called by generated code to record changes of a collection property
+	 * and of the objects contained in it.
+	 * @param list The bound list of the collection property
+	 * @param owner The object holding the list
+	 * @param propertyName The name of the collection property
+	 * @param <E> The element type of the list
+	 */
+	public synchronized <E> void attachList(final BoundList<E> list, final Journaled owner, final String propertyName) {
+		Map<String, CollectionRecorder<?>> ownerRecorders = this.collectionRecorders.get(owner);
+		if (ownerRecorders == null) {
+			ownerRecorders = new HashMap<String, CollectionRecorder<?>>();
+			this.collectionRecorders.put(owner, ownerRecorders);
+		}
+		if (!ownerRecorders.containsKey(propertyName)) {
+			final CollectionRecorder<E> recorder = new CollectionRecorder<E>(list, owner, propertyName);
+			ownerRecorders.put(propertyName, recorder);
+			list.addCollectionChangeListener(recorder);
+			int index = 0;
+			for (final E item : list) {
+				attach(item, owner, propertyName, index++);
+			}
+		}
+	}
+
+	/**
+	 * Called by generated code to stop recording changes of a collection property.
+	 * @param list The bound list of the collection property
+	 * @param owner The object holding the list
+	 * @param propertyName The name of the collection property
+	 * @param <E> The element type of the list
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <E> void detachList(final BoundList<E> list, final Journaled owner, final String propertyName) {
+		final Map<String, CollectionRecorder<?>> ownerRecorders = this.collectionRecorders.get(owner);
+		final CollectionRecorder<?> recorder = ownerRecorders == null ? null : ownerRecorders.remove(propertyName);
+		if (recorder != null) {
+			list.removeCollectionChangeListener((CollectionRecorder<E>) recorder);
+			for (final E item : list) {
+				detach(item);
+			}
+		}
+	}
+
+	@Override
+	public synchronized void propertyChange(final PropertyChangeEvent evt) {
+		if (this.replaying || !(evt.getSource() instanceof Journaled)) {
+			return;
+		}
+		if (evt instanceof CompoundPropertyChangeEvent) {
+			for (final PropertyChangeEvent change : ((CompoundPropertyChangeEvent) evt).getChanges()) {
+				propertyChange(change);
+			}
+		} else {
+			final Journaled target = (Journaled) evt.getSource();
+			record(new Entry(target, evt.getPropertyName(), evt.getOldValue(), evt.getNewValue(), null, pathOf(target)));
+			if (evt.getOldValue() != evt.getNewValue()) {
+				detachRemoved(Collections.singletonList(evt.getOldValue()), evt.getNewValue(), target, evt.getPropertyName());
+			}
+			attach(evt.getNewValue(), target, evt.getPropertyName());
+		}
+	}
+
+	/**
+	 * @return The number of changes that can be undone.
+	 */
+	public synchronized int getUndoCount() {
+		return this.cursor;
+	}
+
+	/**
+	 * @return The number of undone changes that can be redone.
+	 */
+	public synchronized int getRedoCount() {
+		return this.size - this.cursor;
+	}
+
+	/**
+	 * @return The number of changes that have been dropped
+	 * because the journal was full.
+	 */
+	public synchronized int getDiscardedCount() {
+		return this.discarded;
+	}
+
+	/**
+	 * Reverts the most recent change that hasn't been undone yet.
+	 * @return true if a change was undone, false if there was none.
+	 */
+	public synchronized boolean undo() {
+		if (this.cursor == 0) {
+			return false;
+		}
+		final Entry entry = entryAt(--this.cursor);
+		this.replaying = true;
+		try {
+			entry.undo(entry.target);
+		} finally {
+			this.replaying = false;
+		}
+		if (entry.collectionChange == null) {
+			relink(entry.target, entry.propertyName, Collections.singletonList(entry.newValue), Collections.singletonList(entry.oldValue), -1);
+		} else {
+			relink(entry.target, entry.propertyName, entry.collectionChange.getNewItems(), entry.collectionChange.getRemovedItems(), Math.max(entry.collectionChange.getIndex(), 0));
+		}
+		return true;
+	}
+
+	/**
+	 * Applies the most recently undone change again.
+	 * @return true if a change was redone, false if there was none.
+	 */
+	public synchronized boolean redo() {
+		if (this.cursor == this.size) {
+			return false;
+		}
+		final Entry entry = entryAt(this.cursor++);
+		this.replaying = true;
+		try {
+			entry.redo(entry.target);
+		} finally {
+			this.replaying = false;
+		}
+		if (entry.collectionChange == null) {
+			relink(entry.target, entry.propertyName, Collections.singletonList(entry.oldValue), Collections.singletonList(entry.newValue), -1);
+		} else {
+			relink(entry.target, entry.propertyName, entry.collectionChange.getRemovedItems(), entry.collectionChange.getNewItems(), Math.max(entry.collectionChange.getIndex(), 0));
+		}
+		return true;
+	}
+
+	/**
+	 * Applies all changes that haven't been undone to a copy of the
+	 * object tree. The copy must be in the state the original tree was in
+	 * before the oldest change in this journal, i.e. before it was attached
+	 * if {@link #getDiscardedCount()} is 0.
+	 * Changes to objects that were no longer part of the tree are skipped.
+	 * New values are not copied, but shared between the original and the copy.
+	 * @param copy The root of the copy.
+	 */
+	public synchronized void replay(final Journaled copy) {
+		this.replaying = true;
+		try {
+			for (int i = 0; i < this.cursor; i++) {
+				final Entry entry = entryAt(i);
+				if (entry.path != null) {
+					entry.redo(resolve(copy, entry.path));
+				}
+			}
+		} finally {
+			this.replaying = false;
+		}
+	}
+
+	/**
+	 * Removes all entries from this journal.
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.entries[(this.start + i) % this.entries.length] = null;
+		}
+		this.start = 0;
+		this.size = 0;
+		this.cursor = 0;
+		this.discarded = 0;
+	}
+
+	private void record(final Entry entry) {
+		// a new change makes the undone changes obsolete
+		for (int i = this.cursor; i < this.size; i++) {
+			this.entries[(this.start + i) % this.entries.length] = null;
+		}
+		this.size = this.cursor;
+		if (this.size == this.entries.length) {
+			this.entries[this.start] = null;
+			this.start = (this.start + 1) % this.entries.length;
+			this.size--;
+			this.discarded++;
+		}
+		this.entries[(this.start + this.size) % this.entries.length] = entry;
+		this.size++;
+		this.cursor = this.size;
+	}
+
+	/**
+	 * Updates which children are recorded after an undo or redo,
+	 * and tells the list of a collection property that it has been changed.
+	 * @param from The first list position affected by the change, or -1 for single-valued properties.
+	 */
+	private void relink(final Journaled target, final String propertyName, final Collection<?> removed, final Collection<?> added, final int from) {
+		final Map<String, CollectionRecorder<?>> ownerRecorders = this.collectionRecorders.get(target);
+		final CollectionRecorder<?> recorder = ownerRecorders == null ? null : ownerRecorders.get(propertyName);
+		if (recorder != null && recorder.list instanceof BoundListProxy) {
+			((BoundListProxy<?>) recorder.list).modifiedDirectly();
+		}
+		if (this.owners.containsKey(target) || target == this.root) {
+			final Object value = target.propertyValue(propertyName);
+			detachRemoved(removed, value, target, propertyName);
+			for (final Object item : added) {
+				attach(item, target, propertyName);
+			}
+			if (from >= 0) {
+				reindex((List<?>) value, from, target, propertyName);
+			}
+		}
+	}
+
+	/**
+	 * Updates the positions of the children recorded for a list,
+	 * from the first position affected by a change to the end.
+	 */
+	private void reindex(final List<?> list, final int from, final Journaled owner, final String propertyName) {
+		for (int i = from; i < list.size(); i++) {
+			final Owner itemOwner = this.owners.get(list.get(i));
+			if (itemOwner != null && itemOwner.parent == owner && itemOwner.propertyName.equals(propertyName)) {
+				itemOwner.index = i;
+			}
+		}
+	}
+
+	/**
+	 * Stops recording the removed children that aren't held by the property any more,
+	 * unless they have been moved to another property in the meantime.
+	 */
+	private void detachRemoved(final Collection<?> removed, final Object value, final Journaled owner, final String propertyName) {
+		if (removed.isEmpty()) {
+			return;
+		}
+		final Set<Object> remaining = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		if (value instanceof List) {
+			remaining.addAll((List<?>) value);
+		} else {
+			remaining.add(value);
+		}
+		for (final Object item : removed) {
+			final Owner itemOwner = this.owners.get(item);
+			if (!remaining.contains(item) && itemOwner != null && itemOwner.parent == owner && itemOwner.propertyName.equals(propertyName)) {
+				detach(item);
+			}
+		}
+	}
+
+	private Entry entryAt(final int position) {
+		return this.entries[(this.start + position) % this.entries.length];
+	}
+
+	/**
+	 * Computes the path from the root to the given object as alternating
+	 * property names and list indexes, the index being -1 for single-valued properties.
+	 * The path must be computed when the change is recorded, since list indexes
+	 * are only valid in the state of the tree at that time. The positions of
+	 * list items are kept up to date as the lists change, so this takes time
+	 * proportional to the depth of the object, not to the size of the lists.
+	 * @return The path, or null if the object is not reachable from the root.
+	 */
+	private Object[] pathOf(final Object target) {
+		final List<Object> steps = new ArrayList<Object>();
+		Object current = target;
+		while (current != this.root) {
+			final Owner owner = this.owners.get(current);
+			if (owner == null) {
+				return null;
+			}
+			final Object value = owner.parent.propertyValue(owner.propertyName);
+			if (owner.index < 0 ? value != current : !(value instanceof List) || owner.index >= ((List<?>) value).size() || ((List<?>) value).get(owner.index) != current) {
+				return null;
+			}
+			steps.add(owner.index);
+			steps.add(owner.propertyName);
+			current = owner.parent;
+		}
+		final Object[] path = new Object[steps.size()];
+		for (int i = 0; i < path.length; i++) {
+			path[i] = steps.get(path.length - 1 - i);
+		}
+		return path;
+	}
+
+	private static Journaled resolve(final Journaled root, final Object[] path) {
+		Object current = root;
+		for (int i = 0; i < path.length; i += 2) {
+			final Object value = ((Journaled) current).propertyValue((String) path[i]);
+			final int index = (Integer) path[i + 1];
+			current = index < 0 ? value : ((List<?>) value).get(index);
+		}
+		return (Journaled) current;
+	}
+
+	private static final class Owner {
+		final Journaled parent;
+		final String propertyName;
+		// position in the list of a collection property, -1 for single-valued properties
+		int index;
+
+		Owner(final Journaled parent, final String propertyName, final int index) {
+			this.parent = parent;
+			this.propertyName = propertyName;
+			this.index = index;
+		}
+	}
+
+	private static final class Entry {
+		final Journaled target;
+		final String propertyName;
+		final Object oldValue;
+		final Object newValue;
+		final CollectionChangeEvent<Object> collectionChange;
+		final Object[] path;
+
+		Entry(final Journaled target, final String propertyName, final Object oldValue, final Object newValue, final CollectionChangeEvent<Object> collectionChange, final Object[] path) {
+			this.target = target;
+			this.propertyName = propertyName;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+			this.collectionChange = collectionChange;
+			this.path = path;
+		}
+
+		void undo(final Journaled object) {
+			if (this.collectionChange == null) {
+				object.restoreProperty(this.propertyName, this.oldValue);
+			} else {
+				this.collectionChange.undo(list(object));
+			}
+		}
+
+		void redo(final Journaled object) {
+			if (this.collectionChange == null) {
+				object.restoreProperty(this.propertyName, this.newValue);
+			} else {
+				this.collectionChange.redo(list(object));
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private List<Object> list(final Journaled object) {
+			return (List<Object>) object.propertyValue(this.propertyName);
+		}
+	}
+
+	private final class CollectionRecorder<E> implements CollectionChangeListener<E> {
+		private final BoundList<E> list;
+		private final Journaled owner;
+		private final String propertyName;
+
+		CollectionRecorder(final BoundList<E> list, final Journaled owner, final String propertyName) {
+			this.list = list;
+			this.owner = owner;
+			this.propertyName = propertyName;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void collectionChange(final CollectionChangeEvent<E> event) {
+			synchronized (ChangeJournal.this) {
+				if (!ChangeJournal.this.replaying) {
+					// the entry keeps only the delta, not the list or the events of later changes
+					record(new Entry(this.owner, this.propertyName, null, null, (CollectionChangeEvent<Object>) (CollectionChangeEvent<?>) event.detachedCopy(), pathOf(this.owner)));
+					detachRemoved(event.getRemovedItems(), this.list, this.owner, this.propertyName);
+					for (final E item : event.getNewItems()) {
+						attach(item, this.owner, this.propertyName);
+					}
+					reindex(this.list, Math.max(event.getIndex(), 0), this.owner, this.propertyName);
+				}
+			}
+		}
+	}
+}
@@ -24,19 +24,34 @@
 
 package com.kscs.util.jaxb;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 /**
- * @author klemm0 2014-03-27
+ * Describes a change to a {@link BoundList} as a delta: The position
+ * of the change, the items that were added and the items that were removed.
+ * Everything needed to undo or redo the change is captured when the event
+ * is created, so the event stays valid after the list has been changed again.
+ * The complete state of the list before the change is copied only if
+ * somebody listens to the list. Within a batch of changes, only the
+ * first change copies it, the others derive it from their predecessor.
  *
+ * @author klemm0 2014-03-27
  */
 public class CollectionChangeEvent<E> {
 	private final Collection<E> source;
 	private final String methodName;
 	private final CollectionChangeEventType eventType;
-	private final Collection<E> oldItems;
 	private final Collection<? extends E> newItems;
+	private final Collection<? extends E> removedItems;
+	private final int[] removedIndexes;
 	private final int index;
+	private Collection<E> oldItems;
+	// the preceding change of the same batch, the old items of this change are derived from it
+	private CollectionChangeEvent<E> previous = null;
 
 	public CollectionChangeEvent(final Collection<E> source, final String methodName, final CollectionChangeEventType eventType, final Collection<E> oldItems, final Collection<? extends E> newItems, final int index) {
 		this.source = source;
@@ -44,9 +59,31 @@ public class CollectionChangeEvent<E> {
 		this.eventType = eventType;
 		this.oldItems = oldItems;
 		this.newItems = newItems;
+		this.removedItems = Collections.emptyList();
+		this.removedIndexes = null;
 		this.index = index;
 	}
 
+	public CollectionChangeEvent(final Collection<E> source, final String methodName, final CollectionChangeEventType eventType, final int index, final Collection<? extends E> newItems, final Collection<? extends E> removedItems) {
+		this(source, methodName, eventType, index, newItems, removedItems, null);
+	}
+
+	/**
+	 * @param removedIndexes Positions of the removed items in the list before the change,
+	 *                       in ascending order, for changes that don't remove a contiguous range
+	 *                       (index -1), or null if the removed items were contiguous.
+	 */
+	public CollectionChangeEvent(final Collection<E> source, final String methodName, final CollectionChangeEventType eventType, final int index, final Collection<? extends E> newItems, final Collection<? extends E> removedItems, final int[] removedIndexes) {
+		this.source = source;
+		this.methodName = methodName;
+		this.eventType = eventType;
+		this.index = index;
+		this.newItems = newItems;
+		this.removedItems = removedItems;
+		this.removedIndexes = removedIndexes;
+		this.oldItems = null;
+	}
+
 	public Collection<E> getSource() {
 		return this.source;
 	}
@@ -59,15 +96,114 @@ public class CollectionChangeEvent<E> {
 		return this.eventType;
 	}
 
+	/**
+	 * Gets the state of the list before the change.
+	 * If the list was observed when the change was made, this is a copy
+	 * taken before the change. Otherwise, this is a read-only view of the list
+	 * itself, which only reflects the old state while vetoable listeners
+	 * are asked about the change.
+	 * @return The items of the list before the change.
+	 */
 	public Collection<E> getOldItems() {
+		if (this.oldItems == null) {
+			if (this.previous == null) {
+				return Collections.unmodifiableCollection(this.source);
+			}
+			final List<E> items = new ArrayList<E>(this.previous.getOldItems());
+			this.previous.redo(items);
+			this.oldItems = Collections.unmodifiableList(items);
+			this.previous = null;
+		}
 		return this.oldItems;
 	}
 
+	/**
+	 * @return The items added to the list by this change, in list order.
+	 */
 	public Collection<? extends E> getNewItems() {
 		return this.newItems;
 	}
 
+	/**
+	 * @return The items removed from the list by this change, in list order.
+	 */
+	public Collection<? extends E> getRemovedItems() {
+		return this.removedItems;
+	}
+
+	/**
+	 * @return The position in the list where items were removed and
+	 * the new items were inserted, or -1 if the change isn't contiguous.
+	 */
 	public int getIndex() {
 		return this.index;
 	}
+
+	/**
+	 * @return The positions the removed items had in the list before the change,
+	 * in ascending order, or null if the change is contiguous.
+	 */
+	public int[] getRemovedIndexes() {
+		return this.removedIndexes == null ? null : this.removedIndexes.clone();
+	}
+
+	/**
+	 * Called by the list before the change is made, if somebody listens.
+	 * @param oldItems A copy of the list before the change
+	 */
+	void setOldItems(final List<E> oldItems) {
+		this.oldItems = Collections.unmodifiableList(oldItems);
+	}
+
+	/**
+	 * Called by the list before the change is made, if the change is
+	 * part of a batch that already contains other changes.
+	 * @param previous The change made right before this one in the same batch
+	 */
+	void setPrevious(final CollectionChangeEvent<E> previous) {
+		this.previous = previous;
+	}
+
+	/**
+	 * @return An event with the same delta, but without references to the
+	 * list and to other changes, so that keeping it keeps nothing else alive.
+	 */
+	CollectionChangeEvent<E> detachedCopy() {
+		return new CollectionChangeEvent<E>(null, this.methodName, this.eventType, this.index, this.newItems, this.removedItems, this.removedIndexes);
+	}
+
+	/**
+	 * Reverts this change on the given list, which must be in the
+	 * state right after this change was applied.
+	 * @param items The list to revert
+	 */
+	void undo(final List<E> items) {
+		if (this.index >= 0) {
+			items.subList(this.index, this.index + this.newItems.size()).clear();
+			items.addAll(this.index, this.removedItems);
+		} else {
+			items.subList(items.size() - this.newItems.size(), items.size()).clear();
+			final Iterator<? extends E> removedIterator = this.removedItems.iterator();
+			for (final int removedIndex : this.removedIndexes) {
+				items.add(removedIndex, removedIterator.next());
+			}
+		}
+	}
+
+	/**
+	 * Applies this change again to the given list, which must be in the
+	 * state right before this change was applied.
+	 * @param items The list to change
+	 */
+	void redo(final List<E> items) {
+		if (this.index >= 0) {
+			items.subList(this.index, this.index + this.removedItems.size()).clear();
+			items.addAll(this.index, this.newItems);
+		} else {
+			for (int i = this.removedIndexes.length - 1; i >= 0; i--) {
+				items.remove(this.removedIndexes[i]);
+			}
+			items.addAll(this.newItems);
+		}
+	}
 }
@@ -31,14 +31,22 @@ import javax.xml.namespace.QName;
 /**
  * @author Mirko Klemm 2015-10-15
  */
-public abstract class CollectionPropertyInfo<I,P> extends PropertyInfo<I,P> {
+public class CollectionPropertyInfo<I,P> extends PropertyInfo<I,P> {
 	protected CollectionPropertyInfo(final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
 		super(propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
 	}
 
-	@Override
-	public abstract List<P> get(final I instance);
+	public CollectionPropertyInfo(final PropertyAccessor<I> accessor, final int index, final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
+		super(accessor, index, propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
+	}
 
-	public abstract void set(final I instance, final List<P> values);
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<P> get(final I instance) {
+		return (List<P>) super.get(instance);
+	}
 
+	public void set(final I instance, final List<P> values) {
+		setValue(instance, values);
+	}
 }
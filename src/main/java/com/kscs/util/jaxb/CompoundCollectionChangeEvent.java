@@ -0,0 +1,99 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregate event sent once for all changes made to a {@link BoundList}
+ * between {@link BoundList#beginChanges()} and {@link BoundList#commitChanges()}.
+ * Index, new and removed items describe the net change of the whole batch
+ * as one contiguous range: Items added and removed again within the batch
+ * don't show up, and items outside the range are the same before and after.
+ * The individual changes are available in the order they were made.
+ *
+ * @author agent 2026-10-19
+ */
+public class CompoundCollectionChangeEvent<E> extends CollectionChangeEvent<E> {
+	private final List<CollectionChangeEvent<E>> changes;
+
+	/**
+	 * @param source The list, in the state after all changes of the batch have been made
+	 * @param changes The changes of the batch, in the order they were made
+	 */
+	public CompoundCollectionChangeEvent(final List<E> source, final List<CollectionChangeEvent<E>> changes) {
+		this(source, changes, NetChange.of(source, changes));
+	}
+
+	private CompoundCollectionChangeEvent(final List<E> source, final List<CollectionChangeEvent<E>> changes, final NetChange<E> netChange) {
+		super(source, "commitChanges", CollectionChangeEventType.BATCH, netChange.index, netChange.newItems, netChange.removedItems);
+		this.changes = Collections.unmodifiableList(changes);
+	}
+
+	public List<CollectionChangeEvent<E>> getChanges() {
+		return this.changes;
+	}
+
+	/**
+	 * All changes of the batch have been made before anybody is notified,
+	 * so this is the state before the first of them.
+	 */
+	@Override
+	public Collection<E> getOldItems() {
+		return this.changes.get(0).getOldItems();
+	}
+
+	private static class NetChange<E> {
+		private final int index;
+		private final List<E> newItems;
+		private final List<E> removedItems;
+
+		private NetChange(final int index, final List<E> newItems, final List<E> removedItems) {
+			this.index = index;
+			this.newItems = newItems;
+			this.removedItems = removedItems;
+		}
+
+		private static <E> NetChange<E> of(final List<E> items, final List<CollectionChangeEvent<E>> changes) {
+			final List<E> oldItems = new ArrayList<E>(changes.get(0).getOldItems());
+			// the net change lies between the longest unchanged head and tail
+			final int maxLength = Math.min(oldItems.size(), items.size());
+			int head = 0;
+			while (head < maxLength && oldItems.get(head) == items.get(head)) {
+				head++;
+			}
+			int tail = 0;
+			while (tail < maxLength - head && oldItems.get(oldItems.size() - 1 - tail) == items.get(items.size() - 1 - tail)) {
+				tail++;
+			}
+			return new NetChange<E>(head,
+					new ArrayList<E>(items.subList(head, items.size() - tail)),
+					new ArrayList<E>(oldItems.subList(head, oldItems.size() - tail)));
+		}
+	}
+}
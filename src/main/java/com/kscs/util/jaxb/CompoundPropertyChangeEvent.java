@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyChangeEvent;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregate event sent once for all property changes made to an object
+ * between its "beginChanges()" and "commitChanges()" calls.
+ * Like any JavaBeans event covering several properties, it has
+ * no property name and no old or new value, the individual
+ * changes are available in the order they were made.
+ *
+ * @author agent 2026-10-19
+ */
+public class CompoundPropertyChangeEvent extends PropertyChangeEvent {
+	private static final long serialVersionUID = 1L;
+	private final List<PropertyChangeEvent> changes;
+
+	public CompoundPropertyChangeEvent(final Object source, final List<PropertyChangeEvent> changes) {
+		super(source, null, null, null);
+		this.changes = Collections.unmodifiableList(changes);
+	}
+
+	public List<PropertyChangeEvent> getChanges() {
+		return this.changes;
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+
+/**
+ * Collects the facet violations found by the <tt>validateFacets</tt>
+ * methods generated by "-Xfacet-validator", and keeps track of the
+ * path to the object currently checked and of the properties to check
+ * if only a part of the tree is to be validated.
+ * Not thread-safe, use a new validator for every validation.
+ *
+ * @author agent 2026-10-19
+ */
+public class FacetValidator {
+	private final List<Violation> violations = new ArrayList<Violation>();
+	private final List<String> path = new ArrayList<String>();
+	private final PropertyTreeUse propertyTreeUse;
+	private final List<PropertyTree> enclosingPropertyTrees = new ArrayList<PropertyTree>();
+	private final boolean stopAtFirstViolation;
+	private PropertyTree propertyTree;
+
+	/**
+	 * Creates a validator that checks the complete tree and collects all violations.
+	 */
+	public FacetValidator() {
+		this(null, null, false);
+	}
+
+	/**
+	 * Creates a validator that checks only a part of the tree, selected as by the
+	 * partial copy methods, e.g. the modified properties given by <tt>dirtyTree()</tt>.
+	 * @param propertyTree The properties to include or exclude, or null for all properties
+	 * @param propertyTreeUse Whether the tree denotes the properties to include or to exclude
+	 * @param stopAtFirstViolation true to skip all further checks once a violation has been found
+	 */
+	public FacetValidator(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse, final boolean stopAtFirstViolation) {
+		this.propertyTree = propertyTree;
+		this.propertyTreeUse = propertyTreeUse;
+		this.stopAtFirstViolation = stopAtFirstViolation;
+	}
+
+	/**
+	 * A value violating a facet of its schema type.
+	 */
+	public static final class Violation {
+		private final String path;
+		private final String facet;
+		private final String facetValue;
+		private final Object value;
+
+		public Violation(final String path, final String facet, final String facetValue, final Object value) {
+			this.path = path;
+			this.facet = facet;
+			this.facetValue = facetValue;
+			this.value = value;
+		}
+
+		/**
+		 * @return The property names leading from the validated object to the property, separated by dots
+		 */
+		public String getPath() {
+			return this.path;
+		}
+
+		/**
+		 * @return The name of the facet, e.g. "maxLength"
+		 */
+		public String getFacet() {
+			return this.facet;
+		}
+
+		/**
+		 * @return The value of the facet as given in the schema
+		 */
+		public String getFacetValue() {
+			return this.facetValue;
+		}
+
+		/**
+		 * @return The offending value
+		 */
+		public Object getValue() {
+			return this.value;
+		}
+
+		@Override
+		public String toString() {
+			return this.path + ": " + this.value + " violates " + this.facet + " " + this.facetValue;
+		}
+	}
+
+	/**
+	 * Validates an object held by a property of the object currently checked.
+	 * Values of {@link JAXBElement}s are validated, other objects that are
+	 * not {@link FacetValidatable} are ignored.
+	 */
+	public void validate(final Object object) {
+		if (object instanceof FacetValidatable) {
+			((FacetValidatable)object).validateFacets(this);
+		} else if (object instanceof JAXBElement<?>) {
+			validate(((JAXBElement<?>)object).getValue());
+		}
+	}
+
+	/**
+	 * @param propertyName The name of a property of the object currently checked
+	 * @return true if the property is to be checked
+	 */
+	public boolean isSelected(final String propertyName) {
+		if (this.stopAtFirstViolation && !this.violations.isEmpty()) {
+			return false;
+		} else if (this.propertyTreeUse == null) {
+			return true;
+		}
+		final PropertyTree child = this.propertyTree == null ? null : this.propertyTree.get(propertyName);
+		return this.propertyTreeUse == PropertyTreeUse.INCLUDE ? child != null : child == null || !child.isLeaf();
+	}
+
+	/**
+	 * Called before checking the objects held by a property of the object currently checked.
+	 */
+	public void enter(final String propertyName) {
+		this.path.add(propertyName);
+		if (this.propertyTreeUse != null) {
+			this.enclosingPropertyTrees.add(this.propertyTree);
+			this.propertyTree = this.propertyTree == null ? null : this.propertyTree.get(propertyName);
+		}
+	}
+
+	/**
+	 * Called after checking the objects held by a property, to return to its parent.
+	 */
+	public void leave() {
+		this.path.remove(this.path.size() - 1);
+		if (this.propertyTreeUse != null) {
+			this.propertyTree = this.enclosingPropertyTrees.remove(this.enclosingPropertyTrees.size() - 1);
+		}
+	}
+
+	/**
+	 * Reports a value of a property of the object currently checked that violates a facet.
+	 */
+	public void violation(final String propertyName, final String facet, final String facetValue, final Object value) {
+		final StringBuilder propertyPath = new StringBuilder();
+		for (final String name : this.path) {
+			propertyPath.append(name).append('.');
+		}
+		this.violations.add(new Violation(propertyPath.append(propertyName).toString(), facet, facetValue, value));
+	}
+
+	public boolean isValid() {
+		return this.violations.isEmpty();
+	}
+
+	public List<Violation> getViolations() {
+		return Collections.unmodifiableList(this.violations);
+	}
+
+	/**
+	 * @return The length of a string in characters as defined by XML Schema, counting supplementary characters once
+	 */
+	public static int length(final String value) {
+		return value.codePointCount(0, value.length());
+	}
+
+	public static int length(final byte[] value) {
+		return value.length;
+	}
+
+	/**
+	 * @return The number of digits needed to write a decimal value, including leading zeros of the fraction
+	 */
+	public static int totalDigits(final BigDecimal value) {
+		if (value.signum() == 0) {
+			return 1;
+		}
+		final BigDecimal stripped = value.stripTrailingZeros();
+		return stripped.scale() < 0 ? stripped.precision() - stripped.scale() : Math.max(stripped.precision(), stripped.scale());
+	}
+
+	public static int totalDigits(final BigInteger value) {
+		return value.signum() == 0 ? 1 : value.abs().toString().length();
+	}
+
+	public static int totalDigits(final long value) {
+		return value == Long.MIN_VALUE ? 19 : Long.toString(Math.abs(value)).length();
+	}
+
+	public static int fractionDigits(final BigDecimal value) {
+		return value.signum() == 0 ? 0 : Math.max(0, value.stripTrailingZeros().scale());
+	}
+}
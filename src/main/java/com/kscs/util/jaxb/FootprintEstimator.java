@@ -0,0 +1,246 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Estimates the memory retained by a graph of objects, by adding up
+ * approximate shallow sizes of all objects reachable from the objects added.
+ * Objects referenced more than once are counted once, shared constants
+ * like enum values, booleans and small boxed integers are not counted at all.
+ * The sizes are estimates based on the usual object layout of HotSpot JVMs,
+ * they are meant to compare and weigh objects, e.g. for cache eviction,
+ * not to account for every byte.
+ *
+ * @author agent 2026-10-19
+ */
+public class FootprintEstimator {
+	private static final boolean COMPACT_STRINGS = !System.getProperty("java.specification.version", "1.").startsWith("1.");
+	private final int objectHeaderSize;
+	private final int referenceSize;
+	private final int arrayHeaderSize;
+	private final int alignment;
+	private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+	private long size = 0;
+
+	/**
+	 * Creates an estimator for the layout of the running JVM, assuming
+	 * compressed references on 64 bit JVMs.
+	 */
+	public FootprintEstimator() {
+		this("32".equals(System.getProperty("sun.arch.data.model")) ? 8 : 12, 4, "32".equals(System.getProperty("sun.arch.data.model")) ? 12 : 16, 8);
+	}
+
+	/**
+	 * Creates an estimator for the given object layout.
+	 * @param objectHeaderSize Size of an object header in bytes
+	 * @param referenceSize Size of a reference in bytes
+	 * @param arrayHeaderSize Size of an array header including the length in bytes
+	 * @param alignment Alignment of objects in bytes
+	 */
+	public FootprintEstimator(final int objectHeaderSize, final int referenceSize, final int arrayHeaderSize, final int alignment) {
+		this.objectHeaderSize = objectHeaderSize;
+		this.referenceSize = referenceSize;
+		this.arrayHeaderSize = arrayHeaderSize;
+		this.alignment = alignment;
+	}
+
+	/**
+	 * @return The estimated size in bytes of all objects added so far
+	 */
+	public long getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Adds the retained size of the given value, unless it is null,
+	 * a shared constant, or has been added before.
+	 * @param value The value to add
+	 */
+	public void add(final Object value) {
+		if (value == null || isShared(value) || !this.visited.add(value)) {
+			return;
+		}
+		if (value instanceof Footprint) {
+			((Footprint)value).addRetainedSize(this);
+		} else if (value instanceof String) {
+			addString((String)value);
+		} else if (value instanceof Collection) {
+			addCollection((Collection<?>)value);
+		} else if (value instanceof Map) {
+			addMap((Map<?, ?>)value);
+		} else if (value instanceof JAXBElement) {
+			final JAXBElement<?> element = (JAXBElement<?>)value;
+			addObject(4, 1);
+			add(element.getName());
+			add(element.getValue());
+		} else if (value instanceof QName) {
+			final QName name = (QName)value;
+			addObject(3, 0);
+			add(name.getNamespaceURI());
+			add(name.getLocalPart());
+			add(name.getPrefix());
+		} else if (value instanceof BigInteger) {
+			addBigInteger((BigInteger)value);
+		} else if (value instanceof BigDecimal) {
+			final BigDecimal decimal = (BigDecimal)value;
+			addObject(2, 16);
+			if (decimal.unscaledValue().bitLength() > 63) {
+				addBigInteger(decimal.unscaledValue());
+			}
+		} else if (value instanceof XMLGregorianCalendar) {
+			addObject(2, 40);
+			add(((XMLGregorianCalendar)value).getFractionalSecond());
+		} else if (value instanceof Duration) {
+			addObject(6, 4);
+		} else if (value instanceof Date) {
+			addObject(1, 8);
+		} else if (value instanceof byte[]) {
+			addArray(((byte[])value).length, 1);
+		} else if (value instanceof Object[]) {
+			final Object[] array = (Object[])value;
+			addArray(array.length, this.referenceSize);
+			for (final Object item : array) {
+				add(item);
+			}
+		} else if (value instanceof Node) {
+			addNode((Node)value);
+		} else if (value instanceof Number || value instanceof Character) {
+			addObject(0, 8);
+		} else {
+			addObject(0, 0);
+		}
+	}
+
+	/**
+	 * Adds the size of an object with the given fields, without anything it references.
+	 * @param references Number of reference fields
+	 * @param primitiveBytes Total size of all primitive fields in bytes
+	 */
+	public void addObject(final int references, final int primitiveBytes) {
+		this.size += align(this.objectHeaderSize + references * this.referenceSize + primitiveBytes);
+	}
+
+	/**
+	 * Adds the size of an array, without anything it references.
+	 * @param length Number of array elements
+	 * @param elementSize Size of an array element in bytes
+	 */
+	public void addArray(final int length, final int elementSize) {
+		this.size += align(this.arrayHeaderSize + (long)length * elementSize);
+	}
+
+	private void addString(final String value) {
+		addObject(1, 8);
+		addArray(value.length(), FootprintEstimator.COMPACT_STRINGS && isLatin1(value) ? 1 : 2);
+	}
+
+	private void addCollection(final Collection<?> collection) {
+		// ArrayList layout, other collections are estimated like it
+		addObject(1, 8);
+		addArray(collection.size(), this.referenceSize);
+		for (final Object item : new ArrayList<Object>(collection)) {
+			add(item);
+		}
+	}
+
+	private void addMap(final Map<?, ?> map) {
+		// HashMap layout, with its default load factor
+		addObject(4, 16);
+		addArray(Integer.highestOneBit(Math.max(map.size() * 4 / 3, 1) * 2 - 1), this.referenceSize);
+		for (final Map.Entry<?, ?> entry : map.entrySet()) {
+			addObject(3, 4);
+			add(entry.getKey());
+			add(entry.getValue());
+		}
+	}
+
+	private void addBigInteger(final BigInteger value) {
+		addObject(1, 16);
+		addArray(value.bitLength() / 32 + 1, 4);
+	}
+
+	private void addNode(final Node node) {
+		addObject(6, 8);
+		add(node.getNodeName());
+		if (node.getNodeType() != Node.ELEMENT_NODE) {
+			add(node.getNodeValue());
+		}
+		final NamedNodeMap attributes = node.getAttributes();
+		if (attributes != null) {
+			for (int i = 0; i < attributes.getLength(); i++) {
+				add(attributes.item(i));
+			}
+		}
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			add(child);
+		}
+	}
+
+	private long align(final long size) {
+		return (size + this.alignment - 1) / this.alignment * this.alignment;
+	}
+
+	private static boolean isLatin1(final String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) > 0xFF) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Values that exist once per JVM anyway, and are not retained by the graph.
+	 */
+	private static boolean isShared(final Object value) {
+		if (value instanceof Enum || value instanceof Boolean || value instanceof Class) {
+			return true;
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof Long) {
+			final long longValue = ((Number)value).longValue();
+			return longValue >= -128 && longValue <= 127;
+		} else if (value instanceof Character) {
+			return (Character)value <= 127;
+		} else {
+			return false;
+		}
+	}
+}
@@ -32,13 +32,22 @@ import javax.xml.namespace.QName;
 /**
  * @author Mirko Klemm 2015-10-16
  */
-public abstract class IndirectCollectionPropertyInfo<I,P> extends PropertyInfo<I,P> {
+public class IndirectCollectionPropertyInfo<I,P> extends PropertyInfo<I,P> {
 	protected IndirectCollectionPropertyInfo(final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
 		super(propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
 	}
 
+	public IndirectCollectionPropertyInfo(final PropertyAccessor<I> accessor, final int index, final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
+		super(accessor, index, propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
+	}
+
 	@Override
-	public abstract List<JAXBElement<? extends P>> get(final I i) ;
+	@SuppressWarnings("unchecked")
+	public List<JAXBElement<? extends P>> get(final I instance) {
+		return (List<JAXBElement<? extends P>>) super.get(instance);
+	}
 
-	public abstract void set(final I instance, final List<JAXBElement<? extends P>> values);
+	public void set(final I instance, final List<JAXBElement<? extends P>> values) {
+		setValue(instance, values);
+	}
 }
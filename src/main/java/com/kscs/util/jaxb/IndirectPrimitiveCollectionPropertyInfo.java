@@ -8,13 +8,22 @@ import javax.xml.namespace.QName;
 /**
  * @author Mirko Klemm 2016-10-03
  */
-public abstract class IndirectPrimitiveCollectionPropertyInfo<I,P> extends PropertyInfo<I,P> {
+public class IndirectPrimitiveCollectionPropertyInfo<I,P> extends PropertyInfo<I,P> {
 	protected IndirectPrimitiveCollectionPropertyInfo(final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
-			super(propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
-		}
+		super(propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
+	}
 
-		@Override
-		public abstract List<JAXBElement<P>> get(final I i) ;
+	public IndirectPrimitiveCollectionPropertyInfo(final PropertyAccessor<I> accessor, final int index, final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
+		super(accessor, index, propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
+	}
 
-		public abstract void set(final I instance, final List<JAXBElement<P>> values);
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<JAXBElement<P>> get(final I instance) {
+		return (List<JAXBElement<P>>) super.get(instance);
+	}
+
+	public void set(final I instance, final List<JAXBElement<P>> values) {
+		setValue(instance, values);
+	}
 }
@@ -0,0 +1,62 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+/**
+ * Implemented by generated classes whose changes can be
+ * recorded in a {@link ChangeJournal}.
+ *
+ * @author agent 2026-10-19
+ */
+public interface Journaled {
+	/**
+	 * Registers the journal as listener on this object, its collections,
+	 * and all objects reachable from it.
+	 * @param journal The journal to record changes to
+	 */
+	void attachJournal(final ChangeJournal journal);
+
+	/**
+	 * Removes the journal from this object, its collections,
+	 * and all objects reachable from it.
+	 * @param journal The journal to remove
+	 */
+	void detachJournal(final ChangeJournal journal);
+
+	/**
+	 * Gets the current value of a property, without notifying any listeners.
+	 * For collection properties, this is the underlying list.
+	 * @param propertyName The name of the property
+	 * @return The value of the property, or null if there is no such property.
+	 */
+	Object propertyValue(final String propertyName);
+
+	/**
+	 * Sets a property, without notifying any listeners.
+	 * @param propertyName The name of the property
+	 * @param value The value to set
+	 */
+	void restoreProperty(final String propertyName, final Object value);
+}
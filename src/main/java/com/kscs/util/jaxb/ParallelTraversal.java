@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Processes all generated objects in an object tree on a {@link ForkJoinPool}.
+ * Lists of objects are split into halves until they are no longer than
+ * a threshold, and the children of all objects in such a chunk are gathered
+ * into one list for the next level, so that even trees with a small fan-out
+ * per object are spread over all worker threads.
+ * <p>
+ * The action is called concurrently from several threads and in no particular order.
+ * </p>
+ *
+ * @author agent 2026-10-19
+ */
+public final class ParallelTraversal {
+	public static final int DEFAULT_THRESHOLD = 32;
+
+	private ParallelTraversal() {
+	}
+
+	/**
+	 * Action applied to each object found.
+	 * @param <T> Type of the objects
+	 */
+	public interface Action<T> {
+		void apply(final T object);
+	}
+
+	/**
+	 * Applies an action to all objects of the given type in the tree below the given root.
+	 * Subtrees that cannot contain objects of the given type according to the schema are skipped.
+	 * @param pool The pool to run on
+	 * @param root The root of the tree. The action is not applied to the root itself.
+	 * @param type The type of objects to apply the action to, <tt>Object.class</tt> for all generated objects.
+	 * @param action The action to apply
+	 * @param <T> The type of objects to apply the action to
+	 */
+	public static <T> void forEach(final ForkJoinPool pool, final Traversable root, final Class<T> type, final Action<? super T> action) {
+		final List<Object> children = new ArrayList<Object>();
+		root.collectChildren(type, children);
+		forEach(pool, children, type, action, ParallelTraversal.DEFAULT_THRESHOLD);
+	}
+
+	/**
+	 * Applies an action to all objects of the given type among the given objects
+	 * and in the trees below them, e.g. the items of a large collection property.
+	 * @param pool The pool to run on
+	 * @param objects The objects to start from. The list must not be modified during the traversal.
+	 * @param type The type of objects to apply the action to, <tt>Object.class</tt> for all generated objects.
+	 * @param action The action to apply
+	 * @param threshold Maximum number of objects processed by a single task
+	 * @param <T> The type of objects to apply the action to
+	 */
+	public static <T> void forEach(final ForkJoinPool pool, final List<?> objects, final Class<T> type, final Action<? super T> action, final int threshold) {
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be at least 1, but is " + threshold);
+		}
+		if (!objects.isEmpty()) {
+			pool.invoke(new TraversalTask<T>(objects, 0, objects.size(), type, action, threshold));
+		}
+	}
+
+	private static final class TraversalTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<?> objects;
+		private final int from;
+		private final int to;
+		private final Class<T> type;
+		private final Action<? super T> action;
+		private final int threshold;
+
+		TraversalTask(final List<?> objects, final int from, final int to, final Class<T> type, final Action<? super T> action, final int threshold) {
+			this.objects = objects;
+			this.from = from;
+			this.to = to;
+			this.type = type;
+			this.action = action;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > this.threshold) {
+				final int middle = (this.from + this.to) >>> 1;
+				invokeAll(new TraversalTask<T>(this.objects, this.from, middle, this.type, this.action, this.threshold),
+						new TraversalTask<T>(this.objects, middle, this.to, this.type, this.action, this.threshold));
+			} else {
+				final List<Object> children = new ArrayList<Object>();
+				for (int i = this.from; i < this.to; i++) {
+					final Object object = this.objects.get(i);
+					if (this.type.isInstance(object)) {
+						this.action.apply(this.type.cast(object));
+					}
+					if (object instanceof Traversable) {
+						((Traversable)object).collectChildren(this.type, children);
+					}
+				}
+				if (!children.isEmpty()) {
+					new TraversalTask<T>(children, 0, children.size(), this.type, this.action, this.threshold).compute();
+				}
+			}
+		}
+	}
+}
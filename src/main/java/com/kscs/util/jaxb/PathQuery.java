@@ -0,0 +1,444 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.bind.JAXBElement;
+
+/**
+ * Path expression over an object tree with extended meta information,
+ * in a subset of XPath syntax, e.g. <code>body/div/p/@class</code>.
+ * <p>
+ * A step is a property name or "*" for all properties, prefixed with "@"
+ * to select attribute properties. Names are matched against the local XML name
+ * and the Java property name. A step can have predicates:
+ * <code>[2]</code> selects the second value of the step per parent object,
+ * <code>[path]</code> selects values for which the relative path yields anything, and
+ * <code>[path='literal']</code> selects values for which the string value of any
+ * result of the relative path equals the literal.
+ * Value predicates are applied before the position predicate.
+ * </p>
+ * <p>
+ * Each step is resolved to the {@link PropertyInfo}s it matches once per class,
+ * when the query is compiled for the statically known types, or at the first
+ * encounter of any other class. Evaluation then only calls the generated accessors,
+ * and results are produced lazily while iterating.
+ * Compiled queries are immutable and can be shared between threads.
+ * </p>
+ *
+ * @param <T> Type of the values selected
+ * @author agent 2026-10-19
+ */
+public final class PathQuery<T> {
+	private static final PropertyInfo<?, ?>[] NO_PROPERTIES = new PropertyInfo<?, ?>[0];
+	private static final Object END = new Object();
+	private final String path;
+	private final Step[] steps;
+	private final Class<T> resultType;
+
+	private PathQuery(final String path, final Step[] steps, final Class<T> resultType) {
+		this.path = path;
+		this.steps = steps;
+		this.resultType = resultType;
+	}
+
+	/**
+	 * Compiles a path expression.
+	 * @param rootType The class of the objects the query will be applied to
+	 * @param path The path expression
+	 * @param resolvers The resolvers to find the meta information of the classes in the object tree
+	 * @return The compiled query
+	 * @throws IllegalArgumentException If the path expression cannot be parsed
+	 */
+	public static PathQuery<Object> compile(final Class<?> rootType, final String path, final PropertyInfoResolver... resolvers) {
+		return compile(rootType, path, Object.class, resolvers);
+	}
+
+	/**
+	 * Compiles a path expression.
+	 * @param rootType The class of the objects the query will be applied to
+	 * @param path The path expression
+	 * @param resultType Only selected values of this type are returned, others are skipped
+	 * @param resolvers The resolvers to find the meta information of the classes in the object tree
+	 * @param <T> Type of the values selected
+	 * @return The compiled query
+	 * @throws IllegalArgumentException If the path expression cannot be parsed
+	 */
+	public static <T> PathQuery<T> compile(final Class<?> rootType, final String path, final Class<T> resultType, final PropertyInfoResolver... resolvers) {
+		final Parser parser = new Parser(path, resolvers);
+		final Step[] steps = parser.parsePath(Collections.<Class<?>>singleton(rootType));
+		if (parser.pos < path.length()) {
+			throw parser.error("unexpected character '" + path.charAt(parser.pos) + "'");
+		}
+		return new PathQuery<T>(path, steps, resultType);
+	}
+
+	/**
+	 * Applies this query to an object tree.
+	 * @param root The root object
+	 * @return The selected values in document order. They are computed
+	 * while iterating, so changes to the object tree are reflected.
+	 */
+	public Iterable<T> select(final Object root) {
+		return new Iterable<T>() {
+			@Override
+			public Iterator<T> iterator() {
+				return new ResultIterator(root);
+			}
+		};
+	}
+
+	/**
+	 * Applies this query to an object tree and returns the first value selected.
+	 * @param root The root object
+	 * @return The first value selected, or null if there is none.
+	 */
+	public T selectFirst(final Object root) {
+		final Iterator<T> iterator = select(root).iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	@Override
+	public String toString() {
+		return this.path;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object valueOf(final PropertyInfo<?, ?> propertyInfo, final Object owner) {
+		return ((PropertyInfo<Object, ?>)propertyInfo).get(owner);
+	}
+
+	private final class ResultIterator implements Iterator<T> {
+		private final Iterator<?>[] levels;
+		private int depth = 0;
+		private T next = null;
+
+		ResultIterator(final Object root) {
+			this.levels = new Iterator<?>[PathQuery.this.steps.length + 1];
+			this.levels[0] = root == null ? Collections.emptyIterator() : Collections.singleton(root).iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (this.next == null && this.depth >= 0) {
+				if (this.levels[this.depth].hasNext()) {
+					final Object value = this.levels[this.depth].next();
+					if (this.depth == PathQuery.this.steps.length) {
+						if (PathQuery.this.resultType.isInstance(value)) {
+							this.next = PathQuery.this.resultType.cast(value);
+						}
+					} else {
+						this.levels[this.depth + 1] = PathQuery.this.steps[this.depth].children(value);
+						this.depth++;
+					}
+				} else {
+					this.depth--;
+				}
+			}
+			return this.next != null;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final T result = this.next;
+			this.next = null;
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static final class Step {
+		private final String name;
+		private final boolean attribute;
+		private final PropertyInfoResolver[] resolvers;
+		private final List<Predicate> predicates = new ArrayList<Predicate>();
+		private final ConcurrentMap<Class<?>, PropertyInfo<?, ?>[]> properties = new ConcurrentHashMap<Class<?>, PropertyInfo<?, ?>[]>();
+		private int position = 0;
+
+		Step(final String name, final boolean attribute, final PropertyInfoResolver[] resolvers) {
+			this.name = name;
+			this.attribute = attribute;
+			this.resolvers = resolvers;
+		}
+
+		Set<Class<?>> resolve(final Set<Class<?>> types) {
+			final Set<Class<?>> childTypes = new LinkedHashSet<Class<?>>();
+			for (final Class<?> type : types) {
+				for (final PropertyInfo<?, ?> propertyInfo : properties(type)) {
+					childTypes.add(propertyInfo.declaredType);
+				}
+			}
+			return childTypes;
+		}
+
+		PropertyInfo<?, ?>[] properties(final Class<?> type) {
+			PropertyInfo<?, ?>[] matching = this.properties.get(type);
+			if (matching == null) {
+				final List<PropertyInfo<?, ?>> matchingList = new ArrayList<PropertyInfo<?, ?>>();
+				for (final PropertyInfo<?, ?> propertyInfo : allProperties(type)) {
+					if (matches(propertyInfo)) {
+						matchingList.add(propertyInfo);
+					}
+				}
+				matching = matchingList.isEmpty() ? PathQuery.NO_PROPERTIES : matchingList.toArray(new PropertyInfo<?, ?>[matchingList.size()]);
+				this.properties.putIfAbsent(type, matching);
+			}
+			return matching;
+		}
+
+		private PropertyInfo<?, ?>[] allProperties(final Class<?> type) {
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+				for (final PropertyInfoResolver resolver : this.resolvers) {
+					final PropertyInfo<?, ?>[] propertyInfos = resolver.getProperties(current);
+					if (propertyInfos != null) {
+						return propertyInfos;
+					}
+				}
+			}
+			return PathQuery.NO_PROPERTIES;
+		}
+
+		private boolean matches(final PropertyInfo<?, ?> propertyInfo) {
+			return propertyInfo.attribute == this.attribute
+					&& (this.name == null
+					|| this.name.equals(propertyInfo.propertyName)
+					|| (propertyInfo.schemaName != null && this.name.equals(propertyInfo.schemaName.getLocalPart())));
+		}
+
+		private boolean accepts(final Object value) {
+			for (final Predicate predicate : this.predicates) {
+				if (!predicate.accepts(value)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		Iterator<Object> children(final Object owner) {
+			final PropertyInfo<?, ?>[] propertyInfos = properties(owner.getClass());
+			return new Iterator<Object>() {
+				private int propertyIndex = 0;
+				private List<?> items = null;
+				private int itemIndex = 0;
+				private int matchCount = 0;
+				private Object next = null;
+
+				@Override
+				public boolean hasNext() {
+					while (this.next == null && (Step.this.position == 0 || this.matchCount < Step.this.position)) {
+						final Object value = nextValue();
+						if (value == PathQuery.END) {
+							return false;
+						}
+						if (accepts(value) && (Step.this.position == 0 || ++this.matchCount == Step.this.position)) {
+							this.next = value;
+						}
+					}
+					return this.next != null;
+				}
+
+				@Override
+				public Object next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					final Object result = this.next;
+					this.next = null;
+					return result;
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+
+				private Object nextValue() {
+					while (true) {
+						if (this.items != null) {
+							if (this.itemIndex < this.items.size()) {
+								Object item = this.items.get(this.itemIndex++);
+								if (item instanceof JAXBElement) {
+									item = ((JAXBElement<?>)item).getValue();
+								}
+								if (item != null) {
+									return item;
+								}
+								continue;
+							}
+							this.items = null;
+						}
+						if (this.propertyIndex >= propertyInfos.length) {
+							return PathQuery.END;
+						}
+						final PropertyInfo<?, ?> propertyInfo = propertyInfos[this.propertyIndex++];
+						final Object value = valueOf(propertyInfo, owner);
+						if (propertyInfo.collection && value instanceof List) {
+							this.items = (List<?>)value;
+							this.itemIndex = 0;
+						} else if (value != null) {
+							return value;
+						}
+					}
+				}
+			};
+		}
+	}
+
+	private static final class Predicate {
+		private final PathQuery<Object> query;
+		private final String literal;
+
+		Predicate(final PathQuery<Object> query, final String literal) {
+			this.query = query;
+			this.literal = literal;
+		}
+
+		boolean accepts(final Object value) {
+			for (final Object result : this.query.select(value)) {
+				if (this.literal == null || this.literal.equals(String.valueOf(result))) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class Parser {
+		private final String path;
+		private final PropertyInfoResolver[] resolvers;
+		private int pos = 0;
+
+		Parser(final String path, final PropertyInfoResolver[] resolvers) {
+			this.path = path;
+			this.resolvers = resolvers;
+		}
+
+		Step[] parsePath(final Set<Class<?>> types) {
+			final List<Step> steps = new ArrayList<Step>();
+			accept('/');
+			Set<Class<?>> currentTypes = types;
+			do {
+				final Step step = parseStep(currentTypes);
+				steps.add(step);
+				currentTypes = step.resolve(currentTypes);
+			} while (accept('/'));
+			return steps.toArray(new Step[steps.size()]);
+		}
+
+		private Step parseStep(final Set<Class<?>> types) {
+			final boolean attribute = accept('@');
+			final Step step = new Step(accept('*') ? null : parseName(), attribute, this.resolvers);
+			while (accept('[')) {
+				skipSpace();
+				if (this.pos < this.path.length() && Character.isDigit(this.path.charAt(this.pos))) {
+					final int start = this.pos;
+					while (this.pos < this.path.length() && Character.isDigit(this.path.charAt(this.pos))) {
+						this.pos++;
+					}
+					step.position = Integer.parseInt(this.path.substring(start, this.pos));
+					if (step.position < 1) {
+						throw error("position must be at least 1");
+					}
+				} else {
+					final int start = this.pos;
+					final Step[] predicateSteps = parsePath(step.resolve(types));
+					final String predicatePath = this.path.substring(start, this.pos).trim();
+					skipSpace();
+					String literal = null;
+					if (accept('=')) {
+						skipSpace();
+						literal = parseLiteral();
+						skipSpace();
+					}
+					step.predicates.add(new Predicate(new PathQuery<Object>(predicatePath, predicateSteps, Object.class), literal));
+				}
+				skipSpace();
+				if (!accept(']')) {
+					throw error("']' expected");
+				}
+			}
+			return step;
+		}
+
+		private String parseName() {
+			final int start = this.pos;
+			while (this.pos < this.path.length() && "/[]=@*'\" ".indexOf(this.path.charAt(this.pos)) < 0) {
+				this.pos++;
+			}
+			if (this.pos == start) {
+				throw error("name expected");
+			}
+			final String name = this.path.substring(start, this.pos);
+			return name.substring(name.indexOf(':') + 1);
+		}
+
+		private String parseLiteral() {
+			if (this.pos >= this.path.length() || (this.path.charAt(this.pos) != '\'' && this.path.charAt(this.pos) != '"')) {
+				throw error("quoted literal expected");
+			}
+			final char quote = this.path.charAt(this.pos++);
+			final int end = this.path.indexOf(quote, this.pos);
+			if (end < 0) {
+				throw error("unterminated literal");
+			}
+			final String literal = this.path.substring(this.pos, end);
+			this.pos = end + 1;
+			return literal;
+		}
+
+		private boolean accept(final char c) {
+			if (this.pos < this.path.length() && this.path.charAt(this.pos) == c) {
+				this.pos++;
+				return true;
+			}
+			return false;
+		}
+
+		private void skipSpace() {
+			while (this.pos < this.path.length() && this.path.charAt(this.pos) == ' ') {
+				this.pos++;
+			}
+		}
+
+		IllegalArgumentException error(final String reason) {
+			return new IllegalArgumentException("Invalid path expression \"" + this.path + "\" at position " + this.pos + ": " + reason);
+		}
+	}
+}
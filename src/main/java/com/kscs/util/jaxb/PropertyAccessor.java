@@ -0,0 +1,50 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+/**
+ * Reads and writes the properties of one generated class
+ * by their position in the class's meta information.
+ * One instance serves all {@link PropertyInfo}s of a class,
+ * so property access is a plain switch over the property index.
+ *
+ * @param <I> The class whose properties are accessed
+ * @author agent 2026-10-19
+ */
+public interface PropertyAccessor<I> {
+	/**
+	 * @param instance The object to read from, must not be null
+	 * @param index The index of the property, see {@link PropertyInfo#index}
+	 * @return The current value of the property
+	 */
+	Object get(final I instance, final int index);
+
+	/**
+	 * @param instance The object to change, must not be null
+	 * @param index The index of the property, see {@link PropertyInfo#index}
+	 * @param value The new value of the property
+	 */
+	void set(final I instance, final int index, final Object value);
+}
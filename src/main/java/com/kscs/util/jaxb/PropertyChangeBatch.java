@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the property changes made to an object while a batch
+ * of changes is open, so they can be sent as one {@link CompoundPropertyChangeEvent}.
+ * Batches can be nested, only committing the outermost batch ends it.
+ * Like the object it belongs to, a batch is not thread-safe and must be
+ * used by one thread at a time.
+ *
+ * @author agent 2026-10-19
+ */
+public class PropertyChangeBatch {
+	private final Object source;
+	private int depth = 0;
+	private List<PropertyChangeEvent> changes = new ArrayList<PropertyChangeEvent>();
+
+	public PropertyChangeBatch(final Object source) {
+		this.source = source;
+	}
+
+	public void begin() {
+		this.depth++;
+	}
+
+	public boolean isActive() {
+		return this.depth > 0;
+	}
+
+	public void record(final String propertyName, final Object oldValue, final Object newValue) {
+		this.changes.add(new PropertyChangeEvent(this.source, propertyName, oldValue, newValue));
+	}
+
+	/**
+	 * Ends the current batch.
+	 * @return The aggregate event for all changes in the batch,
+	 * or null if the outermost batch is still open, or nothing has changed.
+	 * @throws IllegalStateException if there is no open batch.
+	 */
+	public CompoundPropertyChangeEvent commit() {
+		if (this.depth == 0) {
+			throw new IllegalStateException("No batch of changes has been started.");
+		}
+		if (--this.depth > 0 || this.changes.isEmpty()) {
+			return null;
+		}
+		final CompoundPropertyChangeEvent event = new CompoundPropertyChangeEvent(this.source, this.changes);
+		this.changes = new ArrayList<PropertyChangeEvent>();
+		return event;
+	}
+}
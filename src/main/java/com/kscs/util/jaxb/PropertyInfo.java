@@ -37,8 +37,18 @@ public abstract class PropertyInfo<I, P> {
 	public final QName schemaType;
 	public final boolean attribute;
 	public final QName schemaName;
+	/**
+	 * Position of this property among the properties declared by {@link #declaringClass},
+	 * or -1 if this property info isn't backed by a {@link PropertyAccessor}.
+	 */
+	public final int index;
+	protected final PropertyAccessor<I> accessor;
 
 	protected PropertyInfo(final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
+		this(null, -1, propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
+	}
+
+	protected PropertyInfo(final PropertyAccessor<I> accessor, final int index, final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
 		this.propertyName = propertyName;
 		this.declaredType = declaredType;
 		this.declaringClass = declaringClass;
@@ -47,9 +57,19 @@ public abstract class PropertyInfo<I, P> {
 		this.schemaType = schemaType;
 		this.attribute = attribute;
 		this.schemaName = schemaName;
+		this.accessor = accessor;
+		this.index = index;
 	}
 
-	public abstract Object get(final I instance);
+	public Object get(final I instance) {
+		return instance == null ? null : this.accessor.get(instance, this.index);
+	}
+
+	protected void setValue(final I instance, final Object value) {
+		if (instance != null) {
+			this.accessor.set(instance, this.index, value);
+		}
+	}
 
 	@Override
 	public boolean equals(final Object o) {
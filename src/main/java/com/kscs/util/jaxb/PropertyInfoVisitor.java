@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.List;
+
+/**
+ * Visitor for the extended meta information generated by the "meta" plugin.
+ * Unlike {@link PropertyVisitor}, the callbacks get the static
+ * {@link PropertyInfo}, the owning object, and the value as separate arguments,
+ * so no wrapper object has to be created for any property or collection item visited.
+ * Single-valued properties of a primitive type are passed to the overload
+ * for that type, so their values aren't boxed either.
+ *
+ * @author agent 2026-10-19
+ */
+public interface PropertyInfoVisitor {
+	/**
+	 * Called for every object visited, before any of its properties.
+	 * @param owner The object visited
+	 */
+	void visit(final Object owner);
+
+	/**
+	 * Called for every single-valued property.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property, may be null
+	 * @return true if the value should be visited as well, if it is a generated object.
+	 */
+	boolean visit(final PropertyInfo<?, ?> info, final Object owner, final Object value);
+
+	/**
+	 * Called for every single-valued property of type {@code boolean}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final boolean value);
+
+	/**
+	 * Called for every single-valued property of type {@code byte}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final byte value);
+
+	/**
+	 * Called for every single-valued property of type {@code short}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final short value);
+
+	/**
+	 * Called for every single-valued property of type {@code int}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final int value);
+
+	/**
+	 * Called for every single-valued property of type {@code long}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final long value);
+
+	/**
+	 * Called for every single-valued property of type {@code float}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final float value);
+
+	/**
+	 * Called for every single-valued property of type {@code double}.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The value of the property
+	 */
+	void visit(final PropertyInfo<?, ?> info, final Object owner, final double value);
+
+	/**
+	 * Called for every collection property.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param values The collection, may be null
+	 * @return true if the items of the collection should be visited.
+	 */
+	boolean visit(final PropertyInfo<?, ?> info, final Object owner, final List<?> values);
+
+	/**
+	 * Called for every item of a collection property, if the call
+	 * for the whole collection returned true.
+	 * @param info The meta information of the property
+	 * @param owner The object declaring the property
+	 * @param value The item, may be null
+	 * @param index The position of the item in the collection
+	 * @return true if the item should be visited as well, if it is a generated object.
+	 */
+	boolean visit(final PropertyInfo<?, ?> info, final Object owner, final Object value, final int index);
+}
@@ -0,0 +1,115 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks on an {@link Executor}, one at a time and strictly
+ * in the order they were submitted. At most one task of this dispatcher
+ * is queued with or running on the executor at any time, so ordering
+ * holds for executors with any number of threads.
+ * The queue of pending tasks is bounded: If it is full, {@link #dispatch(Runnable)}
+ * blocks until a slot becomes free, so a slow consumer slows down the producer
+ * instead of exhausting memory.
+ *
+ * @author agent 2026-10-19
+ */
+public class SerialEventDispatcher {
+	private final Executor executor;
+	private final BlockingQueue<Runnable> queue;
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+	private final Runnable drain = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				Runnable task;
+				while ((task = SerialEventDispatcher.this.queue.poll()) != null) {
+					try {
+						task.run();
+					} catch (final RuntimeException x) {
+						final Thread thread = Thread.currentThread();
+						thread.getUncaughtExceptionHandler().uncaughtException(thread, x);
+					}
+				}
+			} finally {
+				SerialEventDispatcher.this.scheduled.set(false);
+			}
+			// a task may have been added after the queue appeared empty
+			if (!SerialEventDispatcher.this.queue.isEmpty()) {
+				schedule();
+			}
+		}
+	};
+
+	/**
+	 * @param executor Executor that runs the tasks.
+	 * @param queueCapacity Maximum number of pending tasks.
+	 */
+	public SerialEventDispatcher(final Executor executor, final int queueCapacity) {
+		this.executor = executor;
+		this.queue = new ArrayBlockingQueue<Runnable>(queueCapacity);
+	}
+
+	/**
+	 * Queues a task, blocking while the queue is full.
+	 * Must not be called from a task of this dispatcher,
+	 * since it might wait for itself if the queue is full.
+	 * @param task The task to run
+	 * @throws RejectedExecutionException if the executor doesn't accept
+	 * the task, which is then removed from the queue again.
+	 */
+	public void dispatch(final Runnable task) {
+		try {
+			this.queue.put(task);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		try {
+			schedule();
+		} catch (final RejectedExecutionException x) {
+			// if the task is gone, a drain that was just finishing has run it after all
+			if (this.queue.remove(task)) {
+				throw x;
+			}
+		}
+	}
+
+	private void schedule() {
+		if (this.scheduled.compareAndSet(false, true)) {
+			try {
+				this.executor.execute(this.drain);
+			} catch (final RejectedExecutionException x) {
+				this.scheduled.set(false);
+				throw x;
+			}
+		}
+	}
+}
@@ -31,13 +31,22 @@ import javax.xml.namespace.QName;
 /**
  * @author Mirko Klemm 2015-10-15
  */
-public abstract class SinglePropertyInfo<I,P> extends PropertyInfo<I,P> {
+public class SinglePropertyInfo<I,P> extends PropertyInfo<I,P> {
 	protected SinglePropertyInfo(final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
 		super(propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
 	}
 
+	public SinglePropertyInfo(final PropertyAccessor<I> accessor, final int index, final String propertyName, final Class<I> declaringClass, final Class<P> declaredType, final boolean collection, final P defaultValue, final QName schemaName, final QName schemaType, final boolean attribute) {
+		super(accessor, index, propertyName, declaringClass, declaredType, collection, defaultValue, schemaName, schemaType, attribute);
+	}
+
 	@Override
-	public abstract P get(final I instance);
-	public abstract void set(final I instance, final P value);
+	@SuppressWarnings("unchecked")
+	public P get(final I instance) {
+		return (P) super.get(instance);
+	}
 
+	public void set(final I instance, final P value) {
+		setValue(instance, value);
+	}
 }
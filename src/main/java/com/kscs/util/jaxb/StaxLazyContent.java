@@ -0,0 +1,112 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.io.Serializable;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * The raw XML of the elements of a lazily read property, as kept by
+ * the <tt>readFrom</tt> methods generated by "-Xstax". The elements are
+ * parsed when the property is first accessed, and written unchanged by
+ * <tt>writeTo</tt> as long as they have not been. Instances are not
+ * modified after reading has finished, so that copies of an object
+ * can share them, and they are serialized with the object holding them.
+ *
+ * @author agent 2026-10-19
+ */
+public final class StaxLazyContent implements Serializable {
+	private static final long serialVersionUID = 1L;
+	private static XMLInputFactory inputFactory = null;
+	private static XMLOutputFactory outputFactory = null;
+	private final List<String> fragments = new ArrayList<String>(1);
+
+	private StaxLazyContent() {
+	}
+
+	/**
+	 * Keeps the current element of the reader, leaving the reader at its end tag.
+	 * @param content The elements of the property kept so far, or null
+	 * @param context The context of the document being read, which no longer
+	 *                sees all IDs of the document
+	 * @return The elements of the property, including the current one
+	 */
+	public static StaxLazyContent add(final StaxLazyContent content, final XMLStreamReader reader, final StaxReadContext context) throws XMLStreamException {
+		context.markIncomplete();
+		final StaxLazyContent result = content == null ? new StaxLazyContent() : content;
+		final StringWriter stringWriter = new StringWriter();
+		final XMLStreamWriter writer = getOutputFactory().createXMLStreamWriter(stringWriter);
+		StaxSupport.copyElement(reader, writer);
+		writer.close();
+		result.fragments.add(stringWriter.toString());
+		return result;
+	}
+
+	public int size() {
+		return this.fragments.size();
+	}
+
+	/**
+	 * @return A reader positioned at the start of the element with the given index
+	 */
+	public XMLStreamReader createReader(final int index) throws XMLStreamException {
+		final XMLStreamReader reader = getInputFactory().createXMLStreamReader(new StringReader(this.fragments.get(index)));
+		StaxSupport.toStartElement(reader);
+		return reader;
+	}
+
+	/**
+	 * Writes all elements unchanged, without parsing them into objects.
+	 */
+	public void writeTo(final XMLStreamWriter writer) throws XMLStreamException {
+		for (int i = 0; i < this.fragments.size(); i++) {
+			final XMLStreamReader reader = createReader(i);
+			StaxSupport.copyElement(reader, writer);
+			reader.close();
+		}
+	}
+
+	private static synchronized XMLInputFactory getInputFactory() {
+		if (StaxLazyContent.inputFactory == null) {
+			StaxLazyContent.inputFactory = XMLInputFactory.newInstance();
+		}
+		return StaxLazyContent.inputFactory;
+	}
+
+	private static synchronized XMLOutputFactory getOutputFactory() {
+		if (StaxLazyContent.outputFactory == null) {
+			StaxLazyContent.outputFactory = XMLOutputFactory.newInstance();
+		}
+		return StaxLazyContent.outputFactory;
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+
+/**
+ * State of a single read of an object tree by the <tt>readFrom</tt> methods
+ * generated by "-Xstax": IDs seen so far and IDREFs to resolve when
+ * the whole tree has been read, the handler for unknown elements, and
+ * the properties to read if only a part of the tree is needed.
+ * Not thread-safe, use a new context for every document.
+ *
+ * @author agent 2026-10-19
+ */
+public class StaxReadContext {
+	private final Map<String, Object> ids = new HashMap<String, Object>();
+	private final List<String> pendingIds = new ArrayList<String>();
+	private final List<IdRefTarget> pendingTargets = new ArrayList<IdRefTarget>();
+	private final PropertyTreeUse propertyTreeUse;
+	private final List<PropertyTree> enclosingPropertyTrees = new ArrayList<PropertyTree>();
+	private PropertyTree propertyTree;
+	private UnknownElementHandler unknownElementHandler = null;
+	private DatatypeFactory datatypeFactory = null;
+	private Document document = null;
+	private boolean complete = true;
+
+	/**
+	 * Creates a context that reads the complete tree.
+	 */
+	public StaxReadContext() {
+		this(null, null);
+	}
+
+	/**
+	 * Creates a context that reads only a part of the tree. Elements of properties that
+	 * are not selected are skipped without looking at their content, and their objects
+	 * are never created. Properties are selected as by the partial copy methods.
+	 * IDREFs to objects that have not been read are left null.
+	 * @param propertyTree The properties to include or exclude, as built by a generated <tt>Selector</tt>
+	 * @param propertyTreeUse Whether the tree denotes the properties to include or to exclude
+	 */
+	public StaxReadContext(final PropertyTree propertyTree, final PropertyTreeUse propertyTreeUse) {
+		this.propertyTree = propertyTree;
+		this.propertyTreeUse = propertyTreeUse;
+	}
+
+	/**
+	 * Called for elements the generated code does not know.
+	 */
+	public interface UnknownElementHandler {
+		/**
+		 * @param parent The object the element occurs in
+		 * @param reader The reader, positioned at the start of the element
+		 * @return true if the handler has consumed the element up to and including its end tag,
+		 * false if the element should be skipped
+		 * @throws XMLStreamException If reading fails
+		 */
+		boolean handleElement(final Object parent, final XMLStreamReader reader) throws XMLStreamException;
+	}
+
+	/**
+	 * Receives the object referenced by an IDREF value, once it is known.
+	 */
+	public interface IdRefTarget {
+		void resolve(final Object target);
+	}
+
+	public UnknownElementHandler getUnknownElementHandler() {
+		return this.unknownElementHandler;
+	}
+
+	/**
+	 * Sets a handler to be called for elements the generated code does not know,
+	 * e.g. to log them or to collect them somewhere. Without a handler, unknown
+	 * elements are skipped without looking at their content.
+	 * @param unknownElementHandler The handler, or null to skip unknown elements
+	 */
+	public void setUnknownElementHandler(final UnknownElementHandler unknownElementHandler) {
+		this.unknownElementHandler = unknownElementHandler;
+	}
+
+	/**
+	 * Lets the handler process an unknown element, or skips it.
+	 */
+	public void unknownElement(final Object parent, final XMLStreamReader reader) throws XMLStreamException {
+		if (this.unknownElementHandler == null || !this.unknownElementHandler.handleElement(parent, reader)) {
+			StaxSupport.skipElement(reader);
+		}
+	}
+
+	/**
+	 * @param propertyName The name of a property of the object currently read
+	 * @return true if the property is to be read
+	 */
+	public boolean isSelected(final String propertyName) {
+		if (this.propertyTreeUse == null) {
+			return true;
+		}
+		final PropertyTree child = this.propertyTree == null ? null : this.propertyTree.get(propertyName);
+		return this.propertyTreeUse == PropertyTreeUse.INCLUDE ? child != null : child == null || !child.isLeaf();
+	}
+
+	/**
+	 * Called before reading an object held by a property of the object currently read.
+	 */
+	public void enter(final String propertyName) {
+		if (this.propertyTreeUse != null) {
+			this.enclosingPropertyTrees.add(this.propertyTree);
+			this.propertyTree = this.propertyTree == null ? null : this.propertyTree.get(propertyName);
+		}
+	}
+
+	/**
+	 * Called after reading an object held by a property, to return to its parent.
+	 */
+	public void leave() {
+		if (this.propertyTreeUse != null) {
+			this.propertyTree = this.enclosingPropertyTrees.remove(this.enclosingPropertyTrees.size() - 1);
+		}
+	}
+
+	public void registerId(final String id, final Object object) {
+		if (id != null) {
+			this.ids.put(id, object);
+		}
+	}
+
+	/**
+	 * Resolves an IDREF once the whole tree has been read, since it may refer forward.
+	 */
+	public void resolveLater(final String id, final IdRefTarget target) {
+		this.pendingIds.add(id);
+		this.pendingTargets.add(target);
+	}
+
+	/**
+	 * Adds the object referenced by an IDREF value to a list, at the position
+	 * of the IDREF in the document.
+	 */
+	public <T> void addLater(final String id, final List<T> list, final Class<T> type) {
+		final int index = list.size();
+		list.add(null);
+		resolveLater(id, new IdRefTarget() {
+			@Override
+			public void resolve(final Object target) {
+				list.set(index, type.cast(target));
+			}
+		});
+	}
+
+	/**
+	 * Called when elements are kept unparsed for a lazily read property,
+	 * or when such elements are parsed on their own, so that IDREFs into
+	 * or out of them cannot be resolved and are left null.
+	 */
+	public void markIncomplete() {
+		this.complete = false;
+	}
+
+	/**
+	 * Resolves all IDREFs read so far. Called by the generated <tt>readFrom</tt>
+	 * methods that create their own context.
+	 * @throws XMLStreamException If an IDREF refers to an ID that does not occur, and the complete tree is read
+	 */
+	public void resolveReferences() throws XMLStreamException {
+		for (int i = 0; i < this.pendingIds.size(); i++) {
+			final Object target = this.ids.get(this.pendingIds.get(i));
+			if (target != null) {
+				this.pendingTargets.get(i).resolve(target);
+			} else if (this.propertyTreeUse == null && this.complete) {
+				throw new XMLStreamException("Undefined ID \"" + this.pendingIds.get(i) + "\"");
+			}
+		}
+		this.pendingIds.clear();
+		this.pendingTargets.clear();
+	}
+
+	public XMLGregorianCalendar parseCalendar(final String text) throws XMLStreamException {
+		return getDatatypeFactory().newXMLGregorianCalendar(text.trim());
+	}
+
+	public Duration parseDuration(final String text) throws XMLStreamException {
+		return getDatatypeFactory().newDuration(text.trim());
+	}
+
+	/**
+	 * @return The document that owns DOM elements read from wildcard content
+	 */
+	public Document getDocument() throws XMLStreamException {
+		if (this.document == null) {
+			try {
+				final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+				documentBuilderFactory.setNamespaceAware(true);
+				this.document = documentBuilderFactory.newDocumentBuilder().newDocument();
+			} catch (final ParserConfigurationException e) {
+				throw new XMLStreamException(e);
+			}
+		}
+		return this.document;
+	}
+
+	private DatatypeFactory getDatatypeFactory() throws XMLStreamException {
+		if (this.datatypeFactory == null) {
+			try {
+				this.datatypeFactory = DatatypeFactory.newInstance();
+			} catch (final DatatypeConfigurationException e) {
+				throw new XMLStreamException(e);
+			}
+		}
+		return this.datatypeFactory;
+	}
+}
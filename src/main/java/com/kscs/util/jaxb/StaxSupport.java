@@ -0,0 +1,562 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Helper methods used by the <tt>writeTo</tt> and <tt>readFrom</tt> methods
+ * generated by "-Xstax". Namespace prefixes are declared where they are first needed.
+ *
+ * @author agent 2026-10-19
+ */
+public final class StaxSupport {
+	public static final QName XSI_TYPE = new QName(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
+	public static final QName XSI_NIL = new QName(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "nil");
+
+	private static final String[] NO_TOKENS = new String[0];
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private StaxSupport() {
+	}
+
+	public static void writeStartElement(final XMLStreamWriter writer, final QName name) throws XMLStreamException {
+		final String namespaceURI = name.getNamespaceURI();
+		if (namespaceURI.isEmpty()) {
+			writer.writeStartElement(name.getLocalPart());
+			final String defaultNamespaceURI = writer.getNamespaceContext().getNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX);
+			if (defaultNamespaceURI != null && !defaultNamespaceURI.isEmpty()) {
+				writer.writeDefaultNamespace(XMLConstants.NULL_NS_URI);
+				writer.setDefaultNamespace(XMLConstants.NULL_NS_URI);
+			}
+		} else {
+			final String prefix = writer.getPrefix(namespaceURI);
+			if (prefix == null) {
+				final String newPrefix = newPrefix(writer);
+				writer.writeStartElement(newPrefix, name.getLocalPart(), namespaceURI);
+				writer.writeNamespace(newPrefix, namespaceURI);
+				writer.setPrefix(newPrefix, namespaceURI);
+			} else {
+				writer.writeStartElement(prefix, name.getLocalPart(), namespaceURI);
+			}
+		}
+	}
+
+	public static void writeAttribute(final XMLStreamWriter writer, final QName name, final String value) throws XMLStreamException {
+		if (name.getNamespaceURI().isEmpty()) {
+			writer.writeAttribute(name.getLocalPart(), value);
+		} else {
+			writer.writeAttribute(attributePrefix(writer, name.getNamespaceURI()), name.getNamespaceURI(), name.getLocalPart(), value);
+		}
+	}
+
+	public static void writeXsiType(final XMLStreamWriter writer, final QName typeName) throws XMLStreamException {
+		if (typeName != null) {
+			writeAttribute(writer, StaxSupport.XSI_TYPE, printQName(writer, typeName));
+		}
+	}
+
+	public static void writeNilElement(final XMLStreamWriter writer, final QName name) throws XMLStreamException {
+		writeStartElement(writer, name);
+		writeAttribute(writer, StaxSupport.XSI_NIL, "true");
+		writer.writeEndElement();
+	}
+
+	public static void writeSimpleElement(final XMLStreamWriter writer, final QName name, final String text) throws XMLStreamException {
+		writeStartElement(writer, name);
+		writer.writeCharacters(text);
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Writes an item of mixed or wildcard content, or a {@link JAXBElement} of an element not known
+	 * to the generated code.
+	 */
+	public static void writeValue(final XMLStreamWriter writer, final Object value) throws XMLStreamException {
+		if (value instanceof String) {
+			writer.writeCharacters((String)value);
+		} else if (value instanceof StaxWritable) {
+			((StaxWritable)value).writeTo(writer);
+		} else if (value instanceof JAXBElement) {
+			final JAXBElement<?> element = (JAXBElement<?>)value;
+			if (element.isNil()) {
+				writeNilElement(writer, element.getName());
+			} else if (element.getValue() instanceof StaxWritable) {
+				((StaxWritable)element.getValue()).writeTo(writer, element.getName(), element.isTypeSubstituted());
+			} else {
+				writeStartElement(writer, element.getName());
+				writer.writeCharacters(printSimple(writer, element.getValue()));
+				writer.writeEndElement();
+			}
+		} else if (value instanceof Node) {
+			writeNode(writer, (Node)value);
+		} else if (value != null) {
+			writer.writeCharacters(printSimple(writer, value));
+		}
+	}
+
+	/**
+	 * Writes the value of an element of type xs:anyType, giving the type
+	 * of generated objects as "xsi:type".
+	 */
+	public static void writeAnyElement(final XMLStreamWriter writer, final QName name, final Object value) throws XMLStreamException {
+		if (value instanceof StaxWritable) {
+			((StaxWritable)value).writeTo(writer, name, true);
+		} else if (value instanceof Node) {
+			final Node node = (Node)value;
+			writeStartElement(writer, name);
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				final NamedNodeMap attributes = node.getAttributes();
+				for (int i = 0; i < attributes.getLength(); i++) {
+					writeDomAttribute(writer, (Attr)attributes.item(i));
+				}
+			}
+			for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+				writeNode(writer, child);
+			}
+			writer.writeEndElement();
+		} else {
+			writeSimpleElement(writer, name, printSimple(writer, value));
+		}
+	}
+
+	/**
+	 * Converts a value with the adapter bound to its property.
+	 */
+	public static <B> String marshal(final XMLStreamWriter writer, final XmlAdapter<?, B> adapter, final B value) throws XMLStreamException {
+		try {
+			return printSimple(writer, adapter.marshal(value));
+		} catch (final XMLStreamException e) {
+			throw e;
+		} catch (final Exception e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	/**
+	 * Converts a value of a type not known at generation time
+	 * to its lexical representation.
+	 */
+	public static String printSimple(final XMLStreamWriter writer, final Object value) throws XMLStreamException {
+		if (value instanceof String) {
+			return (String)value;
+		} else if (value instanceof Boolean) {
+			return DatatypeConverter.printBoolean((Boolean)value);
+		} else if (value instanceof Float) {
+			return DatatypeConverter.printFloat((Float)value);
+		} else if (value instanceof Double) {
+			return DatatypeConverter.printDouble((Double)value);
+		} else if (value instanceof BigDecimal) {
+			return DatatypeConverter.printDecimal((BigDecimal)value);
+		} else if (value instanceof Number || value instanceof BigInteger || value instanceof Duration) {
+			return value.toString();
+		} else if (value instanceof XMLGregorianCalendar) {
+			return ((XMLGregorianCalendar)value).toXMLFormat();
+		} else if (value instanceof QName) {
+			return printQName(writer, (QName)value);
+		} else if (value instanceof byte[]) {
+			return DatatypeConverter.printBase64Binary((byte[])value);
+		} else if (value instanceof Enum) {
+			return ((Enum<?>)value).name();
+		} else {
+			return String.valueOf(value);
+		}
+	}
+
+	/**
+	 * Converts a QName to its lexical representation, declaring
+	 * a prefix for its namespace if there is none yet.
+	 * The element the value belongs to must be started, but its content not yet written.
+	 */
+	public static String printQName(final XMLStreamWriter writer, final QName value) throws XMLStreamException {
+		if (value.getNamespaceURI().isEmpty()) {
+			return value.getLocalPart();
+		}
+		final String prefix = attributePrefix(writer, value.getNamespaceURI());
+		return prefix + ":" + value.getLocalPart();
+	}
+
+	/**
+	 * @return The ID of an object referenced by an IDREF property.
+	 */
+	public static String printId(final Object value) throws XMLStreamException {
+		if (value instanceof StaxWritable) {
+			final String id = ((StaxWritable)value).xmlId();
+			if (id != null) {
+				return id;
+			}
+		}
+		throw new XMLStreamException("Referenced object has no ID: " + value);
+	}
+
+	public static void writeNode(final XMLStreamWriter writer, final Node node) throws XMLStreamException {
+		switch (node.getNodeType()) {
+			case Node.ELEMENT_NODE:
+				writeStartElement(writer, new QName(node.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : node.getNamespaceURI(), node.getLocalName() == null ? node.getNodeName() : node.getLocalName()));
+				final NamedNodeMap attributes = node.getAttributes();
+				for (int i = 0; i < attributes.getLength(); i++) {
+					writeDomAttribute(writer, (Attr)attributes.item(i));
+				}
+				for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+					writeNode(writer, child);
+				}
+				writer.writeEndElement();
+				break;
+			case Node.TEXT_NODE:
+				writer.writeCharacters(node.getNodeValue());
+				break;
+			case Node.CDATA_SECTION_NODE:
+				writer.writeCData(node.getNodeValue());
+				break;
+			case Node.COMMENT_NODE:
+				writer.writeComment(node.getNodeValue());
+				break;
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				writer.writeProcessingInstruction(node.getNodeName(), node.getNodeValue());
+				break;
+			default:
+				for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+					writeNode(writer, child);
+				}
+		}
+	}
+
+	/**
+	 * Moves the reader from the start of a document to its root element.
+	 */
+	public static void toStartElement(final XMLStreamReader reader) throws XMLStreamException {
+		while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+			if (!reader.hasNext()) {
+				throw new XMLStreamException("No element found", reader.getLocation());
+			}
+			reader.next();
+		}
+	}
+
+	/**
+	 * @return The value of the <tt>xsi:type</tt> attribute of the current element, or null
+	 */
+	public static QName getXsiType(final XMLStreamReader reader) throws XMLStreamException {
+		final String value = reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type");
+		return value == null ? null : parseQName(reader, value);
+	}
+
+	public static boolean isNil(final XMLStreamReader reader) {
+		final String value = reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "nil");
+		return value != null && DatatypeConverter.parseBoolean(value);
+	}
+
+	/**
+	 * Moves the reader from the start of an element to its end, without looking at its content.
+	 */
+	public static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+		for (int depth = 1; depth > 0; ) {
+			final int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				depth++;
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				depth--;
+			}
+		}
+	}
+
+	/**
+	 * Reads the text content of the current element, up to its end. Child elements
+	 * are skipped, as the JAXB runtime ignores them in simple content.
+	 */
+	public static String readText(final XMLStreamReader reader) throws XMLStreamException {
+		String text = null;
+		StringBuilder builder = null;
+		for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+			switch (event) {
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					if (text == null) {
+						text = reader.getText();
+					} else {
+						if (builder == null) {
+							builder = new StringBuilder(text);
+						}
+						builder.append(reader.getText());
+					}
+					break;
+				case XMLStreamConstants.START_ELEMENT:
+					skipElement(reader);
+					break;
+				default:
+					break;
+			}
+		}
+		return builder != null ? builder.toString() : text != null ? text : "";
+	}
+
+	/**
+	 * Splits the lexical representation of a list type into its items.
+	 */
+	public static String[] splitList(final String text) {
+		final String trimmed = text.trim();
+		return trimmed.isEmpty() ? StaxSupport.NO_TOKENS : StaxSupport.WHITESPACE.split(trimmed);
+	}
+
+	/**
+	 * Adds text to mixed content, appending it to the last item
+	 * if that is text, too, as the parser may report text in several chunks.
+	 */
+	public static void addText(final List<? super String> content, final String text) {
+		final int last = content.size() - 1;
+		if (last >= 0 && content.get(last) instanceof String) {
+			content.set(last, content.get(last) + text);
+		} else {
+			content.add(text);
+		}
+	}
+
+	/**
+	 * Converts a value with the adapter bound to its property.
+	 */
+	public static <V, B> B unmarshal(final XmlAdapter<V, B> adapter, final V value) throws XMLStreamException {
+		try {
+			return adapter.unmarshal(value);
+		} catch (final Exception e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	/**
+	 * Resolves a prefixed name against the namespace declarations in scope of the current element.
+	 */
+	public static QName parseQName(final XMLStreamReader reader, final String text) throws XMLStreamException {
+		final String value = text.trim();
+		final int colon = value.indexOf(':');
+		final String prefix = colon < 0 ? XMLConstants.DEFAULT_NS_PREFIX : value.substring(0, colon);
+		final String namespaceURI = reader.getNamespaceContext().getNamespaceURI(prefix);
+		if (namespaceURI == null && colon >= 0) {
+			throw new XMLStreamException("Undeclared namespace prefix \"" + prefix + "\"", reader.getLocation());
+		}
+		return new QName(namespaceURI == null ? XMLConstants.NULL_NS_URI : namespaceURI, value.substring(colon + 1), prefix);
+	}
+
+	/**
+	 * Reads the current element with its content into a DOM element, as the JAXB
+	 * runtime does for wildcard content. Namespace declarations in scope are copied
+	 * to the element, so that it can be used on its own.
+	 */
+	public static Element readElement(final XMLStreamReader reader, final StaxReadContext context) throws XMLStreamException {
+		final String prefix = reader.getPrefix() == null ? XMLConstants.DEFAULT_NS_PREFIX : reader.getPrefix();
+		final String namespaceURI = reader.getNamespaceContext().getNamespaceURI(prefix);
+		final Element element = readDomElement(reader, context.getDocument());
+		final String declaration = prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+		if (namespaceURI != null && !element.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : prefix)) {
+			element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, declaration, namespaceURI);
+		}
+		return element;
+	}
+
+	/**
+	 * Copies the current element with its content from a reader to a writer, leaving
+	 * the reader at its end tag. Namespaces used by element and attribute names and by
+	 * <tt>xsi:type</tt> values are declared where the writer does not know them yet.
+	 */
+	public static void copyElement(final XMLStreamReader reader, final XMLStreamWriter writer) throws XMLStreamException {
+		for (int depth = 0, event = reader.getEventType(); ; event = reader.next()) {
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					copyStartElement(reader, writer);
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					writer.writeEndElement();
+					if (--depth == 0) {
+						return;
+					}
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+					writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					break;
+				case XMLStreamConstants.CDATA:
+					writer.writeCData(reader.getText());
+					break;
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					writer.writeCharacters(reader.getText());
+					break;
+				case XMLStreamConstants.COMMENT:
+					writer.writeComment(reader.getText());
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					writer.writeProcessingInstruction(reader.getPITarget(), reader.getPIData());
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	private static void copyStartElement(final XMLStreamReader reader, final XMLStreamWriter writer) throws XMLStreamException {
+		final String prefix = reader.getPrefix() == null ? XMLConstants.DEFAULT_NS_PREFIX : reader.getPrefix();
+		final String namespaceURI = reader.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : reader.getNamespaceURI();
+		// some writers bind the prefix of an element when it is started, without declaring it
+		final boolean undeclared = !isBound(writer, prefix, namespaceURI);
+		writer.writeStartElement(prefix, reader.getLocalName(), namespaceURI);
+		if (undeclared) {
+			writeNamespaceDeclaration(writer, prefix, namespaceURI);
+		}
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			declareNamespace(writer, reader.getNamespacePrefix(i) == null ? XMLConstants.DEFAULT_NS_PREFIX : reader.getNamespacePrefix(i), reader.getNamespaceURI(i) == null ? XMLConstants.NULL_NS_URI : reader.getNamespaceURI(i));
+		}
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			final String attributeNamespaceURI = reader.getAttributeNamespace(i);
+			if (attributeNamespaceURI == null || attributeNamespaceURI.isEmpty()) {
+				writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			} else {
+				final String attributePrefix = reader.getAttributePrefix(i);
+				declareNamespace(writer, attributePrefix, attributeNamespaceURI);
+				if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(attributeNamespaceURI) && "type".equals(reader.getAttributeLocalName(i))) {
+					final QName typeName = parseQName(reader, reader.getAttributeValue(i));
+					declareNamespace(writer, typeName.getPrefix(), typeName.getNamespaceURI());
+				}
+				writer.writeAttribute(attributePrefix, attributeNamespaceURI, reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+			}
+		}
+	}
+
+	private static void declareNamespace(final XMLStreamWriter writer, final String prefix, final String namespaceURI) throws XMLStreamException {
+		if (!isBound(writer, prefix, namespaceURI)) {
+			writeNamespaceDeclaration(writer, prefix, namespaceURI);
+		}
+	}
+
+	private static boolean isBound(final XMLStreamWriter writer, final String prefix, final String namespaceURI) {
+		final String boundNamespaceURI = writer.getNamespaceContext().getNamespaceURI(prefix);
+		return namespaceURI.equals(boundNamespaceURI == null ? XMLConstants.NULL_NS_URI : boundNamespaceURI);
+	}
+
+	private static void writeNamespaceDeclaration(final XMLStreamWriter writer, final String prefix, final String namespaceURI) throws XMLStreamException {
+		if (prefix.isEmpty()) {
+			writer.writeDefaultNamespace(namespaceURI);
+			writer.setDefaultNamespace(namespaceURI);
+		} else {
+			writer.writeNamespace(prefix, namespaceURI);
+			writer.setPrefix(prefix, namespaceURI);
+		}
+	}
+
+	private static Element readDomElement(final XMLStreamReader reader, final Document document) throws XMLStreamException {
+		final String prefix = reader.getPrefix();
+		final String namespaceURI = reader.getNamespaceURI();
+		final Element element = document.createElementNS(namespaceURI == null || namespaceURI.isEmpty() ? null : namespaceURI, prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName());
+		for (int i = 0; i < reader.getNamespaceCount(); i++) {
+			final String declaredPrefix = reader.getNamespacePrefix(i);
+			final String declaredNamespaceURI = reader.getNamespaceURI(i);
+			element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, declaredPrefix == null || declaredPrefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + declaredPrefix, declaredNamespaceURI == null ? XMLConstants.NULL_NS_URI : declaredNamespaceURI);
+		}
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			final String attributePrefix = reader.getAttributePrefix(i);
+			final String attributeNamespaceURI = reader.getAttributeNamespace(i);
+			element.setAttributeNS(attributeNamespaceURI == null || attributeNamespaceURI.isEmpty() ? null : attributeNamespaceURI, attributePrefix == null || attributePrefix.isEmpty() ? reader.getAttributeLocalName(i) : attributePrefix + ":" + reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+		}
+		for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+			switch (event) {
+				case XMLStreamConstants.START_ELEMENT:
+					element.appendChild(readDomElement(reader, document));
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.SPACE:
+				case XMLStreamConstants.ENTITY_REFERENCE:
+					element.appendChild(document.createTextNode(reader.getText()));
+					break;
+				case XMLStreamConstants.CDATA:
+					element.appendChild(document.createCDATASection(reader.getText()));
+					break;
+				case XMLStreamConstants.COMMENT:
+					element.appendChild(document.createComment(reader.getText()));
+					break;
+				case XMLStreamConstants.PROCESSING_INSTRUCTION:
+					element.appendChild(document.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+					break;
+				default:
+					break;
+			}
+		}
+		return element;
+	}
+
+	private static void writeDomAttribute(final XMLStreamWriter writer, final Attr attribute) throws XMLStreamException {
+		// namespace declarations are written where needed
+		if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attribute.getNamespaceURI())) {
+			writeAttribute(writer, new QName(attribute.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : attribute.getNamespaceURI(), attribute.getLocalName() == null ? attribute.getName() : attribute.getLocalName()), attribute.getValue());
+		}
+	}
+
+	/**
+	 * Attributes and QName values cannot use the default namespace,
+	 * so they always need a non-empty prefix.
+	 */
+	private static String attributePrefix(final XMLStreamWriter writer, final String namespaceURI) throws XMLStreamException {
+		final String prefix = writer.getPrefix(namespaceURI);
+		if (prefix != null && !prefix.isEmpty()) {
+			return prefix;
+		}
+		final String newPrefix = XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(namespaceURI) && writer.getNamespaceContext().getNamespaceURI("xsi") == null ? "xsi" : newPrefix(writer);
+		writer.writeNamespace(newPrefix, namespaceURI);
+		writer.setPrefix(newPrefix, namespaceURI);
+		return newPrefix;
+	}
+
+	private static String newPrefix(final XMLStreamWriter writer) {
+		final NamespaceContext namespaceContext = writer.getNamespaceContext();
+		for (int i = 1; ; i++) {
+			final String prefix = "ns" + i;
+			final String boundNamespaceURI = namespaceContext.getNamespaceURI(prefix);
+			if (boundNamespaceURI == null || boundNamespaceURI.isEmpty()) {
+				return prefix;
+			}
+		}
+	}
+}
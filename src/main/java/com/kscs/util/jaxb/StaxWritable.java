@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Implemented by classes generated with "-Xstax" to write
+ * themselves to an {@link XMLStreamWriter} without going through
+ * the reflective JAXB runtime.
+ *
+ * @author agent 2026-10-19
+ */
+public interface StaxWritable {
+	/**
+	 * Writes this object as the root element it is bound to.
+	 * @param writer The writer to write to
+	 * @throws XMLStreamException If writing fails, or the class of this object is not bound to a root element
+	 */
+	void writeTo(final XMLStreamWriter writer) throws XMLStreamException;
+
+	/**
+	 * Writes this object as an element with the given name.
+	 * @param writer The writer to write to
+	 * @param elementName The name of the element
+	 * @param typeSubstituted Whether the class of this object differs from the declared type of the element,
+	 *                        so that its type has to be given as "xsi:type"
+	 * @throws XMLStreamException If writing fails
+	 */
+	void writeTo(final XMLStreamWriter writer, final QName elementName, final boolean typeSubstituted) throws XMLStreamException;
+
+	/**
+	 * @return The value of the property of this object mapped to an xs:ID attribute or element,
+	 * or null if there is none. Used to write IDREF values referring to this object.
+	 */
+	String xmlId();
+}
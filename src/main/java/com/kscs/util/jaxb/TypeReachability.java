@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.jaxb;
+
+/**
+ * Decides, for each property of a generated class, whether objects
+ * of a given type can occur in the property value or anywhere below it.
+ * The types that can occur are computed by the "traversal" plugin from
+ * the schema; the decision for a type searched for is computed
+ * on first use and cached.
+ *
+ * @author agent 2026-10-19
+ */
+public final class TypeReachability extends ClassValue<boolean[]> {
+	private final Class<?>[][] reachableTypes;
+
+	/**
+	 * @param reachableTypes For each property, the types that can occur in or below it
+	 */
+	public TypeReachability(final Class<?>[]... reachableTypes) {
+		this.reachableTypes = reachableTypes;
+	}
+
+	/**
+	 * A property is considered to reach a type if one of its reachable types
+	 * is assignable to it, or if it is assignable to one of the reachable types,
+	 * since a property declared with a general type can hold more specific objects.
+	 */
+	@Override
+	protected boolean[] computeValue(final Class<?> type) {
+		final boolean[] reachable = new boolean[this.reachableTypes.length];
+		for (int i = 0; i < reachable.length; i++) {
+			for (final Class<?> reachableType : this.reachableTypes[i]) {
+				if (type.isAssignableFrom(reachableType) || reachableType.isAssignableFrom(type)) {
+					reachable[i] = true;
+					break;
+				}
+			}
+		}
+		return reachable;
+	}
+}
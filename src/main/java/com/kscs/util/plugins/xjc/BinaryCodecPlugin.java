@@ -0,0 +1,620 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import com.kscs.util.jaxb.BinaryCodable;
+import com.kscs.util.jaxb.BinaryDecoder;
+import com.kscs.util.jaxb.BinaryEncoder;
+import com.kscs.util.jaxb.BinaryTypes;
+import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.Aspect;
+import com.sun.tools.xjc.model.CElementInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CTypeInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.EnumConstantOutline;
+import com.sun.tools.xjc.outline.EnumOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * XJC Plugin to generate methods that write and read objects
+ * in a compact binary format, without reflection.
+ *
+ * @author agent 2026-10-19
+ */
+public class BinaryCodecPlugin extends AbstractPlugin {
+	public static final String WRITE_BINARY_METHOD_NAME = "writeBinary";
+	public static final String READ_BINARY_METHOD_NAME = "readBinary";
+	public static final String WRITE_FIELDS_METHOD_NAME = "writeBinaryFields";
+	public static final String READ_FIELDS_METHOD_NAME = "readBinaryFields";
+	public static final String WRITE_EXTERNAL_METHOD_NAME = "writeExternal";
+	public static final String READ_EXTERNAL_METHOD_NAME = "readExternal";
+	public static final String ELEMENT_NAMES_FIELD_NAME = "__ELEMENT_NAMES";
+	private static final Map<String, ValueKind> VALUE_KINDS = new HashMap<>();
+
+	static {
+		putValueKind(new ValueKind("writeString", "readString", null), String.class.getName());
+		putValueKind(new ValueKind("writeBoolean", "readBoolean", null), "boolean", Boolean.class.getName());
+		putValueKind(new ValueKind("writeInt", "readInt", null), "int", Integer.class.getName());
+		putValueKind(new ValueKind("writeInt", "readInt", "short"), "short", Short.class.getName());
+		putValueKind(new ValueKind("writeInt", "readInt", "byte"), "byte", Byte.class.getName());
+		putValueKind(new ValueKind("writeLong", "readLong", null), "long", Long.class.getName());
+		putValueKind(new ValueKind("writeFloat", "readFloat", null), "float", Float.class.getName());
+		putValueKind(new ValueKind("writeDouble", "readDouble", null), "double", Double.class.getName());
+		putValueKind(new ValueKind("writeBigInteger", "readBigInteger", null), BigInteger.class.getName());
+		putValueKind(new ValueKind("writeBigDecimal", "readBigDecimal", null), BigDecimal.class.getName());
+		putValueKind(new ValueKind("writeBytes", "readBytes", null), "byte[]");
+		putValueKind(new ValueKind("writeQName", "readQName", null), QName.class.getName());
+		putValueKind(new ValueKind("writeCalendar", "readCalendar", null), XMLGregorianCalendar.class.getName());
+		putValueKind(new ValueKind("writeDuration", "readDuration", null), Duration.class.getName());
+		putValueKind(new ValueKind("writeDate", "readDate", null), Date.class.getName());
+	}
+
+	@Opt
+	private boolean generateTools = true;
+	@Opt
+	private String codecClassName = "BinaryCodec";
+	@Opt
+	private boolean externalizable = false;
+
+	@Override
+	public String getOptionName() {
+		return "Xbinary-codec";
+	}
+
+	@Override
+	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		if (outline.getClasses().isEmpty()) {
+			return true;
+		}
+		if (this.generateTools) {
+			pluginContext.writeSourceFile(BinaryCodable.class);
+			pluginContext.writeSourceFile(BinaryTypes.class);
+			pluginContext.writeSourceFile(BinaryEncoder.class);
+			pluginContext.writeSourceFile(BinaryDecoder.class);
+		}
+		final Map<ClassOutline, Integer> typeIds = new LinkedHashMap<>();
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			if (!classOutline.implClass.isAbstract()) {
+				typeIds.put(classOutline, typeIds.size() + BinaryEncoder.FIRST_TYPE_ID);
+			}
+		}
+		JDefinedClass codecClass = null;
+		try {
+			codecClass = generateCodecClass(pluginContext, typeIds);
+		} catch (final JClassAlreadyExistsException e) {
+			errorHandler.error(new SAXParseException(getMessage("error.codecClassExists", e.getExistingClass().fullName()), outline.getModel().getLocator()));
+		}
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			new ClassCodecGenerator(pluginContext, classOutline, typeIds.get(classOutline), codecClass).generate();
+		}
+		return true;
+	}
+
+	private JDefinedClass generateCodecClass(final PluginContext pluginContext, final Map<ClassOutline, Integer> typeIds) throws JClassAlreadyExistsException {
+		final JCodeModel m = pluginContext.codeModel;
+		final ClassOutline firstClass = pluginContext.outline.getClasses().iterator().next();
+		final JDefinedClass codecClass = firstClass.implClass._package()._class(JMod.PUBLIC | JMod.FINAL, this.codecClassName);
+		codecClass._implements(BinaryTypes.class);
+		codecClass.javadoc().append(getMessage("javadoc.codecClass"));
+		final JFieldVar fingerprintField = codecClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, m.LONG, "FINGERPRINT", JExpr.lit(fingerprint(pluginContext)));
+		fingerprintField.javadoc().append(getMessage("javadoc.field.fingerprint"));
+		final JFieldVar instanceField = codecClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, codecClass, "INSTANCE", JExpr._new(codecClass));
+		codecClass.constructor(JMod.PRIVATE);
+
+		final JMethod fingerprintMethod = codecClass.method(JMod.PUBLIC, m.LONG, "fingerprint");
+		fingerprintMethod.annotate(Override.class);
+		fingerprintMethod.body()._return(fingerprintField);
+
+		final JMethod createMethod = codecClass.method(JMod.PUBLIC, BinaryCodable.class, "create");
+		createMethod.annotate(Override.class);
+		final JVar typeIdParam = createMethod.param(JMod.FINAL, m.INT, "typeId");
+		final JSwitch typeSwitch = createMethod.body()._switch(typeIdParam);
+		for (final Map.Entry<ClassOutline, Integer> entry : typeIds.entrySet()) {
+			typeSwitch._case(JExpr.lit(entry.getValue())).body()._return(JExpr._new(entry.getKey().implClass));
+		}
+		typeSwitch._default().body()._return(JExpr._null());
+
+		final JMethod encodeMethod = codecClass.method(JMod.PUBLIC | JMod.STATIC, pluginContext.voidType, "encode");
+		encodeMethod.javadoc().append(getMessage("javadoc.method.encode"));
+		encodeMethod._throws(IOException.class);
+		final JVar objectParam = encodeMethod.param(JMod.FINAL, BinaryCodable.class, "object");
+		final JVar outParam = encodeMethod.param(JMod.FINAL, OutputStream.class, "out");
+		final JVar encoderVar = encodeMethod.body().decl(JMod.FINAL, m.ref(BinaryEncoder.class), "encoder", JExpr._new(m.ref(BinaryEncoder.class)).arg(outParam));
+		encodeMethod.body().invoke(encoderVar, "writeFixedLong").arg(fingerprintField);
+		encodeMethod.body().invoke(encoderVar, "writeObject").arg(objectParam);
+		encodeMethod.body().invoke(encoderVar, "flush");
+
+		final JMethod decodeMethod = codecClass.method(JMod.PUBLIC | JMod.STATIC, BinaryCodable.class, "decode");
+		decodeMethod.javadoc().append(getMessage("javadoc.method.decode"));
+		decodeMethod._throws(IOException.class);
+		final JVar inParam = decodeMethod.param(JMod.FINAL, InputStream.class, "in");
+		final JVar decoderVar = decodeMethod.body().decl(JMod.FINAL, m.ref(BinaryDecoder.class), "decoder", JExpr._new(m.ref(BinaryDecoder.class)).arg(inParam).arg(instanceField));
+		final JVar fingerprintVar = decodeMethod.body().decl(JMod.FINAL, m.LONG, "fingerprint", decoderVar.invoke("readFixedLong"));
+		decodeMethod.body()._if(fingerprintVar.ne(fingerprintField))._then()._throw(JExpr._new(m.ref(IOException.class)).arg(JExpr.lit("Data was written for a different schema version, fingerprint ").plus(fingerprintVar)));
+		decodeMethod.body()._return(decoderVar.invoke("readObject"));
+		return codecClass;
+	}
+
+	/**
+	 * Computes a 64 bit FNV-1a hash over everything in the model that
+	 * determines the binary format, so that data written by classes
+	 * generated from a different schema version is rejected.
+	 */
+	private static long fingerprint(final PluginContext pluginContext) {
+		final StringBuilder model = new StringBuilder();
+		for (final ClassOutline classOutline : pluginContext.outline.getClasses()) {
+			model.append(classOutline.implClass.fullName()).append(classOutline.implClass.isAbstract() ? "!" : "").append('<').append(classOutline.implClass._extends().fullName()).append('{');
+			for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+				final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+				if (field != null) {
+					model.append(field.name()).append(':').append(field.type().fullName()).append(';');
+				}
+			}
+			model.append('}');
+		}
+		for (final EnumOutline enumOutline : pluginContext.outline.getEnums()) {
+			model.append(enumOutline.clazz.fullName()).append('{');
+			for (final EnumConstantOutline constantOutline : enumOutline.constants) {
+				model.append(constantOutline.target.getName()).append(';');
+			}
+			model.append('}');
+		}
+		long hash = 0xcbf29ce484222325L;
+		for (final byte b : model.toString().getBytes(Charset.forName("UTF-8"))) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static void putValueKind(final ValueKind valueKind, final String... typeNames) {
+		for (final String typeName : typeNames) {
+			BinaryCodecPlugin.VALUE_KINDS.put(typeName, valueKind);
+		}
+	}
+
+	/**
+	 * Encoder and decoder methods for a value type.
+	 */
+	private static class ValueKind {
+		final String writeMethod;
+		final String readMethod;
+		final String castType;
+
+		ValueKind(final String writeMethod, final String readMethod, final String castType) {
+			this.writeMethod = writeMethod;
+			this.readMethod = readMethod;
+			this.castType = castType;
+		}
+	}
+
+	/**
+	 * An element that can occur as a {@link JAXBElement} in a property.
+	 */
+	private static class ElementModel {
+		final int nameIndex;
+		final JClass contentType;
+		final JExpression scope;
+
+		ElementModel(final int nameIndex, final JClass contentType, final JExpression scope) {
+			this.nameIndex = nameIndex;
+			this.contentType = contentType;
+			this.scope = scope;
+		}
+	}
+
+	/**
+	 * Generates the codec methods of a single class.
+	 */
+	private class ClassCodecGenerator {
+		private final PluginContext pluginContext;
+		private final JCodeModel m;
+		private final ClassOutline classOutline;
+		private final Integer typeId;
+		private final JDefinedClass codecClass;
+		private final List<FieldOutline> fieldOutlines = new ArrayList<>();
+		private final Map<FieldOutline, List<ElementModel>> elementModels = new HashMap<>();
+		private final List<QName> elementNames = new ArrayList<>();
+		private JArray elementNamesInit = null;
+		private boolean uncheckedCasts = false;
+
+		ClassCodecGenerator(final PluginContext pluginContext, final ClassOutline classOutline, final Integer typeId, final JDefinedClass codecClass) {
+			this.pluginContext = pluginContext;
+			this.m = pluginContext.codeModel;
+			this.classOutline = classOutline;
+			this.typeId = typeId;
+			this.codecClass = codecClass;
+			for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+				if (PluginUtil.getDeclaredField(fieldOutline) != null) {
+					this.fieldOutlines.add(fieldOutline);
+				}
+			}
+		}
+
+		void generate() {
+			final JDefinedClass implClass = this.classOutline.implClass;
+			if (this.classOutline.getSuperClass() == null) {
+				implClass._implements(BinaryCodable.class);
+				final JMethod readBinaryMethod = implClass.method(JMod.PUBLIC, this.pluginContext.voidType, BinaryCodecPlugin.READ_BINARY_METHOD_NAME);
+				readBinaryMethod.annotate(Override.class);
+				readBinaryMethod._throws(IOException.class);
+				final JVar decoderParam = readBinaryMethod.param(JMod.FINAL, BinaryDecoder.class, "decoder");
+				readBinaryMethod.body().invoke(BinaryCodecPlugin.READ_FIELDS_METHOD_NAME).arg(decoderParam);
+				if (BinaryCodecPlugin.this.externalizable && this.codecClass != null) {
+					generateExternalizableMethods();
+				}
+			}
+			if (this.typeId != null) {
+				final JMethod writeBinaryMethod = implClass.method(JMod.PUBLIC, this.pluginContext.voidType, BinaryCodecPlugin.WRITE_BINARY_METHOD_NAME);
+				writeBinaryMethod.annotate(Override.class);
+				writeBinaryMethod._throws(IOException.class);
+				final JVar encoderParam = writeBinaryMethod.param(JMod.FINAL, BinaryEncoder.class, "encoder");
+				writeBinaryMethod.body().invoke(encoderParam, "writeVarInt").arg(JExpr.lit(this.typeId));
+				writeBinaryMethod.body().invoke(BinaryCodecPlugin.WRITE_FIELDS_METHOD_NAME).arg(encoderParam);
+			}
+			if (this.fieldOutlines.isEmpty() && this.classOutline.getSuperClass() != null) {
+				return;
+			}
+			generateWriteFieldsMethod();
+			generateReadFieldsMethod();
+		}
+
+		/**
+		 * Java serialization of externalizable objects writes only the class descriptor
+		 * and whatever "writeExternal" writes, so the fields are written in the binary format.
+		 * The object itself is registered first, so that references back to it
+		 * are written as such, like Java serialization would do.
+		 */
+		private void generateExternalizableMethods() {
+			final JDefinedClass implClass = this.classOutline.implClass;
+			implClass._implements(Externalizable.class);
+			final JMethod writeExternalMethod = implClass.method(JMod.PUBLIC, this.pluginContext.voidType, BinaryCodecPlugin.WRITE_EXTERNAL_METHOD_NAME);
+			writeExternalMethod.annotate(Override.class);
+			writeExternalMethod._throws(IOException.class);
+			final JVar outParam = writeExternalMethod.param(JMod.FINAL, ObjectOutput.class, "out");
+			final JVar encoderVar = writeExternalMethod.body().decl(JMod.FINAL, this.m.ref(BinaryEncoder.class), "encoder", this.m.ref(BinaryEncoder.class).staticInvoke("forObjectOutput").arg(outParam));
+			writeExternalMethod.body().invoke(encoderVar, "registerObject").arg(JExpr._this());
+			writeExternalMethod.body().invoke(BinaryCodecPlugin.WRITE_FIELDS_METHOD_NAME).arg(encoderVar);
+			writeExternalMethod.body().invoke(encoderVar, "flush");
+
+			final JMethod readExternalMethod = implClass.method(JMod.PUBLIC, this.pluginContext.voidType, BinaryCodecPlugin.READ_EXTERNAL_METHOD_NAME);
+			readExternalMethod.annotate(Override.class);
+			readExternalMethod._throws(IOException.class);
+			final JVar inParam = readExternalMethod.param(JMod.FINAL, ObjectInput.class, "in");
+			final JVar decoderVar = readExternalMethod.body().decl(JMod.FINAL, this.m.ref(BinaryDecoder.class), "decoder", this.m.ref(BinaryDecoder.class).staticInvoke("forObjectInput").arg(inParam).arg(this.codecClass.staticRef("INSTANCE")));
+			readExternalMethod.body().invoke(decoderVar, "registerObject").arg(JExpr._this());
+			readExternalMethod.body().invoke(BinaryCodecPlugin.READ_FIELDS_METHOD_NAME).arg(decoderVar);
+		}
+
+		private void generateWriteFieldsMethod() {
+			final JMethod writeFieldsMethod = this.classOutline.implClass.method(JMod.PROTECTED, this.pluginContext.voidType, BinaryCodecPlugin.WRITE_FIELDS_METHOD_NAME);
+			writeFieldsMethod._throws(IOException.class);
+			final JVar encoderParam = writeFieldsMethod.param(JMod.FINAL, BinaryEncoder.class, "encoder");
+			final JBlock body = writeFieldsMethod.body();
+			if (this.classOutline.getSuperClass() != null) {
+				writeFieldsMethod.annotate(Override.class);
+				body.invoke(JExpr._super(), BinaryCodecPlugin.WRITE_FIELDS_METHOD_NAME).arg(encoderParam);
+			}
+			// one bit per nullable property tells whether a value follows
+			JExpression presence = null;
+			int bit = 0;
+			for (final FieldOutline fieldOutline : this.fieldOutlines) {
+				final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+				if (!field.type().isPrimitive()) {
+					final JExpression flag = JOp.cond(JExpr._this().ref(field).ne(JExpr._null()), JExpr.lit(1L << bit), JExpr.lit(0L));
+					presence = presence == null ? flag : presence.bor(flag);
+					if (++bit == 64) {
+						body.invoke(encoderParam, "writeVarLong").arg(presence);
+						presence = null;
+						bit = 0;
+					}
+				}
+			}
+			if (presence != null) {
+				body.invoke(encoderParam, "writeVarLong").arg(presence);
+			}
+			for (final FieldOutline fieldOutline : this.fieldOutlines) {
+				generateWriteField(body, encoderParam, fieldOutline);
+			}
+		}
+
+		private void generateReadFieldsMethod() {
+			final JMethod readFieldsMethod = this.classOutline.implClass.method(JMod.PROTECTED, this.pluginContext.voidType, BinaryCodecPlugin.READ_FIELDS_METHOD_NAME);
+			readFieldsMethod._throws(IOException.class);
+			final JVar decoderParam = readFieldsMethod.param(JMod.FINAL, BinaryDecoder.class, "decoder");
+			final JBlock body = readFieldsMethod.body();
+			if (this.classOutline.getSuperClass() != null) {
+				readFieldsMethod.annotate(Override.class);
+				body.invoke(JExpr._super(), BinaryCodecPlugin.READ_FIELDS_METHOD_NAME).arg(decoderParam);
+			}
+			final List<JVar> presenceVars = new ArrayList<>();
+			int nullableCount = 0;
+			for (final FieldOutline fieldOutline : this.fieldOutlines) {
+				if (!PluginUtil.getDeclaredField(fieldOutline).type().isPrimitive()) {
+					if (nullableCount % 64 == 0) {
+						presenceVars.add(body.decl(JMod.FINAL, this.m.LONG, "presence" + presenceVars.size(), decoderParam.invoke("readVarLong")));
+					}
+					nullableCount++;
+				}
+			}
+			int nullableIndex = 0;
+			for (final FieldOutline fieldOutline : this.fieldOutlines) {
+				final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+				final JFieldRef fieldRef = JExpr._this().ref(field);
+				if (field.type().isPrimitive()) {
+					body.assign(fieldRef, generateReadItem(body, decoderParam, fieldOutline, field.type()));
+				} else {
+					final JVar presenceVar = presenceVars.get(nullableIndex / 64);
+					final JConditional ifPresent = body._if(presenceVar.band(JExpr.lit(1L << (nullableIndex % 64))).ne(JExpr.lit(0L)));
+					generateReadField(ifPresent._then(), decoderParam, fieldOutline, field);
+					ifPresent._else().assign(fieldRef, JExpr._null());
+					nullableIndex++;
+				}
+			}
+			if (this.uncheckedCasts) {
+				readFieldsMethod.annotate(SuppressWarnings.class).param("value", "unchecked");
+			}
+		}
+
+		private void generateWriteField(final JBlock body, final JVar encoderParam, final FieldOutline fieldOutline) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			final JFieldRef fieldRef = JExpr._this().ref(field);
+			if (field.type().isPrimitive()) {
+				generateWriteItem(body, encoderParam, fieldOutline, field.type(), fieldRef);
+				return;
+			}
+			final JBlock block = body._if(fieldRef.ne(JExpr._null()))._then();
+			if (fieldOutline.getPropertyInfo().isCollection()) {
+				final JType itemType = itemType(field);
+				block.invoke(encoderParam, "writeVarInt").arg(field.type().isArray() ? fieldRef.ref("length") : fieldRef.invoke("size"));
+				final JForEach forEach = block.forEach(itemType, "item", fieldRef);
+				generateWriteItem(forEach.body(), encoderParam, fieldOutline, itemType, forEach.var());
+			} else {
+				generateWriteItem(block, encoderParam, fieldOutline, field.type(), fieldRef);
+			}
+		}
+
+		private void generateReadField(final JBlock block, final JVar decoderParam, final FieldOutline fieldOutline, final JFieldVar field) {
+			final JFieldRef fieldRef = JExpr._this().ref(field);
+			if (fieldOutline.getPropertyInfo().isCollection()) {
+				final JType itemType = itemType(field);
+				final JVar countVar = block.decl(JMod.FINAL, this.m.INT, "count", decoderParam.invoke("readVarInt"));
+				final JVar itemsVar;
+				if (field.type().isArray()) {
+					itemsVar = block.decl(JMod.FINAL, field.type(), "items", JExpr.newArray(itemType, countVar));
+				} else {
+					final JClass arrayListType = this.pluginContext.arrayListClass.narrow(itemType);
+					itemsVar = block.decl(JMod.FINAL, arrayListType, "items", JExpr._new(arrayListType).arg(countVar));
+				}
+				final JForLoop forLoop = block._for();
+				final JVar indexVar = forLoop.init(this.m.INT, "i", JExpr.lit(0));
+				forLoop.test(indexVar.lt(countVar));
+				forLoop.update(indexVar.incr());
+				final JExpression item = generateReadItem(forLoop.body(), decoderParam, fieldOutline, itemType);
+				if (field.type().isArray()) {
+					forLoop.body().assign(JExpr.component(itemsVar, indexVar), item);
+				} else {
+					forLoop.body().add(itemsVar.invoke("add").arg(item));
+				}
+				block.assign(fieldRef, itemsVar);
+			} else {
+				block.assign(fieldRef, generateReadItem(block, decoderParam, fieldOutline, field.type()));
+			}
+		}
+
+		/**
+		 * Properties that can hold {@link JAXBElement}s of known elements write a selector
+		 * before each value: 0 for any other value, 2i+1 for a value of element i,
+		 * and 2i+2 for a nil element i.
+		 */
+		private void generateWriteItem(final JBlock block, final JVar encoderParam, final FieldOutline fieldOutline, final JType itemType, final JExpression value) {
+			final List<ElementModel> elementModels = elementModels(fieldOutline);
+			if (elementModels.isEmpty()) {
+				generateWriteValue(block, encoderParam, itemType, value);
+				return;
+			}
+			final JConditional ifElement = block._if(value._instanceof(this.m.ref(JAXBElement.class)));
+			final JClass elementType = this.m.ref(JAXBElement.class).narrow(this.m.wildcard());
+			final JVar elementVar = ifElement._then().decl(JMod.FINAL, elementType, "element", JExpr.cast(elementType, value));
+			JConditional dispatch = null;
+			for (int i = 0; i < elementModels.size(); i++) {
+				final ElementModel elementModel = elementModels.get(i);
+				final JExpression test = elementVar.invoke("getName").invoke("equals").arg(JExpr.component(elementNamesField(), JExpr.lit(elementModel.nameIndex)))
+						.cand(elementVar.invoke("getDeclaredType").eq(elementModel.contentType.dotclass()));
+				dispatch = dispatch == null ? ifElement._then()._if(test) : dispatch._elseif(test);
+				final JConditional ifNil = dispatch._then()._if(elementVar.invoke("getValue").eq(JExpr._null()));
+				ifNil._then().invoke(encoderParam, "writeVarInt").arg(JExpr.lit(2 * i + 2));
+				ifNil._else().invoke(encoderParam, "writeVarInt").arg(JExpr.lit(2 * i + 1));
+				generateWriteValue(ifNil._else(), encoderParam, elementModel.contentType, JExpr.cast(elementModel.contentType, elementVar.invoke("getValue")));
+			}
+			for (final JBlock otherValue : new JBlock[]{dispatch._else(), ifElement._else()}) {
+				otherValue.invoke(encoderParam, "writeVarInt").arg(JExpr.lit(0));
+				otherValue.invoke(encoderParam, "writeValue").arg(value);
+			}
+		}
+
+		private JExpression generateReadItem(final JBlock block, final JVar decoderParam, final FieldOutline fieldOutline, final JType itemType) {
+			final List<ElementModel> elementModels = elementModels(fieldOutline);
+			if (elementModels.isEmpty()) {
+				return generateReadValue(decoderParam, itemType);
+			}
+			final JVar selectorVar = block.decl(JMod.FINAL, this.m.INT, "selector", decoderParam.invoke("readVarInt"));
+			final JVar valueVar = block.decl(this.m.ref(Object.class), "value");
+			JConditional dispatch = block._if(selectorVar.eq(JExpr.lit(0)));
+			dispatch._then().assign(valueVar, decoderParam.invoke("readValue"));
+			for (int i = 0; i < elementModels.size(); i++) {
+				final ElementModel elementModel = elementModels.get(i);
+				final JClass elementType = this.m.ref(JAXBElement.class).narrow(elementModel.contentType);
+				final JExpression elementName = JExpr.component(elementNamesField(), JExpr.lit(elementModel.nameIndex));
+				dispatch = dispatch._elseif(selectorVar.eq(JExpr.lit(2 * i + 1)));
+				dispatch._then().assign(valueVar, JExpr._new(elementType).arg(elementName).arg(elementModel.contentType.dotclass()).arg(elementModel.scope).arg(generateReadValue(decoderParam, elementModel.contentType)));
+				dispatch = dispatch._elseif(selectorVar.eq(JExpr.lit(2 * i + 2)));
+				dispatch._then().assign(valueVar, JExpr._new(elementType).arg(elementName).arg(elementModel.contentType.dotclass()).arg(elementModel.scope).arg(JExpr._null()));
+			}
+			dispatch._else()._throw(JExpr._new(this.m.ref(IOException.class)).arg(JExpr.lit("Invalid element selector ").plus(selectorVar)));
+			return castTo(itemType, valueVar);
+		}
+
+		private void generateWriteValue(final JBlock block, final JVar encoderParam, final JType type, final JExpression value) {
+			if (this.pluginContext.getClassOutline(type) != null) {
+				block.invoke(encoderParam, "writeObject").arg(value);
+			} else if (this.pluginContext.getEnumOutline(type) != null) {
+				block.invoke(encoderParam, "writeEnum").arg(value);
+			} else {
+				final ValueKind valueKind = BinaryCodecPlugin.VALUE_KINDS.get(type.erasure().fullName());
+				block.invoke(encoderParam, valueKind == null ? "writeValue" : valueKind.writeMethod).arg(value);
+			}
+		}
+
+		private JExpression generateReadValue(final JVar decoderParam, final JType type) {
+			if (this.pluginContext.getClassOutline(type) != null) {
+				return JExpr.cast(type, decoderParam.invoke("readObject"));
+			} else if (this.pluginContext.getEnumOutline(type) != null) {
+				return decoderParam.invoke("readEnum").arg(((JClass)type).dotclass());
+			} else {
+				final ValueKind valueKind = BinaryCodecPlugin.VALUE_KINDS.get(type.erasure().fullName());
+				if (valueKind == null) {
+					return castTo(type, decoderParam.invoke("readValue"));
+				} else if (valueKind.castType != null) {
+					return JExpr.cast(JType.parse(this.m, valueKind.castType), decoderParam.invoke(valueKind.readMethod));
+				} else {
+					return decoderParam.invoke(valueKind.readMethod);
+				}
+			}
+		}
+
+		private JExpression castTo(final JType type, final JExpression value) {
+			if (type.fullName().equals(Object.class.getName())) {
+				return value;
+			}
+			if (type instanceof JClass && !((JClass)type).getTypeParameters().isEmpty()) {
+				this.uncheckedCasts = true;
+			}
+			return JExpr.cast(type, value);
+		}
+
+		private JType itemType(final JFieldVar field) {
+			return field.type().isArray() ? field.type().elementType() : ((JClass)field.type()).getTypeParameters().get(0);
+		}
+
+		/**
+		 * @return The elements a property can hold as {@link JAXBElement}s, in schema order.
+		 */
+		private List<ElementModel> elementModels(final FieldOutline fieldOutline) {
+			List<ElementModel> elementModels = this.elementModels.get(fieldOutline);
+			if (elementModels != null) {
+				return elementModels;
+			}
+			final Outline outline = this.pluginContext.outline;
+			final CPropertyInfo propertyInfo = fieldOutline.getPropertyInfo();
+			elementModels = new ArrayList<>();
+			for (final CTypeInfo typeInfo : propertyInfo.ref()) {
+				if (typeInfo instanceof CElementInfo && !((CElementInfo)typeInfo).hasClass()) {
+					final CElementInfo elementInfo = (CElementInfo)typeInfo;
+					final JExpression scope = elementInfo.getScope() == null ? this.m.ref(JAXBElement.GlobalScope.class).dotclass() : outline.getClazz(elementInfo.getScope()).implClass.dotclass();
+					elementModels.add(new ElementModel(elementNameIndex(elementInfo.getElementName()), elementInfo.getContentType().toType(outline, Aspect.EXPOSED).boxify(), scope));
+				}
+			}
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			final JType itemType = propertyInfo.isCollection() ? itemType(field) : field.type();
+			if (elementModels.isEmpty() && propertyInfo instanceof CElementPropertyInfo && itemType.erasure().fullName().equals(JAXBElement.class.getName())) {
+				// nillable elements that can be left out are bound to JAXBElement in the scope of the class
+				for (final CTypeRef typeRef : ((CElementPropertyInfo)propertyInfo).getTypes()) {
+					elementModels.add(new ElementModel(elementNameIndex(typeRef.getTagName()), typeRef.getTarget().toType(outline, Aspect.EXPOSED).boxify(), this.classOutline.implClass.dotclass()));
+				}
+			}
+			this.elementModels.put(fieldOutline, elementModels);
+			return elementModels;
+		}
+
+		private int elementNameIndex(final QName elementName) {
+			final int index = this.elementNames.indexOf(elementName);
+			if (index >= 0) {
+				return index;
+			}
+			if (this.elementNamesInit == null) {
+				this.elementNamesInit = JExpr.newArray(this.m.ref(QName.class));
+				this.classOutline.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, this.m.ref(QName.class).array(), BinaryCodecPlugin.ELEMENT_NAMES_FIELD_NAME, this.elementNamesInit);
+			}
+			this.elementNamesInit.add(JExpr._new(this.m.ref(QName.class)).arg(elementName.getNamespaceURI()).arg(elementName.getLocalPart()));
+			this.elementNames.add(elementName);
+			return this.elementNames.size() - 1;
+		}
+
+		private JFieldVar elementNamesField() {
+			return this.classOutline.implClass.fields().get(BinaryCodecPlugin.ELEMENT_NAMES_FIELD_NAME);
+		}
+	}
+}
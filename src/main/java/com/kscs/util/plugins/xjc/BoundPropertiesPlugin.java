@@ -29,25 +29,39 @@ import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
 import java.beans.VetoableChangeSupport;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.kscs.util.jaxb.AsyncCollectionChangeListener;
+import com.kscs.util.jaxb.AsyncPropertyChangeListener;
 import com.kscs.util.jaxb.BoundList;
 import com.kscs.util.jaxb.BoundListProxy;
+import com.kscs.util.jaxb.ChangeJournal;
 import com.kscs.util.jaxb.CollectionChangeEvent;
 import com.kscs.util.jaxb.CollectionChangeEventType;
 import com.kscs.util.jaxb.CollectionChangeListener;
+import com.kscs.util.jaxb.CompoundCollectionChangeEvent;
+import com.kscs.util.jaxb.CompoundPropertyChangeEvent;
+import com.kscs.util.jaxb.Journaled;
+import com.kscs.util.jaxb.PropertyChangeBatch;
+import com.kscs.util.jaxb.SerialEventDispatcher;
 import com.kscs.util.jaxb.VetoableCollectionChangeListener;
 import com.kscs.util.plugins.xjc.base.AbstractPlugin;
 import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JCatchBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JCodeModel;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
 import com.sun.codemodel.JTryBlock;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
@@ -67,10 +81,23 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 	public static final String PROXY_SUFFIX = "__Proxy";
 	public static final String SUPPORT_FIELD_SUFFIX = "__Support";
 	public static final String OLD_VALUE_VAR_NAME = "__oldValue";
+	public static final String BATCH_ASPECT_NAME = "changeBatch";
+	public static final String RESTORE_PROPERTY_METHOD_NAME = "restoreProperty";
+	public static final String PROPERTY_VALUE_METHOD_NAME = "propertyValue";
+	public static final String ATTACH_JOURNAL_METHOD_NAME = "attachJournal";
+	public static final String DETACH_JOURNAL_METHOD_NAME = "detachJournal";
+	public static final String BEGIN_LIST_CHANGES_METHOD_NAME = "beginListChanges";
+	public static final String COMMIT_LIST_CHANGES_METHOD_NAME = "commitListChanges";
 	@Opt private boolean constrained = true;
 	@Opt private boolean bound = true;
 	@Opt private boolean setterThrows = false;
 	@Opt private boolean generateTools = true;
+	@Opt private boolean batchChanges = false;
+	@Opt private boolean journal = false;
+	@Opt private boolean asyncListeners = false;
+
+	private final Map<JFieldVar, JBlock> proxyInitBlocks = new HashMap<>();
+	private final Map<JFieldVar, JBlock> setterChangeBlocks = new HashMap<>();
 
 	@Override
 	public String getOptionName() {
@@ -96,21 +123,42 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 			pluginContext.writeSourceFile(CollectionChangeEvent.class);
 			pluginContext.writeSourceFile(CollectionChangeListener.class);
 			pluginContext.writeSourceFile(VetoableCollectionChangeListener.class);
+			pluginContext.writeSourceFile(CompoundCollectionChangeEvent.class);
+			if (this.asyncListeners) {
+				pluginContext.writeSourceFile(SerialEventDispatcher.class);
+				pluginContext.writeSourceFile(AsyncPropertyChangeListener.class);
+				pluginContext.writeSourceFile(AsyncCollectionChangeListener.class);
+			}
+			if (this.batchChanges || this.journal) {
+				pluginContext.writeSourceFile(CompoundPropertyChangeEvent.class);
+			}
+			if (this.batchChanges) {
+				pluginContext.writeSourceFile(PropertyChangeBatch.class);
+			}
+			if (this.journal) {
+				pluginContext.writeSourceFile(Journaled.class);
+				pluginContext.writeSourceFile(ChangeJournal.class);
+			}
 		}
 
 		if(pluginContext.hasPlugin(ImmutablePlugin.class)) {
 			errorHandler.error(new SAXParseException(getMessage("error.immutableAndConstrainedProperties"), outline.getModel().getLocator()));
 		}
 
+		if (this.journal && !this.bound) {
+			errorHandler.error(new SAXParseException(getMessage("error.journalWithoutBound"), outline.getModel().getLocator()));
+		}
+
 		final int setterAccess = JMod.PUBLIC;
 
 		for (final ClassOutline classOutline : outline.getClasses()) {
 			final JDefinedClass definedClass = classOutline.implClass;
 
 			// Create bound collection proxies
+			final List<JFieldVar> proxyFields = new ArrayList<>();
 			for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
 				if (fieldOutline.getPropertyInfo().isCollection() && !definedClass.fields().get(fieldOutline.getPropertyInfo().getName(false)).type().isArray()) {
-					generateProxyField(classOutline, fieldOutline);
+					proxyFields.add(generateProxyField(classOutline, fieldOutline));
 					generateLazyProxyInitGetter(classOutline, fieldOutline);
 				}
 			}
@@ -131,7 +179,14 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 				createSupportProperty(outline, classOutline, VetoableChangeSupport.class, VetoableChangeListener.class, "vetoableChange");
 			if (this.bound)
 				createSupportProperty(outline, classOutline, PropertyChangeSupport.class, PropertyChangeListener.class, "propertyChange");
+			if (this.batchChanges && classOutline.getSuperClass() == null)
+				createBatchSupport(outline, classOutline);
+			if (this.batchChanges)
+				generateListBatchMethods(outline, classOutline, proxyFields);
+			if (this.journal && classOutline.getSuperClass() == null)
+				definedClass._implements(Journaled.class);
 
+			final List<JFieldVar> restorableFields = new ArrayList<>();
 
 			for (final JFieldVar field : definedClass.fields().values()) {
 				//final JFieldVar field = definedClass.fields().get(fieldOutline.getPropertyInfo().getName(false));
@@ -143,14 +198,19 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 					final JBlock body = setter.body();
 					final JVar oldValueVar = body.decl(JMod.FINAL, field.type(), BoundPropertiesPlugin.OLD_VALUE_VAR_NAME, JExpr._this().ref(field));
 
+					if (this.journal) {
+						restorableFields.add(field);
+					}
+
 					if (this.constrained) {
+						final JBlock ifHasListeners = body._if(hasListeners(field, "vetoableChange"))._then();
 						final JTryBlock tryBlock;
 						final JBlock block;
 						if (this.setterThrows) {
-							block = body;
+							block = ifHasListeners;
 							setter._throws(PropertyVetoException.class);
 						} else {
-							tryBlock = body._try();
+							tryBlock = ifHasListeners._try();
 							block = tryBlock.body();
 							final JCatchBlock catchBlock = tryBlock._catch(m.ref(PropertyVetoException.class));
 							final JVar exceptionVar = catchBlock.param("x");
@@ -159,13 +219,34 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 						invokeListener(block, field, oldValueVar, setterArg, "vetoableChange");
 					}
 
+					// once vetoable listeners have been asked, the change will be made
+					final JBlock changeBlock = new JBlock(false, false);
+					body.add(changeBlock);
+					this.setterChangeBlocks.put(field, changeBlock);
+
+					if (this.batchChanges) {
+						// vetoable listeners have been asked already, only the change event is deferred
+						final JFieldRef batchRef = JExpr._this().ref(BoundPropertiesPlugin.BATCH_ASPECT_NAME + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+						final JBlock ifBatchActive = body._if(batchRef.ne(JExpr._null()).cand(batchRef.invoke("isActive")))._then();
+						ifBatchActive.assign(JExpr._this().ref(field), setterArg);
+						ifBatchActive.invoke(batchRef, "record").arg(JExpr.lit(field.name())).arg(oldValueVar).arg(setterArg);
+						ifBatchActive._return();
+					}
+
 					body.assign(JExpr._this().ref(field), setterArg);
 
 					if (this.bound) {
-						invokeListener(body, field, oldValueVar, setterArg, "propertyChange");
+						invokeListener(body._if(hasListeners(field, "propertyChange"))._then(), field, oldValueVar, setterArg, "propertyChange");
 					}
 				}
 			}
+
+			if (this.journal) {
+				generateRestorePropertyMethod(outline, classOutline, restorableFields);
+				generatePropertyValueMethod(outline, classOutline);
+				generateJournalMethod(pluginContext, classOutline, BoundPropertiesPlugin.ATTACH_JOURNAL_METHOD_NAME, "addPropertyChangeListener", "attachList", "attach");
+				generateJournalMethod(pluginContext, classOutline, BoundPropertiesPlugin.DETACH_JOURNAL_METHOD_NAME, "removePropertyChangeListener", "detachList", "detach");
+			}
 		}
 		return true;
 	}
@@ -181,14 +262,18 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 		final String aspectNameCap = aspectName.substring(0, 1).toUpperCase() + aspectName.substring(1);
 
 		if (classOutline.getSuperClass() == null) { // only generate fields in topmost classes
-			final JFieldVar supportField = definedClass.field(JMod.PROTECTED | JMod.FINAL | JMod.TRANSIENT, supportClass, aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX, JExpr._new(m.ref(supportClass)).arg(JExpr._this()));
-			final JMethod addMethod = definedClass.method(JMod.PUBLIC, m.VOID, "add" + aspectNameCap + "Listener");
+			// support objects are only created when the first listener is added,
+			// the field is volatile so that setters on other threads can fire events without locking
+			final JFieldVar supportField = definedClass.field(JMod.PROTECTED | JMod.TRANSIENT | JMod.VOLATILE, supportClass, aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+			final JFieldRef supportFieldRef = JExpr._this().ref(supportField);
+			final JMethod addMethod = definedClass.method(JMod.PUBLIC | JMod.SYNCHRONIZED, m.VOID, "add" + aspectNameCap + "Listener");
 			final JVar addParam = addMethod.param(JMod.FINAL, listenerClass, aspectName + "Listener");
-			addMethod.body().invoke(JExpr._this().ref(supportField), "add" + aspectNameCap + "Listener").arg(addParam);
+			addMethod.body()._if(supportFieldRef.eq(JExpr._null()))._then().assign(supportFieldRef, JExpr._new(m.ref(supportClass)).arg(JExpr._this()));
+			addMethod.body().invoke(supportFieldRef, "add" + aspectNameCap + "Listener").arg(addParam);
 
 			final JMethod removeMethod = definedClass.method(JMod.PUBLIC, m.VOID, "remove" + aspectNameCap + "Listener");
 			final JVar removeParam = removeMethod.param(JMod.FINAL, listenerClass, aspectName + "Listener");
-			removeMethod.body().invoke(JExpr._this().ref(supportField), "remove" + aspectNameCap + "Listener").arg(removeParam);
+			removeMethod.body()._if(supportFieldRef.ne(JExpr._null()))._then().invoke(supportFieldRef, "remove" + aspectNameCap + "Listener").arg(removeParam);
 		}
 		final JMethod withMethod = definedClass.method(JMod.PUBLIC, definedClass, "with" + aspectNameCap + "Listener");
 		final JVar withParam = withMethod.param(JMod.FINAL, listenerClass, aspectName + "Listener");
@@ -200,6 +285,133 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 		}
 	}
 
+	private void createBatchSupport(final Outline outline, final ClassOutline classOutline) {
+		final JCodeModel m = outline.getCodeModel();
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JFieldVar batchField = definedClass.field(JMod.PROTECTED | JMod.TRANSIENT, PropertyChangeBatch.class, BoundPropertiesPlugin.BATCH_ASPECT_NAME + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+		final JFieldRef batchRef = JExpr._this().ref(batchField);
+
+		final JMethod beginMethod = definedClass.method(JMod.PUBLIC, m.VOID, "beginChanges");
+		beginMethod.javadoc().append(getMessage("javadoc.method.beginChanges"));
+		beginMethod.body()._if(batchRef.eq(JExpr._null()))._then().assign(batchRef, JExpr._new(m.ref(PropertyChangeBatch.class)).arg(JExpr._this()));
+		beginMethod.body()._if(batchRef.invoke("isActive").not())._then().invoke(BoundPropertiesPlugin.BEGIN_LIST_CHANGES_METHOD_NAME);
+		beginMethod.body().invoke(batchRef, "begin");
+
+		final JMethod commitMethod = definedClass.method(JMod.PUBLIC, m.VOID, "commitChanges");
+		commitMethod.javadoc().append(getMessage("javadoc.method.commitChanges"));
+		commitMethod.body()._if(batchRef.eq(JExpr._null()))._then()._throw(JExpr._new(m.ref(IllegalStateException.class)).arg(JExpr.lit("No batch of changes has been started.")));
+		final JVar eventVar = commitMethod.body().decl(JMod.FINAL, m.ref(CompoundPropertyChangeEvent.class), "__event", batchRef.invoke("commit"));
+		final JBlock ifEvent = commitMethod.body()._if(eventVar.ne(JExpr._null()))._then();
+		if (this.bound) {
+			final JFieldRef propertySupportRef = JExpr._this().ref("propertyChange" + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+			ifEvent._if(propertySupportRef.ne(JExpr._null()).cand(propertySupportRef.invoke("hasListeners").arg(JExpr._null())))._then().invoke(propertySupportRef, "firePropertyChange").arg(eventVar);
+		}
+		commitMethod.body()._if(batchRef.invoke("isActive").not())._then().invoke(BoundPropertiesPlugin.COMMIT_LIST_CHANGES_METHOD_NAME);
+	}
+
+	private void generateListBatchMethods(final Outline outline, final ClassOutline classOutline, final List<JFieldVar> proxyFields) {
+		final JCodeModel m = outline.getCodeModel();
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JFieldRef batchRef = JExpr._this().ref(BoundPropertiesPlugin.BATCH_ASPECT_NAME + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+		// a list proxy created while a batch is running joins the batch right away
+		for (final JFieldVar proxyField : proxyFields) {
+			final JFieldVar collectionField = definedClass.fields().get(proxyField.name().substring(0, proxyField.name().length() - BoundPropertiesPlugin.PROXY_SUFFIX.length()));
+			this.proxyInitBlocks.get(collectionField)._if(batchRef.ne(JExpr._null()).cand(batchRef.invoke("isActive")))._then().invoke(JExpr._this().ref(proxyField), "beginChanges");
+		}
+		if (proxyFields.isEmpty() && classOutline.getSuperClass() != null) {
+			return;
+		}
+		final JMethod beginMethod = definedClass.method(JMod.PROTECTED, m.VOID, BoundPropertiesPlugin.BEGIN_LIST_CHANGES_METHOD_NAME);
+		final JMethod commitMethod = definedClass.method(JMod.PROTECTED, m.VOID, BoundPropertiesPlugin.COMMIT_LIST_CHANGES_METHOD_NAME);
+		if (classOutline.getSuperClass() != null) {
+			beginMethod.annotate(Override.class);
+			beginMethod.body().invoke(JExpr._super(), BoundPropertiesPlugin.BEGIN_LIST_CHANGES_METHOD_NAME);
+			commitMethod.annotate(Override.class);
+			commitMethod.body().invoke(JExpr._super(), BoundPropertiesPlugin.COMMIT_LIST_CHANGES_METHOD_NAME);
+		}
+		for (final JFieldVar proxyField : proxyFields) {
+			final JFieldRef proxyRef = JExpr._this().ref(proxyField);
+			beginMethod.body()._if(proxyRef.ne(JExpr._null()))._then().invoke(proxyRef, "beginChanges");
+			commitMethod.body()._if(proxyRef.ne(JExpr._null()))._then().invoke(proxyRef, "commitChanges");
+		}
+	}
+
+	private void generateRestorePropertyMethod(final Outline outline, final ClassOutline classOutline, final List<JFieldVar> restorableFields) {
+		final JCodeModel m = outline.getCodeModel();
+		final JDefinedClass definedClass = classOutline.implClass;
+		// the journal restores properties from outside the class
+		final JMethod restoreMethod = definedClass.method(JMod.PUBLIC, m.VOID, BoundPropertiesPlugin.RESTORE_PROPERTY_METHOD_NAME);
+		restoreMethod.javadoc().append(getMessage("javadoc.method.restoreProperty"));
+		final JVar propertyNameParam = restoreMethod.param(JMod.FINAL, String.class, "propertyName");
+		final JVar valueParam = restoreMethod.param(JMod.FINAL, Object.class, "value");
+		restoreMethod.annotate(SuppressWarnings.class).param("value", "unchecked");
+		for (final JFieldVar field : restorableFields) {
+			final JBlock ifName = restoreMethod.body()._if(JExpr.lit(field.name()).invoke("equals").arg(propertyNameParam))._then();
+			ifName.assign(JExpr._this().ref(field), JExpr.cast(field.type().boxify(), valueParam));
+			ifName._return();
+		}
+		if (classOutline.getSuperClass() != null) {
+			restoreMethod.annotate(Override.class);
+			restoreMethod.body().invoke(JExpr._super(), BoundPropertiesPlugin.RESTORE_PROPERTY_METHOD_NAME).arg(propertyNameParam).arg(valueParam);
+		}
+	}
+
+	private void generatePropertyValueMethod(final Outline outline, final ClassOutline classOutline) {
+		final JCodeModel m = outline.getCodeModel();
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JMethod propertyValueMethod = definedClass.method(JMod.PUBLIC, Object.class, BoundPropertiesPlugin.PROPERTY_VALUE_METHOD_NAME);
+		propertyValueMethod.javadoc().append(getMessage("javadoc.method.propertyValue"));
+		final JVar propertyNameParam = propertyValueMethod.param(JMod.FINAL, String.class, "propertyName");
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null) {
+				final JBlock ifName = propertyValueMethod.body()._if(JExpr.lit(field.name()).invoke("equals").arg(propertyNameParam))._then();
+				if (fieldOutline.getPropertyInfo().isCollection() && !field.type().isArray()) {
+					ifName._if(JExpr._this().ref(field).eq(JExpr._null()))._then().assign(JExpr._this().ref(field), JExpr._new(m.ref(ArrayList.class).narrow(((JClass) field.type()).getTypeParameters().get(0))));
+				}
+				ifName._return(JExpr._this().ref(field));
+			}
+		}
+		if (classOutline.getSuperClass() != null) {
+			propertyValueMethod.annotate(Override.class);
+			propertyValueMethod.body()._return(JExpr._super().invoke(BoundPropertiesPlugin.PROPERTY_VALUE_METHOD_NAME).arg(propertyNameParam));
+		} else {
+			propertyValueMethod.body()._return(JExpr._null());
+		}
+	}
+
+	private void generateJournalMethod(final PluginContext pluginContext, final ClassOutline classOutline, final String methodName, final String listenerMethodName, final String listMethodName, final String childMethodName) {
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JMethod journalMethod = definedClass.method(JMod.PUBLIC, pluginContext.voidType, methodName);
+		journalMethod.javadoc().append(getMessage("javadoc.method." + methodName));
+		final JVar journalParam = journalMethod.param(JMod.FINAL, ChangeJournal.class, "journal");
+		final JBlock body = journalMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			journalMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), methodName).arg(journalParam);
+		} else {
+			body.invoke(listenerMethodName).arg(journalParam);
+		}
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && !field.type().isArray()) {
+				if (fieldOutline.getPropertyInfo().isCollection()) {
+					body.invoke(journalParam, listMethodName).arg(JExpr.invoke("get" + fieldOutline.getPropertyInfo().getName(true))).arg(JExpr._this()).arg(JExpr.lit(field.name()));
+				} else if (pluginContext.getClassOutline(field.type()) != null) {
+					final JInvocation childInvocation = body.invoke(journalParam, childMethodName).arg(JExpr._this().ref(field));
+					if (BoundPropertiesPlugin.ATTACH_JOURNAL_METHOD_NAME.equals(methodName)) {
+						childInvocation.arg(JExpr._this()).arg(JExpr.lit(field.name()));
+					}
+				}
+			}
+		}
+	}
+
+	private JExpression hasListeners(final JFieldVar field, final String aspectName) {
+		final JFieldRef supportFieldRef = JExpr._this().ref(aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX);
+		return supportFieldRef.ne(JExpr._null()).cand(supportFieldRef.invoke("hasListeners").arg(JExpr.lit(field.name())));
+	}
+
 	private JInvocation invokeListener(final JBlock block, final JFieldVar field, final JVar oldValueVar, final JVar setterArg, final String aspectName) {
 		final String aspectNameCap = aspectName.substring(0, 1).toUpperCase() + aspectName.substring(1);
 		final JInvocation fvcInvoke = block.invoke(JExpr._this().ref(aspectName + BoundPropertiesPlugin.SUPPORT_FIELD_SUFFIX), "fire" + aspectNameCap);
@@ -214,7 +426,7 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 		final JDefinedClass definedClass = classOutline.implClass;
 		final JFieldVar collectionField = definedClass.fields().get(fieldOutline.getPropertyInfo().getName(false));
 		final JClass elementType = ((JClass) collectionField.type()).getTypeParameters().get(0);
-		return definedClass.field(JMod.PRIVATE | JMod.TRANSIENT, m.ref(BoundList.class).narrow(elementType), collectionField.name() + BoundPropertiesPlugin.PROXY_SUFFIX, JExpr._null());
+		return definedClass.field(JMod.PRIVATE | JMod.TRANSIENT | JMod.VOLATILE, m.ref(BoundList.class).narrow(elementType), collectionField.name() + BoundPropertiesPlugin.PROXY_SUFFIX);
 	}
 
 	private JMethod generateLazyProxyInitGetter(final ClassOutline classOutline, final FieldOutline fieldOutline) {
@@ -229,11 +441,16 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 		final JFieldRef proxyField = JExpr._this().ref(collectionField.name() + BoundPropertiesPlugin.PROXY_SUFFIX);
 		final JMethod oldGetter = definedClass.getMethod(getterName, new JType[0]);
 		definedClass.methods().remove(oldGetter);
-		final JMethod newGetter = definedClass.method(JMod.PUBLIC, proxyFieldType, getterName);
-		newGetter.body()._if(collectionFieldRef.eq(JExpr._null()))._then().assign(collectionFieldRef, JExpr._new(m.ref(ArrayList.class).narrow(elementType)));
-		final JBlock ifProxyNull = newGetter.body()._if(proxyField.eq(JExpr._null()))._then();
+		// proxy creation is synchronized, so that no listener can get lost on a proxy that is immediately replaced
+		final JMethod createProxyMethod = definedClass.method(JMod.PRIVATE | JMod.SYNCHRONIZED, proxyFieldType, "create" + fieldOutline.getPropertyInfo().getName(true) + BoundPropertiesPlugin.PROXY_SUFFIX);
+		createProxyMethod.body()._if(collectionFieldRef.eq(JExpr._null()))._then().assign(collectionFieldRef, JExpr._new(m.ref(ArrayList.class).narrow(elementType)));
+		final JBlock ifProxyNull = createProxyMethod.body()._if(proxyField.eq(JExpr._null()))._then();
 		ifProxyNull.assign(proxyField, JExpr._new(m.ref(BoundListProxy.class).narrow(elementType)).arg(collectionFieldRef));
-		newGetter.body()._return(proxyField);
+		this.proxyInitBlocks.put(collectionField, ifProxyNull);
+		createProxyMethod.body()._return(proxyField);
+		final JMethod newGetter = definedClass.method(JMod.PUBLIC, proxyFieldType, getterName);
+		final JVar proxyVar = newGetter.body().decl(JMod.FINAL, proxyFieldType, "proxy", proxyField);
+		newGetter.body()._return(JOp.cond(proxyVar.eq(JExpr._null()), JExpr.invoke(createProxyMethod), proxyVar));
 		return newGetter;
 	}
 
@@ -244,4 +461,28 @@ public class BoundPropertiesPlugin extends AbstractPlugin {
 	public boolean isSetterThrows() {
 		return this.setterThrows;
 	}
+
+	/**
+	 * Gets the code block that runs exactly once, right after the
+	 * bound list proxy of the given collection field has been created.
+	 * Other plugins can add statements to it, e.g. to register their own listeners.
+	 * @param collectionField The collection field the proxy wraps
+	 * @return The proxy initialization block, or <tt>null</tt> if no proxy
+	 * has been generated for this field (yet).
+	 */
+	public JBlock getProxyInitBlock(final JFieldVar collectionField) {
+		return this.proxyInitBlocks.get(collectionField);
+	}
+
+	/**
+	 * Gets the code block in the setter of the given field that runs
+	 * after vetoable listeners have accepted the change, on every path
+	 * on which the field is assigned.
+	 * Other plugins can add statements to it, e.g. to record the change.
+	 * @param field The field the setter assigns
+	 * @return The block, or <tt>null</tt> if no setter has been generated for this field (yet).
+	 */
+	public JBlock getSetterChangeBlock(final JFieldVar field) {
+		return this.setterChangeBlocks.get(field);
+	}
 }
@@ -0,0 +1,227 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Unmarshaller;
+
+import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.Aspect;
+import com.sun.tools.xjc.model.CElementInfo;
+import com.sun.tools.xjc.model.CTypeInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * XJC Plugin to generate a method that reclaims unused
+ * capacity of the collections held by an object tree.
+ *
+ * @author agent 2026-10-19
+ */
+public class CompactPlugin extends AbstractPlugin {
+	public static final String AFTER_UNMARSHAL_METHOD_NAME = "afterUnmarshal";
+
+	@Opt
+	private String compactMethodName = "compact";
+	@Opt
+	private boolean afterUnmarshal = false;
+
+	private ImmutablePlugin immutablePlugin = null;
+
+	@Override
+	public String getOptionName() {
+		return "Xcompact";
+	}
+
+	@Override
+	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		final ImmutablePlugin immutablePlugin = pluginContext.findPlugin(ImmutablePlugin.class);
+		this.immutablePlugin = immutablePlugin != null && !immutablePlugin.isFake() ? immutablePlugin : null;
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			generateCompactMethod(pluginContext, classOutline);
+			if (this.afterUnmarshal) {
+				generateAfterUnmarshalMethod(pluginContext, classOutline);
+			}
+		}
+		return true;
+	}
+
+	private void generateCompactMethod(final PluginContext pluginContext, final ClassOutline classOutline) {
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JMethod compactMethod = definedClass.method(JMod.PUBLIC, pluginContext.voidType, this.compactMethodName);
+		compactMethod.javadoc().append(getMessage("javadoc.method.compact"));
+		final JBlock body = compactMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			compactMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), this.compactMethodName);
+		}
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && field.type().isReference() && !field.type().isArray()) {
+				final JClass fieldType = (JClass) field.type();
+				final JFieldRef fieldRef = JExpr._this().ref(field);
+				if (pluginContext.collectionClass.isAssignableFrom(fieldType.erasure())) {
+					final JClass elementType = fieldType.getTypeParameters().get(0);
+					final JBlock ifNotNull = body._if(fieldRef.ne(JExpr._null()))._then();
+					generateTrim(pluginContext, ifNotNull, field);
+					if (isCompactable(pluginContext, elementType)) {
+						final JForEach forEach = ifNotNull.forEach(elementType, "_item", fieldRef);
+						generateCompactInvocation(pluginContext, forEach.body(), forEach.var(), elementType);
+					} else {
+						final List<JClass> targetTypes = getCompactableTargetTypes(pluginContext, fieldOutline);
+						if (!targetTypes.isEmpty()) {
+							final JForEach forEach = ifNotNull.forEach(elementType, "_item", fieldRef);
+							generateDynamicCompactInvocation(pluginContext, forEach.body(), forEach.var(), targetTypes);
+						}
+					}
+				} else if (isCompactable(pluginContext, fieldType)) {
+					generateCompactInvocation(pluginContext, body, fieldRef, fieldType);
+				} else {
+					final List<JClass> targetTypes = getCompactableTargetTypes(pluginContext, fieldOutline);
+					if (!targetTypes.isEmpty()) {
+						generateDynamicCompactInvocation(pluginContext, body._if(fieldRef.ne(JExpr._null()))._then(), fieldRef, targetTypes);
+					}
+				}
+			}
+		}
+	}
+
+	private void generateAfterUnmarshalMethod(final PluginContext pluginContext, final ClassOutline classOutline) {
+		final JDefinedClass definedClass = classOutline.implClass;
+		final JMethod afterUnmarshalMethod = definedClass.method(JMod.PROTECTED, pluginContext.voidType, CompactPlugin.AFTER_UNMARSHAL_METHOD_NAME);
+		afterUnmarshalMethod.javadoc().append(getMessage("javadoc.method.afterUnmarshal"));
+		final JBlock body = afterUnmarshalMethod.body();
+		final JVar unmarshallerParam = afterUnmarshalMethod.param(JMod.FINAL, Unmarshaller.class, "unmarshaller");
+		final JVar parentParam = afterUnmarshalMethod.param(JMod.FINAL, Object.class, "parent");
+		if (classOutline.getSuperClass() != null) {
+			afterUnmarshalMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), CompactPlugin.AFTER_UNMARSHAL_METHOD_NAME).arg(unmarshallerParam).arg(parentParam);
+		}
+		// JAXB invokes the callback bottom-up, so every object only has to take care of its own collections
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && field.type().isReference() && !field.type().isArray() && pluginContext.collectionClass.isAssignableFrom(((JClass) field.type()).erasure())) {
+				final JFieldRef fieldRef = JExpr._this().ref(field);
+				generateTrim(pluginContext, body._if(fieldRef.ne(JExpr._null()))._then(), field);
+			}
+		}
+	}
+
+	private void generateTrim(final PluginContext pluginContext, final JBlock block, final JFieldVar collectionField) {
+		final JFieldRef collectionRef = JExpr._this().ref(collectionField);
+		final JBlock ifArrayList = block._if(collectionRef._instanceof(pluginContext.arrayListClass))._then();
+		final JExpression trimExpression = JExpr.cast(pluginContext.arrayListClass.narrow(pluginContext.codeModel.wildcard()), collectionRef);
+		if (this.immutablePlugin != null && pluginContext.listClass.equals(((JClass)collectionField.type()).erasure())) {
+			// nobody can modify the list of an immutable object, so empty and single element lists can be replaced
+			final JClass collectionsClass = pluginContext.codeModel.ref(Collections.class);
+			final JConditional ifEmpty = ifArrayList._if(collectionRef.invoke("isEmpty"));
+			ifEmpty._then().assign(collectionRef, collectionsClass.staticInvoke("emptyList"));
+			ifEmpty._then().assign(JExpr._this().ref(this.immutablePlugin.getImmutableFieldName(collectionField)), JExpr._null());
+			final JConditional ifSingle = ifEmpty._elseif(collectionRef.invoke("size").eq(JExpr.lit(1)));
+			ifSingle._then().assign(collectionRef, collectionsClass.staticInvoke("singletonList").arg(collectionRef.invoke("get").arg(JExpr.lit(0))));
+			ifSingle._then().assign(JExpr._this().ref(this.immutablePlugin.getImmutableFieldName(collectionField)), JExpr._null());
+			ifSingle._else().invoke(trimExpression, "trimToSize");
+		} else {
+			ifArrayList.invoke(trimExpression, "trimToSize");
+		}
+	}
+
+	private void generateCompactInvocation(final PluginContext pluginContext, final JBlock block, final JExpression valueRef, final JClass valueType) {
+		final JBlock ifNotNull = block._if(valueRef.ne(JExpr._null()))._then();
+		if (pluginContext.getClassOutline(valueType) != null) {
+			ifNotNull.invoke(valueRef, this.compactMethodName);
+		} else {
+			final JExpression elementValue = valueRef.invoke("getValue");
+			ifNotNull._if(elementValue.ne(JExpr._null()))._then().invoke(elementValue, this.compactMethodName);
+		}
+	}
+
+	/**
+	 * Generates the type dispatch for a value of a choice or mixed property,
+	 * which may be an instance of one of several generated classes, a
+	 * JAXBElement wrapping one, or something else entirely.
+	 */
+	private void generateDynamicCompactInvocation(final PluginContext pluginContext, final JBlock block, final JExpression valueRef, final List<JClass> targetTypes) {
+		final JClass elementClass = pluginContext.codeModel.ref(JAXBElement.class);
+		final JExpression elementValue = JExpr.cast(elementClass.narrow(pluginContext.codeModel.wildcard()), valueRef);
+		final JVar valueVar = block.decl(JMod.FINAL, pluginContext.codeModel.ref(Object.class), "_value", JOp.cond(valueRef._instanceof(elementClass), elementValue.invoke("getValue"), valueRef));
+		JConditional conditional = null;
+		for (final JClass targetType : targetTypes) {
+			conditional = conditional == null ? block._if(valueVar._instanceof(targetType)) : conditional._elseif(valueVar._instanceof(targetType));
+			conditional._then().invoke(JExpr.cast(targetType, valueVar), this.compactMethodName);
+		}
+	}
+
+	/**
+	 * Gets the generated classes of the values a property may hold, either
+	 * directly or as the content of an element, as declared in the schema.
+	 */
+	private List<JClass> getCompactableTargetTypes(final PluginContext pluginContext, final FieldOutline fieldOutline) {
+		final List<JClass> targetTypes = new ArrayList<>();
+		for (final CTypeInfo typeInfo : fieldOutline.getPropertyInfo().ref()) {
+			final CTypeInfo target = typeInfo instanceof CElementInfo ? ((CElementInfo)typeInfo).getContentType() : typeInfo;
+			final JType targetType = target.toType(pluginContext.outline, Aspect.IMPLEMENTATION);
+			if (pluginContext.getClassOutline(targetType) != null && !targetTypes.contains(targetType)) {
+				targetTypes.add((JClass)targetType);
+			}
+		}
+		return targetTypes;
+	}
+
+	private boolean isCompactable(final PluginContext pluginContext, final JClass type) {
+		if (pluginContext.getClassOutline(type) != null) {
+			return true;
+		} else if (pluginContext.codeModel.ref(JAXBElement.class).equals(type.erasure()) && !type.getTypeParameters().isEmpty()) {
+			return pluginContext.getClassOutline(type.getTypeParameters().get(0)) != null;
+		} else {
+			return false;
+		}
+	}
+}
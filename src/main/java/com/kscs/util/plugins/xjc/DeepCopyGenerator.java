@@ -59,7 +59,7 @@ public class DeepCopyGenerator {
 		this.classOutline = classOutline;
 	}
 
-	public void generateFieldCopyExpression(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JFieldVar field, final JAssignmentTarget targetField, final JExpression sourceField) {
+	public JBlock generateFieldCopyExpression(final CopyGenerator cloneGenerator, final JBlock body, final JExpression targetObject, final JFieldVar field, final JAssignmentTarget targetField, final JExpression sourceField) {
 		final PropertyTreeVarGenerator treeVarGenerator = cloneGenerator.createPropertyTreeVarGenerator(body, field.name());
 		final JBlock currentBlock = treeVarGenerator.generateEnclosingBlock(body);
 		if (field.type().isReference()) {
@@ -95,6 +95,7 @@ public class DeepCopyGenerator {
 		} else {
 			currentBlock.assign(targetField, sourceField);
 		}
+		return currentBlock;
 	}
 
 	JMethod generateCreateCopyMethod(final boolean partial) {
@@ -129,7 +130,11 @@ public class DeepCopyGenerator {
 			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
 			if (field != null) {
 				if ((field.mods().getValue() & (JMod.FINAL | JMod.STATIC)) == 0) {
-					generateFieldCopyExpression(cloneGenerator, body, targetObject, field, targetObject.ref(field.name()), sourceObject.ref(field.name()));
+					final JBlock currentBlock = generateFieldCopyExpression(cloneGenerator, body, targetObject, field, targetObject.ref(field.name()), sourceObject.ref(field.name()));
+					if (this.pluginContext.hasPlugin(StaxPlugin.class) && StaxPlugin.isLazy(fieldOutline)) {
+						final String lazyFieldName = field.name() + StaxPlugin.LAZY_FIELD_SUFFIX;
+						currentBlock.assign(targetObject.ref(lazyFieldName), sourceObject.ref(lazyFieldName));
+					}
 				}
 			}
 		}
@@ -0,0 +1,332 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.kscs.util.jaxb.PropertyTree;
+import com.kscs.util.jaxb.PropertyTreeUse;
+import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * XJC Plugin to generate per-instance tracking of
+ * modified properties.
+ *
+ * @author agent 2026-10-19
+ */
+public class DirtyTrackingPlugin extends AbstractPlugin {
+	public static final String BITS_FIELD_NAME = "dirty__Bits";
+	public static final String IS_DIRTY_METHOD_NAME = "isDirty";
+	public static final String DIRTY_PROPERTIES_METHOD_NAME = "dirtyProperties";
+	public static final String CLEAR_DIRTY_METHOD_NAME = "clearDirty";
+	public static final String DIRTY_TREE_METHOD_NAME = "dirtyTree";
+	public static final String COLLECT_DIRTY_TREE_METHOD_NAME = "collectDirtyTree";
+	public static final String CLEAN_COUNT_FIELD_SUFFIX = "__CleanCount";
+	private static final String CHILD_VAR_NAME = "child";
+
+	@Opt
+	private boolean generateTools = true;
+
+	@Override
+	public String getOptionName() {
+		return "Xdirty-tracking";
+	}
+
+	@Override
+	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		if (this.generateTools) {
+			pluginContext.writeSourceFile(PropertyTree.class);
+			pluginContext.writeSourceFile(PropertyTreeUse.class);
+		}
+		final BoundPropertiesPlugin boundPropertiesPlugin = pluginContext.findPlugin(BoundPropertiesPlugin.class);
+		if (boundPropertiesPlugin != null && opt.activePlugins.indexOf(boundPropertiesPlugin) > opt.activePlugins.indexOf(this)) {
+			// the setters and collection getters instrumented here would be replaced later
+			errorHandler.error(new SAXParseException(getMessage("error.pluginOrder"), outline.getModel().getLocator()));
+			return false;
+		}
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			final List<TrackedProperty> trackedProperties = generateBitsFields(classOutline);
+			for (final TrackedProperty trackedProperty : trackedProperties) {
+				if (trackedProperty.isCollection()) {
+					generateCollectionTracking(boundPropertiesPlugin, trackedProperty);
+				} else {
+					generateSetterTracking(boundPropertiesPlugin, trackedProperty);
+				}
+			}
+			generateIsDirtyMethod(pluginContext, classOutline, trackedProperties);
+			generateDirtyPropertiesMethod(pluginContext, classOutline, trackedProperties);
+			generateClearDirtyMethod(pluginContext, classOutline, trackedProperties);
+			generateDirtyTreeMethods(pluginContext, classOutline, trackedProperties);
+		}
+		return true;
+	}
+
+	private List<TrackedProperty> generateBitsFields(final ClassOutline classOutline) {
+		final JDefinedClass definedClass = classOutline.implClass;
+		final List<TrackedProperty> trackedProperties = new ArrayList<>();
+		JFieldVar bitsField = null;
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null) {
+				final int index = trackedProperties.size();
+				// one long holds the dirty flags of 64 properties
+				if (index % 64 == 0) {
+					bitsField = definedClass.field(JMod.PRIVATE | JMod.TRANSIENT, long.class, DirtyTrackingPlugin.BITS_FIELD_NAME + (index / 64));
+				}
+				trackedProperties.add(new TrackedProperty(fieldOutline, field, bitsField, 1L << (index % 64)));
+			}
+		}
+		return trackedProperties;
+	}
+
+	private void generateSetterTracking(final BoundPropertiesPlugin boundPropertiesPlugin, final TrackedProperty trackedProperty) {
+		final JFieldRef bitsRef = JExpr._this().ref(trackedProperty.bitsField);
+		final JBlock changeBlock = boundPropertiesPlugin == null ? null : boundPropertiesPlugin.getSetterChangeBlock(trackedProperty.field);
+		if (changeBlock != null) {
+			// marks the property only once vetoable listeners have accepted the change
+			changeBlock.assign(bitsRef, bitsRef.bor(JExpr.lit(trackedProperty.mask)));
+		} else {
+			final JMethod setter = PluginContext.findSetter(trackedProperty.fieldOutline);
+			if (setter != null) {
+				setter.body().assign(bitsRef, bitsRef.bor(JExpr.lit(trackedProperty.mask)));
+			}
+		}
+	}
+
+	/**
+	 * A bound list proxy counts its changes, so a collection property is modified
+	 * if the count differs from the one taken when it was last marked clean.
+	 * This needs no listener, which would make every change create an event.
+	 * Without a proxy, the getter hands out the live list, so reading it
+	 * marks the property as modified.
+	 */
+	private void generateCollectionTracking(final BoundPropertiesPlugin boundPropertiesPlugin, final TrackedProperty trackedProperty) {
+		if (boundPropertiesPlugin == null || boundPropertiesPlugin.getProxyInitBlock(trackedProperty.field) == null) {
+			final JMethod getter = PluginContext.findGetter(trackedProperty.fieldOutline);
+			if (getter != null) {
+				final JFieldRef bitsRef = JExpr._this().ref(trackedProperty.bitsField);
+				final JBlock body = getter.body();
+				final int end = body.pos(0);
+				body.assign(bitsRef, bitsRef.bor(JExpr.lit(trackedProperty.mask)));
+				body.pos(end + 1);
+			}
+			return;
+		}
+		final JDefinedClass definedClass = trackedProperty.fieldOutline.parent().implClass;
+		trackedProperty.cleanCountField = definedClass.field(JMod.PRIVATE | JMod.TRANSIENT, int.class, trackedProperty.field.name() + DirtyTrackingPlugin.CLEAN_COUNT_FIELD_SUFFIX);
+	}
+
+	private void generateIsDirtyMethod(final PluginContext pluginContext, final ClassOutline classOutline, final List<TrackedProperty> trackedProperties) {
+		final JMethod isDirtyMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.codeModel.BOOLEAN, DirtyTrackingPlugin.IS_DIRTY_METHOD_NAME);
+		isDirtyMethod.javadoc().append(getMessage("javadoc.method.isDirty"));
+		final JBlock body = isDirtyMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			isDirtyMethod.annotate(Override.class);
+			body._if(JExpr._super().invoke(DirtyTrackingPlugin.IS_DIRTY_METHOD_NAME))._then()._return(JExpr.TRUE);
+		}
+		JFieldVar lastBitsField = null;
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			if (trackedProperty.bitsField != lastBitsField) {
+				lastBitsField = trackedProperty.bitsField;
+				body._if(JExpr._this().ref(lastBitsField).ne(JExpr.lit(0L)))._then()._return(JExpr.TRUE);
+			}
+		}
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			if (trackedProperty.cleanCountField != null) {
+				body._if(isCollectionModified(trackedProperty))._then()._return(JExpr.TRUE);
+			}
+		}
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			final JBlock childBlock = generateChildLoop(pluginContext, body, trackedProperty);
+			if (childBlock != null) {
+				final JExpression childRef = JExpr.ref(DirtyTrackingPlugin.CHILD_VAR_NAME);
+				childBlock._if(childRef.invoke(DirtyTrackingPlugin.IS_DIRTY_METHOD_NAME))._then()._return(JExpr.TRUE);
+			}
+		}
+		body._return(JExpr.FALSE);
+	}
+
+	private void generateDirtyPropertiesMethod(final PluginContext pluginContext, final ClassOutline classOutline, final List<TrackedProperty> trackedProperties) {
+		final JClass setType = pluginContext.codeModel.ref(Set.class).narrow(String.class);
+		final JMethod dirtyPropertiesMethod = classOutline.implClass.method(JMod.PUBLIC, setType, DirtyTrackingPlugin.DIRTY_PROPERTIES_METHOD_NAME);
+		dirtyPropertiesMethod.javadoc().append(getMessage("javadoc.method.dirtyProperties"));
+		final JBlock body = dirtyPropertiesMethod.body();
+		final JVar namesVar;
+		if (classOutline.getSuperClass() != null) {
+			dirtyPropertiesMethod.annotate(Override.class);
+			namesVar = body.decl(JMod.FINAL, setType, "names", JExpr._super().invoke(DirtyTrackingPlugin.DIRTY_PROPERTIES_METHOD_NAME));
+		} else {
+			namesVar = body.decl(JMod.FINAL, setType, "names", JExpr._new(pluginContext.codeModel.ref(LinkedHashSet.class).narrow(String.class)));
+		}
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			body._if(isBitSet(trackedProperty))._then().invoke(namesVar, "add").arg(JExpr.lit(trackedProperty.field.name()));
+		}
+		body._return(namesVar);
+	}
+
+	private void generateClearDirtyMethod(final PluginContext pluginContext, final ClassOutline classOutline, final List<TrackedProperty> trackedProperties) {
+		final JMethod clearDirtyMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.voidType, DirtyTrackingPlugin.CLEAR_DIRTY_METHOD_NAME);
+		clearDirtyMethod.javadoc().append(getMessage("javadoc.method.clearDirty"));
+		final JBlock body = clearDirtyMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			clearDirtyMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), DirtyTrackingPlugin.CLEAR_DIRTY_METHOD_NAME);
+		}
+		JFieldVar lastBitsField = null;
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			if (trackedProperty.bitsField != lastBitsField) {
+				lastBitsField = trackedProperty.bitsField;
+				body.assign(JExpr._this().ref(lastBitsField), JExpr.lit(0L));
+			}
+		}
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			if (trackedProperty.cleanCountField != null) {
+				final JFieldRef proxyRef = proxyRef(trackedProperty);
+				body._if(proxyRef.ne(JExpr._null()))._then().assign(JExpr._this().ref(trackedProperty.cleanCountField), proxyRef.invoke("getModificationCount"));
+			}
+		}
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			final JBlock childBlock = generateChildLoop(pluginContext, body, trackedProperty);
+			if (childBlock != null) {
+				childBlock.invoke(JExpr.ref(DirtyTrackingPlugin.CHILD_VAR_NAME), DirtyTrackingPlugin.CLEAR_DIRTY_METHOD_NAME);
+			}
+		}
+	}
+
+	private void generateDirtyTreeMethods(final PluginContext pluginContext, final ClassOutline classOutline, final List<TrackedProperty> trackedProperties) {
+		final JClass propertyTreeClass = pluginContext.codeModel.ref(PropertyTree.class);
+		final JClass builderClass = pluginContext.codeModel.ref(PropertyTree.Builder.class);
+		if (classOutline.getSuperClass() == null) {
+			final JMethod dirtyTreeMethod = classOutline.implClass.method(JMod.PUBLIC, propertyTreeClass, DirtyTrackingPlugin.DIRTY_TREE_METHOD_NAME);
+			dirtyTreeMethod.javadoc().append(getMessage("javadoc.method.dirtyTree"));
+			final JVar builderVar = dirtyTreeMethod.body().decl(JMod.FINAL, builderClass, "builder", propertyTreeClass.staticInvoke("builder"));
+			dirtyTreeMethod.body().invoke(DirtyTrackingPlugin.COLLECT_DIRTY_TREE_METHOD_NAME).arg(builderVar);
+			dirtyTreeMethod.body()._return(builderVar.invoke("build"));
+		}
+		// public, since it is called on child objects, which may be in a different package
+		final JMethod collectMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.voidType, DirtyTrackingPlugin.COLLECT_DIRTY_TREE_METHOD_NAME);
+		collectMethod.javadoc().append(getMessage("javadoc.method.collectDirtyTree"));
+		final JVar builderParam = collectMethod.param(JMod.FINAL, builderClass, "builder");
+		final JBlock body = collectMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			collectMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), DirtyTrackingPlugin.COLLECT_DIRTY_TREE_METHOD_NAME).arg(builderParam);
+		}
+		for (final TrackedProperty trackedProperty : trackedProperties) {
+			body._if(isBitSet(trackedProperty))._then().invoke(builderParam, "with").arg(JExpr.lit(trackedProperty.field.name()));
+			final JBlock childBlock = generateChildLoop(pluginContext, body, trackedProperty);
+			if (childBlock != null) {
+				final JExpression childRef = JExpr.ref(DirtyTrackingPlugin.CHILD_VAR_NAME);
+				childBlock._if(childRef.invoke(DirtyTrackingPlugin.IS_DIRTY_METHOD_NAME))._then()
+						.invoke(childRef, DirtyTrackingPlugin.COLLECT_DIRTY_TREE_METHOD_NAME).arg(builderParam.invoke("with").arg(JExpr.lit(trackedProperty.field.name())));
+			}
+		}
+	}
+
+	/**
+	 * Generates the code to visit the non-null values of a property
+	 * whose type is a generated class, or a collection of those.
+	 * @return The block in which the value is available as local variable {@link #CHILD_VAR_NAME},
+	 * or <tt>null</tt> if the property doesn't hold generated objects.
+	 */
+	private JBlock generateChildLoop(final PluginContext pluginContext, final JBlock body, final TrackedProperty trackedProperty) {
+		if (!trackedProperty.field.type().isReference() || trackedProperty.field.type().isArray()) {
+			return null;
+		}
+		final JClass fieldType = (JClass) trackedProperty.field.type();
+		final JFieldRef fieldRef = JExpr._this().ref(trackedProperty.field);
+		if (trackedProperty.isCollection()) {
+			final JClass elementType = fieldType.getTypeParameters().get(0);
+			if (pluginContext.getClassOutline(elementType) == null) {
+				return null;
+			}
+			final JForEach forEach = body._if(fieldRef.ne(JExpr._null()))._then().forEach(elementType, DirtyTrackingPlugin.CHILD_VAR_NAME, fieldRef);
+			return forEach.body()._if(forEach.var().ne(JExpr._null()))._then();
+		} else if (pluginContext.getClassOutline(fieldType) != null) {
+			final JBlock block = body._if(fieldRef.ne(JExpr._null()))._then();
+			block.decl(JMod.FINAL, fieldType, DirtyTrackingPlugin.CHILD_VAR_NAME, fieldRef);
+			return block;
+		} else {
+			return null;
+		}
+	}
+
+	private JExpression isBitSet(final TrackedProperty trackedProperty) {
+		final JExpression bitSet = JExpr._this().ref(trackedProperty.bitsField).band(JExpr.lit(trackedProperty.mask)).ne(JExpr.lit(0L));
+		return trackedProperty.cleanCountField == null ? bitSet : bitSet.cor(isCollectionModified(trackedProperty));
+	}
+
+	private JExpression isCollectionModified(final TrackedProperty trackedProperty) {
+		final JFieldRef proxyRef = proxyRef(trackedProperty);
+		return proxyRef.ne(JExpr._null()).cand(proxyRef.invoke("getModificationCount").ne(JExpr._this().ref(trackedProperty.cleanCountField)));
+	}
+
+	private static JFieldRef proxyRef(final TrackedProperty trackedProperty) {
+		return JExpr._this().ref(trackedProperty.field.name() + BoundPropertiesPlugin.PROXY_SUFFIX);
+	}
+
+	private static class TrackedProperty {
+		final FieldOutline fieldOutline;
+		final JFieldVar field;
+		final JFieldVar bitsField;
+		final long mask;
+		JFieldVar cleanCountField = null;
+
+		TrackedProperty(final FieldOutline fieldOutline, final JFieldVar field, final JFieldVar bitsField, final long mask) {
+			this.fieldOutline = fieldOutline;
+			this.field = field;
+			this.bitsField = bitsField;
+			this.mask = mask;
+		}
+
+		boolean isCollection() {
+			return this.fieldOutline.getPropertyInfo().isCollection() && !this.field.type().isArray();
+		}
+	}
+}
@@ -0,0 +1,583 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
+import javax.xml.bind.annotation.adapters.NormalizedStringAdapter;
+
+import com.kscs.util.jaxb.FacetValidatable;
+import com.kscs.util.jaxb.FacetValidator;
+import com.kscs.util.jaxb.PropertyTree;
+import com.kscs.util.jaxb.PropertyTreeUse;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.model.CAdapter;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CClass;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.xml.xsom.XSAttributeUse;
+import com.sun.xml.xsom.XSComplexType;
+import com.sun.xml.xsom.XSComponent;
+import com.sun.xml.xsom.XSElementDecl;
+import com.sun.xml.xsom.XSFacet;
+import com.sun.xml.xsom.XSParticle;
+import com.sun.xml.xsom.XSSimpleType;
+import com.sun.xml.xsom.XSType;
+import com.sun.xml.xsom.XSVariety;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Generates the methods checking the values of a generated class against
+ * the facets of their schema types. Facets are taken from the schema
+ * when the classes are generated, so that patterns are compiled once
+ * per class and bounds are literals or constants.
+ *
+ * @author agent 2026-10-19
+ */
+public class FacetValidatorGenerator {
+	public static final String VALIDATE_METHOD_NAME = "validate";
+	public static final String HAS_VALID_FACETS_METHOD_NAME = "hasValidFacets";
+	public static final String VALIDATE_FACETS_METHOD_NAME = "validateFacets";
+	private static final String VALUE_VAR_NAME = "value";
+	private static final String NAME_START_CHARS = "_:\\p{L}";
+	private static final String NAME_CHARS = "-._:\\p{L}\\p{N}";
+	private static final Set<String> INTEGER_TYPES = new HashSet<>(Arrays.asList("int", "java.lang.Integer", "long", "java.lang.Long", "short", "java.lang.Short", "byte", "java.lang.Byte"));
+	private static final Set<String> FLOATING_POINT_TYPES = new HashSet<>(Arrays.asList("float", "java.lang.Float", "double", "java.lang.Double"));
+	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(FacetValidatorGenerator.class.getName());
+	private final PluginContext pluginContext;
+	private final JCodeModel m;
+	private final ClassOutline classOutline;
+	private final JClass validatorClass;
+	private JVar validatorParam = null;
+
+	/**
+	 * The facets in effect for a simple type, without those of the built-in types.
+	 * Patterns are grouped by derivation step: a value must match one pattern
+	 * of every step.
+	 */
+	private static final class Facets {
+		final Map<String, XSFacet> byName = new LinkedHashMap<>();
+		final List<List<XSFacet>> patterns = new ArrayList<>();
+		List<XSFacet> enumerations = null;
+	}
+
+	/**
+	 * A test that is true if a value violates a facet.
+	 */
+	private static final class Check {
+		final JExpression test;
+		final String facet;
+		final String facetValue;
+
+		Check(final JExpression test, final String facet, final String facetValue) {
+			this.test = test;
+			this.facet = facet;
+			this.facetValue = facetValue;
+		}
+	}
+
+	public FacetValidatorGenerator(final PluginContext pluginContext, final ClassOutline classOutline) {
+		this.pluginContext = pluginContext;
+		this.m = pluginContext.codeModel;
+		this.classOutline = classOutline;
+		this.validatorClass = this.m.ref(FacetValidator.class);
+	}
+
+	public void generate() throws SAXException {
+		final boolean topmost = this.classOutline.getSuperClass() == null;
+		if (topmost) {
+			this.classOutline.implClass._implements(FacetValidatable.class);
+			generateValidateMethods();
+		}
+		final JMethod method = this.classOutline.implClass.method(JMod.PUBLIC, this.pluginContext.voidType, FacetValidatorGenerator.VALIDATE_FACETS_METHOD_NAME);
+		method.annotate(Override.class);
+		this.validatorParam = method.param(JMod.FINAL, FacetValidator.class, "validator");
+		final JBlock body = method.body();
+		if (!topmost) {
+			body.invoke(JExpr._super(), FacetValidatorGenerator.VALIDATE_FACETS_METHOD_NAME).arg(this.validatorParam);
+		}
+		boolean checked = false;
+		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && (field.mods().getValue() & JMod.STATIC) == 0) {
+				checked |= generateFieldChecks(body, fieldOutline, field);
+			}
+		}
+		if (!topmost && !checked) {
+			this.classOutline.implClass.methods().remove(method);
+		}
+	}
+
+
+	private void generateValidateMethods() {
+		final JClass violationListClass = this.m.ref(List.class).narrow(FacetValidator.Violation.class);
+
+		final JMethod validateMethod = this.classOutline.implClass.method(JMod.PUBLIC, violationListClass, FacetValidatorGenerator.VALIDATE_METHOD_NAME);
+		validateMethod.javadoc().append(getMessage("javadoc.method.validate"));
+		validateMethod.javadoc().addReturn().append(getMessage("javadoc.method.return.violations"));
+		final JVar validator = validateMethod.body().decl(JMod.FINAL, this.validatorClass, "validator", JExpr._new(this.validatorClass));
+		validateMethod.body().invoke(FacetValidatorGenerator.VALIDATE_FACETS_METHOD_NAME).arg(validator);
+		validateMethod.body()._return(validator.invoke("getViolations"));
+
+		final JMethod validatePartialMethod = this.classOutline.implClass.method(JMod.PUBLIC, violationListClass, FacetValidatorGenerator.VALIDATE_METHOD_NAME);
+		validatePartialMethod.javadoc().append(getMessage("javadoc.method.validatePartial"));
+		final JVar propertyTreeParam = validatePartialMethod.param(JMod.FINAL, PropertyTree.class, PartialCopyGenerator.PROPERTY_TREE_PARAM_NAME);
+		final JVar propertyTreeUseParam = validatePartialMethod.param(JMod.FINAL, PropertyTreeUse.class, PartialCopyGenerator.PROPERTY_TREE_USE_PARAM_NAME);
+		validatePartialMethod.javadoc().addParam(propertyTreeParam).append(getMessage("javadoc.method.param.propertyTree"));
+		validatePartialMethod.javadoc().addParam(propertyTreeUseParam).append(getMessage("javadoc.method.param.propertyTreeUse"));
+		validatePartialMethod.javadoc().addReturn().append(getMessage("javadoc.method.return.violations"));
+		final JVar partialValidator = validatePartialMethod.body().decl(JMod.FINAL, this.validatorClass, "validator", JExpr._new(this.validatorClass).arg(propertyTreeParam).arg(propertyTreeUseParam).arg(JExpr.FALSE));
+		validatePartialMethod.body().invoke(FacetValidatorGenerator.VALIDATE_FACETS_METHOD_NAME).arg(partialValidator);
+		validatePartialMethod.body()._return(partialValidator.invoke("getViolations"));
+
+		final JMethod hasValidFacetsMethod = this.classOutline.implClass.method(JMod.PUBLIC, this.m.BOOLEAN, FacetValidatorGenerator.HAS_VALID_FACETS_METHOD_NAME);
+		hasValidFacetsMethod.javadoc().append(getMessage("javadoc.method.hasValidFacets"));
+		final JVar shortCircuitValidator = hasValidFacetsMethod.body().decl(JMod.FINAL, this.validatorClass, "validator", JExpr._new(this.validatorClass).arg(JExpr._null()).arg(JExpr._null()).arg(JExpr.TRUE));
+		hasValidFacetsMethod.body().invoke(FacetValidatorGenerator.VALIDATE_FACETS_METHOD_NAME).arg(shortCircuitValidator);
+		hasValidFacetsMethod.body()._return(shortCircuitValidator.invoke("isValid"));
+	}
+
+	private boolean generateFieldChecks(final JBlock body, final FieldOutline fieldOutline, final JFieldVar field) throws SAXException {
+		final CPropertyInfo propertyInfo = fieldOutline.getPropertyInfo();
+		final JFieldRef fieldRef = JExpr._this().ref(field);
+		if (isComplex(propertyInfo)) {
+			final JBlock block = body._if(isSelected(field))._then();
+			block.invoke(this.validatorParam, "enter").arg(JExpr.lit(field.name()));
+			if (propertyInfo.isCollection()) {
+				final JForEach forEach = block._if(fieldRef.ne(JExpr._null()))._then().forEach(getItemType(field), "item", fieldRef);
+				forEach.body().invoke(this.validatorParam, "validate").arg(forEach.var());
+			} else {
+				block.invoke(this.validatorParam, "validate").arg(fieldRef);
+			}
+			block.invoke(this.validatorParam, "leave");
+			return true;
+		}
+		final XSSimpleType simpleType = getSimpleType(propertyInfo);
+		if (simpleType == null || hasValueAdapter(propertyInfo)) {
+			return false;
+		} else if (simpleType.getVariety() == XSVariety.LIST) {
+			return generateListChecks(body, field, fieldRef, simpleType);
+		} else if (simpleType.getVariety() == XSVariety.ATOMIC) {
+			final JType valueType = propertyInfo.isCollection() ? getItemType(field) : field.type();
+			final List<Check> checks = createChecks(field, "", valueType, collectFacets(simpleType));
+			if (checks.isEmpty()) {
+				return false;
+			}
+			final JBlock block = body._if(isSelected(field))._then();
+			if (propertyInfo.isCollection()) {
+				final JForEach forEach = block._if(fieldRef.ne(JExpr._null()))._then().forEach(valueType, FacetValidatorGenerator.VALUE_VAR_NAME, fieldRef);
+				generateChecks(forEach.body(), field, valueType, checks);
+			} else {
+				block.decl(JMod.FINAL, valueType, FacetValidatorGenerator.VALUE_VAR_NAME, fieldRef);
+				generateChecks(block, field, valueType, checks);
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	private boolean generateListChecks(final JBlock body, final JFieldVar field, final JFieldRef fieldRef, final XSSimpleType simpleType) throws SAXException {
+		if (field.type().isArray() || !this.pluginContext.collectionClass.isAssignableFrom((JClass)field.type())) {
+			return false;
+		}
+		final List<Check> sizeChecks = createLengthChecks(fieldRef.invoke("size"), collectFacets(simpleType));
+		final JType itemType = getItemType(field);
+		final List<Check> itemChecks = createChecks(field, "_ITEM", itemType, collectFacets(simpleType.getBaseListType().getItemType()));
+		if (sizeChecks.isEmpty() && itemChecks.isEmpty()) {
+			return false;
+		}
+		final JBlock block = body._if(isSelected(field))._then()._if(fieldRef.ne(JExpr._null()))._then();
+		if (!sizeChecks.isEmpty()) {
+			generateChain(block, field, sizeChecks, fieldRef);
+		}
+		if (!itemChecks.isEmpty()) {
+			final JForEach forEach = block.forEach(itemType, FacetValidatorGenerator.VALUE_VAR_NAME, fieldRef);
+			generateChecks(forEach.body(), field, itemType, itemChecks);
+		}
+		return true;
+	}
+
+	private void generateChecks(final JBlock block, final JFieldVar field, final JType valueType, final List<Check> checks) {
+		final JExpression value = JExpr.ref(FacetValidatorGenerator.VALUE_VAR_NAME);
+		if (valueType.isPrimitive()) {
+			generateChain(block, field, checks, value);
+		} else {
+			generateChain(block._if(value.ne(JExpr._null()))._then(), field, checks, value);
+		}
+	}
+
+	/**
+	 * Emits the checks as one if-else chain, so that each value is reported
+	 * at most once and the remaining facets are not evaluated after the
+	 * first violation.
+	 */
+	private void generateChain(final JBlock block, final JFieldVar field, final List<Check> checks, final JExpression value) {
+		JConditional conditional = null;
+		for (final Check check : checks) {
+			conditional = conditional == null ? block._if(check.test) : conditional._elseif(check.test);
+			conditional._then().invoke(this.validatorParam, "violation")
+					.arg(JExpr.lit(field.name()))
+					.arg(JExpr.lit(check.facet))
+					.arg(JExpr.lit(check.facetValue))
+					.arg(value);
+		}
+	}
+
+	private List<Check> createChecks(final JFieldVar field, final String constantSuffix, final JType valueType, final Facets facets) throws SAXException {
+		final List<Check> checks = new ArrayList<>();
+		final JExpression value = JExpr.ref(FacetValidatorGenerator.VALUE_VAR_NAME);
+		final String typeName = valueType.fullName();
+		final String constantPrefix = getConstantName(field) + constantSuffix;
+		if (String.class.getName().equals(typeName)) {
+			checks.addAll(createLengthChecks(this.validatorClass.staticInvoke("length").arg(value), facets));
+			if (facets.enumerations != null) {
+				final JInvocation values = this.m.ref(Arrays.class).staticInvoke("asList");
+				final StringBuilder lexical = new StringBuilder();
+				for (final XSFacet facet : facets.enumerations) {
+					values.arg(JExpr.lit(facet.getValue().value));
+					lexical.append(lexical.length() > 0 ? "|" : "").append(facet.getValue().value);
+				}
+				final JClass setClass = this.m.ref(Set.class).narrow(String.class);
+				final JFieldVar enumerationField = this.classOutline.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, setClass, constantPrefix + "_ENUMERATION",
+						this.m.ref(Collections.class).staticInvoke("unmodifiableSet").arg(JExpr._new(this.m.ref(HashSet.class).narrow(String.class)).arg(values)));
+				checks.add(new Check(enumerationField.invoke("contains").arg(value).not(), XSFacet.FACET_ENUMERATION, lexical.toString()));
+			}
+			int step = 0;
+			for (final List<XSFacet> group : facets.patterns) {
+				final StringBuilder regex = new StringBuilder();
+				final StringBuilder lexical = new StringBuilder();
+				for (final XSFacet facet : group) {
+					if (regex.length() > 0) {
+						regex.append('|');
+						lexical.append('|');
+					}
+					regex.append("(?:").append(toJavaRegex(facet.getValue().value)).append(')');
+					lexical.append(facet.getValue().value);
+				}
+				try {
+					Pattern.compile(regex.toString());
+				} catch (final PatternSyntaxException e) {
+					this.pluginContext.errorHandler.warning(new SAXParseException(getMessage("error.patternNotSupported", lexical.toString(), e.getDescription()), group.get(0).getLocator()));
+					continue;
+				}
+				step++;
+				final JFieldVar patternField = this.classOutline.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, Pattern.class, constantPrefix + "_PATTERN" + (step > 1 ? "_" + step : ""),
+						this.m.ref(Pattern.class).staticInvoke("compile").arg(JExpr.lit(regex.toString())));
+				checks.add(new Check(patternField.invoke("matcher").arg(value).invoke("matches").not(), XSFacet.FACET_PATTERN, lexical.toString()));
+			}
+		} else if ("byte[]".equals(typeName)) {
+			checks.addAll(createLengthChecks(this.validatorClass.staticInvoke("length").arg(value), facets));
+		} else if (FacetValidatorGenerator.INTEGER_TYPES.contains(typeName) || FacetValidatorGenerator.FLOATING_POINT_TYPES.contains(typeName)
+				|| BigInteger.class.getName().equals(typeName) || BigDecimal.class.getName().equals(typeName)) {
+			final boolean comparable = !valueType.unboxify().isPrimitive();
+			for (final String facetName : Arrays.asList(XSFacet.FACET_MININCLUSIVE, XSFacet.FACET_MINEXCLUSIVE, XSFacet.FACET_MAXINCLUSIVE, XSFacet.FACET_MAXEXCLUSIVE)) {
+				final XSFacet facet = facets.byName.get(facetName);
+				final JExpression bound = facet == null ? null : createBound(typeName, facet, constantPrefix + "_" + this.pluginContext.outline.getModel().getNameConverter().toConstantName(facetName));
+				if (bound != null) {
+					final JExpression left = comparable ? value.invoke("compareTo").arg(bound) : value;
+					final JExpression right = comparable ? JExpr.lit(0) : bound;
+					final JExpression test;
+					switch (facetName) {
+						case XSFacet.FACET_MININCLUSIVE:
+							test = left.lt(right);
+							break;
+						case XSFacet.FACET_MINEXCLUSIVE:
+							test = left.lte(right);
+							break;
+						case XSFacet.FACET_MAXINCLUSIVE:
+							test = left.gt(right);
+							break;
+						default:
+							test = left.gte(right);
+							break;
+					}
+					checks.add(new Check(test, facetName, facet.getValue().value));
+				}
+			}
+			if (!FacetValidatorGenerator.FLOATING_POINT_TYPES.contains(typeName)) {
+				final Integer totalDigits = getIntegerFacet(facets, XSFacet.FACET_TOTALDIGITS);
+				if (totalDigits != null) {
+					checks.add(new Check(this.validatorClass.staticInvoke("totalDigits").arg(value).gt(JExpr.lit(totalDigits)), XSFacet.FACET_TOTALDIGITS, totalDigits.toString()));
+				}
+			}
+			if (BigDecimal.class.getName().equals(typeName)) {
+				final Integer fractionDigits = getIntegerFacet(facets, XSFacet.FACET_FRACTIONDIGITS);
+				if (fractionDigits != null) {
+					checks.add(new Check(this.validatorClass.staticInvoke("fractionDigits").arg(value).gt(JExpr.lit(fractionDigits)), XSFacet.FACET_FRACTIONDIGITS, fractionDigits.toString()));
+				}
+			}
+		}
+		return checks;
+	}
+
+	private List<Check> createLengthChecks(final JExpression length, final Facets facets) {
+		final List<Check> checks = new ArrayList<>();
+		final Integer exactLength = getIntegerFacet(facets, XSFacet.FACET_LENGTH);
+		if (exactLength != null) {
+			checks.add(new Check(length.ne(JExpr.lit(exactLength)), XSFacet.FACET_LENGTH, exactLength.toString()));
+		}
+		final Integer minLength = getIntegerFacet(facets, XSFacet.FACET_MINLENGTH);
+		if (minLength != null) {
+			checks.add(new Check(length.lt(JExpr.lit(minLength)), XSFacet.FACET_MINLENGTH, minLength.toString()));
+		}
+		final Integer maxLength = getIntegerFacet(facets, XSFacet.FACET_MAXLENGTH);
+		if (maxLength != null) {
+			checks.add(new Check(length.gt(JExpr.lit(maxLength)), XSFacet.FACET_MAXLENGTH, maxLength.toString()));
+		}
+		return checks;
+	}
+
+	/**
+	 * Returns the bound of a range facet as a literal of the property type,
+	 * or as a constant for the arbitrary-precision types, or null if
+	 * the facet value cannot be represented in the property type.
+	 */
+	private JExpression createBound(final String typeName, final XSFacet facet, final String constantName) {
+		final String lexical = facet.getValue().value.trim();
+		try {
+			if (FacetValidatorGenerator.INTEGER_TYPES.contains(typeName)) {
+				return JExpr.lit(new BigDecimal(lexical).longValueExact());
+			} else if ("float".equals(typeName) || Float.class.getName().equals(typeName)) {
+				return JExpr.lit(Float.parseFloat(lexical));
+			} else if ("double".equals(typeName) || Double.class.getName().equals(typeName)) {
+				return JExpr.lit(Double.parseDouble(lexical));
+			} else if (BigInteger.class.getName().equals(typeName)) {
+				return this.classOutline.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, BigInteger.class, constantName,
+						JExpr._new(this.m.ref(BigInteger.class)).arg(JExpr.lit(new BigDecimal(lexical).toBigIntegerExact().toString())));
+			} else {
+				return this.classOutline.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, BigDecimal.class, constantName,
+						JExpr._new(this.m.ref(BigDecimal.class)).arg(JExpr.lit(new BigDecimal(lexical).toString())));
+			}
+		} catch (final NumberFormatException | ArithmeticException e) {
+			return null;
+		}
+	}
+
+	private static Integer getIntegerFacet(final Facets facets, final String facetName) {
+		final XSFacet facet = facets.byName.get(facetName);
+		if (facet == null) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(facet.getValue().value.trim());
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Collects the facets declared along the restriction chain of a simple type,
+	 * up to the first built-in type. A facet declared closer to the given type
+	 * overrides the same facet declared on a base type.
+	 */
+	private static Facets collectFacets(final XSSimpleType simpleType) {
+		final Facets facets = new Facets();
+		for (XSSimpleType type = simpleType; type != null && type.isRestriction() && !XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(type.getTargetNamespace()); type = type.getSimpleBaseType()) {
+			final List<XSFacet> patterns = new ArrayList<>();
+			final List<XSFacet> enumerations = new ArrayList<>();
+			for (final XSFacet facet : type.asRestriction().getDeclaredFacets()) {
+				if (XSFacet.FACET_PATTERN.equals(facet.getName())) {
+					patterns.add(facet);
+				} else if (XSFacet.FACET_ENUMERATION.equals(facet.getName())) {
+					enumerations.add(facet);
+				} else if (!facets.byName.containsKey(facet.getName())) {
+					facets.byName.put(facet.getName(), facet);
+				}
+			}
+			if (!patterns.isEmpty()) {
+				facets.patterns.add(patterns);
+			}
+			if (facets.enumerations == null && !enumerations.isEmpty()) {
+				facets.enumerations = enumerations;
+			}
+		}
+		return facets;
+	}
+
+	private static XSSimpleType getSimpleType(final CPropertyInfo propertyInfo) {
+		if (propertyInfo instanceof CElementPropertyInfo) {
+			if (((CElementPropertyInfo)propertyInfo).getTypes().size() != 1) {
+				return null;
+			}
+		} else if (!(propertyInfo instanceof CAttributePropertyInfo) && !(propertyInfo instanceof CValuePropertyInfo)) {
+			return null;
+		}
+		final XSComponent schemaComponent = propertyInfo.getSchemaComponent();
+		final XSType type;
+		if (schemaComponent instanceof XSAttributeUse) {
+			type = ((XSAttributeUse)schemaComponent).getDecl().getType();
+		} else if (schemaComponent instanceof XSParticle && ((XSParticle)schemaComponent).getTerm().isElementDecl()) {
+			type = ((XSParticle)schemaComponent).getTerm().asElementDecl().getType();
+		} else if (schemaComponent instanceof XSElementDecl) {
+			type = ((XSElementDecl)schemaComponent).getType();
+		} else if (schemaComponent instanceof XSComplexType) {
+			return ((XSComplexType)schemaComponent).getContentType().asSimpleType();
+		} else if (schemaComponent instanceof XSSimpleType) {
+			return (XSSimpleType)schemaComponent;
+		} else {
+			return null;
+		}
+		return type.isSimpleType() ? type.asSimpleType() : null;
+	}
+
+	private static boolean isComplex(final CPropertyInfo propertyInfo) {
+		if (propertyInfo instanceof CReferencePropertyInfo) {
+			return true;
+		} else if (propertyInfo instanceof CElementPropertyInfo) {
+			for (final CTypeRef typeRef : ((CElementPropertyInfo)propertyInfo).getTypes()) {
+				if (typeRef.getTarget() instanceof CClass) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The string normalizing adapters only change whitespace, all
+	 * other adapters may map the value to something the facets
+	 * don't apply to.
+	 */
+	private boolean hasValueAdapter(final CPropertyInfo propertyInfo) {
+		final CAdapter adapter = propertyInfo.getAdapter();
+		if (adapter == null) {
+			return false;
+		}
+		final String adapterClassName = adapter.getAdapterClass(this.pluginContext.outline).fullName();
+		return !CollapsedStringAdapter.class.getName().equals(adapterClassName) && !NormalizedStringAdapter.class.getName().equals(adapterClassName);
+	}
+
+	private JExpression isSelected(final JFieldVar field) {
+		return this.validatorParam.invoke("isSelected").arg(JExpr.lit(field.name()));
+	}
+
+	private JType getItemType(final JFieldVar field) {
+		final JType fieldType = field.type();
+		if (fieldType.isArray()) {
+			return fieldType.elementType();
+		}
+		final List<JClass> typeParameters = ((JClass)fieldType).getTypeParameters();
+		return typeParameters.isEmpty() ? this.m.ref(Object.class) : typeParameters.get(0);
+	}
+
+	private String getConstantName(final JFieldVar field) {
+		return this.pluginContext.outline.getModel().getNameConverter().toConstantName(field.name());
+	}
+
+	/**
+	 * Translates an XML schema regular expression to a java regular expression.
+	 * XML schema patterns are implicitly anchored, have no anchors of their own,
+	 * and know the multi-character escapes for XML names as well as
+	 * character class subtraction.
+	 */
+	static String toJavaRegex(final String xsdRegex) {
+		final StringBuilder sb = new StringBuilder(xsdRegex.length() + 16);
+		int classDepth = 0;
+		for (int i = 0; i < xsdRegex.length(); i++) {
+			final char c = xsdRegex.charAt(i);
+			if (c == '\\' && i + 1 < xsdRegex.length()) {
+				final char escaped = xsdRegex.charAt(++i);
+				final String nameChars;
+				switch (escaped) {
+					case 'i':
+						nameChars = FacetValidatorGenerator.NAME_START_CHARS;
+						break;
+					case 'c':
+						nameChars = FacetValidatorGenerator.NAME_CHARS;
+						break;
+					case 'I':
+						nameChars = "^" + FacetValidatorGenerator.NAME_START_CHARS;
+						break;
+					case 'C':
+						nameChars = "^" + FacetValidatorGenerator.NAME_CHARS;
+						break;
+					default:
+						nameChars = null;
+						break;
+				}
+				if (nameChars == null) {
+					sb.append(c).append(escaped);
+				} else {
+					sb.append('[').append(nameChars).append(']');
+				}
+			} else if (c == '[') {
+				classDepth++;
+				sb.append(c);
+			} else if (c == ']' && classDepth > 0) {
+				classDepth--;
+				sb.append(c);
+			} else if (c == '-' && classDepth > 0 && i + 1 < xsdRegex.length() && xsdRegex.charAt(i + 1) == '[') {
+				sb.append("&&[^");
+				classDepth++;
+				i++;
+			} else if ((c == '^' || c == '$') && classDepth == 0) {
+				sb.append('\\').append(c);
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private String getMessage(final String resourceKey, final Object... args) {
+		return MessageFormat.format(FacetValidatorGenerator.RESOURCE_BUNDLE.getString(resourceKey), args);
+	}
+}
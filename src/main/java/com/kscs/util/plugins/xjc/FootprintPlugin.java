@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.kscs.util.jaxb.Footprint;
+import com.kscs.util.jaxb.FootprintEstimator;
+import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * XJC Plugin to generate methods that estimate the memory
+ * retained by an object tree.
+ *
+ * @author agent 2026-10-19
+ */
+public class FootprintPlugin extends AbstractPlugin {
+	public static final String ESTIMATE_METHOD_NAME = "estimateRetainedSize";
+	public static final String ADD_RETAINED_SIZE_METHOD_NAME = "addRetainedSize";
+	public static final String ADD_REFERENCED_SIZES_METHOD_NAME = "addReferencedSizes";
+	/**
+	 * Name of the field XJC generates to hold attributes matched by <tt>xs:anyAttribute</tt>.
+	 */
+	private static final String OTHER_ATTRIBUTES_FIELD_NAME = "otherAttributes";
+
+	@Opt
+	private boolean generateTools = true;
+
+	@Override
+	public String getOptionName() {
+		return "Xfootprint";
+	}
+
+	@Override
+	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		if (this.generateTools) {
+			pluginContext.writeSourceFile(Footprint.class);
+			pluginContext.writeSourceFile(FootprintEstimator.class);
+		}
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			generateFootprintMethods(pluginContext, classOutline);
+		}
+		return true;
+	}
+
+	private void generateFootprintMethods(final PluginContext pluginContext, final ClassOutline classOutline) {
+		if (classOutline.getSuperClass() == null) {
+			classOutline.implClass._implements(Footprint.class);
+			final JMethod estimateMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.codeModel.LONG, FootprintPlugin.ESTIMATE_METHOD_NAME);
+			estimateMethod.javadoc().append(getMessage("javadoc.method.estimateRetainedSize"));
+			final JVar estimatorVar = estimateMethod.body().decl(JMod.FINAL, pluginContext.codeModel.ref(FootprintEstimator.class), "estimator", JExpr._new(pluginContext.codeModel.ref(FootprintEstimator.class)));
+			estimateMethod.body().invoke(estimatorVar, "add").arg(JExpr._this());
+			estimateMethod.body()._return(estimatorVar.invoke("getSize"));
+		}
+		final List<JFieldVar> referencedFields = new ArrayList<>();
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			if (field != null && !field.type().isPrimitive()) {
+				referencedFields.add(field);
+			}
+		}
+		final JFieldVar otherAttributesField = classOutline.implClass.fields().get(FootprintPlugin.OTHER_ATTRIBUTES_FIELD_NAME);
+		if (otherAttributesField != null && !referencedFields.contains(otherAttributesField)) {
+			referencedFields.add(otherAttributesField);
+		}
+		if (classOutline.getSuperClass() != null && referencedFields.isEmpty() && !hasInstanceFields(classOutline)) {
+			return;
+		}
+
+		// the shallow size covers all instance fields, including inherited ones
+		int references = 0;
+		int primitiveBytes = 0;
+		for (ClassOutline current = classOutline; current != null; current = current.getSuperClass()) {
+			for (final JFieldVar field : current.implClass.fields().values()) {
+				if ((field.mods().getValue() & JMod.STATIC) == 0) {
+					if (field.type().isPrimitive()) {
+						primitiveBytes += primitiveSize(field.type().fullName());
+					} else {
+						references++;
+					}
+				}
+			}
+		}
+		final JMethod addRetainedSizeMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.voidType, FootprintPlugin.ADD_RETAINED_SIZE_METHOD_NAME);
+		addRetainedSizeMethod.annotate(Override.class);
+		final JVar estimatorParam = addRetainedSizeMethod.param(JMod.FINAL, FootprintEstimator.class, "estimator");
+		addRetainedSizeMethod.body().invoke(estimatorParam, "addObject").arg(JExpr.lit(references)).arg(JExpr.lit(primitiveBytes));
+		addRetainedSizeMethod.body().invoke(FootprintPlugin.ADD_REFERENCED_SIZES_METHOD_NAME).arg(estimatorParam);
+
+		if (classOutline.getSuperClass() != null && referencedFields.isEmpty()) {
+			return;
+		}
+		final JMethod addReferencedSizesMethod = classOutline.implClass.method(JMod.PROTECTED, pluginContext.voidType, FootprintPlugin.ADD_REFERENCED_SIZES_METHOD_NAME);
+		final JVar referencedEstimatorParam = addReferencedSizesMethod.param(JMod.FINAL, FootprintEstimator.class, "estimator");
+		final JBlock body = addReferencedSizesMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			addReferencedSizesMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), FootprintPlugin.ADD_REFERENCED_SIZES_METHOD_NAME).arg(referencedEstimatorParam);
+		}
+		for (final JFieldVar field : referencedFields) {
+			body.invoke(referencedEstimatorParam, "add").arg(JExpr._this().ref(field));
+		}
+	}
+
+	private static boolean hasInstanceFields(final ClassOutline classOutline) {
+		for (final JFieldVar field : classOutline.implClass.fields().values()) {
+			if ((field.mods().getValue() & JMod.STATIC) == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int primitiveSize(final String typeName) {
+		switch (typeName) {
+			case "long":
+			case "double":
+				return 8;
+			case "int":
+			case "float":
+				return 4;
+			case "short":
+			case "char":
+				return 2;
+			default:
+				return 1;
+		}
+	}
+}
@@ -133,6 +133,10 @@ public class ImmutablePlugin extends AbstractPlugin {
 		return true;
 	}
 
+	boolean isFake() {
+		return this.fake;
+	}
+
 	String getImmutableFieldName(final PropertyOutline fieldVar) {
 		return fieldVar.getFieldName() + "_RO";
 	}
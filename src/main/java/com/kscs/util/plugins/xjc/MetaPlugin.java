@@ -24,7 +24,9 @@
 package com.kscs.util.plugins.xjc;
 
 import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.JAXBElement;
 import javax.xml.namespace.QName;
@@ -40,8 +42,12 @@ import com.kscs.util.jaxb.IndirectCollectionPropertyInfo;
 import com.kscs.util.jaxb.IndirectPrimitiveCollectionProperty;
 import com.kscs.util.jaxb.IndirectPrimitiveCollectionPropertyInfo;
 import com.kscs.util.jaxb.ItemProperty;
+import com.kscs.util.jaxb.PathQuery;
 import com.kscs.util.jaxb.Property;
+import com.kscs.util.jaxb.PropertyAccessor;
 import com.kscs.util.jaxb.PropertyInfo;
+import com.kscs.util.jaxb.PropertyInfoResolver;
+import com.kscs.util.jaxb.PropertyInfoVisitor;
 import com.kscs.util.jaxb.PropertyVisitor;
 import com.kscs.util.jaxb.SingleProperty;
 import com.kscs.util.jaxb.SinglePropertyInfo;
@@ -50,7 +56,9 @@ import com.kscs.util.plugins.xjc.base.AbstractXSFunction;
 import com.kscs.util.plugins.xjc.base.Opt;
 import com.kscs.util.plugins.xjc.outline.DefinedPropertyOutline;
 import com.kscs.util.plugins.xjc.outline.PropertyOutline;
+import com.sun.codemodel.JArray;
 import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCase;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassAlreadyExistsException;
 import com.sun.codemodel.JCodeModel;
@@ -62,11 +70,13 @@ import com.sun.codemodel.JExpressionImpl;
 import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
 import com.sun.codemodel.JFormatter;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
 import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
 import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import com.sun.tools.xjc.Options;
@@ -98,6 +108,7 @@ import com.sun.xml.xsom.visitor.XSFunction;
  * @author Mirko Klemm 2015-02-13
  */
 public class MetaPlugin extends AbstractPlugin {
+	public static final String PROPERTIES_FIELD_NAME = "__PROPERTIES";
 	private static final XSFunction<QName> SCHEMA_NAME_FUNC = new AbstractXSFunction<QName>() {
 		@Override
 		public QName attributeDecl(final XSAttributeDecl decl) {
@@ -268,6 +279,10 @@ public class MetaPlugin extends AbstractPlugin {
 	private boolean allowSet = true;
 	@Opt
 	private String visitMethodName = "visit";
+	@Opt
+	private boolean registry = false;
+	@Opt
+	private String registryClassName = "MetaRegistry";
 	private boolean fixedAttributeAsConstantProperty;
 
 	@Override
@@ -289,38 +304,77 @@ public class MetaPlugin extends AbstractPlugin {
 		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
 		if (this.extended && this.generateTools) {
 			pluginContext.writeSourceFile(PropertyInfo.class);
+			pluginContext.writeSourceFile(PropertyAccessor.class);
 			pluginContext.writeSourceFile(SinglePropertyInfo.class);
 			pluginContext.writeSourceFile(CollectionPropertyInfo.class);
 			pluginContext.writeSourceFile(IndirectCollectionPropertyInfo.class);
 			pluginContext.writeSourceFile(IndirectPrimitiveCollectionPropertyInfo.class);
 			pluginContext.writeSourceFile(PropertyVisitor.class);
+			pluginContext.writeSourceFile(PropertyInfoVisitor.class);
 			pluginContext.writeSourceFile(Property.class);
 			pluginContext.writeSourceFile(SingleProperty.class);
 			pluginContext.writeSourceFile(CollectionProperty.class);
 			pluginContext.writeSourceFile(IndirectCollectionProperty.class);
 			pluginContext.writeSourceFile(IndirectPrimitiveCollectionProperty.class);
 			pluginContext.writeSourceFile(ItemProperty.class);
+			if (this.registry) {
+				pluginContext.writeSourceFile(PropertyInfoResolver.class);
+				pluginContext.writeSourceFile(PathQuery.class);
+			}
 		}
+		final Map<ClassOutline, JDefinedClass> metaClasses = new LinkedHashMap<>();
+		final Map<ClassOutline, Map<String, JExpression>> propertyInfoRefs = new LinkedHashMap<>();
 		for (final ClassOutline classOutline : outline.getClasses()) {
-			generateMetaClass(pluginContext, classOutline, errorHandler);
+			final Map<String, JExpression> classPropertyInfoRefs = new LinkedHashMap<>();
+			final JDefinedClass metaClass = generateMetaClass(pluginContext, classOutline, classPropertyInfoRefs, errorHandler);
+			if (metaClass != null) {
+				metaClasses.put(classOutline, metaClass);
+				propertyInfoRefs.put(classOutline, classPropertyInfoRefs);
+			}
+		}
+		if (this.registry) {
+			if (!this.extended) {
+				errorHandler.error(new SAXParseException(getMessage("error.registryNotExtended"), outline.getModel().getLocator()));
+			} else {
+				try {
+					new MetaRegistryGenerator(pluginContext, this.registryClassName, metaClasses, propertyInfoRefs).generate();
+				} catch (final JClassAlreadyExistsException e) {
+					errorHandler.error(new SAXParseException(getMessage("error.registryClassExists", e.getExistingClass().fullName()), outline.getModel().getLocator()));
+				}
+			}
 		}
 		return true;
 	}
 
-	private void generateMetaClass(final PluginContext pluginContext, final ClassOutline classOutline, final ErrorHandler errorHandler) throws SAXException {
+	private JDefinedClass generateMetaClass(final PluginContext pluginContext, final ClassOutline classOutline, final Map<String, JExpression> propertyInfoRefs, final ErrorHandler errorHandler) throws SAXException {
 		try {
 			final JDefinedClass metaClass = classOutline.implClass._class(JMod.PUBLIC | JMod.STATIC, this.metaClassName);
-			final JMethod visitMethod = generateVisitMethod(classOutline);
+			final JMethod visitMethod = generateVisitMethod(classOutline, PropertyVisitor.class);
+			final JMethod infoVisitMethod = this.extended ? generateVisitMethod(classOutline, PropertyInfoVisitor.class) : null;
+			final AccessorGenerator accessor = this.extended ? new AccessorGenerator(pluginContext, classOutline, metaClass) : null;
 			for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
 				if (this.extended) {
-					generateExtendedMetaField(pluginContext, metaClass, visitMethod, fieldOutline);
+					generateExtendedMetaField(pluginContext, metaClass, accessor, visitMethod, infoVisitMethod, fieldOutline, propertyInfoRefs);
 				} else {
 					generateNameOnlyMetaField(pluginContext, metaClass, fieldOutline);
 				}
 			}
 			visitMethod.body()._return(JExpr._this());
+			if (infoVisitMethod != null) {
+				infoVisitMethod.body()._return(JExpr._this());
+			}
+			if (this.extended) {
+				// must come after the property info fields it contains
+				final JArray properties = JExpr.newArray(pluginContext.codeModel.ref(PropertyInfo.class).narrow(pluginContext.codeModel.wildcard(), pluginContext.codeModel.wildcard()));
+				for (final JExpression propertyInfoRef : propertyInfoRefs.values()) {
+					properties.add(propertyInfoRef);
+				}
+				metaClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL | JMod.TRANSIENT, pluginContext.codeModel.ref(PropertyInfo.class).narrow(pluginContext.codeModel.wildcard(), pluginContext.codeModel.wildcard()).array(), MetaPlugin.PROPERTIES_FIELD_NAME, properties);
+			}
+			return metaClass;
 		} catch (final JClassAlreadyExistsException e) {
 			errorHandler.error(new SAXParseException(getMessage("error.metaClassExists", classOutline.implClass.name(), this.metaClassName), classOutline.target.getLocator()));
+			return null;
 		}
 	}
 
@@ -333,7 +387,7 @@ public class MetaPlugin extends AbstractPlugin {
 		metaClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL | JMod.TRANSIENT, String.class, metaFieldName, JExpr.lit(propertyName));
 	}
 
-	private void generateExtendedMetaField(final PluginContext pluginContext, final JDefinedClass metaClass, final JMethod visitMethod, final FieldOutline fieldOutline) {
+	private void generateExtendedMetaField(final PluginContext pluginContext, final JDefinedClass metaClass, final AccessorGenerator accessor, final JMethod visitMethod, final JMethod infoVisitMethod, final FieldOutline fieldOutline, final Map<String, JExpression> propertyInfoRefs) {
 		final PropertyOutline propertyOutline = new DefinedPropertyOutline(fieldOutline);
 		final String constantName = getConstantName(fieldOutline);
 		final Outline outline = pluginContext.outline;
@@ -345,7 +399,7 @@ public class MetaPlugin extends AbstractPlugin {
 		final JClass typeArg;
 		final Class<? extends Property> propertyWrapperClass;
 		final F1<JExpression, JVar> getMaker;
-		final F3<JExpression, JBlock, JVar, JVar> setMaker;
+		final F3<JExpression, JBlock, JVar, JExpression> setMaker;
 		final JClass jaxbElementClass = outline.getCodeModel().ref(JAXBElement.class);
 		if (propertyOutline.isIndirect()) {
 			final JClass propertyType = ((JClass)rawType).getTypeParameters().get(0);
@@ -356,9 +410,9 @@ public class MetaPlugin extends AbstractPlugin {
 						return param.ref(propertyName);
 					}
 				};
-				setMaker = new F3<JExpression, JBlock, JVar, JVar>() {
+				setMaker = new F3<JExpression, JBlock, JVar, JExpression>() {
 					@Override
-					public JExpression f(final JBlock block, final JVar instanceParam, final JVar valueParam) {
+					public JExpression f(final JBlock block, final JVar instanceParam, final JExpression valueParam) {
 						block.assign(instanceParam.ref(propertyName), valueParam);
 						return null;
 					}
@@ -374,10 +428,11 @@ public class MetaPlugin extends AbstractPlugin {
 						return JOp.cond(param.ref(propertyName).eq(JExpr._null()), JExpr._null(), param.ref(propertyName).invoke("getValue"));
 					}
 				};
-				setMaker = new F3<JExpression, JBlock, JVar, JVar>() {
+				setMaker = new F3<JExpression, JBlock, JVar, JExpression>() {
 					@Override
-					public JExpression f(final JBlock block, final JVar instanceParam, final JVar valueParam) {
-						return JExpr.assign(instanceParam.ref(propertyName), JExpr._new(jaxbElementClass).arg(JExpr._this().ref("schemaName")).arg(propertyType._extends().dotclass()).arg(valueParam));
+					public JExpression f(final JBlock block, final JVar instanceParam, final JExpression valueParam) {
+						block.assign(instanceParam.ref(propertyName), JExpr._new(jaxbElementClass).arg(metaClass.staticRef(metaFieldName).ref("schemaName")).arg(propertyType._extends().dotclass()).arg(valueParam));
+						return null;
 					}
 				};
 				infoClass = SinglePropertyInfo.class;
@@ -397,9 +452,9 @@ public class MetaPlugin extends AbstractPlugin {
 					return ((JClass)param.type()).staticRef(propertyName);
 				}
 			};
-			setMaker = new F3<JExpression, JBlock, JVar, JVar>() {
+			setMaker = new F3<JExpression, JBlock, JVar, JExpression>() {
 				@Override
-				public JExpression f(final JBlock block, final JVar instanceParam, final JVar valueParam) {
+				public JExpression f(final JBlock block, final JVar instanceParam, final JExpression valueParam) {
 					block.assign(instanceParam.ref(propertyName), valueParam);
 					return null;
 				}
@@ -417,8 +472,7 @@ public class MetaPlugin extends AbstractPlugin {
 			}
 		}
 		final JClass metaFieldType = typeArg == null ? outline.getCodeModel().ref(infoClass).narrow(fieldOutline.parent().implClass) : outline.getCodeModel().ref(infoClass).narrow(fieldOutline.parent().implClass, typeArg);
-		final JDefinedClass anonymousMetaFieldType = outline.getCodeModel().anonymousClass(metaFieldType);
-		generateAccessors(fieldOutline, propertyName, fieldType, anonymousMetaFieldType, getMaker, setMaker);
+		final int index = accessor.addProperty(constantName == null && this.allowSet, fieldType, getMaker, setMaker);
 		final XSComponent schemaComponent = fieldOutline.getPropertyInfo().getSchemaComponent();
 		final QName schemaName = schemaComponent.apply(MetaPlugin.SCHEMA_NAME_FUNC);
 		final QName schemaType = schemaComponent.apply(MetaPlugin.SCHEMA_TYPE_FUNC);
@@ -426,7 +480,9 @@ public class MetaPlugin extends AbstractPlugin {
 		final JExpression schemaNameExpr = JExpr._new(outline.getCodeModel().ref(QName.class)).arg(schemaName.getNamespaceURI()).arg(schemaName.getLocalPart());
 		final JExpression schemaTypeExpr = JExpr._new(outline.getCodeModel().ref(QName.class)).arg(schemaType.getNamespaceURI()).arg(schemaType.getLocalPart());
 		final CDefaultValue defaultValue = fieldOutline.getPropertyInfo().defaultValue;
-		final JFieldVar staticField = metaClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL | JMod.TRANSIENT, metaFieldType, metaFieldName, JExpr._new(anonymousMetaFieldType)
+		final JFieldVar staticField = metaClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL | JMod.TRANSIENT, metaFieldType, metaFieldName, JExpr._new(metaFieldType)
+				.arg(metaClass.staticRef(accessor.accessorField))
+				.arg(JExpr.lit(index))
 				.arg(propertyName)
 				.arg(fieldOutline.parent().implClass.dotclass())
 				.arg(dotClass(typeArg == null ? pluginContext.codeModel.ref(Object.class) : typeArg))
@@ -453,38 +509,74 @@ public class MetaPlugin extends AbstractPlugin {
 		} else {
 			block.add(call);
 		}
+		final JExpression valueRef = constantName == null ? JExpr._this().ref(propertyName) : fieldOutline.parent().implClass.staticRef(propertyName);
+		final boolean infoVisitable = typeArg != null && isVisitable(pluginContext, typeArg, PropertyInfoVisitor.class);
+		generateInfoVisit(pluginContext, infoVisitMethod, metaClass.staticRef(staticField), propertyOutline, rawType, fieldType, valueRef, infoVisitable);
+		propertyInfoRefs.put(propertyName, metaClass.staticRef(staticField));
+	}
+
+	/**
+	 * Generates the code to visit one property with a {@link PropertyInfoVisitor}.
+	 * Collections are iterated by index, so no wrapper or iterator objects are created.
+	 * Primitive values are passed to the overload for their type, so they aren't boxed.
+	 */
+	private void generateInfoVisit(final PluginContext pluginContext, final JMethod infoVisitMethod, final JExpression infoRef, final PropertyOutline propertyOutline, final JType rawType, final JType fieldType, final JExpression valueRef, final boolean visitable) {
+		final JVar visitorParam = infoVisitMethod.params().get(0);
+		final JBlock block = infoVisitMethod.body().block();
+		if (propertyOutline.isCollection() && !rawType.isArray()) {
+			final JBlock ifVisitItems = block._if(visitorParam.invoke("visit").arg(infoRef).arg(JExpr._this()).arg(valueRef).cand(valueRef.ne(JExpr._null())))._then();
+			final JForLoop loop = ifVisitItems._for();
+			final JVar indexVar = loop.init(pluginContext.codeModel.INT, "_i_", JExpr.lit(0));
+			loop.test(indexVar.lt(valueRef.invoke("size")));
+			loop.update(indexVar.incr());
+			final JVar itemVar = loop.body().decl(JMod.FINAL, rawType, "_item_", valueRef.invoke("get").arg(indexVar));
+			final JInvocation itemCall = visitorParam.invoke("visit").arg(infoRef).arg(JExpr._this()).arg(itemVar).arg(indexVar);
+			if (visitable) {
+				final JBlock ifDescend = loop.body()._if(itemCall.cand(itemVar.ne(JExpr._null())))._then();
+				if (propertyOutline.isIndirect()) {
+					final JExpression itemValue = itemVar.invoke("getValue");
+					ifDescend._if(itemValue.ne(JExpr._null()))._then().add(itemValue.invoke(this.visitMethodName).arg(visitorParam));
+				} else {
+					ifDescend.add(itemVar.invoke(this.visitMethodName).arg(visitorParam));
+				}
+			} else {
+				loop.body().add(itemCall);
+			}
+		} else {
+			final JExpression value = propertyOutline.isIndirect() ? JOp.cond(valueRef.eq(JExpr._null()), JExpr._null(), valueRef.invoke("getValue")) : valueRef;
+			// array properties are passed as a whole
+			final boolean array = propertyOutline.isCollection();
+			final JType valueType = array ? pluginContext.codeModel.ref(Object.class) : rawType.isPrimitive() ? rawType : fieldType;
+			final JVar valueVar = block.decl(JMod.FINAL, valueType, "_value_", value);
+			final JInvocation call = visitorParam.invoke("visit").arg(infoRef).arg(JExpr._this()).arg(valueVar);
+			if (valueType.isPrimitive()) {
+				block.add(call);
+			} else if (visitable && !array) {
+				block._if(call.cand(valueVar.ne(JExpr._null())))._then().add(valueVar.invoke(this.visitMethodName).arg(visitorParam));
+			} else {
+				block.add(call);
+			}
+		}
 	}
 
 	private boolean isVisitable(final PluginContext pluginContext, final JClass typeArg) {
-		return pluginContext.getClassOutline(typeArg) != null || hasReferencedClass(typeArg);
+		return isVisitable(pluginContext, typeArg, PropertyVisitor.class);
+	}
+
+	private boolean isVisitable(final PluginContext pluginContext, final JClass typeArg, final Class<?> visitorClass) {
+		return pluginContext.getClassOutline(typeArg) != null || hasReferencedClass(typeArg, visitorClass);
 	}
 
-	private boolean hasReferencedClass(final JClass typeArg) {
+	private boolean hasReferencedClass(final JClass typeArg, final Class<?> visitorClass) {
 		try {
 			final Class<?> foundClass = Class.forName(typeArg.binaryName());
-			final Method visitMethod = foundClass.getMethod("visit", PropertyVisitor.class);
+			final Method visitMethod = foundClass.getMethod("visit", visitorClass);
 			return visitMethod != null;
 		} catch (final Exception cfne) {
 			return false;
 		}
 	}
 
-	private void generateAccessors(final FieldOutline fieldOutline, final String propertyName, final JType returnType, final JDefinedClass declaringClass, final F1<JExpression, JVar> getMaker, final F3<JExpression, JBlock, JVar, JVar> setMaker) {
-		final String constantName = getConstantName(fieldOutline);
-		final JMethod getMethod = declaringClass.method(JMod.PUBLIC, returnType, "get");
-		getMethod.annotate(Override.class);
-		final JVar instanceParam = getMethod.param(JMod.FINAL, fieldOutline.parent().implClass, "_instance_");
-		getMethod.body()._return(JOp.cond(instanceParam.eq(JExpr._null()), JExpr._null(), getMaker.f(instanceParam)));
-		final JMethod setMethod = declaringClass.method(JMod.PUBLIC, void.class, "set");
-		setMethod.annotate(Override.class);
-		final JVar setInstanceParam = setMethod.param(JMod.FINAL, fieldOutline.parent().implClass, "_instance_");
-		final JVar valueParam = setMethod.param(JMod.FINAL, returnType, "_value_");
-		if (constantName == null) {
-			final JConditional ifNotNull = setMethod.body()._if(setInstanceParam.ne(JExpr._null()));
-			setMaker.f(ifNotNull._then(), setInstanceParam, valueParam);
-		}
-	}
-
 	private JExpression dotClass(final JType cl) {
 		if (cl instanceof JClass) {
 			return ((JClass)cl).dotclass();
@@ -507,11 +599,11 @@ public class MetaPlugin extends AbstractPlugin {
 		}
 	}
 
-	private JMethod generateVisitMethod(final ClassOutline classOutline) {
+	private JMethod generateVisitMethod(final ClassOutline classOutline, final Class<?> visitorClass) {
 		final JDefinedClass definedClass = classOutline.implClass;
 		final JMethod visitMethod = definedClass.method(JMod.PUBLIC, definedClass, this.visitMethodName);
 		final JCodeModel codeModel = definedClass.owner();
-		final JClass visitorType = codeModel.ref(PropertyVisitor.class);
+		final JClass visitorType = codeModel.ref(visitorClass);
 		final JVar visitorParam = visitMethod.param(JMod.FINAL, visitorType, "_visitor_");
 		if (classOutline.getSuperClass() != null) {
 			visitMethod.body().add(JExpr._super().invoke(this.visitMethodName).arg(visitorParam));
@@ -525,6 +617,64 @@ public class MetaPlugin extends AbstractPlugin {
 		return this.visitMethodName;
 	}
 
+	/**
+	 * Generates the single {@link PropertyAccessor} implementation of a class,
+	 * which reads and writes all of its properties by index.
+	 */
+	private class AccessorGenerator {
+		final JFieldVar accessorField;
+		private final JVar getInstanceParam;
+		private final JSwitch getSwitch;
+		private final JVar setInstanceParam;
+		private final JVar setValueParam;
+		private final JSwitch setSwitch;
+		private int nextIndex = 0;
+
+		AccessorGenerator(final PluginContext pluginContext, final ClassOutline classOutline, final JDefinedClass metaClass) throws JClassAlreadyExistsException {
+			final JCodeModel codeModel = pluginContext.codeModel;
+			final JClass accessorType = codeModel.ref(PropertyAccessor.class).narrow(classOutline.implClass);
+			final JDefinedClass accessorClass = metaClass._class(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, "Accessor");
+			accessorClass._implements(accessorType);
+			// must come before the property info fields, which are initialized with it
+			this.accessorField = metaClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL | JMod.TRANSIENT, accessorType, "__ACCESSOR", JExpr._new(accessorClass));
+
+			final JMethod getMethod = accessorClass.method(JMod.PUBLIC, Object.class, "get");
+			getMethod.annotate(Override.class);
+			this.getInstanceParam = getMethod.param(JMod.FINAL, classOutline.implClass, "_instance_");
+			final JVar getIndexParam = getMethod.param(JMod.FINAL, codeModel.INT, "_index_");
+			this.getSwitch = getMethod.body()._switch(getIndexParam);
+			getMethod.body()._throw(JExpr._new(codeModel.ref(IndexOutOfBoundsException.class)).arg(JExpr.lit("No property with index ").plus(getIndexParam)));
+
+			final JMethod setMethod = accessorClass.method(JMod.PUBLIC, codeModel.VOID, "set");
+			setMethod.annotate(Override.class);
+			setMethod.annotate(SuppressWarnings.class).param("value", "unchecked");
+			this.setInstanceParam = setMethod.param(JMod.FINAL, classOutline.implClass, "_instance_");
+			final JVar setIndexParam = setMethod.param(JMod.FINAL, codeModel.INT, "_index_");
+			this.setValueParam = setMethod.param(JMod.FINAL, Object.class, "_value_");
+			if (MetaPlugin.this.allowSet) {
+				this.setSwitch = setMethod.body()._switch(setIndexParam);
+				setMethod.body()._throw(JExpr._new(codeModel.ref(IndexOutOfBoundsException.class)).arg(JExpr.lit("No property with index ").plus(setIndexParam)));
+			} else {
+				this.setSwitch = null;
+				setMethod.body()._throw(JExpr._new(codeModel.ref(UnsupportedOperationException.class)).arg(JExpr.lit("Properties of " + classOutline.implClass.name() + " cannot be set via meta information.")));
+			}
+		}
+
+		int addProperty(final boolean settable, final JType fieldType, final F1<JExpression, JVar> getMaker, final F3<JExpression, JBlock, JVar, JExpression> setMaker) {
+			final int index = this.nextIndex++;
+			this.getSwitch._case(JExpr.lit(index)).body()._return(getMaker.f(this.getInstanceParam));
+			if (this.setSwitch != null) {
+				final JCase setCase = this.setSwitch._case(JExpr.lit(index));
+				// constant properties cannot be changed, so setting them is ignored
+				if (settable) {
+					setMaker.f(setCase.body(), this.setInstanceParam, JExpr.cast(fieldType, this.setValueParam));
+				}
+				setCase.body()._return();
+			}
+			return index;
+		}
+	}
+
 	private interface F1<R, A> {
 		R f(final A param);
 	}
@@ -0,0 +1,372 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import javax.xml.namespace.QName;
+
+import com.kscs.util.jaxb.PropertyInfo;
+import com.kscs.util.jaxb.PropertyInfoResolver;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.outline.ClassOutline;
+
+/**
+ * Generates one registry class per package that looks up the meta information
+ * generated by {@link MetaPlugin} by class, by element or type name, and by
+ * class and property name. All lookups go through hash tables computed at
+ * generation time, so no reflection or map building is needed at runtime.
+ *
+ * @author agent 2026-10-19
+ */
+public class MetaRegistryGenerator {
+	public static final String ALL_PROPERTIES_FIELD_NAME = "__ALL_PROPERTIES";
+	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(MetaRegistryGenerator.class.getName());
+	private final PluginContext pluginContext;
+	private final String registryClassName;
+	private final Map<ClassOutline, JDefinedClass> metaClasses;
+	private final Map<ClassOutline, Map<String, JExpression>> propertyInfoRefs;
+	private final JClass classType;
+	private final JClass propertyInfoType;
+
+	/**
+	 * @param pluginContext The plugin context
+	 * @param registryClassName Simple name of the registry class to generate in each package
+	 * @param metaClasses The meta classes generated for each class
+	 * @param propertyInfoRefs References to the static property info fields of each class
+	 *                         by property name, in property index order
+	 */
+	public MetaRegistryGenerator(final PluginContext pluginContext, final String registryClassName, final Map<ClassOutline, JDefinedClass> metaClasses, final Map<ClassOutline, Map<String, JExpression>> propertyInfoRefs) {
+		this.pluginContext = pluginContext;
+		this.registryClassName = registryClassName;
+		this.metaClasses = metaClasses;
+		this.propertyInfoRefs = propertyInfoRefs;
+		final JCodeModel m = pluginContext.codeModel;
+		this.classType = m.ref(Class.class).narrow(m.wildcard());
+		this.propertyInfoType = m.ref(PropertyInfo.class).narrow(m.wildcard(), m.wildcard());
+	}
+
+	public void generate() throws JClassAlreadyExistsException {
+		final Map<JPackage, List<ClassOutline>> classesByPackage = new LinkedHashMap<>();
+		for (final ClassOutline classOutline : this.propertyInfoRefs.keySet()) {
+			final JPackage jPackage = classOutline.implClass._package();
+			List<ClassOutline> classes = classesByPackage.get(jPackage);
+			if (classes == null) {
+				classes = new ArrayList<>();
+				classesByPackage.put(jPackage, classes);
+			}
+			classes.add(classOutline);
+		}
+		for (final Map.Entry<JPackage, List<ClassOutline>> entry : classesByPackage.entrySet()) {
+			generateRegistry(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void generateRegistry(final JPackage jPackage, final List<ClassOutline> classes) throws JClassAlreadyExistsException {
+		final JCodeModel m = this.pluginContext.codeModel;
+		final JDefinedClass registry = jPackage._class(JMod.PUBLIC | JMod.FINAL, this.registryClassName);
+		registry.javadoc().append(getMessage("javadoc.registry"));
+		registry.constructor(JMod.PRIVATE);
+
+		// class table
+		final int[] classHashes = new int[classes.size()];
+		for (int i = 0; i < classes.size(); i++) {
+			classHashes[i] = classes.get(i).implClass.binaryName().hashCode();
+		}
+		final HashTable classTable = new HashTable(classHashes);
+		final JExpression[] classKeys = new JExpression[classTable.length];
+		for (int i = 0; i < classes.size(); i++) {
+			classKeys[classTable.slots[i]] = classes.get(i).implClass.dotclass();
+		}
+		final JFieldVar classKeysField = tableField(registry, this.classType, "CLASS_KEYS", classKeys);
+
+		final JMethod classSlotMethod = registry.method(JMod.PRIVATE | JMod.STATIC, m.INT, "classSlot");
+		final JVar classSlotParam = classSlotMethod.param(JMod.FINAL, this.classType, "type");
+		final Probe classProbe = new Probe(classSlotMethod.body(), classKeysField, classSlotParam.invoke("getName").invoke("hashCode"));
+		classProbe.body()._if(JOp.eq(JExpr.component(classKeysField, classProbe.slotVar), classSlotParam))._then()._return(classProbe.slotVar);
+		classSlotMethod.body()._return(JExpr.lit(-1));
+
+		// The property info arrays are only referenced from switch branches,
+		// so that a lookup initializes the meta class of the requested class only.
+		final JMethod declaredPropertiesMethod = registry.method(JMod.PRIVATE | JMod.STATIC, this.propertyInfoType.array(), "declaredProperties");
+		final JSwitch declaredPropertiesSwitch = declaredPropertiesMethod.body()._switch(declaredPropertiesMethod.param(JMod.FINAL, m.INT, "slot"));
+		final JMethod allPropertiesMethod = registry.method(JMod.PRIVATE | JMod.STATIC, this.propertyInfoType.array(), "allProperties");
+		final JSwitch allPropertiesSwitch = allPropertiesMethod.body()._switch(allPropertiesMethod.param(JMod.FINAL, m.INT, "slot"));
+		for (int i = 0; i < classes.size(); i++) {
+			final ClassOutline classOutline = classes.get(i);
+			final JDefinedClass metaClass = this.metaClasses.get(classOutline);
+			declaredPropertiesSwitch._case(JExpr.lit(classTable.slots[i])).body()._return(metaClass.staticRef(MetaPlugin.PROPERTIES_FIELD_NAME));
+			allPropertiesSwitch._case(JExpr.lit(classTable.slots[i])).body()._return(metaClass.staticRef(allPropertiesField(classOutline)));
+		}
+		declaredPropertiesMethod.body()._return(JExpr._null());
+		allPropertiesMethod.body()._return(JExpr._null());
+
+		generateClassLookup(registry, "getDeclaredProperties", "javadoc.method.getDeclaredProperties", classSlotMethod, declaredPropertiesMethod);
+		generateClassLookup(registry, "getProperties", "javadoc.method.getProperties", classSlotMethod, allPropertiesMethod);
+
+		final JDefinedClass resolverClass = m.anonymousClass(PropertyInfoResolver.class);
+		final JMethod resolverMethod = resolverClass.method(JMod.PUBLIC, this.propertyInfoType.array(), "getProperties");
+		resolverMethod.annotate(Override.class);
+		final JVar resolverTypeParam = resolverMethod.param(JMod.FINAL, this.classType, "type");
+		resolverMethod.body()._return(JExpr.invoke(allPropertiesMethod).arg(JExpr.invoke(classSlotMethod).arg(resolverTypeParam)));
+		final JFieldVar resolverField = registry.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL, PropertyInfoResolver.class, "RESOLVER", JExpr._new(resolverClass));
+		resolverField.javadoc().append(getMessage("javadoc.field.resolver"));
+
+		// (class, property name) table
+		final List<String> propertyNames = new ArrayList<>();
+		final List<Integer> propertyClassSlots = new ArrayList<>();
+		final List<Integer> propertyIndexes = new ArrayList<>();
+		final List<Integer> propertyHashes = new ArrayList<>();
+		for (int i = 0; i < classes.size(); i++) {
+			final ClassOutline classOutline = classes.get(i);
+			final int classHash = classHashes[i];
+			int index = 0;
+			for (final String propertyName : this.propertyInfoRefs.get(classOutline).keySet()) {
+				propertyNames.add(propertyName);
+				propertyClassSlots.add(classTable.slots[i]);
+				propertyIndexes.add(index++);
+				propertyHashes.add(31 * classHash + propertyName.hashCode());
+			}
+		}
+		final HashTable propertyTable = new HashTable(toIntArray(propertyHashes));
+		final JExpression[] propertyNameSlots = new JExpression[propertyTable.length];
+		final JExpression[] propertyClassSlotSlots = new JExpression[propertyTable.length];
+		final JExpression[] propertyIndexSlots = new JExpression[propertyTable.length];
+		for (int i = 0; i < propertyNames.size(); i++) {
+			final int slot = propertyTable.slots[i];
+			propertyNameSlots[slot] = JExpr.lit(propertyNames.get(i));
+			propertyClassSlotSlots[slot] = JExpr.lit(propertyClassSlots.get(i));
+			propertyIndexSlots[slot] = JExpr.lit(propertyIndexes.get(i));
+		}
+		final JFieldVar propertyNamesField = tableField(registry, m.ref(String.class), "PROPERTY_NAMES", propertyNameSlots);
+		final JFieldVar propertyClassSlotsField = tableField(registry, m.INT, "PROPERTY_CLASS_SLOTS", propertyClassSlotSlots);
+		final JFieldVar propertyIndexesField = tableField(registry, m.INT, "PROPERTY_INDEXES", propertyIndexSlots);
+		final JMethod getPropertyMethod = registry.method(JMod.PUBLIC | JMod.STATIC, this.propertyInfoType, "getProperty");
+		getPropertyMethod.javadoc().append(getMessage("javadoc.method.getProperty"));
+		final JVar typeParam = getPropertyMethod.param(JMod.FINAL, this.classType, "type");
+		final JVar propertyNameParam = getPropertyMethod.param(JMod.FINAL, String.class, "propertyName");
+		final JForLoop superLoop = getPropertyMethod.body()._for();
+		final JVar currentVar = superLoop.init(this.classType, "current", typeParam);
+		superLoop.test(currentVar.ne(JExpr._null()));
+		superLoop.update(JExpr.assign(currentVar, currentVar.invoke("getSuperclass")));
+		final JVar hashVar = superLoop.body().decl(JMod.FINAL, m.INT, "hash", JExpr.lit(31).mul(currentVar.invoke("getName").invoke("hashCode")).plus(propertyNameParam.invoke("hashCode")));
+		final Probe propertyProbe = new Probe(superLoop.body(), propertyNamesField, hashVar);
+		final JVar classSlotVar = propertyProbe.body().decl(JMod.FINAL, m.INT, "classSlot", JExpr.component(propertyClassSlotsField, propertyProbe.slotVar));
+		propertyProbe.body()._if(JOp.eq(JExpr.component(classKeysField, classSlotVar), currentVar).cand(JExpr.invoke(JExpr.component(propertyNamesField, propertyProbe.slotVar), "equals").arg(propertyNameParam)))._then()
+				._return(JExpr.component(JExpr.invoke(declaredPropertiesMethod).arg(classSlotVar), JExpr.component(propertyIndexesField, propertyProbe.slotVar)));
+		getPropertyMethod.body()._return(JExpr._null());
+
+		// element and type name tables
+		final List<QName> elementNames = new ArrayList<>();
+		final List<ClassOutline> elementClasses = new ArrayList<>();
+		final List<QName> typeNames = new ArrayList<>();
+		final List<ClassOutline> typeClasses = new ArrayList<>();
+		for (final ClassOutline classOutline : classes) {
+			if (classOutline.target.getElementName() != null) {
+				elementNames.add(classOutline.target.getElementName());
+				elementClasses.add(classOutline);
+			}
+			if (classOutline.target.getTypeName() != null) {
+				typeNames.add(classOutline.target.getTypeName());
+				typeClasses.add(classOutline);
+			}
+		}
+		generateNameLookup(registry, "ELEMENT", "getElementClass", "javadoc.method.getElementClass", elementNames, elementClasses);
+		generateNameLookup(registry, "TYPE", "getTypeClass", "javadoc.method.getTypeClass", typeNames, typeClasses);
+	}
+
+	/**
+	 * Returns the name of the field in the meta class of the given class that holds the property infos
+	 * of the class including the inherited ones. For classes that have a super class, this field is generated
+	 * here, behind the property info fields of the meta class.
+	 */
+	private String allPropertiesField(final ClassOutline classOutline) {
+		final ClassOutline superClass = classOutline.getSuperClass();
+		if (superClass == null || !this.propertyInfoRefs.containsKey(superClass)) {
+			return MetaPlugin.PROPERTIES_FIELD_NAME;
+		}
+		final JDefinedClass metaClass = this.metaClasses.get(classOutline);
+		if (!metaClass.fields().containsKey(MetaRegistryGenerator.ALL_PROPERTIES_FIELD_NAME)) {
+			metaClass.field(JMod.PUBLIC | JMod.STATIC | JMod.FINAL | JMod.TRANSIENT, this.propertyInfoType.array(), MetaRegistryGenerator.ALL_PROPERTIES_FIELD_NAME, propertyInfoArray(collectAllProperties(classOutline)));
+		}
+		return MetaRegistryGenerator.ALL_PROPERTIES_FIELD_NAME;
+	}
+
+	private void generateClassLookup(final JDefinedClass registry, final String methodName, final String javadocKey, final JMethod classSlotMethod, final JMethod slotMethod) {
+		final JMethod method = registry.method(JMod.PUBLIC | JMod.STATIC, this.propertyInfoType.array(), methodName);
+		method.javadoc().append(getMessage(javadocKey));
+		final JVar typeParam = method.param(JMod.FINAL, this.classType, "type");
+		method.body()._return(JExpr.invoke(slotMethod).arg(JExpr.invoke(classSlotMethod).arg(typeParam)));
+	}
+
+	private void generateNameLookup(final JDefinedClass registry, final String tablePrefix, final String methodName, final String javadocKey, final List<QName> names, final List<ClassOutline> classes) {
+		final JCodeModel m = this.pluginContext.codeModel;
+		final JClass qNameType = m.ref(QName.class);
+		final int[] hashes = new int[names.size()];
+		for (int i = 0; i < names.size(); i++) {
+			hashes[i] = names.get(i).hashCode();
+		}
+		final HashTable table = new HashTable(hashes);
+		final JExpression[] keys = new JExpression[table.length];
+		final JExpression[] values = new JExpression[table.length];
+		for (int i = 0; i < names.size(); i++) {
+			keys[table.slots[i]] = JExpr._new(qNameType).arg(names.get(i).getNamespaceURI()).arg(names.get(i).getLocalPart());
+			values[table.slots[i]] = classes.get(i).implClass.dotclass();
+		}
+		final JFieldVar keysField = tableField(registry, qNameType, tablePrefix + "_KEYS", keys);
+		final JFieldVar valuesField = tableField(registry, this.classType, tablePrefix + "_CLASSES", values);
+		final JMethod method = registry.method(JMod.PUBLIC | JMod.STATIC, this.classType, methodName);
+		method.javadoc().append(getMessage(javadocKey));
+		final JVar nameParam = method.param(JMod.FINAL, qNameType, "name");
+		final Probe probe = new Probe(method.body(), keysField, nameParam.invoke("hashCode"));
+		probe.body()._if(JExpr.invoke(JExpr.component(keysField, probe.slotVar), "equals").arg(nameParam))._then()._return(JExpr.component(valuesField, probe.slotVar));
+		method.body()._return(JExpr._null());
+	}
+
+	private JFieldVar tableField(final JDefinedClass registry, final JType elementType, final String name, final JExpression[] entries) {
+		final JArray array = JExpr.newArray(elementType);
+		for (final JExpression entry : entries) {
+			array.add(entry != null ? entry : elementType.isPrimitive() ? JExpr.lit(0) : JExpr._null());
+		}
+		return registry.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, elementType.array(), name, array);
+	}
+
+	private JExpression propertyInfoArray(final Collection<JExpression> refs) {
+		final JArray array = JExpr.newArray(this.propertyInfoType);
+		for (final JExpression ref : refs) {
+			array.add(ref);
+		}
+		return array;
+	}
+
+	private List<JExpression> collectAllProperties(final ClassOutline classOutline) {
+		final List<JExpression> refs = new ArrayList<>();
+		if (classOutline.getSuperClass() != null && this.propertyInfoRefs.containsKey(classOutline.getSuperClass())) {
+			refs.addAll(collectAllProperties(classOutline.getSuperClass()));
+		}
+		refs.addAll(this.propertyInfoRefs.get(classOutline).values());
+		return refs;
+	}
+
+	private static int[] toIntArray(final List<Integer> values) {
+		final int[] result = new int[values.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = values.get(i);
+		}
+		return result;
+	}
+
+	private String getMessage(final String resourceKey, final Object... args) {
+		return MessageFormat.format(MetaRegistryGenerator.RESOURCE_BUNDLE.getString(resourceKey), args);
+	}
+
+	/**
+	 * Generates the loop probing a hash table from the slot of the given hash code,
+	 * until an empty slot is found. With a collision-free table, the loop body
+	 * runs at most once.
+	 */
+	private class Probe {
+		final JForLoop loop;
+		final JVar slotVar;
+
+		Probe(final JBlock block, final JFieldVar tableField, final JExpression hashCode) {
+			this.loop = block._for();
+			this.slotVar = this.loop.init(MetaRegistryGenerator.this.pluginContext.codeModel.INT, "i", hashCode.band(JExpr.lit(0x7fffffff)).mod(tableField.ref("length")));
+			this.loop.test(JOp.ne(JExpr.component(tableField, this.slotVar), JExpr._null()));
+			this.loop.update(JExpr.assign(this.slotVar, this.slotVar.plus(JExpr.lit(1)).mod(tableField.ref("length"))));
+		}
+
+		JBlock body() {
+			return this.loop.body();
+		}
+	}
+
+	/**
+	 * Open addressing hash table layout. Looks for the smallest table size
+	 * for which all hash codes map to different slots, so each lookup needs
+	 * exactly one probe. If there is none, e.g. because two keys have the same
+	 * hash code, the remaining collisions are resolved by linear probing.
+	 * The table always has at least one empty slot to terminate the probing.
+	 */
+	static class HashTable {
+		final int length;
+		final int[] slots;
+
+		HashTable(final int[] hashes) {
+			int tableLength = 2 * hashes.length + 1;
+			for (int candidate = hashes.length + 1; candidate <= 8 * hashes.length + 8; candidate++) {
+				if (isCollisionFree(hashes, candidate)) {
+					tableLength = candidate;
+					break;
+				}
+			}
+			this.length = tableLength;
+			this.slots = new int[hashes.length];
+			final boolean[] used = new boolean[tableLength];
+			for (int i = 0; i < hashes.length; i++) {
+				int slot = (hashes[i] & 0x7fffffff) % tableLength;
+				while (used[slot]) {
+					slot = (slot + 1) % tableLength;
+				}
+				used[slot] = true;
+				this.slots[i] = slot;
+			}
+		}
+
+		private static boolean isCollisionFree(final int[] hashes, final int tableLength) {
+			final boolean[] used = new boolean[tableLength];
+			for (final int hash : hashes) {
+				final int slot = (hash & 0x7fffffff) % tableLength;
+				if (used[slot]) {
+					return false;
+				}
+				used[slot] = true;
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMod;
+
+/**
+ * Static constants for XML names and adapters shared by the
+ * StAX code generated into a class, so that each is created once per class.
+ *
+ * @author agent 2026-10-19
+ */
+class StaxConstants {
+	private final JCodeModel codeModel;
+	private final JDefinedClass implClass;
+	private final Map<QName, JFieldVar> names = new HashMap<>();
+	private final Map<String, JFieldVar> adapters = new HashMap<>();
+
+	StaxConstants(final JCodeModel codeModel, final JDefinedClass implClass) {
+		this.codeModel = codeModel;
+		this.implClass = implClass;
+	}
+
+	JFieldVar name(final QName name) {
+		JFieldVar field = this.names.get(name);
+		if (field == null) {
+			final String baseName = "__" + name.getLocalPart().replaceAll("[^A-Za-z0-9]", "_").toUpperCase() + "_QNAME";
+			String fieldName = baseName;
+			for (int i = 2; this.implClass.fields().containsKey(fieldName); i++) {
+				fieldName = baseName + i;
+			}
+			field = this.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, QName.class, fieldName, JExpr._new(this.codeModel.ref(QName.class)).arg(name.getNamespaceURI()).arg(name.getLocalPart()));
+			this.names.put(name, field);
+		}
+		return field;
+	}
+
+	JFieldVar adapter(final JClass adapterClass) {
+		JFieldVar field = this.adapters.get(adapterClass.fullName());
+		if (field == null) {
+			final String baseName = "__" + adapterClass.name().toUpperCase();
+			String fieldName = baseName;
+			for (int i = 2; this.implClass.fields().containsKey(fieldName); i++) {
+				fieldName = baseName + i;
+			}
+			field = this.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, adapterClass, fieldName, JExpr._new(adapterClass));
+			this.adapters.put(adapterClass.fullName(), field);
+		}
+		return field;
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kscs.util.jaxb.PropertyTree;
+import com.kscs.util.jaxb.PropertyTreeUse;
+import com.kscs.util.jaxb.StaxLazyContent;
+import com.kscs.util.jaxb.BufferedStaxObjectReader;
+import com.kscs.util.jaxb.StaxReadContext;
+import com.kscs.util.jaxb.StaxSupport;
+import com.kscs.util.jaxb.StaxWritable;
+import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Namespaces;
+import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JFieldVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPluginCustomization;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import com.sun.xml.bind.v2.model.core.ID;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * XJC Plugin to generate methods that write objects to and read
+ * them from StAX streams without using the reflective JAXB runtime.
+ *
+ * @author agent 2026-10-19
+ */
+public class StaxPlugin extends AbstractPlugin {
+	public static final String LAZY_CUSTOMIZATION_NAME = "lazy";
+	public static final String LAZY_FIELD_SUFFIX = "_Lazy";
+	@Opt
+	private boolean generateTools = true;
+
+	@Override
+	public String getOptionName() {
+		return "Xstax";
+	}
+
+	@Override
+	public List<String> getCustomizationURIs() {
+		return Collections.singletonList(Namespaces.KSCS_BINDINGS_NS);
+	}
+
+	@Override
+	public boolean isCustomizationTagName(final String nsUri, final String localName) {
+		return Namespaces.KSCS_BINDINGS_NS.equals(nsUri) && StaxPlugin.LAZY_CUSTOMIZATION_NAME.equals(localName);
+	}
+
+	@Override
+	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		if (this.generateTools) {
+			pluginContext.writeSourceFile(StaxWritable.class);
+			pluginContext.writeSourceFile(StaxSupport.class);
+			pluginContext.writeSourceFile(StaxReadContext.class);
+			pluginContext.writeSourceFile(StaxLazyContent.class);
+			pluginContext.writeSourceFile(BufferedStaxObjectReader.class);
+			pluginContext.writeSourceFile(PropertyTree.class);
+			pluginContext.writeSourceFile(PropertyTreeUse.class);
+		}
+		final Map<ClassOutline, StaxConstants> constants = new LinkedHashMap<>();
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			constants.put(classOutline, new StaxConstants(pluginContext.codeModel, classOutline.implClass));
+			for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+				final CPluginCustomization customization = fieldOutline.getPropertyInfo().getCustomizations().find(Namespaces.KSCS_BINDINGS_NS, StaxPlugin.LAZY_CUSTOMIZATION_NAME);
+				if (customization != null) {
+					customization.markAsAcknowledged();
+					if (!isLazy(fieldOutline)) {
+						errorHandler.warning(new SAXParseException(getMessage("error.lazyNotSupported", fieldOutline.getPropertyInfo().getName(false), classOutline.implClass.name()), customization.locator));
+					}
+				}
+			}
+		}
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			new StaxWriterGenerator(pluginContext, classOutline, constants.get(classOutline)).generate();
+			new StaxReaderGenerator(pluginContext, classOutline, constants.get(classOutline)).generate();
+		}
+		return true;
+	}
+
+	/**
+	 * A property is read lazily if it is customized with "kscs:lazy", and its
+	 * elements can be kept and read later on their own: Each element
+	 * is bound to one generated class, without adapter, IDREF or nil, and
+	 * there is a getter that can read them on first access.
+	 */
+	static boolean isLazy(final FieldOutline fieldOutline) {
+		final CPropertyInfo propertyInfo = fieldOutline.getPropertyInfo();
+		if (!(propertyInfo instanceof CElementPropertyInfo) || propertyInfo.getCustomizations().find(Namespaces.KSCS_BINDINGS_NS, StaxPlugin.LAZY_CUSTOMIZATION_NAME) == null) {
+			return false;
+		}
+		final CElementPropertyInfo elementPropertyInfo = (CElementPropertyInfo)propertyInfo;
+		if (elementPropertyInfo.getTypes().size() != 1 || (elementPropertyInfo.isCollection() && elementPropertyInfo.getXmlName() != null) || elementPropertyInfo.isValueList() || elementPropertyInfo.id() == ID.IDREF || elementPropertyInfo.getAdapter() != null) {
+			return false;
+		}
+		final CTypeRef typeRef = elementPropertyInfo.getTypes().get(0);
+		final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+		return typeRef.getTarget() instanceof CClassInfo && !typeRef.isNillable() && field != null && !field.type().isArray() && PluginContext.findGetter(fieldOutline) != null;
+	}
+}
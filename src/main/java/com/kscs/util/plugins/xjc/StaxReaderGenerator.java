@@ -0,0 +1,778 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.kscs.util.jaxb.StaxLazyContent;
+import com.kscs.util.jaxb.StaxReadContext;
+import com.kscs.util.jaxb.StaxSupport;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.kscs.util.plugins.xjc.codemodel.NestedThisRef;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCatchBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.model.Aspect;
+import com.sun.tools.xjc.model.CAdapter;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CClass;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElement;
+import com.sun.tools.xjc.model.CElementInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.EnumOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.xml.bind.v2.model.core.ID;
+
+/**
+ * Generates the static methods creating an object of a generated class
+ * from an {@link XMLStreamReader}, and the methods filling its fields.
+ * Element and attribute names are dispatched by switch statements on
+ * their local names, which the compiler turns into hash lookups.
+ *
+ * @author agent 2026-10-19
+ */
+public class StaxReaderGenerator {
+	public static final String READ_FROM_METHOD_NAME = "readFrom";
+	public static final String READ_XML_METHOD_NAME = "readXml";
+	public static final String READ_ATTRIBUTE_METHOD_NAME = "readXmlAttribute";
+	public static final String READ_CONTENT_METHOD_NAME = "readXmlContent";
+	public static final String READ_ELEMENT_METHOD_NAME = "readXmlElement";
+	public static final String READ_TEXT_METHOD_NAME = "readXmlText";
+	private static final Set<String> PARSEABLE_TYPES = new HashSet<>(Arrays.asList("java.lang.String", "java.lang.Object", "boolean", "java.lang.Boolean", "int", "java.lang.Integer", "long", "java.lang.Long", "short", "java.lang.Short", "byte", "java.lang.Byte", "float", "java.lang.Float", "double", "java.lang.Double", BigInteger.class.getName(), BigDecimal.class.getName(), "byte[]", XMLGregorianCalendar.class.getName(), Duration.class.getName(), QName.class.getName()));
+	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(StaxReaderGenerator.class.getName());
+	private final PluginContext pluginContext;
+	private final JCodeModel m;
+	private final ClassOutline classOutline;
+	private final StaxConstants constants;
+	private final JClass staxSupport;
+	private JVar readerParam = null;
+	private JVar contextParam = null;
+
+	/**
+	 * An element that can occur in the content of the class, with the binding
+	 * information needed to read it: a {@link CTypeRef}, {@link CElementInfo} or
+	 * {@link CClassInfo} for single elements, or the {@link CElementPropertyInfo}
+	 * for the wrapper element of a collection.
+	 */
+	private static final class ElementCase {
+		final QName name;
+		final FieldOutline fieldOutline;
+		final Object binding;
+
+		ElementCase(final QName name, final FieldOutline fieldOutline, final Object binding) {
+			this.name = name;
+			this.fieldOutline = fieldOutline;
+			this.binding = binding;
+		}
+	}
+
+	public StaxReaderGenerator(final PluginContext pluginContext, final ClassOutline classOutline, final StaxConstants constants) {
+		this.pluginContext = pluginContext;
+		this.m = pluginContext.codeModel;
+		this.classOutline = classOutline;
+		this.constants = constants;
+		this.staxSupport = this.m.ref(StaxSupport.class);
+	}
+
+	public void generate() {
+		final boolean topmost = this.classOutline.getSuperClass() == null;
+		final List<FieldOutline> attributes = new ArrayList<>();
+		final List<ElementCase> elements = new ArrayList<>();
+		FieldOutline valueField = null;
+		FieldOutline mixedField = null;
+		FieldOutline wildcardField = null;
+		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
+			if (PluginUtil.getDeclaredField(fieldOutline) == null) {
+				continue;
+			}
+			final CPropertyInfo propertyInfo = fieldOutline.getPropertyInfo();
+			if (propertyInfo instanceof CAttributePropertyInfo) {
+				if (isSupportedSimple(fieldOutline)) {
+					attributes.add(fieldOutline);
+				}
+			} else if (propertyInfo instanceof CValuePropertyInfo) {
+				if (isSupportedSimple(fieldOutline)) {
+					valueField = fieldOutline;
+				}
+			} else if (propertyInfo instanceof CElementPropertyInfo) {
+				final CElementPropertyInfo elementPropertyInfo = (CElementPropertyInfo)propertyInfo;
+				if (StaxPlugin.isLazy(fieldOutline)) {
+					generateLazyProperty(fieldOutline, elementPropertyInfo.getTypes().get(0));
+				}
+				if (elementPropertyInfo.isCollection() && elementPropertyInfo.getXmlName() != null) {
+					elements.add(new ElementCase(elementPropertyInfo.getXmlName(), fieldOutline, elementPropertyInfo));
+				} else {
+					for (final CTypeRef typeRef : elementPropertyInfo.getTypes()) {
+						elements.add(new ElementCase(typeRef.getTagName(), fieldOutline, typeRef));
+					}
+				}
+			} else if (propertyInfo instanceof CReferencePropertyInfo) {
+				final CReferencePropertyInfo referencePropertyInfo = (CReferencePropertyInfo)propertyInfo;
+				for (final CElement element : referencePropertyInfo.getElements()) {
+					elements.add(new ElementCase(element.getElementName(), fieldOutline, element));
+				}
+				if (referencePropertyInfo.isMixed()) {
+					mixedField = fieldOutline;
+				}
+				if (referencePropertyInfo.getWildcard() != null) {
+					wildcardField = fieldOutline;
+				}
+			}
+		}
+		final JFieldVar otherAttributesField = this.classOutline.target.declaresAttributeWildcard() ? this.classOutline.implClass.fields().get(StaxWriterGenerator.OTHER_ATTRIBUTES_FIELD_NAME) : null;
+		generateReadFromMethods();
+		if (topmost) {
+			generateReadXmlMethod();
+		}
+		if (topmost && valueField == null) {
+			generateReadContentMethod();
+		}
+		if ((topmost && valueField == null) || mixedField != null) {
+			generateReadTextMethod(mixedField);
+		}
+		if (topmost || !attributes.isEmpty() || otherAttributesField != null) {
+			generateReadAttributeMethod(attributes, otherAttributesField);
+		}
+		if (valueField != null) {
+			generateReadValueMethod(valueField);
+		} else if (topmost || !elements.isEmpty() || wildcardField != null) {
+			generateReadElementMethod(elements, wildcardField);
+		}
+	}
+
+	private JMethod createMethod(final int mods, final JType type, final String name, final boolean override) {
+		final JMethod method = this.classOutline.implClass.method(mods, type, name);
+		if (override) {
+			method.annotate(Override.class);
+		}
+		method._throws(XMLStreamException.class);
+		this.readerParam = method.param(JMod.FINAL, XMLStreamReader.class, "reader");
+		return method;
+	}
+
+	private void generateReadFromMethods() {
+		final JDefinedClass implClass = this.classOutline.implClass;
+		final JMethod readFromMethod = createMethod(JMod.PUBLIC | JMod.STATIC, implClass, StaxReaderGenerator.READ_FROM_METHOD_NAME, false);
+		readFromMethod.javadoc().append(getMessage("javadoc.method.readFrom"));
+		final JVar contextVar = readFromMethod.body().decl(JMod.FINAL, this.m.ref(StaxReadContext.class), "context", JExpr._new(this.m.ref(StaxReadContext.class)));
+		final JVar resultVar = readFromMethod.body().decl(JMod.FINAL, implClass, "object", implClass.staticInvoke(StaxReaderGenerator.READ_FROM_METHOD_NAME).arg(this.readerParam).arg(contextVar));
+		readFromMethod.body().add(contextVar.invoke("resolveReferences"));
+		readFromMethod.body()._return(resultVar);
+
+		final JMethod method = createMethod(JMod.PUBLIC | JMod.STATIC, implClass, StaxReaderGenerator.READ_FROM_METHOD_NAME, false);
+		method.javadoc().append(getMessage("javadoc.method.readFromContext"));
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		final JBlock body = method.body();
+		body.add(this.staxSupport.staticInvoke("toStartElement").arg(this.readerParam));
+		final JVar objectVar = body.decl(implClass, "object", JExpr._null());
+		final List<ClassOutline> substitutes = new ArrayList<>();
+		for (final ClassOutline subClassOutline : this.pluginContext.outline.getClasses()) {
+			if (subClassOutline != this.classOutline && !subClassOutline.target.isAbstract() && subClassOutline.target.getTypeName() != null && isSubClass(subClassOutline)) {
+				substitutes.add(subClassOutline);
+			}
+		}
+		if (!substitutes.isEmpty()) {
+			final JVar xsiTypeVar = body.decl(JMod.FINAL, this.m.ref(QName.class), "xsiType", this.staxSupport.staticInvoke("getXsiType").arg(this.readerParam));
+			final JSwitch typeSwitch = body._if(xsiTypeVar.ne(JExpr._null()))._then()._switch(xsiTypeVar.invoke("getLocalPart"));
+			for (final Map.Entry<String, List<ClassOutline>> entry : groupTypesByLocalName(substitutes).entrySet()) {
+				final JBlock caseBody = typeSwitch._case(JExpr.lit(entry.getKey())).body();
+				for (final ClassOutline substitute : entry.getValue()) {
+					caseBody._if(namespaceTest(xsiTypeVar.invoke("getNamespaceURI"), substitute.target.getTypeName().getNamespaceURI()))._then().assign(objectVar, JExpr._new(substitute.implClass));
+				}
+				caseBody._break();
+			}
+		}
+		final JBlock ifUnknown = body._if(objectVar.eq(JExpr._null()))._then();
+		if (this.classOutline.target.isAbstract()) {
+			ifUnknown._throw(JExpr._new(this.m.ref(XMLStreamException.class)).arg(JExpr.lit("Cannot create an instance of abstract type " + implClass.name() + " without xsi:type")).arg(this.readerParam.invoke("getLocation")));
+		} else {
+			ifUnknown.assign(objectVar, JExpr._new(implClass));
+		}
+		body.add(objectVar.invoke(StaxReaderGenerator.READ_XML_METHOD_NAME).arg(this.readerParam).arg(this.contextParam));
+		body._return(objectVar);
+	}
+
+	private boolean isSubClass(final ClassOutline subClassOutline) {
+		for (ClassOutline superClassOutline = subClassOutline.getSuperClass(); superClassOutline != null; superClassOutline = superClassOutline.getSuperClass()) {
+			if (superClassOutline == this.classOutline) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Map<String, List<ClassOutline>> groupTypesByLocalName(final List<ClassOutline> classOutlines) {
+		final Map<String, List<ClassOutline>> groups = new LinkedHashMap<>();
+		for (final ClassOutline classOutline : classOutlines) {
+			List<ClassOutline> group = groups.get(classOutline.target.getTypeName().getLocalPart());
+			if (group == null) {
+				group = new ArrayList<>();
+				groups.put(classOutline.target.getTypeName().getLocalPart(), group);
+			}
+			group.add(classOutline);
+		}
+		return groups;
+	}
+
+	private void generateReadXmlMethod() {
+		final JMethod method = createMethod(JMod.PROTECTED, this.pluginContext.voidType, StaxReaderGenerator.READ_XML_METHOD_NAME, false);
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		final JForLoop forLoop = method.body()._for();
+		final JVar indexVar = forLoop.init(this.m.INT, "i", JExpr.lit(0));
+		forLoop.test(indexVar.lt(this.readerParam.invoke("getAttributeCount")));
+		forLoop.update(indexVar.incr());
+		forLoop.body().invoke(StaxReaderGenerator.READ_ATTRIBUTE_METHOD_NAME).arg(this.readerParam).arg(indexVar).arg(this.contextParam);
+		method.body().invoke(StaxReaderGenerator.READ_CONTENT_METHOD_NAME).arg(this.readerParam).arg(this.contextParam);
+	}
+
+	private void generateReadContentMethod() {
+		final JMethod method = createMethod(JMod.PROTECTED, this.pluginContext.voidType, StaxReaderGenerator.READ_CONTENT_METHOD_NAME, false);
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		final JClass xmlStreamConstants = this.m.ref(XMLStreamConstants.class);
+		final JForLoop forLoop = method.body()._for();
+		final JVar eventVar = forLoop.init(this.m.INT, "event", this.readerParam.invoke("next"));
+		forLoop.test(eventVar.ne(xmlStreamConstants.staticRef("END_ELEMENT")));
+		forLoop.update(eventVar.assign(this.readerParam.invoke("next")));
+		final JConditional ifStart = forLoop.body()._if(eventVar.eq(xmlStreamConstants.staticRef("START_ELEMENT")));
+		ifStart._then()._if(JExpr.invoke(StaxReaderGenerator.READ_ELEMENT_METHOD_NAME).arg(this.readerParam).arg(this.contextParam).not())._then().add(this.contextParam.invoke("unknownElement").arg(JExpr._this()).arg(this.readerParam));
+		ifStart._elseif(eventVar.eq(xmlStreamConstants.staticRef("CHARACTERS")).cor(eventVar.eq(xmlStreamConstants.staticRef("CDATA"))))._then().invoke(StaxReaderGenerator.READ_TEXT_METHOD_NAME).arg(this.readerParam.invoke("getText")).arg(this.contextParam);
+	}
+
+	private void generateReadTextMethod(final FieldOutline mixedField) {
+		final JMethod method = this.classOutline.implClass.method(JMod.PROTECTED, this.pluginContext.voidType, StaxReaderGenerator.READ_TEXT_METHOD_NAME);
+		if (this.classOutline.getSuperClass() != null) {
+			method.annotate(Override.class);
+		}
+		final JVar textParam = method.param(JMod.FINAL, String.class, "text");
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		if (mixedField != null) {
+			final JFieldVar field = PluginUtil.getDeclaredField(mixedField);
+			final JBlock block = method.body()._if(isSelected(field))._then();
+			block.add(this.staxSupport.staticInvoke("addText").arg(list(block, field)).arg(textParam));
+		} else {
+			method.body().directStatement("// text between elements is only kept in mixed content");
+		}
+	}
+
+	private void generateReadAttributeMethod(final List<FieldOutline> attributes, final JFieldVar otherAttributesField) {
+		final JMethod method = createMethod(JMod.PROTECTED, this.m.BOOLEAN, StaxReaderGenerator.READ_ATTRIBUTE_METHOD_NAME, this.classOutline.getSuperClass() != null);
+		final JVar indexParam = method.param(JMod.FINAL, this.m.INT, "index");
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		final JBlock body = method.body();
+		final JExpression superCall = JExpr._super().invoke(StaxReaderGenerator.READ_ATTRIBUTE_METHOD_NAME).arg(this.readerParam).arg(indexParam).arg(this.contextParam);
+		final JVar namespaceVar = attributes.isEmpty() && otherAttributesField == null ? null : body.decl(JMod.FINAL, this.m.ref(String.class), "namespaceURI", this.readerParam.invoke("getAttributeNamespace").arg(indexParam));
+		if (!attributes.isEmpty()) {
+			final Map<String, List<FieldOutline>> groups = new LinkedHashMap<>();
+			for (final FieldOutline fieldOutline : attributes) {
+				final String localName = ((CAttributePropertyInfo)fieldOutline.getPropertyInfo()).getXmlName().getLocalPart();
+				List<FieldOutline> group = groups.get(localName);
+				if (group == null) {
+					group = new ArrayList<>();
+					groups.put(localName, group);
+				}
+				group.add(fieldOutline);
+			}
+			final JSwitch nameSwitch = body._switch(this.readerParam.invoke("getAttributeLocalName").arg(indexParam));
+			for (final Map.Entry<String, List<FieldOutline>> entry : groups.entrySet()) {
+				final JBlock caseBody = nameSwitch._case(JExpr.lit(entry.getKey())).body();
+				for (final FieldOutline fieldOutline : entry.getValue()) {
+					final CAttributePropertyInfo propertyInfo = (CAttributePropertyInfo)fieldOutline.getPropertyInfo();
+					final JBlock block = caseBody._if(namespaceTest(namespaceVar, propertyInfo.getXmlName().getNamespaceURI()))._then();
+					final JBlock selectedBlock = block._if(isSelected(PluginUtil.getDeclaredField(fieldOutline)))._then();
+					final JVar textVar = selectedBlock.decl(JMod.FINAL, this.m.ref(String.class), "text", this.readerParam.invoke("getAttributeValue").arg(indexParam));
+					generateReadSimple(selectedBlock, fieldOutline, propertyInfo, textVar);
+					block._return(JExpr.TRUE);
+				}
+				caseBody._break();
+			}
+		}
+		if (otherAttributesField != null) {
+			if (this.classOutline.getSuperClass() != null) {
+				body._if(superCall)._then()._return(JExpr.TRUE);
+			}
+			final JBlock block = body._if(this.m.ref(XMLConstants.class).staticRef("W3C_XML_SCHEMA_INSTANCE_NS_URI").invoke("equals").arg(namespaceVar).not())._then();
+			block.add(JExpr._this().ref(otherAttributesField).invoke("put").arg(this.readerParam.invoke("getAttributeName").arg(indexParam)).arg(this.readerParam.invoke("getAttributeValue").arg(indexParam)));
+			block._return(JExpr.TRUE);
+			body._return(JExpr.FALSE);
+		} else {
+			body._return(this.classOutline.getSuperClass() != null ? superCall : JExpr.FALSE);
+		}
+	}
+
+	/**
+	 * Simple content has no child elements, so the complete
+	 * content is read at once.
+	 */
+	private void generateReadValueMethod(final FieldOutline valueField) {
+		final JMethod method = createMethod(JMod.PROTECTED, this.pluginContext.voidType, StaxReaderGenerator.READ_CONTENT_METHOD_NAME, this.classOutline.getSuperClass() != null);
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		final JConditional ifSelected = method.body()._if(isSelected(PluginUtil.getDeclaredField(valueField)));
+		final JVar textVar = ifSelected._then().decl(JMod.FINAL, this.m.ref(String.class), "text", this.staxSupport.staticInvoke("readText").arg(this.readerParam));
+		generateReadSimple(ifSelected._then(), valueField, valueField.getPropertyInfo(), textVar);
+		ifSelected._else().add(this.staxSupport.staticInvoke("skipElement").arg(this.readerParam));
+	}
+
+	private void generateReadElementMethod(final List<ElementCase> elements, final FieldOutline wildcardField) {
+		final JMethod method = createMethod(JMod.PROTECTED, this.m.BOOLEAN, StaxReaderGenerator.READ_ELEMENT_METHOD_NAME, this.classOutline.getSuperClass() != null);
+		this.contextParam = method.param(JMod.FINAL, StaxReadContext.class, "context");
+		final JBlock body = method.body();
+		final JExpression superCall = JExpr._super().invoke(StaxReaderGenerator.READ_ELEMENT_METHOD_NAME).arg(this.readerParam).arg(this.contextParam);
+		final Map<String, List<ElementCase>> groups = new LinkedHashMap<>();
+		for (final ElementCase elementCase : elements) {
+			if (isSupported(elementCase)) {
+				List<ElementCase> group = groups.get(elementCase.name.getLocalPart());
+				if (group == null) {
+					group = new ArrayList<>();
+					groups.put(elementCase.name.getLocalPart(), group);
+				}
+				group.add(elementCase);
+			}
+		}
+		if (!groups.isEmpty()) {
+			final JVar namespaceVar = body.decl(JMod.FINAL, this.m.ref(String.class), "namespaceURI", this.readerParam.invoke("getNamespaceURI"));
+			final JSwitch nameSwitch = body._switch(this.readerParam.invoke("getLocalName"));
+			for (final Map.Entry<String, List<ElementCase>> entry : groups.entrySet()) {
+				final JBlock caseBody = nameSwitch._case(JExpr.lit(entry.getKey())).body();
+				for (final ElementCase elementCase : entry.getValue()) {
+					final JBlock block = caseBody._if(namespaceTest(namespaceVar, elementCase.name.getNamespaceURI()))._then();
+					final JConditional ifSelected = block._if(isSelected(PluginUtil.getDeclaredField(elementCase.fieldOutline)));
+					generateReadElement(ifSelected._then(), elementCase);
+					ifSelected._else().add(this.staxSupport.staticInvoke("skipElement").arg(this.readerParam));
+					block._return(JExpr.TRUE);
+				}
+				caseBody._break();
+			}
+		}
+		if (wildcardField != null) {
+			if (this.classOutline.getSuperClass() != null) {
+				body._if(superCall)._then()._return(JExpr.TRUE);
+			}
+			final JFieldVar field = PluginUtil.getDeclaredField(wildcardField);
+			final JConditional ifSelected = body._if(isSelected(field));
+			store(ifSelected._then(), field, this.staxSupport.staticInvoke("readElement").arg(this.readerParam).arg(this.contextParam));
+			ifSelected._else().add(this.staxSupport.staticInvoke("skipElement").arg(this.readerParam));
+			body._return(JExpr.TRUE);
+		} else {
+			body._return(this.classOutline.getSuperClass() != null ? superCall : JExpr.FALSE);
+		}
+	}
+
+	/**
+	 * Elements of classes without generated code, and simple types that
+	 * cannot be converted without the JAXB runtime, are left to the
+	 * handler for unknown elements.
+	 */
+	private boolean isSupported(final ElementCase elementCase) {
+		if (elementCase.binding instanceof CElementPropertyInfo) {
+			for (final CTypeRef typeRef : ((CElementPropertyInfo)elementCase.binding).getTypes()) {
+				if (!isSupported(elementCase.fieldOutline.getPropertyInfo(), typeRef.getTarget().toType(this.pluginContext.outline, Aspect.EXPOSED), typeRef.getTarget() instanceof CClass)) {
+					return false;
+				}
+			}
+			return true;
+		} else if (elementCase.binding instanceof CTypeRef) {
+			final CTypeRef typeRef = (CTypeRef)elementCase.binding;
+			return isSupported(elementCase.fieldOutline.getPropertyInfo(), typeRef.getTarget().toType(this.pluginContext.outline, Aspect.EXPOSED), typeRef.getTarget() instanceof CClass);
+		} else if (elementCase.binding instanceof CElementInfo) {
+			final CElementInfo elementInfo = (CElementInfo)elementCase.binding;
+			return isSupported(elementInfo.getProperty(), elementInfo.getContentType().toType(this.pluginContext.outline, Aspect.EXPOSED), elementInfo.getContentType() instanceof CClass);
+		} else {
+			return elementCase.binding instanceof CClassInfo && this.pluginContext.getClassOutline(((CClassInfo)elementCase.binding).toType(this.pluginContext.outline, Aspect.EXPOSED)) != null;
+		}
+	}
+
+	private boolean isSupportedSimple(final FieldOutline fieldOutline) {
+		final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+		return isSupported(fieldOutline.getPropertyInfo(), fieldOutline.getPropertyInfo().isCollection() ? itemType(field) : field.type(), false);
+	}
+
+	private boolean isSupported(final CPropertyInfo propertyInfo, final JType type, final boolean complex) {
+		if (propertyInfo.id() == ID.IDREF || propertyInfo.getAdapter() != null) {
+			return true;
+		} else if (complex) {
+			return this.pluginContext.getClassOutline(type) != null;
+		} else {
+			return isParseable(type);
+		}
+	}
+
+	private boolean isParseable(final JType type) {
+		final EnumOutline enumOutline = this.pluginContext.getEnumOutline(type);
+		if (enumOutline != null) {
+			final JMethod fromValueMethod = findFromValueMethod(enumOutline);
+			return fromValueMethod != null && isParseable(fromValueMethod.listParamTypes()[0]);
+		}
+		return StaxReaderGenerator.PARSEABLE_TYPES.contains(type.erasure().fullName());
+	}
+
+	private void generateReadElement(final JBlock block, final ElementCase elementCase) {
+		final CPropertyInfo propertyInfo = elementCase.fieldOutline.getPropertyInfo();
+		final JFieldVar field = PluginUtil.getDeclaredField(elementCase.fieldOutline);
+		if (elementCase.binding instanceof CElementPropertyInfo) {
+			final CElementPropertyInfo elementPropertyInfo = (CElementPropertyInfo)elementCase.binding;
+			final JClass xmlStreamConstants = this.m.ref(XMLStreamConstants.class);
+			final JForLoop forLoop = block._for();
+			final JVar eventVar = forLoop.init(this.m.INT, "event", this.readerParam.invoke("nextTag"));
+			forLoop.test(eventVar.eq(xmlStreamConstants.staticRef("START_ELEMENT")));
+			forLoop.update(eventVar.assign(this.readerParam.invoke("nextTag")));
+			JConditional dispatch = null;
+			for (final CTypeRef typeRef : elementPropertyInfo.getTypes()) {
+				final JExpression test = this.constants.name(typeRef.getTagName()).invoke("equals").arg(this.readerParam.invoke("getName"));
+				dispatch = dispatch == null ? forLoop.body()._if(test) : dispatch._elseif(test);
+				generateReadTypeRef(dispatch._then(), field, propertyInfo, typeRef);
+			}
+			dispatch._else().add(this.contextParam.invoke("unknownElement").arg(JExpr._this()).arg(this.readerParam));
+		} else if (elementCase.binding instanceof CTypeRef && StaxPlugin.isLazy(elementCase.fieldOutline)) {
+			final JFieldRef lazyRef = JExpr._this().ref(field.name() + StaxPlugin.LAZY_FIELD_SUFFIX);
+			block.assign(lazyRef, this.m.ref(StaxLazyContent.class).staticInvoke("add").arg(lazyRef).arg(this.readerParam).arg(this.contextParam));
+		} else if (elementCase.binding instanceof CTypeRef) {
+			generateReadTypeRef(block, field, propertyInfo, (CTypeRef)elementCase.binding);
+		} else if (elementCase.binding instanceof CElementInfo) {
+			final CElementInfo elementInfo = (CElementInfo)elementCase.binding;
+			final JClass contentType = elementInfo.getContentType().toType(this.pluginContext.outline, Aspect.EXPOSED).boxify();
+			final JClass elementType;
+			final JVar elementVar;
+			if (elementInfo.hasClass()) {
+				elementType = this.pluginContext.outline.getElement(elementInfo).implClass;
+				elementVar = block.decl(JMod.FINAL, elementType, "element", JExpr._new(elementType).arg(JExpr.cast(contentType, JExpr._null())));
+			} else {
+				final JExpression scope = elementInfo.getScope() == null ? this.m.ref(JAXBElement.GlobalScope.class).dotclass() : this.pluginContext.outline.getClazz(elementInfo.getScope()).implClass.dotclass();
+				elementType = this.m.ref(JAXBElement.class).narrow(contentType);
+				elementVar = block.decl(JMod.FINAL, elementType, "element", JExpr._new(elementType).arg(this.constants.name(elementInfo.getElementName())).arg(contentType.erasure().dotclass()).arg(scope).arg(JExpr._null()));
+			}
+			generateReadElementValue(block, elementVar, field, elementInfo.getProperty(), contentType, elementInfo.getContentType() instanceof CClass);
+			store(block, field, elementVar);
+		} else {
+			final JClass type = ((CClassInfo)elementCase.binding).toType(this.pluginContext.outline, Aspect.EXPOSED);
+			store(block, field, readObject(block, field, type));
+		}
+	}
+
+	/**
+	 * Declares the field keeping the elements of a lazily read property, and
+	 * makes the getter read them on first access and the setter discard them.
+	 */
+	private void generateLazyProperty(final FieldOutline fieldOutline, final CTypeRef typeRef) {
+		final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+		final JClass lazyContentClass = this.m.ref(StaxLazyContent.class);
+		final JFieldVar lazyField = this.classOutline.implClass.field(JMod.PROTECTED, lazyContentClass, field.name() + StaxPlugin.LAZY_FIELD_SUFFIX);
+		final JFieldRef lazyRef = JExpr._this().ref(lazyField);
+		final JBlock getterBody = PluginContext.findGetter(fieldOutline).body();
+		getterBody.pos(0);
+		final JBlock block = getterBody._if(lazyRef.ne(JExpr._null()))._then();
+		getterBody.pos(getterBody.getContents().size());
+		final JVar contentVar = block.decl(JMod.FINAL, lazyContentClass, "lazyContent", lazyRef);
+		block.assign(lazyRef, JExpr._null());
+		final JTryBlock tryBlock = block._try();
+		final JForLoop forLoop = tryBlock.body()._for();
+		final JVar indexVar = forLoop.init(this.m.INT, "i", JExpr.lit(0));
+		forLoop.test(indexVar.lt(contentVar.invoke("size")));
+		forLoop.update(indexVar.incr());
+		final JClass type = (JClass)typeRef.getTarget().toType(this.pluginContext.outline, Aspect.EXPOSED);
+		// each element is parsed on its own, so IDREFs leaving it are left null
+		final JClass contextClass = this.m.ref(StaxReadContext.class);
+		final JVar contextVar = forLoop.body().decl(JMod.FINAL, contextClass, "context", JExpr._new(contextClass));
+		forLoop.body().add(contextVar.invoke("markIncomplete"));
+		final JVar valueVar = forLoop.body().decl(JMod.FINAL, type, "value", type.staticInvoke(StaxReaderGenerator.READ_FROM_METHOD_NAME).arg(contentVar.invoke("createReader").arg(indexVar)).arg(contextVar));
+		forLoop.body().add(contextVar.invoke("resolveReferences"));
+		store(forLoop.body(), field, valueVar);
+		final JCatchBlock catchBlock = tryBlock._catch(this.m.ref(XMLStreamException.class));
+		final JVar exceptionVar = catchBlock.param("e");
+		catchBlock.body()._throw(JExpr._new(this.m.ref(RuntimeException.class)).arg(exceptionVar));
+		final JMethod setter = PluginContext.findSetter(fieldOutline);
+		if (setter != null) {
+			setter.body().pos(0);
+			setter.body().assign(lazyRef, JExpr._null());
+			setter.body().pos(setter.body().getContents().size());
+		}
+	}
+
+	/**
+	 * Reads an element bound to an element property, with the reader at its start tag.
+	 */
+	private void generateReadTypeRef(final JBlock block, final JFieldVar field, final CPropertyInfo propertyInfo, final CTypeRef typeRef) {
+		final JType itemType = propertyInfo.isCollection() ? itemType(field) : field.type();
+		final JType targetType = typeRef.getTarget().toType(this.pluginContext.outline, Aspect.EXPOSED).boxify();
+		final boolean complex = typeRef.getTarget() instanceof CClass && propertyInfo.id() != ID.IDREF;
+		if (itemType.erasure().fullName().equals(JAXBElement.class.getName())) {
+			final JClass elementType = this.m.ref(JAXBElement.class).narrow(targetType);
+			final JVar elementVar = block.decl(JMod.FINAL, elementType, "element", JExpr._new(elementType).arg(this.constants.name(typeRef.getTagName())).arg(((JClass)targetType).erasure().dotclass()).arg(this.classOutline.implClass.dotclass()).arg(JExpr._null()));
+			generateReadElementValue(block, elementVar, field, propertyInfo, targetType, complex);
+			store(block, field, elementVar);
+		} else if (propertyInfo.id() == ID.IDREF || (propertyInfo instanceof CElementPropertyInfo && ((CElementPropertyInfo)propertyInfo).isValueList())) {
+			final JVar textVar = block.decl(JMod.FINAL, this.m.ref(String.class), "text", this.staxSupport.staticInvoke("readText").arg(this.readerParam));
+			generateReadSimple(block, field, propertyInfo, textVar, targetType);
+		} else if (typeRef.isNillable() && !itemType.isPrimitive()) {
+			final JConditional ifNil = block._if(this.staxSupport.staticInvoke("isNil").arg(this.readerParam));
+			ifNil._then().add(this.staxSupport.staticInvoke("skipElement").arg(this.readerParam));
+			store(ifNil._then(), field, JExpr._null());
+			store(ifNil._else(), field, readValue(ifNil._else(), field, propertyInfo, targetType, complex));
+		} else {
+			store(block, field, readValue(block, field, propertyInfo, targetType, complex));
+		}
+	}
+
+	/**
+	 * Reads the value of a {@link JAXBElement}, or marks it as nil.
+	 */
+	private void generateReadElementValue(final JBlock block, final JVar elementVar, final JFieldVar field, final CPropertyInfo propertyInfo, final JType contentType, final boolean complex) {
+		final JConditional ifNil = block._if(this.staxSupport.staticInvoke("isNil").arg(this.readerParam));
+		ifNil._then().add(elementVar.invoke("setNil").arg(JExpr.TRUE));
+		ifNil._then().add(this.staxSupport.staticInvoke("skipElement").arg(this.readerParam));
+		ifNil._else().add(elementVar.invoke("setValue").arg(readValue(ifNil._else(), field, propertyInfo, contentType, complex)));
+	}
+
+	/**
+	 * @return An expression reading the current element completely and returning its value
+	 */
+	private JExpression readValue(final JBlock block, final JFieldVar field, final CPropertyInfo propertyInfo, final JType type, final boolean complex) {
+		if (complex) {
+			return readObject(block, field, (JClass)type);
+		} else if (type.fullName().equals(Object.class.getName()) && propertyInfo.getAdapter() == null) {
+			return this.staxSupport.staticInvoke("readElement").arg(this.readerParam).arg(this.contextParam);
+		} else {
+			final JVar textVar = block.decl(JMod.FINAL, this.m.ref(String.class), "text", this.staxSupport.staticInvoke("readText").arg(this.readerParam));
+			return parse(textVar, type, propertyInfo);
+		}
+	}
+
+	/**
+	 * Reads an object of a generated class held by a field, with the
+	 * selection of properties moved to the properties of that field.
+	 */
+	private JVar readObject(final JBlock block, final JFieldVar field, final JClass type) {
+		block.add(this.contextParam.invoke("enter").arg(JExpr.lit(field.name())));
+		final JVar valueVar = block.decl(JMod.FINAL, type, "value", type.staticInvoke(StaxReaderGenerator.READ_FROM_METHOD_NAME).arg(this.readerParam).arg(this.contextParam));
+		block.add(this.contextParam.invoke("leave"));
+		return valueVar;
+	}
+
+	private JExpression isSelected(final JFieldVar field) {
+		return this.contextParam.invoke("isSelected").arg(JExpr.lit(field.name()));
+	}
+
+	private void generateReadSimple(final JBlock block, final FieldOutline fieldOutline, final CPropertyInfo propertyInfo, final JVar textVar) {
+		final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+		generateReadSimple(block, field, propertyInfo, textVar, propertyInfo.isCollection() ? itemType(field) : field.type());
+	}
+
+	/**
+	 * Converts the lexical representation of a simple value, or of a list
+	 * of simple values, and stores it in a field. IDREFs are resolved
+	 * when the whole document has been read.
+	 */
+	private void generateReadSimple(final JBlock block, final JFieldVar field, final CPropertyInfo propertyInfo, final JVar textVar, final JType type) {
+		if (propertyInfo.isCollection() && !(propertyInfo instanceof CElementPropertyInfo && !((CElementPropertyInfo)propertyInfo).isValueList())) {
+			final JForEach forEach = block.forEach(this.m.ref(String.class), "token", this.staxSupport.staticInvoke("splitList").arg(textVar));
+			if (propertyInfo.id() == ID.IDREF) {
+				forEach.body().add(this.contextParam.invoke("addLater").arg(forEach.var()).arg(list(forEach.body(), field)).arg(itemClass(field)));
+			} else {
+				store(forEach.body(), field, parse(forEach.var(), type, propertyInfo));
+			}
+		} else if (propertyInfo.id() == ID.IDREF) {
+			if (propertyInfo.isCollection()) {
+				block.add(this.contextParam.invoke("addLater").arg(textVar.invoke("trim")).arg(list(block, field)).arg(itemClass(field)));
+			} else {
+				final JDefinedClass target = this.m.anonymousClass(StaxReadContext.IdRefTarget.class);
+				final JMethod resolveMethod = target.method(JMod.PUBLIC, this.pluginContext.voidType, "resolve");
+				resolveMethod.annotate(Override.class);
+				final JVar targetParam = resolveMethod.param(JMod.FINAL, Object.class, "target");
+				resolveMethod.body().assign(new NestedThisRef(this.classOutline.implClass).ref(field), field.type().fullName().equals(Object.class.getName()) ? targetParam : JExpr.cast(field.type(), targetParam));
+				block.add(this.contextParam.invoke("resolveLater").arg(textVar.invoke("trim")).arg(JExpr._new(target)));
+			}
+		} else {
+			final JExpression value = parse(textVar, type, propertyInfo);
+			if (propertyInfo.id() == ID.ID) {
+				final JVar valueVar = block.decl(JMod.FINAL, type, "value", value);
+				store(block, field, valueVar);
+				block.add(this.contextParam.invoke("registerId").arg(type.fullName().equals(String.class.getName()) ? valueVar : this.m.ref(String.class).staticInvoke("valueOf").arg(valueVar)).arg(JExpr._this()));
+			} else {
+				store(block, field, value);
+			}
+		}
+	}
+
+	/**
+	 * Generates the conversion of the lexical representation of a simple value
+	 * to its Java type, chosen as {@link StaxWriterGenerator} chooses the reverse.
+	 * Only called for types accepted by {@link #isParseable(JType)}.
+	 */
+	private JExpression parse(final JExpression text, final JType type, final CPropertyInfo propertyInfo) {
+		final CAdapter adapter = propertyInfo.getAdapter();
+		if (adapter != null) {
+			return this.staxSupport.staticInvoke("unmarshal").arg(this.constants.adapter(adapter.getAdapterClass(this.pluginContext.outline))).arg(text);
+		}
+		final EnumOutline enumOutline = this.pluginContext.getEnumOutline(type);
+		if (enumOutline != null) {
+			final JMethod fromValueMethod = findFromValueMethod(enumOutline);
+			return enumOutline.clazz.staticInvoke(fromValueMethod).arg(parse(text, fromValueMethod.listParamTypes()[0], propertyInfo));
+		}
+		final JClass datatypeConverter = this.m.ref(DatatypeConverter.class);
+		switch (type.erasure().fullName()) {
+			case "java.lang.String":
+			case "java.lang.Object":
+				return text;
+			case "boolean":
+			case "java.lang.Boolean":
+				return datatypeConverter.staticInvoke("parseBoolean").arg(text);
+			case "int":
+			case "java.lang.Integer":
+				return datatypeConverter.staticInvoke("parseInt").arg(text);
+			case "long":
+			case "java.lang.Long":
+				return datatypeConverter.staticInvoke("parseLong").arg(text);
+			case "short":
+			case "java.lang.Short":
+				return datatypeConverter.staticInvoke("parseShort").arg(text);
+			case "byte":
+			case "java.lang.Byte":
+				return datatypeConverter.staticInvoke("parseByte").arg(text);
+			case "float":
+			case "java.lang.Float":
+				return datatypeConverter.staticInvoke("parseFloat").arg(text);
+			case "double":
+			case "java.lang.Double":
+				return datatypeConverter.staticInvoke("parseDouble").arg(text);
+			case "java.math.BigInteger":
+				return datatypeConverter.staticInvoke("parseInteger").arg(text);
+			case "java.math.BigDecimal":
+				return datatypeConverter.staticInvoke("parseDecimal").arg(text);
+			case "byte[]":
+				return datatypeConverter.staticInvoke("parseBase64Binary").arg(text);
+			default:
+				if (type.erasure().fullName().equals(XMLGregorianCalendar.class.getName())) {
+					return this.contextParam.invoke("parseCalendar").arg(text);
+				} else if (type.erasure().fullName().equals(Duration.class.getName())) {
+					return this.contextParam.invoke("parseDuration").arg(text);
+				} else {
+					return this.staxSupport.staticInvoke("parseQName").arg(this.readerParam).arg(text);
+				}
+		}
+	}
+
+	private static JMethod findFromValueMethod(final EnumOutline enumOutline) {
+		for (final JMethod method : enumOutline.clazz.methods()) {
+			if ("fromValue".equals(method.name()) && method.listParamTypes().length == 1 && (method.mods().getValue() & JMod.STATIC) != 0) {
+				return method;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Assigns a value to a single valued field, or adds it to a collection.
+	 */
+	private void store(final JBlock block, final JFieldVar field, final JExpression value) {
+		final JFieldRef fieldRef = JExpr._this().ref(field);
+		if (field.type().isArray()) {
+			final JVar valueVar = block.decl(JMod.FINAL, field.type().elementType(), "item", value);
+			final JConditional ifNull = block._if(fieldRef.eq(JExpr._null()));
+			ifNull._then().assign(fieldRef, JExpr.newArray(field.type().elementType()).add(valueVar));
+			ifNull._else().assign(fieldRef, this.m.ref(Arrays.class).staticInvoke("copyOf").arg(fieldRef).arg(fieldRef.ref("length").plus(JExpr.lit(1))));
+			ifNull._else().assign(fieldRef.component(fieldRef.ref("length").minus(JExpr.lit(1))), valueVar);
+		} else if (field.type() instanceof JClass && isCollection(field)) {
+			block.add(list(block, field).invoke("add").arg(value));
+		} else {
+			block.assign(fieldRef, value);
+		}
+	}
+
+	/**
+	 * @return The collection in a field, created if it is null
+	 */
+	private JExpression list(final JBlock block, final JFieldVar field) {
+		final JFieldRef fieldRef = JExpr._this().ref(field);
+		block._if(fieldRef.eq(JExpr._null()))._then().assign(fieldRef, JExpr._new(this.pluginContext.arrayListClass.narrow(itemType(field))));
+		return fieldRef;
+	}
+
+	private boolean isCollection(final JFieldVar field) {
+		return !((JClass)field.type()).getTypeParameters().isEmpty() && this.m.ref(List.class).isAssignableFrom(((JClass)field.type()).erasure());
+	}
+
+	private JExpression namespaceTest(final JExpression namespaceURI, final String expectedNamespaceURI) {
+		if (expectedNamespaceURI.isEmpty()) {
+			return namespaceURI.eq(JExpr._null()).cor(namespaceURI.invoke("isEmpty"));
+		} else {
+			return JExpr.lit(expectedNamespaceURI).invoke("equals").arg(namespaceURI);
+		}
+	}
+
+	private static JType itemType(final JFieldVar field) {
+		return field.type().isArray() ? field.type().elementType() : ((JClass)field.type()).getTypeParameters().get(0);
+	}
+
+	/**
+	 * The class literal of the item type of a collection field, boxed
+	 * if the field is an array of primitives.
+	 */
+	private static JExpression itemClass(final JFieldVar field) {
+		final JType itemType = itemType(field);
+		return itemType.isPrimitive() ? itemType.boxify().dotclass() : ((JClass)itemType).erasure().dotclass();
+	}
+
+	private String getMessage(final String resourceKey) {
+		return StaxReaderGenerator.RESOURCE_BUNDLE.getString(resourceKey);
+	}
+}
@@ -0,0 +1,441 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import com.kscs.util.jaxb.StaxSupport;
+import com.kscs.util.jaxb.StaxWritable;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.model.Aspect;
+import com.sun.tools.xjc.model.CAdapter;
+import com.sun.tools.xjc.model.CAttributePropertyInfo;
+import com.sun.tools.xjc.model.CClass;
+import com.sun.tools.xjc.model.CElement;
+import com.sun.tools.xjc.model.CElementInfo;
+import com.sun.tools.xjc.model.CElementPropertyInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.model.CTypeRef;
+import com.sun.tools.xjc.model.CValuePropertyInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.xml.bind.v2.model.core.ID;
+
+/**
+ * Generates the methods writing an object of a generated class to an
+ * {@link XMLStreamWriter}, directly from its fields and the binding
+ * information of the schema model.
+ *
+ * @author agent 2026-10-19
+ */
+public class StaxWriterGenerator {
+	public static final String WRITE_TO_METHOD_NAME = "writeTo";
+	public static final String WRITE_ATTRIBUTES_METHOD_NAME = "writeXmlAttributes";
+	public static final String WRITE_CONTENT_METHOD_NAME = "writeXmlContent";
+	public static final String XML_TYPE_NAME_METHOD_NAME = "xmlTypeName";
+	public static final String XML_ID_METHOD_NAME = "xmlId";
+	public static final String OTHER_ATTRIBUTES_FIELD_NAME = "otherAttributes";
+	private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(StaxWriterGenerator.class.getName());
+	private final PluginContext pluginContext;
+	private final JCodeModel m;
+	private final ClassOutline classOutline;
+	private final StaxConstants constants;
+	private final JClass staxSupport;
+	private JVar writerParam = null;
+
+	public StaxWriterGenerator(final PluginContext pluginContext, final ClassOutline classOutline, final StaxConstants constants) {
+		this.pluginContext = pluginContext;
+		this.m = pluginContext.codeModel;
+		this.classOutline = classOutline;
+		this.constants = constants;
+		this.staxSupport = this.m.ref(StaxSupport.class);
+	}
+
+	public void generate() {
+		final boolean topmost = this.classOutline.getSuperClass() == null;
+		final List<FieldOutline> attributes = new ArrayList<>();
+		final List<FieldOutline> content = new ArrayList<>();
+		FieldOutline idField = null;
+		for (final FieldOutline fieldOutline : this.classOutline.getDeclaredFields()) {
+			if (PluginUtil.getDeclaredField(fieldOutline) != null) {
+				(fieldOutline.getPropertyInfo() instanceof CAttributePropertyInfo ? attributes : content).add(fieldOutline);
+				if (fieldOutline.getPropertyInfo().id() == ID.ID) {
+					idField = fieldOutline;
+				}
+			}
+		}
+		final JFieldVar otherAttributesField = this.classOutline.target.declaresAttributeWildcard() ? this.classOutline.implClass.fields().get(StaxWriterGenerator.OTHER_ATTRIBUTES_FIELD_NAME) : null;
+		if (topmost) {
+			this.classOutline.implClass._implements(StaxWritable.class);
+			generateWriteElementMethod();
+		}
+		if (topmost || this.classOutline.target.isElement()) {
+			generateWriteRootMethod();
+		}
+		if (topmost || this.classOutline.target.getTypeName() != null) {
+			generateXmlTypeNameMethod();
+		}
+		if (topmost || idField != null) {
+			generateXmlIdMethod(idField);
+		}
+		if (topmost || !attributes.isEmpty() || otherAttributesField != null) {
+			generateWriteAttributesMethod(attributes, otherAttributesField);
+		}
+		if (topmost || !content.isEmpty()) {
+			generateWriteContentMethod(content);
+		}
+	}
+
+	private JMethod createMethod(final int mods, final JType type, final String name, final boolean override) {
+		final JMethod method = this.classOutline.implClass.method(mods, type, name);
+		if (override) {
+			method.annotate(Override.class);
+		}
+		method._throws(XMLStreamException.class);
+		return method;
+	}
+
+	private void generateWriteElementMethod() {
+		final JMethod method = createMethod(JMod.PUBLIC, this.pluginContext.voidType, StaxWriterGenerator.WRITE_TO_METHOD_NAME, true);
+		this.writerParam = method.param(JMod.FINAL, XMLStreamWriter.class, "writer");
+		final JVar elementNameParam = method.param(JMod.FINAL, QName.class, "elementName");
+		final JVar typeSubstitutedParam = method.param(JMod.FINAL, this.m.BOOLEAN, "typeSubstituted");
+		final JBlock body = method.body();
+		body.add(this.staxSupport.staticInvoke("writeStartElement").arg(this.writerParam).arg(elementNameParam));
+		body._if(typeSubstitutedParam)._then().add(this.staxSupport.staticInvoke("writeXsiType").arg(this.writerParam).arg(JExpr.invoke(StaxWriterGenerator.XML_TYPE_NAME_METHOD_NAME)));
+		body.invoke(StaxWriterGenerator.WRITE_ATTRIBUTES_METHOD_NAME).arg(this.writerParam);
+		body.invoke(StaxWriterGenerator.WRITE_CONTENT_METHOD_NAME).arg(this.writerParam);
+		body.invoke(this.writerParam, "writeEndElement");
+	}
+
+	private void generateWriteRootMethod() {
+		final JMethod method = createMethod(JMod.PUBLIC, this.pluginContext.voidType, StaxWriterGenerator.WRITE_TO_METHOD_NAME, true);
+		method.javadoc().append(getMessage("javadoc.method.writeTo"));
+		this.writerParam = method.param(JMod.FINAL, XMLStreamWriter.class, "writer");
+		if (this.classOutline.target.isElement()) {
+			method.body().invoke(StaxWriterGenerator.WRITE_TO_METHOD_NAME).arg(this.writerParam).arg(this.constants.name(this.classOutline.target.getElementName())).arg(JExpr.invoke("getClass").ne(this.classOutline.implClass.dotclass()));
+		} else {
+			method.body()._throw(JExpr._new(this.m.ref(XMLStreamException.class)).arg(JExpr.invoke("getClass").invoke("getName").plus(JExpr.lit(" is not bound to a root element"))));
+		}
+	}
+
+	private void generateXmlTypeNameMethod() {
+		final JMethod method = this.classOutline.implClass.method(JMod.PROTECTED, QName.class, StaxWriterGenerator.XML_TYPE_NAME_METHOD_NAME);
+		if (this.classOutline.getSuperClass() != null) {
+			method.annotate(Override.class);
+		}
+		final QName typeName = this.classOutline.target.getTypeName();
+		method.body()._return(typeName == null ? JExpr._null() : this.constants.name(typeName));
+	}
+
+	private void generateXmlIdMethod(final FieldOutline idField) {
+		final JMethod method = this.classOutline.implClass.method(JMod.PUBLIC, String.class, StaxWriterGenerator.XML_ID_METHOD_NAME);
+		method.annotate(Override.class);
+		if (idField == null) {
+			method.body()._return(JExpr._null());
+		} else {
+			final JFieldVar field = PluginUtil.getDeclaredField(idField);
+			final JFieldRef fieldRef = JExpr._this().ref(field);
+			method.body()._return(field.type().fullName().equals(String.class.getName()) ? fieldRef : JOp.cond(fieldRef.eq(JExpr._null()), JExpr._null(), this.m.ref(String.class).staticInvoke("valueOf").arg(fieldRef)));
+		}
+	}
+
+	private void generateWriteAttributesMethod(final List<FieldOutline> attributes, final JFieldVar otherAttributesField) {
+		final JMethod method = createMethod(JMod.PROTECTED, this.pluginContext.voidType, StaxWriterGenerator.WRITE_ATTRIBUTES_METHOD_NAME, this.classOutline.getSuperClass() != null);
+		this.writerParam = method.param(JMod.FINAL, XMLStreamWriter.class, "writer");
+		final JBlock body = method.body();
+		if (this.classOutline.getSuperClass() != null) {
+			body.invoke(JExpr._super(), StaxWriterGenerator.WRITE_ATTRIBUTES_METHOD_NAME).arg(this.writerParam);
+		}
+		for (final FieldOutline fieldOutline : attributes) {
+			final CAttributePropertyInfo propertyInfo = (CAttributePropertyInfo)fieldOutline.getPropertyInfo();
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			final JFieldRef fieldRef = JExpr._this().ref(field);
+			final JFieldVar nameField = this.constants.name(propertyInfo.getXmlName());
+			if (field.type().isPrimitive()) {
+				body.add(this.staxSupport.staticInvoke("writeAttribute").arg(this.writerParam).arg(nameField).arg(print(fieldRef, field.type(), propertyInfo)));
+			} else if (propertyInfo.isCollection()) {
+				final JBlock block = body._if(fieldRef.ne(JExpr._null()).cand(fieldRef.invoke("isEmpty").not()))._then();
+				block.add(this.staxSupport.staticInvoke("writeAttribute").arg(this.writerParam).arg(nameField).arg(join(block, fieldRef, itemType(field), propertyInfo)));
+			} else {
+				body._if(fieldRef.ne(JExpr._null()))._then().add(this.staxSupport.staticInvoke("writeAttribute").arg(this.writerParam).arg(nameField).arg(print(fieldRef, field.type(), propertyInfo)));
+			}
+		}
+		if (otherAttributesField != null) {
+			final JFieldRef fieldRef = JExpr._this().ref(otherAttributesField);
+			final JForEach forEach = body._if(fieldRef.ne(JExpr._null()))._then().forEach(this.m.ref(Map.Entry.class).narrow(QName.class, String.class), "attribute", fieldRef.invoke("entrySet"));
+			forEach.body().add(this.staxSupport.staticInvoke("writeAttribute").arg(this.writerParam).arg(forEach.var().invoke("getKey")).arg(forEach.var().invoke("getValue")));
+		}
+	}
+
+	private void generateWriteContentMethod(final List<FieldOutline> content) {
+		final JMethod method = createMethod(JMod.PROTECTED, this.pluginContext.voidType, StaxWriterGenerator.WRITE_CONTENT_METHOD_NAME, this.classOutline.getSuperClass() != null);
+		this.writerParam = method.param(JMod.FINAL, XMLStreamWriter.class, "writer");
+		final JBlock body = method.body();
+		if (this.classOutline.getSuperClass() != null) {
+			body.invoke(JExpr._super(), StaxWriterGenerator.WRITE_CONTENT_METHOD_NAME).arg(this.writerParam);
+		}
+		for (final FieldOutline fieldOutline : content) {
+			final CPropertyInfo propertyInfo = fieldOutline.getPropertyInfo();
+			final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+			final JFieldRef fieldRef = JExpr._this().ref(field);
+			if (propertyInfo instanceof CValuePropertyInfo) {
+				generateWriteValue(body, propertyInfo, field, fieldRef);
+			} else if (propertyInfo instanceof CElementPropertyInfo && StaxPlugin.isLazy(fieldOutline)) {
+				final JFieldRef lazyRef = JExpr._this().ref(field.name() + StaxPlugin.LAZY_FIELD_SUFFIX);
+				final JConditional ifLazy = body._if(lazyRef.ne(JExpr._null()));
+				ifLazy._then().add(lazyRef.invoke("writeTo").arg(this.writerParam));
+				generateWriteElements(ifLazy._else(), (CElementPropertyInfo)propertyInfo, field, fieldRef);
+			} else if (propertyInfo instanceof CElementPropertyInfo) {
+				generateWriteElements(body, (CElementPropertyInfo)propertyInfo, field, fieldRef);
+			} else if (propertyInfo instanceof CReferencePropertyInfo) {
+				if (propertyInfo.isCollection()) {
+					final JForEach forEach = body._if(fieldRef.ne(JExpr._null()))._then().forEach(itemType(field), "item", fieldRef);
+					generateWriteReference(forEach.body(), (CReferencePropertyInfo)propertyInfo, forEach.var());
+				} else {
+					generateWriteReference(body._if(fieldRef.ne(JExpr._null()))._then(), (CReferencePropertyInfo)propertyInfo, fieldRef);
+				}
+			}
+		}
+	}
+
+	private void generateWriteValue(final JBlock body, final CPropertyInfo propertyInfo, final JFieldVar field, final JFieldRef fieldRef) {
+		if (field.type().isPrimitive()) {
+			body.invoke(this.writerParam, "writeCharacters").arg(print(fieldRef, field.type(), propertyInfo));
+		} else if (propertyInfo.isCollection()) {
+			final JBlock block = body._if(fieldRef.ne(JExpr._null()))._then();
+			block.invoke(this.writerParam, "writeCharacters").arg(join(block, fieldRef, itemType(field), propertyInfo));
+		} else {
+			body._if(fieldRef.ne(JExpr._null()))._then().invoke(this.writerParam, "writeCharacters").arg(print(fieldRef, field.type(), propertyInfo));
+		}
+	}
+
+	private void generateWriteElements(final JBlock body, final CElementPropertyInfo propertyInfo, final JFieldVar field, final JFieldRef fieldRef) {
+		final CTypeRef firstTypeRef = propertyInfo.getTypes().get(0);
+		if (field.type().isPrimitive()) {
+			generateWriteElement(body, propertyInfo, fieldRef, field.type());
+		} else if (propertyInfo.isValueList()) {
+			final JBlock block = body._if(fieldRef.ne(JExpr._null()))._then();
+			block.add(this.staxSupport.staticInvoke("writeSimpleElement").arg(this.writerParam).arg(this.constants.name(firstTypeRef.getTagName())).arg(join(block, fieldRef, itemType(field), propertyInfo)));
+		} else if (propertyInfo.isCollection()) {
+			final JBlock block = body._if(fieldRef.ne(JExpr._null()))._then();
+			final QName wrapperName = propertyInfo.getXmlName();
+			if (wrapperName != null) {
+				block.add(this.staxSupport.staticInvoke("writeStartElement").arg(this.writerParam).arg(this.constants.name(wrapperName)));
+			}
+			final JForEach forEach = block.forEach(itemType(field), "item", fieldRef);
+			final JConditional ifNotNull = forEach.body()._if(forEach.var().ne(JExpr._null()));
+			generateWriteElement(ifNotNull._then(), propertyInfo, forEach.var(), itemType(field));
+			if (firstTypeRef.isNillable()) {
+				ifNotNull._else().add(this.staxSupport.staticInvoke("writeNilElement").arg(this.writerParam).arg(this.constants.name(firstTypeRef.getTagName())));
+			}
+			if (wrapperName != null) {
+				block.invoke(this.writerParam, "writeEndElement");
+			}
+		} else {
+			final JConditional ifNotNull = body._if(fieldRef.ne(JExpr._null()));
+			generateWriteElement(ifNotNull._then(), propertyInfo, fieldRef, field.type());
+			if (firstTypeRef.isNillable() && propertyInfo.getTypes().size() == 1) {
+				ifNotNull._else().add(this.staxSupport.staticInvoke("writeNilElement").arg(this.writerParam).arg(this.constants.name(firstTypeRef.getTagName())));
+			}
+		}
+	}
+
+	/**
+	 * Writes a non-null value of an element property, choosing the element
+	 * by the type of the value if there is more than one.
+	 */
+	private void generateWriteElement(final JBlock block, final CElementPropertyInfo propertyInfo, final JExpression value, final JType valueType) {
+		final List<CTypeRef> typeRefs = propertyInfo.getTypes();
+		if (valueType.erasure().fullName().equals(JAXBElement.class.getName())) {
+			final JType contentType = targetType(typeRefs.get(0));
+			final JConditional ifNil = block._if(value.invoke("isNil"));
+			ifNil._then().add(this.staxSupport.staticInvoke("writeNilElement").arg(this.writerParam).arg(value.invoke("getName")));
+			generateWriteTyped(ifNil._else(), propertyInfo, typeRefs.get(0), value.invoke("getValue"), contentType, value.invoke("getName"), value.invoke("isTypeSubstituted"));
+		} else if (typeRefs.size() == 1) {
+			generateWriteTyped(block, propertyInfo, typeRefs.get(0), value, valueType, this.constants.name(typeRefs.get(0).getTagName()), null);
+		} else {
+			JConditional dispatch = null;
+			for (final CTypeRef typeRef : typeRefs) {
+				final JType type = targetType(typeRef);
+				final JExpression test = value._instanceof(type.erasure());
+				dispatch = dispatch == null ? block._if(test) : dispatch._elseif(test);
+				generateWriteTyped(dispatch._then(), propertyInfo, typeRef, JExpr.cast(type, value), type, this.constants.name(typeRef.getTagName()), null);
+			}
+			dispatch._else().add(this.staxSupport.staticInvoke("writeValue").arg(this.writerParam).arg(value));
+		}
+	}
+
+	private void generateWriteTyped(final JBlock block, final CPropertyInfo propertyInfo, final CTypeRef typeRef, final JExpression value, final JType type, final JExpression elementName, final JExpression typeSubstituted) {
+		if (typeRef.getTarget() instanceof CClass && propertyInfo.id() != ID.IDREF) {
+			final JExpression substituted = typeSubstituted != null ? typeSubstituted : value.invoke("getClass").ne(((JClass)type).dotclass());
+			final JExpression writable = this.pluginContext.getClassOutline(type) != null ? value : JExpr.cast(this.m.ref(StaxWritable.class), value);
+			block.add(writable.invoke(StaxWriterGenerator.WRITE_TO_METHOD_NAME).arg(this.writerParam).arg(elementName).arg(substituted));
+		} else if (type.fullName().equals(Object.class.getName()) && propertyInfo.id() != ID.IDREF) {
+			block.add(this.staxSupport.staticInvoke("writeAnyElement").arg(this.writerParam).arg(elementName).arg(value));
+		} else {
+			block.add(this.staxSupport.staticInvoke("writeSimpleElement").arg(this.writerParam).arg(elementName).arg(print(value, type, propertyInfo)));
+		}
+	}
+
+	/**
+	 * Items of reference properties are written by their runtime type. Only
+	 * elements with content that cannot be converted without binding information,
+	 * i.e. enums and adapted types, need code of their own.
+	 */
+	private void generateWriteReference(final JBlock block, final CReferencePropertyInfo propertyInfo, final JExpression value) {
+		final List<CElementInfo> specialElements = new ArrayList<>();
+		for (final CElement element : propertyInfo.getElements()) {
+			if (element instanceof CElementInfo) {
+				final CElementInfo elementInfo = (CElementInfo)element;
+				final JType contentType = elementInfo.getContentType().toType(this.pluginContext.outline, Aspect.EXPOSED);
+				if (elementInfo.getProperty().getAdapter() != null || this.pluginContext.getEnumOutline(contentType) != null) {
+					specialElements.add(elementInfo);
+				}
+			}
+		}
+		if (specialElements.isEmpty()) {
+			block.add(this.staxSupport.staticInvoke("writeValue").arg(this.writerParam).arg(value));
+			return;
+		}
+		final JConditional ifElement = block._if(value._instanceof(this.m.ref(JAXBElement.class)));
+		final JClass elementType = this.m.ref(JAXBElement.class).narrow(this.m.wildcard());
+		final JVar elementVar = ifElement._then().decl(JMod.FINAL, elementType, "element", JExpr.cast(elementType, value));
+		JConditional dispatch = null;
+		for (final CElementInfo elementInfo : specialElements) {
+			final JType contentType = elementInfo.getContentType().toType(this.pluginContext.outline, Aspect.EXPOSED).boxify();
+			final JExpression test = this.constants.name(elementInfo.getElementName()).invoke("equals").arg(elementVar.invoke("getName")).cand(elementVar.invoke("isNil").not());
+			dispatch = dispatch == null ? ifElement._then()._if(test) : dispatch._elseif(test);
+			dispatch._then().add(this.staxSupport.staticInvoke("writeSimpleElement").arg(this.writerParam).arg(elementVar.invoke("getName")).arg(print(JExpr.cast(contentType, elementVar.invoke("getValue")), contentType, elementInfo.getProperty())));
+		}
+		dispatch._else().add(this.staxSupport.staticInvoke("writeValue").arg(this.writerParam).arg(value));
+		ifElement._else().add(this.staxSupport.staticInvoke("writeValue").arg(this.writerParam).arg(value));
+	}
+
+	/**
+	 * Generates the conversion of a simple value to its lexical representation,
+	 * chosen by the type of the value and the binding of the property.
+	 */
+	private JExpression print(final JExpression value, final JType type, final CPropertyInfo propertyInfo) {
+		if (propertyInfo.id() == ID.IDREF) {
+			return this.staxSupport.staticInvoke("printId").arg(value);
+		}
+		final CAdapter adapter = propertyInfo.getAdapter();
+		if (adapter != null) {
+			return this.staxSupport.staticInvoke("marshal").arg(this.writerParam).arg(this.constants.adapter(adapter.getAdapterClass(this.pluginContext.outline))).arg(value);
+		}
+		if (this.pluginContext.getEnumOutline(type) != null) {
+			return this.m.ref(String.class).staticInvoke("valueOf").arg(value.invoke("value"));
+		}
+		final JClass datatypeConverter = this.m.ref(DatatypeConverter.class);
+		switch (type.erasure().fullName()) {
+			case "java.lang.String":
+				return value;
+			case "boolean":
+			case "java.lang.Boolean":
+				return datatypeConverter.staticInvoke("printBoolean").arg(value);
+			case "float":
+			case "java.lang.Float":
+				return datatypeConverter.staticInvoke("printFloat").arg(value);
+			case "double":
+			case "java.lang.Double":
+				return datatypeConverter.staticInvoke("printDouble").arg(value);
+			case "int":
+			case "long":
+			case "short":
+			case "byte":
+			case "java.lang.Integer":
+			case "java.lang.Long":
+			case "java.lang.Short":
+			case "java.lang.Byte":
+			case "java.math.BigInteger":
+				return this.m.ref(String.class).staticInvoke("valueOf").arg(value);
+			case "byte[]":
+				return datatypeConverter.staticInvoke("printBase64Binary").arg(value);
+			default:
+				if (type.erasure().fullName().equals(BigDecimal.class.getName())) {
+					return datatypeConverter.staticInvoke("printDecimal").arg(value);
+				} else if (type.erasure().fullName().equals(XMLGregorianCalendar.class.getName())) {
+					return value.invoke("toXMLFormat");
+				} else if (type.erasure().fullName().equals(Duration.class.getName())) {
+					return value.invoke("toString");
+				} else if (type.erasure().fullName().equals(QName.class.getName())) {
+					return this.staxSupport.staticInvoke("printQName").arg(this.writerParam).arg(value);
+				} else {
+					return this.staxSupport.staticInvoke("printSimple").arg(this.writerParam).arg(value);
+				}
+		}
+	}
+
+	/**
+	 * Generates the code joining the items of a list type to a whitespace separated string.
+	 */
+	private JExpression join(final JBlock block, final JExpression collection, final JType itemType, final CPropertyInfo propertyInfo) {
+		final JClass stringBuilderType = this.m.ref(StringBuilder.class);
+		final JVar textVar = block.decl(JMod.FINAL, stringBuilderType, "text", JExpr._new(stringBuilderType));
+		final JForEach forEach = block.forEach(itemType, "item", collection);
+		forEach.body()._if(textVar.invoke("length").gt(JExpr.lit(0)))._then().add(textVar.invoke("append").arg(JExpr.lit(' ')));
+		forEach.body().add(textVar.invoke("append").arg(print(forEach.var(), itemType, propertyInfo)));
+		return textVar.invoke("toString");
+	}
+
+	private JType targetType(final CTypeRef typeRef) {
+		return typeRef.getTarget().toType(this.pluginContext.outline, Aspect.EXPOSED).boxify();
+	}
+
+	private static JType itemType(final JFieldVar field) {
+		return field.type().isArray() ? field.type().elementType() : ((JClass)field.type()).getTypeParameters().get(0);
+	}
+
+	private String getMessage(final String resourceKey) {
+		return StaxWriterGenerator.RESOURCE_BUNDLE.getString(resourceKey);
+	}
+}
@@ -0,0 +1,399 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.bind.JAXBElement;
+
+import com.kscs.util.jaxb.ParallelTraversal;
+import com.kscs.util.jaxb.Traversable;
+import com.kscs.util.jaxb.TypeReachability;
+import com.kscs.util.plugins.xjc.base.AbstractPlugin;
+import com.kscs.util.plugins.xjc.base.Opt;
+import com.kscs.util.plugins.xjc.base.PluginUtil;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
+import com.sun.codemodel.JVar;
+import com.sun.tools.xjc.Options;
+import com.sun.tools.xjc.model.Aspect;
+import com.sun.tools.xjc.model.CClassInfo;
+import com.sun.tools.xjc.model.CElementInfo;
+import com.sun.tools.xjc.model.CPropertyInfo;
+import com.sun.tools.xjc.model.CReferencePropertyInfo;
+import com.sun.tools.xjc.model.CTypeInfo;
+import com.sun.tools.xjc.outline.ClassOutline;
+import com.sun.tools.xjc.outline.FieldOutline;
+import com.sun.tools.xjc.outline.Outline;
+import com.sun.xml.bind.v2.model.core.ID;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+/**
+ * XJC Plugin to generate methods that find all objects of a given
+ * type in an object tree, without visiting subtrees that cannot
+ * contain objects of that type according to the schema.
+ *
+ * @author agent 2026-10-19
+ */
+public class TraversalPlugin extends AbstractPlugin {
+	public static final String FIND_ALL_METHOD_NAME = "findAll";
+	public static final String COLLECT_ALL_METHOD_NAME = "collectAll";
+	public static final String COLLECT_CHILDREN_METHOD_NAME = "collectChildren";
+	public static final String REACHABILITY_FIELD_NAME = "__REACHABILITY";
+	private static final String CHILD_VAR_NAME = "child";
+
+	@Opt
+	private boolean generateTools = true;
+	@Opt
+	private boolean parallel = false;
+
+	@Override
+	public String getOptionName() {
+		return "Xtraversal";
+	}
+
+	@Override
+	public boolean run(final Outline outline, final Options opt, final ErrorHandler errorHandler) throws SAXException {
+		final PluginContext pluginContext = PluginContext.get(outline, opt, errorHandler);
+		if (this.generateTools) {
+			pluginContext.writeSourceFile(TypeReachability.class);
+			if (this.parallel) {
+				pluginContext.writeSourceFile(Traversable.class);
+				pluginContext.writeSourceFile(ParallelTraversal.class);
+			}
+		}
+		final Reachability reachability = new Reachability(pluginContext);
+		for (final ClassOutline classOutline : outline.getClasses()) {
+			generateFindMethods(pluginContext, reachability, classOutline);
+		}
+		return true;
+	}
+
+	private void generateFindMethods(final PluginContext pluginContext, final Reachability reachability, final ClassOutline classOutline) {
+		final JCodeModel m = pluginContext.codeModel;
+		if (classOutline.getSuperClass() == null) {
+			final JMethod findAllMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.voidType, TraversalPlugin.FIND_ALL_METHOD_NAME);
+			final JTypeVar typeVar = findAllMethod.generify("T");
+			final JClass listType = m.ref(List.class).narrow(typeVar);
+			findAllMethod.type(listType);
+			findAllMethod.javadoc().append(getMessage("javadoc.method.findAll"));
+			final JVar typeParam = findAllMethod.param(JMod.FINAL, m.ref(Class.class).narrow(typeVar), "type");
+			final JVar resultVar = findAllMethod.body().decl(JMod.FINAL, listType, "result", JExpr._new(pluginContext.arrayListClass.narrow(typeVar)));
+			findAllMethod.body().invoke(TraversalPlugin.COLLECT_ALL_METHOD_NAME).arg(typeParam).arg(resultVar);
+			findAllMethod.body()._return(resultVar);
+		}
+		final List<FieldOutline> fieldOutlines = new ArrayList<>();
+		for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+			if (PluginUtil.getDeclaredField(fieldOutline) != null) {
+				fieldOutlines.add(fieldOutline);
+			}
+		}
+		if (fieldOutlines.isEmpty() && classOutline.getSuperClass() != null) {
+			return;
+		}
+		final JFieldVar reachabilityField = fieldOutlines.isEmpty() ? null : generateReachabilityField(pluginContext, reachability, classOutline, fieldOutlines);
+		generateCollectAllMethod(pluginContext, reachability, classOutline, fieldOutlines, reachabilityField);
+		if (this.parallel) {
+			if (classOutline.getSuperClass() == null) {
+				classOutline.implClass._implements(Traversable.class);
+			}
+			generateCollectChildrenMethod(pluginContext, reachability, classOutline, fieldOutlines, reachabilityField);
+		}
+	}
+
+	private JFieldVar generateReachabilityField(final PluginContext pluginContext, final Reachability reachability, final ClassOutline classOutline, final List<FieldOutline> fieldOutlines) {
+		final JCodeModel m = pluginContext.codeModel;
+		final JArray reachableTypes = JExpr.newArray(m.ref(Class.class).narrow(m.wildcard()).array());
+		for (final FieldOutline fieldOutline : fieldOutlines) {
+			final JArray fieldReachableTypes = JExpr.newArray(m.ref(Class.class).narrow(m.wildcard()));
+			for (final JClass reachableType : reachability.reachableTypes(fieldOutline)) {
+				fieldReachableTypes.add(reachableType.dotclass());
+			}
+			reachableTypes.add(fieldReachableTypes);
+		}
+		return classOutline.implClass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, TypeReachability.class, TraversalPlugin.REACHABILITY_FIELD_NAME, JExpr._new(m.ref(TypeReachability.class)).arg(reachableTypes));
+	}
+
+	private void generateCollectAllMethod(final PluginContext pluginContext, final Reachability reachability, final ClassOutline classOutline, final List<FieldOutline> fieldOutlines, final JFieldVar reachabilityField) {
+		final JCodeModel m = pluginContext.codeModel;
+		if (fieldOutlines.isEmpty() && classOutline.getSuperClass() != null) {
+			return;
+		}
+		final JMethod collectAllMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.voidType, TraversalPlugin.COLLECT_ALL_METHOD_NAME);
+		final JTypeVar typeVar = collectAllMethod.generify("T");
+		collectAllMethod.javadoc().append(getMessage("javadoc.method.collectAll"));
+		final JVar typeParam = collectAllMethod.param(JMod.FINAL, m.ref(Class.class).narrow(typeVar), "type");
+		final JVar resultParam = collectAllMethod.param(JMod.FINAL, m.ref(List.class).narrow(typeVar), "result");
+		final JBlock body = collectAllMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			collectAllMethod.annotate(Override.class);
+			body.invoke(JExpr._super(), TraversalPlugin.COLLECT_ALL_METHOD_NAME).arg(typeParam).arg(resultParam);
+		}
+		if (fieldOutlines.isEmpty()) {
+			return;
+		}
+		final JVar reachableVar = body.decl(JMod.FINAL, m.BOOLEAN.array(), "reachable", classOutline.implClass.staticRef(reachabilityField).invoke("get").arg(typeParam));
+		for (int i = 0; i < fieldOutlines.size(); i++) {
+			generateFieldSearch(pluginContext, reachability, body, JExpr.component(reachableVar, JExpr.lit(i)), typeParam, resultParam, fieldOutlines.get(i));
+		}
+	}
+
+	private void generateCollectChildrenMethod(final PluginContext pluginContext, final Reachability reachability, final ClassOutline classOutline, final List<FieldOutline> fieldOutlines, final JFieldVar reachabilityField) {
+		final JCodeModel m = pluginContext.codeModel;
+		if (fieldOutlines.isEmpty() && classOutline.getSuperClass() != null) {
+			return;
+		}
+		final JMethod collectChildrenMethod = classOutline.implClass.method(JMod.PUBLIC, pluginContext.voidType, TraversalPlugin.COLLECT_CHILDREN_METHOD_NAME);
+		collectChildrenMethod.annotate(Override.class);
+		final JVar typeParam = collectChildrenMethod.param(JMod.FINAL, m.ref(Class.class).narrow(m.wildcard()), "type");
+		final JVar childrenParam = collectChildrenMethod.param(JMod.FINAL, m.ref(List.class).narrow(Object.class), "children");
+		final JBlock body = collectChildrenMethod.body();
+		if (classOutline.getSuperClass() != null) {
+			body.invoke(JExpr._super(), TraversalPlugin.COLLECT_CHILDREN_METHOD_NAME).arg(typeParam).arg(childrenParam);
+		}
+		if (fieldOutlines.isEmpty()) {
+			return;
+		}
+		final JVar reachableVar = body.decl(JMod.FINAL, m.BOOLEAN.array(), "reachable", classOutline.implClass.staticRef(reachabilityField).invoke("get").arg(typeParam));
+		for (int i = 0; i < fieldOutlines.size(); i++) {
+			final FieldOutline fieldOutline = fieldOutlines.get(i);
+			// only properties that can hold generated objects have children
+			if (reachability.topmostCandidates(fieldOutline).isEmpty()) {
+				continue;
+			}
+			final FieldValue fieldValue = generateFieldValue(pluginContext, body, JExpr.component(reachableVar, JExpr.lit(i)), fieldOutline);
+			if (pluginContext.getClassOutline(fieldValue.type) != null) {
+				fieldValue.block._if(fieldValue.value.ne(JExpr._null()))._then().add(childrenParam.invoke("add").arg(fieldValue.value));
+			} else {
+				final JVar childVar = fieldValue.block.decl(JMod.FINAL, m.ref(Object.class), TraversalPlugin.CHILD_VAR_NAME, unwrap(pluginContext, fieldValue));
+				fieldValue.block._if(childVar._instanceof(m.ref(Traversable.class)))._then().add(childrenParam.invoke("add").arg(childVar));
+			}
+		}
+	}
+
+	/**
+	 * Generates the code to get at the non-null value of a property, or at each of its items
+	 * if it is a collection, if the given condition holds.
+	 * @return The block in which the value or item is available, or <tt>null</tt> for primitive properties.
+	 */
+	private FieldValue generateFieldValue(final PluginContext pluginContext, final JBlock body, final JExpression condition, final FieldOutline fieldOutline) {
+		final JFieldVar field = PluginUtil.getDeclaredField(fieldOutline);
+		final JFieldRef fieldRef = JExpr._this().ref(field);
+		if (field.type().isPrimitive()) {
+			return null;
+		}
+		final JBlock block = body._if(condition.cand(fieldRef.ne(JExpr._null())))._then();
+		if (fieldOutline.getPropertyInfo().isCollection() && !field.type().isArray()) {
+			final JClass elementType = ((JClass)field.type()).getTypeParameters().get(0);
+			final JForEach forEach = block.forEach(elementType, "item", fieldRef);
+			return new FieldValue(forEach.body(), forEach.var(), elementType);
+		} else {
+			return new FieldValue(block, fieldRef, field.type());
+		}
+	}
+
+	private JExpression unwrap(final PluginContext pluginContext, final FieldValue fieldValue) {
+		if (isWrapperType(fieldValue.type)) {
+			final JCodeModel m = pluginContext.codeModel;
+			final JExpression objectValue = JExpr.cast(m.ref(Object.class), fieldValue.value);
+			final JExpression elementValue = JExpr.cast(m.ref(JAXBElement.class).narrow(m.wildcard()), fieldValue.value);
+			return JOp.cond(objectValue._instanceof(m.ref(JAXBElement.class)), elementValue.invoke("getValue"), fieldValue.value);
+		} else {
+			return fieldValue.value;
+		}
+	}
+
+	private void generateFieldSearch(final PluginContext pluginContext, final Reachability reachability, final JBlock body, final JExpression reachable, final JVar typeParam, final JVar resultParam, final FieldOutline fieldOutline) {
+		final JCodeModel m = pluginContext.codeModel;
+		final FieldValue fieldValue = generateFieldValue(pluginContext, body, reachable, fieldOutline);
+		if (fieldValue == null) {
+			final JFieldRef fieldRef = JExpr._this().ref(PluginUtil.getDeclaredField(fieldOutline));
+			body._if(reachable.cand(typeParam.invoke("isInstance").arg(fieldRef)))._then().add(resultParam.invoke("add").arg(typeParam.invoke("cast").arg(fieldRef)));
+		} else if (pluginContext.getClassOutline(fieldValue.type) != null && !reachability.isReference(fieldOutline)) {
+			final JVar childVar = fieldValue.block.decl(JMod.FINAL, fieldValue.type, TraversalPlugin.CHILD_VAR_NAME, fieldValue.value);
+			final JBlock ifNotNull = fieldValue.block._if(childVar.ne(JExpr._null()))._then();
+			ifNotNull._if(typeParam.invoke("isInstance").arg(childVar))._then().add(resultParam.invoke("add").arg(typeParam.invoke("cast").arg(childVar)));
+			ifNotNull.invoke(childVar, TraversalPlugin.COLLECT_ALL_METHOD_NAME).arg(typeParam).arg(resultParam);
+		} else {
+			final List<ClassOutline> childClasses = reachability.topmostCandidates(fieldOutline);
+			final JVar childVar = fieldValue.block.decl(JMod.FINAL, m.ref(Object.class), TraversalPlugin.CHILD_VAR_NAME, childClasses.isEmpty() ? fieldValue.value : unwrap(pluginContext, fieldValue));
+			fieldValue.block._if(typeParam.invoke("isInstance").arg(childVar))._then().add(resultParam.invoke("add").arg(typeParam.invoke("cast").arg(childVar)));
+			JConditional dispatch = null;
+			for (final ClassOutline childClass : childClasses) {
+				final JExpression test = childVar._instanceof(childClass.implClass);
+				dispatch = dispatch == null ? fieldValue.block._if(test) : dispatch._elseif(test);
+				dispatch._then().invoke(JExpr.cast(childClass.implClass, childVar), TraversalPlugin.COLLECT_ALL_METHOD_NAME).arg(typeParam).arg(resultParam);
+			}
+		}
+	}
+
+	private static boolean isWrapperType(final JType type) {
+		final String name = type.erasure().fullName();
+		return name.equals(Object.class.getName()) || name.equals(Serializable.class.getName()) || name.equals(JAXBElement.class.getName());
+	}
+
+	private static class FieldValue {
+		final JBlock block;
+		final JExpression value;
+		final JType type;
+
+		FieldValue(final JBlock block, final JExpression value, final JType type) {
+			this.block = block;
+			this.value = value;
+			this.type = type;
+		}
+	}
+
+	/**
+	 * Computes, for each property, which types can occur in the property
+	 * value or anywhere below it. Since a property can hold instances of
+	 * subclasses of its declared type, their properties are followed as well.
+	 */
+	private static class Reachability {
+		private final PluginContext pluginContext;
+		private final Map<ClassOutline, Set<ClassOutline>> subClasses = new LinkedHashMap<>();
+		private final Map<FieldOutline, Set<ClassOutline>> candidates = new LinkedHashMap<>();
+		private final Map<FieldOutline, Set<JClass>> leafTypes = new LinkedHashMap<>();
+		private final Map<ClassOutline, Set<JClass>> reachableBelow = new LinkedHashMap<>();
+
+		Reachability(final PluginContext pluginContext) {
+			this.pluginContext = pluginContext;
+			for (final ClassOutline classOutline : pluginContext.outline.getClasses()) {
+				for (ClassOutline current = classOutline; current != null; current = current.getSuperClass()) {
+					subClassesOf(current).add(classOutline);
+				}
+				for (final FieldOutline fieldOutline : classOutline.getDeclaredFields()) {
+					analyzeField(fieldOutline);
+				}
+				this.reachableBelow.put(classOutline, new LinkedHashSet<JClass>());
+			}
+			// the type graph may be recursive, so iterate until nothing is added any more
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (final Map.Entry<ClassOutline, Set<JClass>> entry : this.reachableBelow.entrySet()) {
+					for (final ClassOutline subClass : subClassesOf(entry.getKey())) {
+						for (ClassOutline current = subClass; current != null; current = current.getSuperClass()) {
+							for (final FieldOutline fieldOutline : current.getDeclaredFields()) {
+								changed |= entry.getValue().addAll(reachableTypes(fieldOutline));
+							}
+						}
+					}
+				}
+			}
+		}
+
+		Set<JClass> reachableTypes(final FieldOutline fieldOutline) {
+			final Set<JClass> types = new LinkedHashSet<>(this.leafTypes.get(fieldOutline));
+			for (final ClassOutline candidate : this.candidates.get(fieldOutline)) {
+				for (final ClassOutline subClass : subClassesOf(candidate)) {
+					types.add(subClass.implClass);
+				}
+				types.addAll(this.reachableBelow.get(candidate));
+			}
+			return types;
+		}
+
+		/**
+		 * @return The generated classes a property can hold, without those that
+		 * are subclasses of others in the result.
+		 */
+		List<ClassOutline> topmostCandidates(final FieldOutline fieldOutline) {
+			if (isReference(fieldOutline)) {
+				return Collections.emptyList();
+			}
+			final Set<ClassOutline> candidates = this.candidates.get(fieldOutline);
+			final List<ClassOutline> topmost = new ArrayList<>();
+			for (final ClassOutline candidate : candidates) {
+				boolean isTopmost = true;
+				for (ClassOutline superClass = candidate.getSuperClass(); superClass != null && isTopmost; superClass = superClass.getSuperClass()) {
+					isTopmost = !candidates.contains(superClass);
+				}
+				if (isTopmost) {
+					topmost.add(candidate);
+				}
+			}
+			return topmost;
+		}
+
+		/**
+		 * IDREF properties point to objects elsewhere in the tree, so they are
+		 * never descended into, which also keeps reference cycles from looping.
+		 */
+		boolean isReference(final FieldOutline fieldOutline) {
+			return fieldOutline.getPropertyInfo().id() == ID.IDREF;
+		}
+
+		private Set<ClassOutline> subClassesOf(final ClassOutline classOutline) {
+			Set<ClassOutline> subClasses = this.subClasses.get(classOutline);
+			if (subClasses == null) {
+				subClasses = new LinkedHashSet<>();
+				this.subClasses.put(classOutline, subClasses);
+			}
+			return subClasses;
+		}
+
+		private void analyzeField(final FieldOutline fieldOutline) {
+			final Outline outline = this.pluginContext.outline;
+			final Set<ClassOutline> fieldCandidates = new LinkedHashSet<>();
+			final Set<JClass> fieldLeafTypes = new LinkedHashSet<>();
+			final CPropertyInfo propertyInfo = fieldOutline.getPropertyInfo();
+			for (final CTypeInfo typeInfo : propertyInfo.ref()) {
+				final CTypeInfo contentType = typeInfo instanceof CElementInfo ? ((CElementInfo)typeInfo).getContentType() : typeInfo;
+				if (contentType instanceof CClassInfo && outline.getClazz((CClassInfo)contentType) != null && !isReference(fieldOutline)) {
+					fieldCandidates.add(outline.getClazz((CClassInfo)contentType));
+				} else {
+					fieldLeafTypes.add(contentType.toType(outline, Aspect.EXPOSED).boxify().erasure());
+				}
+			}
+			if (propertyInfo instanceof CReferencePropertyInfo && ((CReferencePropertyInfo)propertyInfo).getWildcard() != null) {
+				// anything can occur in a wildcard
+				fieldLeafTypes.add(this.pluginContext.codeModel.ref(Object.class));
+			}
+			this.candidates.put(fieldOutline, fieldCandidates);
+			this.leafTypes.put(fieldOutline, fieldLeafTypes);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that values written by {@link BinaryEncoder} are read back by {@link BinaryDecoder}
+ */
+public class BinaryEncoderTest {
+	private static final BinaryTypes NO_TYPES = new BinaryTypes() {
+		@Override
+		public long fingerprint() {
+			return 0L;
+		}
+
+		@Override
+		public BinaryCodable create(final int typeId) {
+			return null;
+		}
+	};
+
+	@Test
+	public void testNumbersRoundTrip() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final BinaryEncoder encoder = new BinaryEncoder(bytes, 4);
+		final int[] ints = {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE};
+		final long[] longs = {0L, -1L, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE};
+		for (final int value : ints) {
+			encoder.writeInt(value);
+		}
+		for (final long value : longs) {
+			encoder.writeLong(value);
+			encoder.writeFixedLong(value);
+		}
+		encoder.writeVarInt(300);
+		encoder.writeFloat(-1.5f);
+		encoder.writeDouble(Math.PI);
+		encoder.writeBoolean(true);
+		encoder.writeBigInteger(BigInteger.TEN.pow(30).negate());
+		encoder.writeBigDecimal(new BigDecimal("12.50"));
+		encoder.close();
+		final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()), BinaryEncoderTest.NO_TYPES, 3);
+		for (final int value : ints) {
+			assertEquals(value, decoder.readInt());
+		}
+		for (final long value : longs) {
+			assertEquals(value, decoder.readLong());
+			assertEquals(value, decoder.readFixedLong());
+		}
+		assertEquals(300, decoder.readVarInt());
+		assertEquals(-1.5f, decoder.readFloat(), 0.0f);
+		assertEquals(Math.PI, decoder.readDouble(), 0.0);
+		assertEquals(true, decoder.readBoolean());
+		assertEquals(BigInteger.TEN.pow(30).negate(), decoder.readBigInteger());
+		assertEquals(new BigDecimal("12.50"), decoder.readBigDecimal());
+	}
+
+	@Test
+	public void testSmallIntegersTakeOneByte() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final BinaryEncoder encoder = new BinaryEncoder(bytes);
+		encoder.writeInt(-64);
+		encoder.writeInt(63);
+		encoder.flush();
+		assertEquals(2, bytes.size());
+	}
+
+	@Test
+	public void testStringsAndBytesRoundTrip() throws Exception {
+		final StringBuilder longString = new StringBuilder();
+		for (int i = 0; i < 5000; i++) {
+			longString.append((char)('a' + i % 26)).append('\u20AC');
+		}
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final BinaryEncoder encoder = new BinaryEncoder(bytes, 16);
+		encoder.writeString(null);
+		encoder.writeString("");
+		encoder.writeString("gr\u00FC\u00DFe \uD83D\uDE00");
+		encoder.writeString(longString.toString());
+		encoder.writeBytes(null);
+		encoder.writeBytes(new byte[] {1, 2, 3});
+		encoder.close();
+		final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()), BinaryEncoderTest.NO_TYPES, 16);
+		assertNull(decoder.readString());
+		assertEquals("", decoder.readString());
+		assertEquals("gr\u00FC\u00DFe \uD83D\uDE00", decoder.readString());
+		assertEquals(longString.toString(), decoder.readString());
+		assertNull(decoder.readBytes());
+		assertArrayEquals(new byte[] {1, 2, 3}, decoder.readBytes());
+	}
+
+	@Test
+	public void testTaggedValuesRoundTrip() throws Exception {
+		final DatatypeFactory datatypeFactory = DatatypeFactory.newInstance();
+		final XMLGregorianCalendar calendar = datatypeFactory.newXMLGregorianCalendar("2014-03-27T10:15:30.250+01:00");
+		final Duration duration = datatypeFactory.newDuration("P1DT2H");
+		final QName name = new QName("urn:test", "item", "t");
+		final Object[] values = {null, "text", Boolean.FALSE, 42, -42L, (short)7, (byte)-3, 0.25f, 0.125, BigInteger.ONE, BigDecimal.ONE, name, calendar, duration, new Date(1234567890L)};
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final BinaryEncoder encoder = new BinaryEncoder(bytes);
+		for (final Object value : values) {
+			encoder.writeValue(value);
+		}
+		encoder.writeValue(new JAXBElement<String>(name, String.class, "content"));
+		encoder.close();
+		final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()), BinaryEncoderTest.NO_TYPES);
+		for (final Object value : values) {
+			assertEquals(value, decoder.readValue());
+		}
+		final JAXBElement<?> element = (JAXBElement<?>)decoder.readValue();
+		assertEquals(name, element.getName());
+		assertEquals("content", element.getValue());
+	}
+
+	@Test
+	public void testTruncatedInputFails() throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final BinaryEncoder encoder = new BinaryEncoder(bytes);
+		encoder.writeString("truncated");
+		encoder.close();
+		final byte[] data = bytes.toByteArray();
+		final BinaryDecoder decoder = new BinaryDecoder(new ByteArrayInputStream(data, 0, data.length - 2), BinaryEncoderTest.NO_TYPES);
+		try {
+			decoder.readString();
+			fail("Truncated input not detected.");
+		} catch (final IOException expected) {
+			// expected
+		}
+	}
+}
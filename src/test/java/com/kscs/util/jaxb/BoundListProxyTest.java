@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.beans.PropertyVetoException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the change events sent by {@link BoundListProxy}
+ */
+public class BoundListProxyTest {
+	private BoundListProxy<String> list;
+	private List<CollectionChangeEvent<String>> events;
+
+	@Before
+	public void setUp() {
+		this.list = new BoundListProxy<>(new ArrayList<>(Arrays.asList("a", "b", "c", "d")));
+		this.events = new ArrayList<>();
+		this.list.addCollectionChangeListener(new CollectionChangeListener<String>() {
+			@Override
+			public void collectionChange(final CollectionChangeEvent<String> event) {
+				BoundListProxyTest.this.events.add(event);
+			}
+		});
+	}
+
+	@Test
+	public void testEventsDescribeDeltas() {
+		this.list.add(1, "x");
+		this.list.set(0, "y");
+		this.list.remove("c");
+		assertEquals(Arrays.asList("y", "x", "b", "d"), this.list);
+		assertEquals(3, this.events.size());
+		assertDelta(this.events.get(0), 1, Collections.singletonList("x"), Collections.<String>emptyList());
+		assertDelta(this.events.get(1), 0, Collections.singletonList("y"), Collections.singletonList("a"));
+		assertDelta(this.events.get(2), 3, Collections.<String>emptyList(), Collections.singletonList("c"));
+	}
+
+	@Test
+	public void testNonContiguousRemovalRecordsIndexes() {
+		this.list.removeAll(Arrays.asList("b", "d"));
+		final CollectionChangeEvent<String> event = this.events.get(0);
+		assertEquals(-1, event.getIndex());
+		assertEquals(Arrays.asList("b", "d"), event.getRemovedItems());
+		assertArrayEquals(new int[] {1, 3}, event.getRemovedIndexes());
+		assertEquals(Arrays.asList("a", "b", "c", "d"), event.getOldItems());
+	}
+
+	@Test
+	public void testOldItemsStayValidAfterFurtherChanges() {
+		this.list.retainAll(Arrays.asList("a", "c"));
+		this.list.add("e");
+		this.list.clear();
+		this.list.addAll(Arrays.asList("f", "g"));
+		assertEquals(Arrays.asList("a", "b", "c", "d"), this.events.get(0).getOldItems());
+		assertEquals(Arrays.asList("a", "c"), this.events.get(1).getOldItems());
+		assertEquals(Arrays.asList("a", "c", "e"), this.events.get(2).getOldItems());
+		assertEquals(Collections.emptyList(), this.events.get(3).getOldItems());
+	}
+
+	@Test
+	public void testUndoAndRedoRestoreEveryState() {
+		final List<String> copy = new ArrayList<>(this.list);
+		this.list.removeAll(Arrays.asList("a", "c"));
+		this.list.addAll(1, Arrays.asList("x", "y"));
+		this.list.remove(0);
+		final List<String> replayed = new ArrayList<>(copy);
+		for (final CollectionChangeEvent<String> event : this.events) {
+			event.redo(replayed);
+		}
+		assertEquals(this.list, replayed);
+		for (int i = this.events.size() - 1; i >= 0; i--) {
+			this.events.get(i).undo(replayed);
+		}
+		assertEquals(copy, replayed);
+	}
+
+	@Test
+	public void testOldItemsStayValidAfterUnobservedChange() {
+		final BoundListProxy<String> unobserved = new BoundListProxy<>(new ArrayList<String>());
+		final List<CollectionChangeEvent<String>> received = new ArrayList<>();
+		final CollectionChangeListener<String> listener = new CollectionChangeListener<String>() {
+			@Override
+			public void collectionChange(final CollectionChangeEvent<String> event) {
+				received.add(event);
+			}
+		};
+		unobserved.addCollectionChangeListener(listener);
+		unobserved.add("a");
+		unobserved.removeCollectionChangeListener(listener);
+		unobserved.add("b");
+		final CollectionChangeEvent<String> event = received.get(0);
+		assertNull(event.getRemovedIndexes());
+		assertEquals(Collections.emptyList(), event.getOldItems());
+	}
+
+	@Test
+	public void testBatchSendsNetChange() {
+		this.list.beginChanges();
+		this.list.add("e");
+		this.list.remove("a");
+		this.list.remove("e");
+		this.list.beginChanges();
+		this.list.set(0, "x");
+		this.list.commitChanges();
+		assertTrue(this.events.isEmpty());
+		this.list.commitChanges();
+		assertEquals(1, this.events.size());
+		final CompoundCollectionChangeEvent<String> event = (CompoundCollectionChangeEvent<String>)this.events.get(0);
+		assertEquals(4, event.getChanges().size());
+		assertEquals(Arrays.asList("a", "b", "c", "d", "e"), event.getChanges().get(1).getOldItems());
+		assertEquals(Arrays.asList("b", "c", "d"), event.getChanges().get(3).getOldItems());
+		assertDelta(event, 0, Collections.singletonList("x"), Arrays.asList("a", "b"));
+		assertEquals(Arrays.asList("a", "b", "c", "d"), event.getOldItems());
+		final List<String> replayed = new ArrayList<>(event.getOldItems());
+		event.redo(replayed);
+		assertEquals(this.list, replayed);
+		event.undo(replayed);
+		assertEquals(event.getOldItems(), replayed);
+	}
+
+	@Test
+	public void testBatchAsksVetoableListenersBeforeEachChange() {
+		this.list.addVetoableCollectionChangeListener(new VetoableCollectionChangeListener<String>() {
+			@Override
+			public void vetoableCollectionChange(final CollectionChangeEvent<String> event) throws PropertyVetoException {
+				if (event.getNewItems().contains("bad")) {
+					throw new PropertyVetoException("bad item", null);
+				}
+			}
+		});
+		this.list.beginChanges();
+		this.list.add("ok");
+		try {
+			this.list.add("bad");
+			fail("Vetoed change made in batch.");
+		} catch (final RuntimeException expected) {
+			assertTrue(expected.getCause() instanceof PropertyVetoException);
+		}
+		assertEquals(Arrays.asList("a", "b", "c", "d", "ok"), this.list);
+		this.list.commitChanges();
+		assertDelta(this.events.get(0), 4, Collections.singletonList("ok"), Collections.<String>emptyList());
+	}
+
+	@Test
+	public void testBatchRecordsChangesMadeBeforeFirstListener() {
+		final BoundListProxy<String> unobserved = new BoundListProxy<>(new ArrayList<>(Arrays.asList("a")));
+		final List<CollectionChangeEvent<String>> received = new ArrayList<>();
+		unobserved.beginChanges();
+		unobserved.add("b");
+		unobserved.addCollectionChangeListener(new CollectionChangeListener<String>() {
+			@Override
+			public void collectionChange(final CollectionChangeEvent<String> event) {
+				received.add(event);
+			}
+		});
+		unobserved.add("c");
+		unobserved.commitChanges();
+		assertEquals(1, received.size());
+		assertDelta(received.get(0), 1, Arrays.asList("b", "c"), Collections.<String>emptyList());
+	}
+
+	@Test
+	public void testEmptyAddAllFiresNoEvent() {
+		assertFalse(this.list.addAll(Collections.<String>emptyList()));
+		assertFalse(this.list.addAll(2, Collections.<String>emptyList()));
+		assertTrue(this.events.isEmpty());
+	}
+
+	private static void assertDelta(final CollectionChangeEvent<String> event, final int index, final List<String> newItems, final List<String> removedItems) {
+		assertEquals(index, event.getIndex());
+		assertEquals(newItems, event.getNewItems());
+		assertEquals(removedItems, event.getRemovedItems());
+	}
+}
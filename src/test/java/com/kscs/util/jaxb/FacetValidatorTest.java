@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the helpers of {@link FacetValidator} used by the generated checks
+ */
+public class FacetValidatorTest {
+	@Test
+	public void testLengthCountsSupplementaryCharactersOnce() {
+		assertEquals(0, FacetValidator.length(""));
+		assertEquals(3, FacetValidator.length("a\uD83D\uDE00b"));
+		assertEquals(2, FacetValidator.length(new byte[2]));
+	}
+
+	@Test
+	public void testTotalDigits() {
+		assertEquals(1, FacetValidator.totalDigits(BigDecimal.ZERO));
+		assertEquals(4, FacetValidator.totalDigits(new BigDecimal("12.34")));
+		assertEquals(3, FacetValidator.totalDigits(new BigDecimal("12.50")));
+		assertEquals(3, FacetValidator.totalDigits(new BigDecimal("1.2E+2")));
+		assertEquals(3, FacetValidator.totalDigits(new BigDecimal("-0.012")));
+		assertEquals(31, FacetValidator.totalDigits(BigInteger.TEN.pow(30).negate()));
+		assertEquals(1, FacetValidator.totalDigits(0L));
+		assertEquals(19, FacetValidator.totalDigits(Long.MIN_VALUE));
+	}
+
+	@Test
+	public void testFractionDigits() {
+		assertEquals(0, FacetValidator.fractionDigits(new BigDecimal("0.000")));
+		assertEquals(1, FacetValidator.fractionDigits(new BigDecimal("12.50")));
+		assertEquals(0, FacetValidator.fractionDigits(new BigDecimal("1.2E+2")));
+	}
+
+	@Test
+	public void testViolationPathAndStopAtFirst() {
+		final FacetValidator validator = new FacetValidator(null, null, true);
+		assertTrue(validator.isSelected("a"));
+		validator.enter("order");
+		validator.enter("line");
+		validator.violation("sku", "pattern", "[A-Z]+", "x");
+		validator.leave();
+		validator.leave();
+		assertFalse(validator.isValid());
+		assertEquals("order.line.sku", validator.getViolations().get(0).getPath());
+		assertFalse(validator.isSelected("b"));
+	}
+
+	@Test
+	public void testSelectionByPropertyTree() {
+		final PropertyTree tree = PropertyTree.builder().with("customer").with("name").root().with("comment").build();
+		final FacetValidator include = new FacetValidator(tree, PropertyTreeUse.INCLUDE, false);
+		assertTrue(include.isSelected("customer"));
+		assertFalse(include.isSelected("line"));
+		include.enter("customer");
+		assertTrue(include.isSelected("name"));
+		assertFalse(include.isSelected("email"));
+		include.leave();
+		final FacetValidator exclude = new FacetValidator(tree, PropertyTreeUse.EXCLUDE, false);
+		assertTrue(exclude.isSelected("customer"));
+		assertFalse(exclude.isSelected("comment"));
+		assertTrue(exclude.isSelected("line"));
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.jaxb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests ordering and error handling of {@link SerialEventDispatcher}
+ */
+public class SerialEventDispatcherTest {
+	@Test
+	public void testTasksRunInOrderOnThreadPool() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final SerialEventDispatcher dispatcher = new SerialEventDispatcher(executor, 16);
+			final List<Integer> results = Collections.synchronizedList(new ArrayList<Integer>());
+			final CountDownLatch done = new CountDownLatch(1000);
+			for (int i = 0; i < 1000; i++) {
+				final int value = i;
+				dispatcher.dispatch(new Runnable() {
+					@Override
+					public void run() {
+						results.add(value);
+						done.countDown();
+					}
+				});
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			for (int i = 0; i < 1000; i++) {
+				assertEquals(Integer.valueOf(i), results.get(i));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRejectedTaskIsDequeued() {
+		final List<Runnable> accepted = new ArrayList<>();
+		final RejectingExecutor executor = new RejectingExecutor(accepted);
+		final SerialEventDispatcher dispatcher = new SerialEventDispatcher(executor, 1);
+		final List<String> results = new ArrayList<>();
+		executor.rejecting = true;
+		try {
+			dispatcher.dispatch(new Recorder(results, "rejected"));
+			fail("Rejection not reported.");
+		} catch (final RejectedExecutionException expected) {
+			// expected
+		}
+		executor.rejecting = false;
+		// the capacity of 1 would block here if the rejected task were still queued
+		dispatcher.dispatch(new Recorder(results, "accepted"));
+		assertEquals(1, accepted.size());
+		accepted.get(0).run();
+		assertEquals(Collections.singletonList("accepted"), results);
+	}
+
+	@Test
+	public void testFailingTaskDoesNotStopLaterTasks() {
+		final List<Runnable> accepted = new ArrayList<>();
+		final SerialEventDispatcher dispatcher = new SerialEventDispatcher(new RejectingExecutor(accepted), 4);
+		final List<String> results = new ArrayList<>();
+		final Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+		final List<Throwable> uncaught = new ArrayList<>();
+		Thread.currentThread().setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(final Thread t, final Throwable e) {
+				uncaught.add(e);
+			}
+		});
+		try {
+			dispatcher.dispatch(new Runnable() {
+				@Override
+				public void run() {
+					throw new IllegalStateException("failed");
+				}
+			});
+			dispatcher.dispatch(new Recorder(results, "second"));
+			accepted.get(0).run();
+		} finally {
+			Thread.currentThread().setUncaughtExceptionHandler(handler);
+		}
+		assertEquals(1, uncaught.size());
+		assertEquals(Collections.singletonList("second"), results);
+	}
+
+	private static class RejectingExecutor implements Executor {
+		private final List<Runnable> accepted;
+		private boolean rejecting = false;
+
+		private RejectingExecutor(final List<Runnable> accepted) {
+			this.accepted = accepted;
+		}
+
+		@Override
+		public void execute(final Runnable command) {
+			if (this.rejecting) {
+				throw new RejectedExecutionException("shut down");
+			}
+			this.accepted.add(command);
+		}
+	}
+
+	private static class Recorder implements Runnable {
+		private final List<String> results;
+		private final String name;
+
+		private Recorder(final List<String> results, final String name) {
+			this.results = results;
+			this.name = name;
+		}
+
+		@Override
+		public void run() {
+			this.results.add(this.name);
+		}
+	}
+}
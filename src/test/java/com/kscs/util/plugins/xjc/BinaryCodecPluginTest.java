@@ -0,0 +1,163 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.BinaryCodable;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that object trees written by the codec generated by {@link BinaryCodecPlugin},
+ * or by Java serialization of the generated externalizable classes, are read back unchanged
+ */
+public class BinaryCodecPluginTest {
+	private static GeneratedModel model;
+	private static Method encode;
+	private static Method decode;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		BinaryCodecPluginTest.model = GeneratedModel.generate("-Xbinary-codec", "-externalizable=y");
+		final Class<?> codecClass = BinaryCodecPluginTest.model.type("BinaryCodec");
+		BinaryCodecPluginTest.encode = codecClass.getMethod("encode", BinaryCodable.class, OutputStream.class);
+		BinaryCodecPluginTest.decode = codecClass.getMethod("decode", InputStream.class);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final Object order = BinaryCodecPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final Object decoded = BinaryCodecPluginTest.decode.invoke(null, new ByteArrayInputStream(encode(order)));
+		assertEquals(BinaryCodecPluginTest.model.marshal("order", order), BinaryCodecPluginTest.model.marshal("order", decoded));
+		assertSame(list(decoded, "line").get(1), get(decoded, "favorite"));
+	}
+
+	@Test
+	public void testReferenceCycle() throws Exception {
+		final Object order = BinaryCodecPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		set(order, "favorite", order);
+		final Object decoded = BinaryCodecPluginTest.decode.invoke(null, new ByteArrayInputStream(encode(order)));
+		assertSame(decoded, get(decoded, "favorite"));
+		assertEquals(get(order, "number"), get(decoded, "number"));
+	}
+
+	@Test
+	public void testRoundTripOfEmptyObject() throws Exception {
+		final Object line = BinaryCodecPluginTest.model.newInstance("Line");
+		final Object decoded = BinaryCodecPluginTest.decode.invoke(null, new ByteArrayInputStream(encode(line)));
+		assertSame(line.getClass(), decoded.getClass());
+		assertEquals(null, get(decoded, "sku"));
+		assertTrue(list(decoded, "serial").isEmpty());
+	}
+
+	@Test
+	public void testSmallerThanXml() throws Exception {
+		final Object order = BinaryCodecPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		assertTrue(encode(order).length < BinaryCodecPluginTest.model.marshal("order", order).length() / 2);
+	}
+
+	@Test
+	public void testWrongFingerprintIsRejected() throws Exception {
+		final byte[] data = encode(BinaryCodecPluginTest.model.unmarshal(GeneratedModel.ORDER_XML));
+		data[0] ^= 0x55;
+		try {
+			BinaryCodecPluginTest.decode.invoke(null, new ByteArrayInputStream(data));
+			fail("Data with a different fingerprint accepted.");
+		} catch (final InvocationTargetException expected) {
+			assertTrue(expected.getCause() instanceof IOException);
+		}
+	}
+
+	@Test
+	public void testExternalizableRoundTrip() throws Exception {
+		final Object order = BinaryCodecPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		assertTrue(order instanceof Externalizable);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(order);
+			out.writeObject("trailer");
+		}
+		final ClassLoader classLoader = order.getClass().getClassLoader();
+		// the generated classes are only visible to the class loader of the generated model
+		try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())) {
+			@Override
+			protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+				return Class.forName(desc.getName(), false, classLoader);
+			}
+		}) {
+			final Object deserialized = in.readObject();
+			assertEquals(BinaryCodecPluginTest.model.marshal("order", order), BinaryCodecPluginTest.model.marshal("order", deserialized));
+			assertSame(list(deserialized, "line").get(1), get(deserialized, "favorite"));
+			// the object data must have been consumed exactly
+			assertEquals("trailer", in.readObject());
+		}
+	}
+
+	@Test
+	public void testExternalizableReferenceToItself() throws Exception {
+		final Object order = BinaryCodecPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		set(order, "favorite", order);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(order);
+		}
+		final ClassLoader classLoader = order.getClass().getClassLoader();
+		try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())) {
+			@Override
+			protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+				return Class.forName(desc.getName(), false, classLoader);
+			}
+		}) {
+			final Object deserialized = in.readObject();
+			assertSame(deserialized, get(deserialized, "favorite"));
+		}
+	}
+
+	private static byte[] encode(final Object object) throws Exception {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BinaryCodecPluginTest.encode.invoke(null, object, bytes);
+		return bytes.toByteArray();
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyVetoException;
+import java.beans.VetoableChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.BoundList;
+import com.kscs.util.jaxb.CollectionChangeEvent;
+import com.kscs.util.jaxb.CollectionChangeListener;
+import com.kscs.util.jaxb.CompoundCollectionChangeEvent;
+import com.kscs.util.jaxb.CompoundPropertyChangeEvent;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.invoke;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the setters and batches generated by {@link BoundPropertiesPlugin}
+ */
+public class BoundPropertiesPluginTest {
+	private static GeneratedModel model;
+	private Object order;
+	private List<PropertyChangeEvent> events;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		BoundPropertiesPluginTest.model = GeneratedModel.generate("-Xconstrained-properties", "-batchChanges=y");
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		this.order = BoundPropertiesPluginTest.model.newInstance("Order");
+		this.events = new ArrayList<>();
+		invoke(this.order, "addPropertyChangeListener", new PropertyChangeListener() {
+			@Override
+			public void propertyChange(final PropertyChangeEvent evt) {
+				BoundPropertiesPluginTest.this.events.add(evt);
+			}
+		});
+		invoke(this.order, "addVetoableChangeListener", new VetoableChangeListener() {
+			@Override
+			public void vetoableChange(final PropertyChangeEvent evt) throws PropertyVetoException {
+				if ("low".equals(evt.getNewValue())) {
+					throw new PropertyVetoException("No low priority orders", evt);
+				}
+			}
+		});
+	}
+
+	@Test
+	public void testSetterSendsEvent() throws Exception {
+		set(this.order, "priority", "high");
+		assertEquals(1, this.events.size());
+		assertEquals("priority", this.events.get(0).getPropertyName());
+		assertEquals("high", this.events.get(0).getNewValue());
+	}
+
+	@Test
+	public void testBatchSendsOneEvent() throws Exception {
+		invoke(this.order, "beginChanges");
+		set(this.order, "priority", "high");
+		set(this.order, "express", Boolean.TRUE);
+		assertTrue(this.events.isEmpty());
+		invoke(this.order, "commitChanges");
+		assertEquals(1, this.events.size());
+		assertEquals(2, ((CompoundPropertyChangeEvent)this.events.get(0)).getChanges().size());
+	}
+
+	@Test
+	public void testBatchAsksVetoableListenersBeforeEachChange() throws Exception {
+		invoke(this.order, "beginChanges");
+		set(this.order, "priority", "high");
+		try {
+			set(this.order, "priority", "low");
+			fail("Vetoed change made in batch.");
+		} catch (final RuntimeException expected) {
+			assertTrue(expected.getCause() instanceof PropertyVetoException);
+		}
+		assertEquals("high", get(this.order, "priority"));
+		invoke(this.order, "commitChanges");
+		final List<PropertyChangeEvent> changes = ((CompoundPropertyChangeEvent)this.events.get(0)).getChanges();
+		assertEquals(1, changes.size());
+		assertEquals("high", changes.get(0).getNewValue());
+	}
+
+	@Test
+	public void testBatchIncludesBoundLists() throws Exception {
+		final BoundList<Object> existingLines = (BoundList<Object>)list(this.order, "line");
+		final List<CollectionChangeEvent<Object>> listEvents = new ArrayList<>();
+		final CollectionChangeListener<Object> listener = new CollectionChangeListener<Object>() {
+			@Override
+			public void collectionChange(final CollectionChangeEvent<Object> event) {
+				listEvents.add(event);
+			}
+		};
+		existingLines.addCollectionChangeListener(listener);
+		invoke(this.order, "beginChanges");
+		existingLines.add(BoundPropertiesPluginTest.model.newInstance("Line"));
+		existingLines.add(BoundPropertiesPluginTest.model.newInstance("Line"));
+		set(this.order, "priority", "high");
+		assertTrue(listEvents.isEmpty());
+		invoke(this.order, "commitChanges");
+		assertEquals(1, this.events.size());
+		assertEquals(1, listEvents.size());
+		assertEquals(2, ((CompoundCollectionChangeEvent<Object>)listEvents.get(0)).getChanges().size());
+	}
+
+	@Test
+	public void testBatchIncludesListsCreatedDuringBatch() throws Exception {
+		final List<CollectionChangeEvent<Object>> listEvents = new ArrayList<>();
+		invoke(this.order, "beginChanges");
+		final BoundList<Object> lines = (BoundList<Object>)list(this.order, "line");
+		lines.addCollectionChangeListener(new CollectionChangeListener<Object>() {
+			@Override
+			public void collectionChange(final CollectionChangeEvent<Object> event) {
+				listEvents.add(event);
+			}
+		});
+		lines.add(BoundPropertiesPluginTest.model.newInstance("Line"));
+		assertTrue(listEvents.isEmpty());
+		invoke(this.order, "commitChanges");
+		assertEquals(1, listEvents.size());
+		assertTrue(listEvents.get(0) instanceof CompoundCollectionChangeEvent);
+	}
+}
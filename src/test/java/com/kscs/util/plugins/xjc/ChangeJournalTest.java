@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.BoundList;
+import com.kscs.util.jaxb.ChangeJournal;
+import com.kscs.util.jaxb.Journaled;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests undo, redo and replay of a {@link ChangeJournal} attached to
+ * classes generated with the journal option of {@link BoundPropertiesPlugin}
+ */
+public class ChangeJournalTest {
+	private static GeneratedModel model;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		ChangeJournalTest.model = GeneratedModel.generate("-Xconstrained-properties", "-journal=y");
+	}
+
+	@Test
+	public void testUndoRedoProperty() throws Exception {
+		final Object order = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final ChangeJournal journal = attach(order);
+		set(order, "priority", "low");
+		assertEquals(1, journal.getUndoCount());
+		assertTrue(journal.undo());
+		assertEquals("high", get(order, "priority"));
+		assertEquals(1, journal.getRedoCount());
+		assertTrue(journal.redo());
+		assertEquals("low", get(order, "priority"));
+		assertFalse(journal.redo());
+	}
+
+	@Test
+	public void testUndoRedoNonContiguousRemoval() throws Exception {
+		final Object order = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<Object> lines = list(order, "line");
+		final Object l1 = lines.get(0);
+		final Object l2 = lines.get(1);
+		lines.add(ChangeJournalTest.model.newInstance("Line"));
+		final Object l3 = lines.get(2);
+		final ChangeJournal journal = attach(order);
+		lines.removeAll(Arrays.asList(l1, l3));
+		assertEquals(Arrays.asList(l2), lines);
+		final int modificationCount = ((BoundList<?>)lines).getModificationCount();
+		assertTrue(journal.undo());
+		assertEquals(Arrays.asList(l1, l2, l3), lines);
+		assertNotEquals(modificationCount, ((BoundList<?>)lines).getModificationCount());
+		assertTrue(journal.redo());
+		assertEquals(Arrays.asList(l2), lines);
+	}
+
+	@Test
+	public void testRemovedChildIsNotRecorded() throws Exception {
+		final Object order = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<Object> lines = list(order, "line");
+		final Object l1 = lines.get(0);
+		final ChangeJournal journal = attach(order);
+		lines.remove(0);
+		set(l1, "quantity", 7);
+		assertEquals(1, journal.getUndoCount());
+		assertTrue(journal.undo());
+		assertSame(l1, lines.get(0));
+		set(l1, "quantity", 8);
+		assertEquals(1, journal.getUndoCount());
+		assertTrue(journal.undo());
+		assertEquals(7, get(l1, "quantity"));
+	}
+
+	@Test
+	public void testReplacedChildIsNotRecorded() throws Exception {
+		final Object order = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final Object customer = get(order, "customer");
+		final ChangeJournal journal = attach(order);
+		set(order, "customer", ChangeJournalTest.model.newInstance("Customer"));
+		set(customer, "name", "Grace");
+		assertEquals(1, journal.getUndoCount());
+		assertTrue(journal.undo());
+		assertSame(customer, get(order, "customer"));
+		set(customer, "name", "Linus");
+		assertEquals(1, journal.getUndoCount());
+	}
+
+	@Test
+	public void testReplayOnCopy() throws Exception {
+		final Object order = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final Object copy = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final ChangeJournal journal = attach(order);
+		set(get(order, "customer"), "name", "Grace");
+		list(order, "line").remove(0);
+		set(list(order, "line").get(0), "quantity", 9);
+		journal.replay((Journaled)copy);
+		assertEquals("Grace", get(get(copy, "customer"), "name"));
+		assertEquals(1, list(copy, "line").size());
+		assertEquals("l2", get(list(copy, "line").get(0), "id"));
+		assertEquals(9, get(list(copy, "line").get(0), "quantity"));
+	}
+
+	@Test
+	public void testReplayUsesPositionsAfterUndo() throws Exception {
+		final Object order = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final Object copy = ChangeJournalTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final ChangeJournal journal = attach(order);
+		final List<Object> lines = list(order, "line");
+		lines.add(0, ChangeJournalTest.model.newInstance("Line"));
+		set(lines.get(2), "quantity", 7);
+		assertTrue(journal.undo());
+		assertTrue(journal.undo());
+		set(lines.get(1), "quantity", 8);
+		journal.replay((Journaled)copy);
+		assertEquals(2, list(copy, "line").size());
+		assertEquals(2, get(list(copy, "line").get(0), "quantity"));
+		assertEquals(8, get(list(copy, "line").get(1), "quantity"));
+	}
+
+	private static ChangeJournal attach(final Object order) {
+		final ChangeJournal journal = new ChangeJournal(16);
+		journal.attach((Journaled)order);
+		return journal;
+	}
+}
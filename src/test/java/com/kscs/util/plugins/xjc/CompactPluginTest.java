@@ -0,0 +1,138 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.getField;
+import static com.kscs.util.plugins.xjc.GeneratedModel.invoke;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.setField;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the compact methods generated by {@link CompactPlugin}
+ */
+public class CompactPluginTest {
+	private static GeneratedModel model;
+	private static GeneratedModel immutableModel;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		CompactPluginTest.model = GeneratedModel.generate("-Xcompact", "-afterUnmarshal=y");
+		CompactPluginTest.immutableModel = GeneratedModel.generate("-Ximmutable", "-Xcompact", "-afterUnmarshal=y");
+	}
+
+	@Test
+	public void testCompactTrimsOwnCollections() throws Exception {
+		final Object order = CompactPluginTest.model.newInstance("Order");
+		final TrimRecordingList<Object> lines = new TrimRecordingList<>();
+		setField(order, "line", lines);
+		invoke(order, "compact");
+		assertTrue(lines.trimmed);
+	}
+
+	@Test
+	public void testCompactDescendsIntoNestedObjects() throws Exception {
+		final Object order = CompactPluginTest.model.newInstance("Order");
+		final Object line = newLine();
+		list(order, "line").add(line);
+		invoke(order, "compact");
+		assertTrue(((TrimRecordingList<?>)list(line, "serial")).trimmed);
+	}
+
+	@Test
+	public void testCompactDescendsIntoChoiceContent() throws Exception {
+		final Object order = CompactPluginTest.model.newInstance("Order");
+		final Object gift = newLine();
+		list(order, "giftOrCoupon").add("CPN-0004");
+		list(order, "giftOrCoupon").add(gift);
+		invoke(order, "compact");
+		assertTrue(((TrimRecordingList<?>)list(gift, "serial")).trimmed);
+	}
+
+	@Test
+	public void testCompactDescendsIntoMixedContent() throws Exception {
+		final Object comment = CompactPluginTest.model.newInstance("Comment");
+		final Object ref = newLine();
+		list(comment, "content").add("see ");
+		list(comment, "content").add(CompactPluginTest.model.element("ref", ref));
+		invoke(comment, "compact");
+		assertTrue(((TrimRecordingList<?>)list(ref, "serial")).trimmed);
+	}
+
+	@Test
+	public void testUnmarshalledTreeIsUnchanged() throws Exception {
+		final Object order = CompactPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		invoke(order, "compact");
+		assertEquals(2, list(order, "line").size());
+		assertEquals(2, list(list(order, "line").get(0), "serial").size());
+		assertEquals(2, list(order, "giftOrCoupon").size());
+	}
+
+	@Test
+	public void testUnmarshalledImmutableSingleElementListIsReplaced() throws Exception {
+		final String xml = GeneratedModel.ORDER_XML
+				.replaceFirst("<line id=\"l2\">.*?</line>", "")
+				.replace("<favorite>l2</favorite>", "");
+		final Object order = CompactPluginTest.immutableModel.unmarshal(xml);
+		assertEquals(Collections.singletonList(null).getClass(), getField(order, "line").getClass());
+		assertEquals("l1", invoke(list(order, "line").get(0), "getId"));
+		assertEquals(ArrayList.class, getField(list(order, "line").get(0), "serial").getClass());
+	}
+
+	@Test
+	public void testImmutableEmptyListIsReplaced() throws Exception {
+		final Object line = CompactPluginTest.immutableModel.newInstance("Line");
+		final Object serials = list(line, "serial");
+		invoke(line, "compact");
+		assertSame(Collections.emptyList(), getField(line, "serial"));
+		assertNotSame(serials, list(line, "serial"));
+		assertTrue(list(line, "serial").isEmpty());
+	}
+
+	private static Object newLine() throws Exception {
+		final Object line = CompactPluginTest.model.newInstance("Line");
+		setField(line, "serial", new TrimRecordingList<String>());
+		return line;
+	}
+
+	private static class TrimRecordingList<E> extends ArrayList<E> {
+		private static final long serialVersionUID = 1L;
+		boolean trimmed = false;
+
+		@Override
+		public void trimToSize() {
+			this.trimmed = true;
+			super.trimToSize();
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyVetoException;
+import java.beans.VetoableChangeListener;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.BoundListProxy;
+import com.kscs.util.jaxb.PropertyTree;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.invoke;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the dirty flags generated by {@link DirtyTrackingPlugin}
+ */
+public class DirtyTrackingPluginTest {
+	private static GeneratedModel model;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		DirtyTrackingPluginTest.model = GeneratedModel.generate("-Xconstrained-properties", "-Xdirty-tracking");
+	}
+
+	@Test
+	public void testUnmarshalledTreeIsClean() throws Exception {
+		assertFalse((Boolean)invoke(DirtyTrackingPluginTest.model.unmarshal(GeneratedModel.ORDER_XML), "isDirty"));
+	}
+
+	@Test
+	public void testSetterMarksProperty() throws Exception {
+		final Object order = DirtyTrackingPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		set(order, "priority", "low");
+		assertTrue((Boolean)invoke(order, "isDirty"));
+		assertEquals(Collections.singleton("priority"), invoke(order, "dirtyProperties"));
+		invoke(order, "clearDirty");
+		assertFalse((Boolean)invoke(order, "isDirty"));
+	}
+
+	@Test
+	public void testVetoedChangeLeavesPropertyClean() throws Exception {
+		final Object order = DirtyTrackingPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		invoke(order, "addVetoableChangeListener", new VetoableChangeListener() {
+			@Override
+			public void vetoableChange(final PropertyChangeEvent evt) throws PropertyVetoException {
+				throw new PropertyVetoException("read only", evt);
+			}
+		});
+		try {
+			set(order, "priority", "low");
+			fail("Change not vetoed.");
+		} catch (final RuntimeException expected) {
+			// vetoed
+		}
+		assertFalse((Boolean)invoke(order, "isDirty"));
+	}
+
+	@Test
+	public void testCollectionChangeMarksPropertyWithoutListener() throws Exception {
+		final Object order = DirtyTrackingPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<Object> lines = list(order, "line");
+		assertFalse((Boolean)invoke(order, "isDirty"));
+		assertFalse(hasListeners(lines));
+		lines.remove(0);
+		assertTrue((Boolean)invoke(order, "isDirty"));
+		assertEquals(Collections.singleton("line"), invoke(order, "dirtyProperties"));
+		invoke(order, "clearDirty");
+		assertFalse((Boolean)invoke(order, "isDirty"));
+	}
+
+	@Test
+	public void testCollectionGetterMarksPropertyWithoutBoundProperties() throws Exception {
+		final GeneratedModel unbound = GeneratedModel.generate("-Xdirty-tracking");
+		final Object order = unbound.unmarshal(GeneratedModel.ORDER_XML);
+		assertFalse((Boolean)invoke(order, "isDirty"));
+		set(order, "priority", "low");
+		invoke(order, "clearDirty");
+		list(order, "line").remove(0);
+		assertEquals(Collections.singleton("line"), invoke(order, "dirtyProperties"));
+		invoke(order, "clearDirty");
+		assertFalse((Boolean)invoke(order, "isDirty"));
+	}
+
+	@Test
+	public void testDirtyTreeDescendsIntoChildren() throws Exception {
+		final Object order = DirtyTrackingPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		set(get(order, "customer"), "name", "Grace");
+		set(list(order, "line").get(1), "quantity", 5);
+		assertTrue((Boolean)invoke(order, "isDirty"));
+		assertTrue(((Set<?>)invoke(order, "dirtyProperties")).isEmpty());
+		final PropertyTree tree = (PropertyTree)invoke(order, "dirtyTree");
+		assertNotNull(tree.get("customer").get("name"));
+		assertNotNull(tree.get("line").get("quantity"));
+		assertNull(tree.get("comment"));
+	}
+
+	@Test
+	public void testWrongPluginOrderIsAnError() throws Exception {
+		try {
+			GeneratedModel.generate("-Xdirty-tracking", "-Xconstrained-properties");
+			fail("Wrong plugin order accepted.");
+		} catch (final IllegalStateException expected) {
+			assertTrue(expected.getMessage(), expected.getMessage().contains("-Xdirty-tracking must come after -Xconstrained-properties"));
+		}
+	}
+
+	private static boolean hasListeners(final List<?> list) throws Exception {
+		final Method hasListeners = BoundListProxy.class.getDeclaredMethod("hasListeners");
+		hasListeners.setAccessible(true);
+		return (Boolean)hasListeners.invoke(list);
+	}
+}
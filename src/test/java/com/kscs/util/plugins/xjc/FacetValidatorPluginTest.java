@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.FacetValidator;
+import com.kscs.util.jaxb.PropertyTree;
+import com.kscs.util.jaxb.PropertyTreeUse;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.invoke;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the facet checks generated by {@link FacetValidatorPlugin}
+ */
+public class FacetValidatorPluginTest {
+	private static GeneratedModel model;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		FacetValidatorPluginTest.model = GeneratedModel.generate("-Xfacet-validator");
+	}
+
+	@Test
+	public void testValidOrderHasNoViolations() throws Exception {
+		final Object order = unmarshalOrder();
+		assertEquals(0, violations(order).size());
+		assertTrue((Boolean)invoke(order, "hasValidFacets"));
+	}
+
+	@Test
+	public void testLengthFacets() throws Exception {
+		final Object order = unmarshalOrder();
+		final Object customer = get(order, "customer");
+		set(customer, "name", "");
+		assertEquals(Arrays.asList("customer.name minLength"), violations(order));
+		set(customer, "name", "Augusta Ada King-Noel");
+		assertEquals(Arrays.asList("customer.name maxLength"), violations(order));
+	}
+
+	@Test
+	public void testPatternFacets() throws Exception {
+		final Object order = unmarshalOrder();
+		set(list(order, "line").get(0), "sku", "abc-0001");
+		list(get(order, "customer"), "email").add("nobody");
+		assertEquals(Arrays.asList("customer.email pattern", "line.sku pattern"), violations(order));
+	}
+
+	@Test
+	public void testRangeFacets() throws Exception {
+		final Object order = unmarshalOrder();
+		set(order, "number", 0L);
+		final List<Object> lines = list(order, "line");
+		set(lines.get(0), "quantity", 0);
+		set(lines.get(1), "quantity", 100);
+		assertEquals(Arrays.asList("line.quantity minInclusive", "line.quantity maxExclusive", "number minInclusive"), violations(order));
+	}
+
+	@Test
+	public void testDecimalFacets() throws Exception {
+		final Object order = unmarshalOrder();
+		final Object customer = get(order, "customer");
+		set(customer, "discount", new BigDecimal("12.345"));
+		assertEquals(Arrays.asList("customer.discount fractionDigits"), violations(order));
+		set(customer, "discount", new BigDecimal("101"));
+		assertEquals(Arrays.asList("customer.discount maxInclusive"), violations(order));
+		set(customer, "discount", new BigDecimal("100.00"));
+		assertEquals(0, violations(order).size());
+	}
+
+	@Test
+	public void testRestrictedListChecksListAndItemFacets() throws Exception {
+		final Object order = unmarshalOrder();
+		final List<String> tags = list(order, "tags");
+		tags.add("overweight");
+		assertEquals(Arrays.asList("tags maxLength"), violations(order));
+		tags.add("late");
+		assertEquals(Arrays.asList("tags maxLength", "tags maxLength"), violations(order));
+	}
+
+	@Test
+	public void testPartialValidation() throws Exception {
+		final Object order = unmarshalOrder();
+		set(get(order, "customer"), "name", "");
+		set(list(order, "line").get(0), "sku", "bad");
+		set(order, "number", 0L);
+		final PropertyTree tree = PropertyTree.builder().with("customer").with("name").build();
+		assertEquals(Arrays.asList("customer.name minLength"), describe(invoke(order, "validate", tree, PropertyTreeUse.INCLUDE)));
+		assertEquals(Arrays.asList("line.sku pattern", "number minInclusive"), describe(invoke(order, "validate", tree, PropertyTreeUse.EXCLUDE)));
+	}
+
+	@Test
+	public void testStopAtFirstViolation() throws Exception {
+		final Object order = unmarshalOrder();
+		set(get(order, "customer"), "name", "");
+		set(order, "number", 0L);
+		final FacetValidator validator = new FacetValidator(null, null, true);
+		invoke(order, "validateFacets", validator);
+		assertFalse(validator.isValid());
+		assertEquals(1, validator.getViolations().size());
+		assertFalse((Boolean)invoke(order, "hasValidFacets"));
+	}
+
+	private static Object unmarshalOrder() throws Exception {
+		return FacetValidatorPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+	}
+
+	private static List<String> violations(final Object object) throws Exception {
+		return describe(invoke(object, "validate"));
+	}
+
+	private static List<String> describe(final Object violations) {
+		final List<String> result = new ArrayList<>();
+		for (final Object item : (List<?>)violations) {
+			final FacetValidator.Violation violation = (FacetValidator.Violation)item;
+			result.add(violation.getPath() + " " + violation.getFacet());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kscs.util.plugins.xjc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.JAXBIntrospector;
+import javax.xml.namespace.QName;
+
+import com.sun.tools.xjc.Driver;
+
+/**
+ * Runs XJC with a set of plugins on the test schema, compiles the
+ * generated sources and loads them, so that tests can exercise
+ * the generated code.
+ */
+public final class GeneratedModel {
+	public static final String PACKAGE_NAME = "com.kscs.util.plugins.xjc.test";
+	public static final String NAMESPACE_URI = "http://www.kscs.com/util/plugins/xjc/test";
+	public static final String ORDER_XML = "<order xmlns=\"" + GeneratedModel.NAMESPACE_URI + "\" number=\"42\" priority=\"high\" express=\"true\">"
+			+ "<customer discount=\"12.50\"><name>Ada</name><email>ada@example.org</email></customer>"
+			+ "<line id=\"l1\"><sku>ABC-0001</sku><quantity>2</quantity><price>9.99</price><serial>s1</serial><serial>s2</serial></line>"
+			+ "<line id=\"l2\"><sku>XYZ-0002</sku><quantity>1</quantity></line>"
+			+ "<gift id=\"g1\"><sku>GFT-0003</sku><quantity>1</quantity></gift>"
+			+ "<coupon>CPN-0004</coupon>"
+			+ "<comment>Deliver <em>before</em> noon, see <ref><sku>REF-0005</sku><quantity>3</quantity></ref>.</comment>"
+			+ "<tags>fragile urgent</tags>"
+			+ "<favorite>l2</favorite>"
+			+ "</order>";
+	private static final String SCHEMA_RESOURCE = "plugin-test.xsd";
+
+	private final ClassLoader classLoader;
+	private final String xjcOutput;
+	private JAXBContext jaxbContext = null;
+
+	private GeneratedModel(final ClassLoader classLoader, final String xjcOutput) {
+		this.classLoader = classLoader;
+		this.xjcOutput = xjcOutput;
+	}
+
+	/**
+	 * Generates, compiles and loads the classes for the test schema.
+	 * @param pluginArgs The XJC command line arguments activating the plugins under test
+	 * @return The loaded model
+	 * @throws Exception if XJC fails or the generated code doesn't compile
+	 */
+	public static GeneratedModel generate(final String... pluginArgs) throws Exception {
+		final File baseDir = Files.createTempDirectory("xjc-plugin-test").toFile();
+		final File sourceDir = new File(baseDir, "src");
+		final File classesDir = new File(baseDir, "classes");
+		if (!sourceDir.mkdirs() || !classesDir.mkdirs()) {
+			throw new IOException("Cannot create directories in " + baseDir);
+		}
+		final List<String> args = new ArrayList<>(Arrays.asList("-extension", "-no-header", "-d", sourceDir.getPath(), "-p", GeneratedModel.PACKAGE_NAME));
+		// plugins treat all arguments following their option as their own
+		args.add(new File(GeneratedModel.class.getResource(GeneratedModel.SCHEMA_RESOURCE).toURI()).getPath());
+		args.addAll(Arrays.asList(pluginArgs));
+		final ByteArrayOutputStream log = new ByteArrayOutputStream();
+		final PrintStream logStream = new PrintStream(log, true, "UTF-8");
+		final int result = Driver.run(args.toArray(new String[args.size()]), logStream, logStream);
+		if (result != 0) {
+			throw new IllegalStateException("XJC failed:\n" + log.toString("UTF-8"));
+		}
+		compile(sourceDir, classesDir);
+		return new GeneratedModel(new URLClassLoader(new URL[]{classesDir.toURI().toURL()}, GeneratedModel.class.getClassLoader()), log.toString("UTF-8"));
+	}
+
+	private static void compile(final File sourceDir, final File classesDir) throws IOException {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		final List<File> sources = new ArrayList<>();
+		collectSources(sourceDir, sources);
+		final StringWriter out = new StringWriter();
+		try (final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+			final List<String> options = Arrays.asList("-nowarn", "-encoding", "UTF-8", "-classpath", System.getProperty("java.class.path"), "-d", classesDir.getPath());
+			if (!compiler.getTask(out, fileManager, null, options, null, fileManager.getJavaFileObjectsFromFiles(sources)).call()) {
+				throw new IllegalStateException("Generated code does not compile:\n" + out);
+			}
+		}
+	}
+
+	private static void collectSources(final File dir, final List<File> sources) {
+		final File[] files = dir.listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				if (file.isDirectory()) {
+					collectSources(file, sources);
+				} else if (file.getName().endsWith(".java")) {
+					sources.add(file);
+				}
+			}
+		}
+	}
+
+	public String getXjcOutput() {
+		return this.xjcOutput;
+	}
+
+	public Class<?> type(final String simpleName) throws ClassNotFoundException {
+		return Class.forName(GeneratedModel.PACKAGE_NAME + "." + simpleName, true, this.classLoader);
+	}
+
+	public Object newInstance(final String simpleName) throws Exception {
+		return type(simpleName).newInstance();
+	}
+
+	public JAXBContext getJAXBContext() throws JAXBException {
+		if (this.jaxbContext == null) {
+			this.jaxbContext = JAXBContext.newInstance(GeneratedModel.PACKAGE_NAME, this.classLoader);
+		}
+		return this.jaxbContext;
+	}
+
+	public Object unmarshal(final String xml) throws JAXBException {
+		return JAXBIntrospector.getValue(getJAXBContext().createUnmarshaller().unmarshal(new StringReader(xml)));
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public String marshal(final String elementName, final Object value) throws JAXBException {
+		final StringWriter writer = new StringWriter();
+		getJAXBContext().createMarshaller().marshal(new JAXBElement(new QName(GeneratedModel.NAMESPACE_URI, elementName), value.getClass(), value), writer);
+		return writer.toString();
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public JAXBElement<?> element(final String elementName, final Object value) {
+		return new JAXBElement(new QName(GeneratedModel.NAMESPACE_URI, elementName), value.getClass(), value);
+	}
+
+	/**
+	 * Invokes the public method with the given name and number of arguments.
+	 */
+	public static Object invoke(final Object target, final String methodName, final Object... args) throws Exception {
+		for (final Method method : target.getClass().getMethods()) {
+			if (method.getName().equals(methodName) && method.getParameterTypes().length == args.length && isApplicable(method.getParameterTypes(), args)) {
+				try {
+					return method.invoke(target, args);
+				} catch (final InvocationTargetException e) {
+					if (e.getCause() instanceof Exception) {
+						throw (Exception)e.getCause();
+					}
+					throw e;
+				}
+			}
+		}
+		throw new NoSuchMethodException(target.getClass().getName() + "." + methodName);
+	}
+
+	private static boolean isApplicable(final Class<?>[] parameterTypes, final Object[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] != null && !parameterTypes[i].isPrimitive() && !parameterTypes[i].isInstance(args[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static Object get(final Object bean, final String propertyName) throws Exception {
+		final String suffix = Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+		try {
+			return invoke(bean, "get" + suffix);
+		} catch (final NoSuchMethodException e) {
+			return invoke(bean, "is" + suffix);
+		}
+	}
+
+	public static void set(final Object bean, final String propertyName, final Object value) throws Exception {
+		invoke(bean, "set" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1), value);
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <E> List<E> list(final Object bean, final String propertyName) throws Exception {
+		return (List<E>)get(bean, propertyName);
+	}
+
+	/**
+	 * Gets the value of a field directly, bypassing any generated accessors.
+	 */
+	public static Object getField(final Object bean, final String fieldName) throws Exception {
+		for (Class<?> type = bean.getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				final Field field = type.getDeclaredField(fieldName);
+				field.setAccessible(true);
+				return field.get(bean);
+			} catch (final NoSuchFieldException e) {
+				// look in superclass
+			}
+		}
+		throw new NoSuchFieldException(fieldName);
+	}
+
+	/**
+	 * Replaces the value of a field directly, bypassing any generated accessors.
+	 */
+	public static void setField(final Object bean, final String fieldName, final Object value) throws Exception {
+		for (Class<?> type = bean.getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				final Field field = type.getDeclaredField(fieldName);
+				field.setAccessible(true);
+				field.set(bean, value);
+				return;
+			} catch (final NoSuchFieldException e) {
+				// look in superclass
+			}
+		}
+		throw new NoSuchFieldException(fieldName);
+	}
+}
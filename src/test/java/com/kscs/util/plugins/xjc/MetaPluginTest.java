@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.PropertyInfo;
+import com.kscs.util.jaxb.PropertyInfoVisitor;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.invoke;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PropertyInfoVisitor} support generated by {@link MetaPlugin}
+ */
+public class MetaPluginTest {
+	private static GeneratedModel model;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		MetaPluginTest.model = GeneratedModel.generate("-Xmeta", "-extended=y");
+	}
+
+	@Test
+	public void testVisitsTreeAndPassesPrimitivesUnboxed() throws Exception {
+		final Object order = MetaPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final RecordingVisitor visitor = new RecordingVisitor();
+		invoke(order, "visit", visitor);
+		assertTrue(visitor.calls.toString(), visitor.calls.contains("int quantity=2"));
+		assertTrue(visitor.calls.toString(), visitor.calls.contains("long number=42"));
+		assertTrue(visitor.calls.toString(), visitor.calls.contains("Object name=Ada"));
+		assertTrue(visitor.calls.toString(), visitor.calls.contains("item line[1]"));
+	}
+
+	private static final class RecordingVisitor implements PropertyInfoVisitor {
+		final List<String> calls = new ArrayList<>();
+
+		@Override
+		public void visit(final Object owner) {
+		}
+
+		@Override
+		public boolean visit(final PropertyInfo<?, ?> info, final Object owner, final Object value) {
+			this.calls.add("Object " + info.propertyName + "=" + value);
+			return true;
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final boolean value) {
+			this.calls.add("boolean " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final byte value) {
+			this.calls.add("byte " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final short value) {
+			this.calls.add("short " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final int value) {
+			this.calls.add("int " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final long value) {
+			this.calls.add("long " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final float value) {
+			this.calls.add("float " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public void visit(final PropertyInfo<?, ?> info, final Object owner, final double value) {
+			this.calls.add("double " + info.propertyName + "=" + value);
+		}
+
+		@Override
+		public boolean visit(final PropertyInfo<?, ?> info, final Object owner, final List<?> values) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(final PropertyInfo<?, ?> info, final Object owner, final Object value, final int index) {
+			this.calls.add("item " + info.propertyName + "[" + index + "]");
+			return true;
+		}
+	}
+}
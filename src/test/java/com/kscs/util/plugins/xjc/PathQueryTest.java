@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.PathQuery;
+import com.kscs.util.jaxb.PropertyInfoResolver;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link PathQuery} on classes generated with the extended meta
+ * information and registry of {@link MetaPlugin}
+ */
+public class PathQueryTest {
+	private static GeneratedModel model;
+	private static Class<?> orderClass;
+	private static PropertyInfoResolver resolver;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		PathQueryTest.model = GeneratedModel.generate("-Xmeta", "-extended=y", "-registry=y");
+		PathQueryTest.orderClass = PathQueryTest.model.type("Order");
+		PathQueryTest.resolver = (PropertyInfoResolver)PathQueryTest.model.type("MetaRegistry").getField("RESOLVER").get(null);
+	}
+
+	@Test
+	public void testChildPath() throws Exception {
+		assertEquals(Arrays.<Object>asList("Ada"), select("customer/name"));
+		assertEquals(Arrays.<Object>asList("ABC-0001", "XYZ-0002"), select("line/sku"));
+	}
+
+	@Test
+	public void testAttributeStep() throws Exception {
+		assertEquals(Arrays.<Object>asList("l1", "l2"), select("line/@id"));
+		assertEquals(Arrays.<Object>asList(), select("line/@sku"));
+	}
+
+	@Test
+	public void testPositionPredicate() throws Exception {
+		assertEquals(Arrays.<Object>asList("XYZ-0002"), select("line[2]/sku"));
+		assertEquals(Arrays.<Object>asList("s2"), select("line/serial[2]"));
+		assertEquals(Arrays.<Object>asList(), select("line[3]"));
+	}
+
+	@Test
+	public void testValuePredicates() throws Exception {
+		assertEquals(Arrays.<Object>asList("l1"), select("line[price]/@id"));
+		assertEquals(Arrays.<Object>asList("l2"), select("line[quantity='1']/@id"));
+		assertEquals(Arrays.<Object>asList(), select("line[serial='s9']/@id"));
+	}
+
+	@Test
+	public void testWildcardStep() throws Exception {
+		assertEquals(Arrays.<Object>asList(new BigDecimal("12.50")), select("customer/@*"));
+		assertEquals(Arrays.<Object>asList("Ada", "ada@example.org"), select("customer/*"));
+	}
+
+	@Test
+	public void testResultTypeAndSelectFirst() throws Exception {
+		final Object order = PathQueryTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final PathQuery<String> query = PathQuery.compile(PathQueryTest.orderClass, "line/@id", String.class, PathQueryTest.resolver);
+		assertEquals("l1", query.selectFirst(order));
+		assertNull(PathQuery.compile(PathQueryTest.orderClass, "comment", String.class, PathQueryTest.resolver).selectFirst(order));
+	}
+
+	@Test
+	public void testResultsReflectChanges() throws Exception {
+		final Object order = PathQueryTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final Iterable<Object> result = PathQuery.compile(PathQueryTest.orderClass, "line/@id", PathQueryTest.resolver).select(order);
+		list(order, "line").remove(0);
+		assertEquals(Arrays.<Object>asList("l2"), toList(result));
+		list(order, "line").clear();
+		assertFalse(result.iterator().hasNext());
+		assertEquals("Ada", get(get(order, "customer"), "name"));
+	}
+
+	@Test
+	public void testSyntaxError() throws Exception {
+		try {
+			PathQuery.compile(PathQueryTest.orderClass, "line[2", PathQueryTest.resolver);
+			fail("Syntax error not detected.");
+		} catch (final IllegalArgumentException expected) {
+			// expected
+		}
+	}
+
+	private static List<Object> select(final String path) throws Exception {
+		return toList(PathQuery.compile(PathQueryTest.orderClass, path, PathQueryTest.resolver).select(PathQueryTest.model.unmarshal(GeneratedModel.ORDER_XML)));
+	}
+
+	private static List<Object> toList(final Iterable<?> values) {
+		final List<Object> result = new ArrayList<>();
+		for (final Object value : values) {
+			result.add(value);
+		}
+		return result;
+	}
+}
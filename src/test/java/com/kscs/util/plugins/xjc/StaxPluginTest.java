@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.PropertyTree;
+import com.kscs.util.jaxb.PropertyTreeUse;
+import com.kscs.util.jaxb.BufferedStaxObjectReader;
+import com.kscs.util.jaxb.StaxReadContext;
+import com.kscs.util.jaxb.StaxWritable;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static com.kscs.util.plugins.xjc.GeneratedModel.set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that the StAX code generated by {@link StaxPlugin} writes
+ * the same documents and reads the same objects as the JAXB runtime,
+ * and that {@link BufferedStaxObjectReader} provides the same events
+ */
+public class StaxPluginTest {
+	private static final QName ORDER = new QName(GeneratedModel.NAMESPACE_URI, "order");
+	private static GeneratedModel model;
+	private static GeneratedModel lazyModel;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		StaxPluginTest.model = GeneratedModel.generate("-Xstax");
+		final String bindings = new File(StaxPluginTest.class.getResource("plugin-test-lazy.xjb").toURI()).getPath();
+		StaxPluginTest.lazyModel = GeneratedModel.generate("-b", bindings, "-Xstax");
+	}
+
+	@Test
+	public void testWriteMatchesJaxb() throws Exception {
+		final Object order = StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final String written = write(order);
+		assertEquals(StaxPluginTest.model.marshal("order", order), StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(written)));
+	}
+
+	@Test
+	public void testWriteEscapesAndOmitsNulls() throws Exception {
+		final Object order = StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		set(order, "priority", null);
+		set(order, "comment", null);
+		list(order, "line").clear();
+		set(order, "favorite", null);
+		final Object customer = GeneratedModel.get(order, "customer");
+		set(customer, "name", "<A&B>");
+		final String written = write(order);
+		assertTrue(written, !written.contains("priority") && !written.contains("comment") && !written.contains("line"));
+		assertTrue(written, written.contains("&lt;A&amp;B&gt;"));
+		assertEquals(StaxPluginTest.model.marshal("order", order), StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(written)));
+	}
+
+	@Test
+	public void testReadMatchesJaxb() throws Exception {
+		final XMLStreamReader reader = reader(GeneratedModel.ORDER_XML);
+		final Object order = read(reader, new StaxReadContext());
+		assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+		assertEquals("order", reader.getLocalName());
+		assertEquals(StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML)), StaxPluginTest.model.marshal("order", order));
+		assertSame(list(order, "line").get(1), get(order, "favorite"));
+	}
+
+	@Test
+	public void testReadSkipsUnknownElements() throws Exception {
+		final String xml = GeneratedModel.ORDER_XML.replace("<tags>", "<unknown><line id=\"x\"/></unknown><tags>");
+		final Object order = read(reader(xml), new StaxReadContext());
+		assertEquals(2, list(order, "line").size());
+		assertEquals(StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML)), StaxPluginTest.model.marshal("order", order));
+	}
+
+	@Test
+	public void testReadWhatWasWritten() throws Exception {
+		final Object order = StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final Object copy = StaxPluginTest.model.type("Order").getMethod("readFrom", XMLStreamReader.class).invoke(null, reader(write(order)));
+		assertEquals(StaxPluginTest.model.marshal("order", order), StaxPluginTest.model.marshal("order", copy));
+	}
+
+	@Test
+	public void testReadIncludedPropertiesOnly() throws Exception {
+		final PropertyTree selection = PropertyTree.builder().with("customer").with("name").root().with("line").with("sku").build();
+		final Object order = read(reader(GeneratedModel.ORDER_XML), new StaxReadContext(selection, PropertyTreeUse.INCLUDE));
+		assertEquals("Ada", get(get(order, "customer"), "name"));
+		assertTrue(list(get(order, "customer"), "email").isEmpty());
+		assertEquals(2, list(order, "line").size());
+		assertEquals("XYZ-0002", get(list(order, "line").get(1), "sku"));
+		assertNull(get(list(order, "line").get(0), "price"));
+		assertNull(get(order, "comment"));
+		assertNull(get(order, "priority"));
+		assertNull(get(order, "favorite"));
+	}
+
+	@Test
+	public void testReadWithoutExcludedProperties() throws Exception {
+		final PropertyTree selection = PropertyTree.builder().with("line").root().with("comment").root().with("customer").with("email").build();
+		final Object order = read(reader(GeneratedModel.ORDER_XML), new StaxReadContext(selection, PropertyTreeUse.EXCLUDE));
+		assertTrue(list(order, "line").isEmpty());
+		assertNull(get(order, "comment"));
+		assertEquals("Ada", get(get(order, "customer"), "name"));
+		assertTrue(list(get(order, "customer"), "email").isEmpty());
+		assertEquals("high", get(order, "priority"));
+		// the favorite refers to a line that has not been read
+		assertNull(get(order, "favorite"));
+	}
+
+	@Test
+	public void testLazyPropertiesAreWrittenUnparsed() throws Exception {
+		final Object order = read(StaxPluginTest.lazyModel, reader(GeneratedModel.ORDER_XML), new StaxReadContext());
+		assertNotNull(field(order, "customer_Lazy"));
+		assertNull(field(order, "customer"));
+		final String written = write(order);
+		assertNull("Writing must not parse the lazy elements", field(order, "customer"));
+		// the favorite refers into the unparsed lines, so it is left null
+		assertNull(get(order, "favorite"));
+		final String expected = GeneratedModel.ORDER_XML.replace("<favorite>l2</favorite>", "");
+		assertEquals(StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(expected)), StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(written)));
+	}
+
+	@Test
+	public void testLazyPropertiesAreParsedOnAccess() throws Exception {
+		final Object order = read(StaxPluginTest.lazyModel, reader(GeneratedModel.ORDER_XML), new StaxReadContext());
+		assertEquals("Ada", get(get(order, "customer"), "name"));
+		assertNull(field(order, "customer_Lazy"));
+		final List<Object> lines = list(order, "line");
+		assertEquals(2, lines.size());
+		assertEquals("ABC-0001", get(lines.get(0), "sku"));
+		lines.remove(0);
+		final String written = write(order);
+		assertTrue(written, !written.contains("ABC-0001") && written.contains("XYZ-0002"));
+	}
+
+	@Test
+	public void testObjectReaderFeedsJaxb() throws Exception {
+		final Object order = StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final BufferedStaxObjectReader reader = new BufferedStaxObjectReader((StaxWritable)order, StaxPluginTest.ORDER, false);
+		final Object copy = StaxPluginTest.model.getJAXBContext().createUnmarshaller().unmarshal(reader, StaxPluginTest.model.type("Order")).getValue();
+		assertEquals(StaxPluginTest.model.marshal("order", order), StaxPluginTest.model.marshal("order", copy));
+	}
+
+	@Test
+	public void testObjectReaderAsTransformerSource() throws Exception {
+		final Object order = StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final StringWriter out = new StringWriter();
+		TransformerFactory.newInstance().newTransformer().transform(new StAXSource(new BufferedStaxObjectReader((StaxWritable)order, StaxPluginTest.ORDER, false)), new StreamResult(out));
+		assertEquals(StaxPluginTest.model.marshal("order", order), StaxPluginTest.model.marshal("order", StaxPluginTest.model.unmarshal(out.toString())));
+	}
+
+	@Test
+	public void testObjectReaderEvents() throws Exception {
+		final Object customer = get(StaxPluginTest.model.unmarshal(GeneratedModel.ORDER_XML), "customer");
+		final BufferedStaxObjectReader reader = new BufferedStaxObjectReader((StaxWritable)customer, new QName(GeneratedModel.NAMESPACE_URI, "customer"), false);
+		assertEquals(XMLStreamConstants.START_DOCUMENT, reader.getEventType());
+		assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+		assertEquals("customer", reader.getLocalName());
+		assertEquals(GeneratedModel.NAMESPACE_URI, reader.getNamespaceURI());
+		assertEquals("12.50", reader.getAttributeValue(null, "discount"));
+		assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+		assertEquals("Ada", reader.getElementText());
+		assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+		assertEquals(XMLStreamConstants.START_ELEMENT, reader.nextTag());
+		assertEquals("email", reader.getLocalName());
+		reader.getElementText();
+		assertEquals(XMLStreamConstants.END_ELEMENT, reader.nextTag());
+		assertEquals("customer", reader.getLocalName());
+		assertEquals(XMLStreamConstants.END_DOCUMENT, reader.next());
+		assertFalse(reader.hasNext());
+	}
+
+	private static Object field(final Object object, final String name) throws Exception {
+		final Field field = object.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		return field.get(object);
+	}
+
+	private static XMLStreamReader reader(final String xml) throws Exception {
+		final XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+		reader.nextTag();
+		return reader;
+	}
+
+	private static Object read(final XMLStreamReader reader, final StaxReadContext context) throws Exception {
+		return read(StaxPluginTest.model, reader, context);
+	}
+
+	private static Object read(final GeneratedModel model, final XMLStreamReader reader, final StaxReadContext context) throws Exception {
+		final Object object = model.type("Order").getMethod("readFrom", XMLStreamReader.class, StaxReadContext.class).invoke(null, reader, context);
+		// with a context passed in, the caller decides when the tree is complete
+		context.resolveReferences();
+		return object;
+	}
+
+	private static String write(final Object object) throws Exception {
+		final StringWriter out = new StringWriter();
+		final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+		writer.writeStartDocument();
+		((StaxWritable)object).writeTo(writer, StaxPluginTest.ORDER, false);
+		writer.writeEndDocument();
+		writer.close();
+		return out.toString();
+	}
+}
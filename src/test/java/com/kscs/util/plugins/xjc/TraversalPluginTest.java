@@ -0,0 +1,141 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2014 Klemm Software Consulting, Mirko Klemm
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.kscs.util.plugins.xjc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.kscs.util.jaxb.ParallelTraversal;
+import com.kscs.util.jaxb.Traversable;
+
+import static com.kscs.util.plugins.xjc.GeneratedModel.get;
+import static com.kscs.util.plugins.xjc.GeneratedModel.invoke;
+import static com.kscs.util.plugins.xjc.GeneratedModel.list;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the "findAll" and "collectAll" methods generated by {@link TraversalPlugin},
+ * and {@link ParallelTraversal} on the generated "collectChildren" methods
+ */
+public class TraversalPluginTest {
+	private static GeneratedModel model;
+
+	@BeforeClass
+	public static void generate() throws Exception {
+		TraversalPluginTest.model = GeneratedModel.generate("-Xtraversal", "-parallel=y");
+	}
+
+	@Test
+	public void testFindAllInDocumentOrder() throws Exception {
+		final Object order = TraversalPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<?> lines = (List<?>)invoke(order, "findAll", TraversalPluginTest.model.type("Line"));
+		final List<Object> skus = new ArrayList<>();
+		for (final Object line : lines) {
+			skus.add(get(line, "sku"));
+		}
+		// the favorite is found through the IDREF as well, after the comment
+		assertEquals(Arrays.<Object>asList("ABC-0001", "XYZ-0002", "GFT-0003", "REF-0005", "XYZ-0002"), skus);
+		assertSame(lines.get(1), lines.get(4));
+	}
+
+	@Test
+	public void testFindAllReturnsOnlyRequestedType() throws Exception {
+		final Object order = TraversalPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<?> customers = (List<?>)invoke(order, "findAll", TraversalPluginTest.model.type("Customer"));
+		assertEquals(1, customers.size());
+		assertSame(get(order, "customer"), customers.get(0));
+		assertTrue(((List<?>)invoke(get(order, "customer"), "findAll", TraversalPluginTest.model.type("Line"))).isEmpty());
+	}
+
+	@Test
+	public void testCollectAllAppends() throws Exception {
+		final Object order = TraversalPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<Object> found = new ArrayList<>();
+		found.add("marker");
+		invoke(order, "collectAll", TraversalPluginTest.model.type("Customer"), found);
+		assertEquals(2, found.size());
+		assertSame(get(order, "customer"), found.get(1));
+	}
+
+	@Test
+	public void testCollectChildrenSkipsUnreachableProperties() throws Exception {
+		final Object order = TraversalPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<Object> children = new ArrayList<>();
+		((Traversable)order).collectChildren(TraversalPluginTest.model.type("Customer"), children);
+		assertEquals(Collections.singletonList(get(order, "customer")), children);
+		children.clear();
+		((Traversable)order).collectChildren(Object.class, children);
+		assertTrue(children.containsAll(list(order, "line")));
+		assertFalse(children.contains(order));
+	}
+
+	@Test
+	public void testParallelForEachFindsSameObjectsAsFindAll() throws Exception {
+		final Object order = TraversalPluginTest.model.unmarshal(GeneratedModel.ORDER_XML);
+		final List<Object> lines = list(order, "line");
+		for (int i = 0; i < 200; i++) {
+			final Object line = TraversalPluginTest.model.newInstance("Line");
+			GeneratedModel.set(line, "sku", "GEN-" + i);
+			lines.add(line);
+		}
+		final Set<Object> expected = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		expected.addAll((List<?>)invoke(order, "findAll", TraversalPluginTest.model.type("Line")));
+		final List<Object> visited = Collections.synchronizedList(new ArrayList<>());
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ParallelTraversal.forEach(pool, (Traversable)order, TraversalPluginTest.model.type("Line"), new ParallelTraversal.Action<Object>() {
+				@Override
+				public void apply(final Object object) {
+					visited.add(object);
+				}
+			});
+		} finally {
+			pool.shutdown();
+		}
+		final Set<Object> visitedSet = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		visitedSet.addAll(visited);
+		assertEquals(expected, visitedSet);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreshold() {
+		ParallelTraversal.forEach(new ForkJoinPool(1), Collections.singletonList(new Object()), Object.class, new ParallelTraversal.Action<Object>() {
+			@Override
+			public void apply(final Object object) {
+			}
+		}, 0);
+	}
+}
@@ -23,13 +23,20 @@
  */
 package com.kscs.util.plugins.xjc.base;
 
+import com.kscs.util.plugins.xjc.BinaryCodecPlugin;
 import com.kscs.util.plugins.xjc.BoundPropertiesPlugin;
+import com.kscs.util.plugins.xjc.CompactPlugin;
 import com.kscs.util.plugins.xjc.DeepClonePlugin;
 import com.kscs.util.plugins.xjc.DeepCopyPlugin;
+import com.kscs.util.plugins.xjc.DirtyTrackingPlugin;
+import com.kscs.util.plugins.xjc.FacetValidatorPlugin;
 import com.kscs.util.plugins.xjc.FluentBuilderPlugin;
+import com.kscs.util.plugins.xjc.FootprintPlugin;
 import com.kscs.util.plugins.xjc.GroupInterfacePlugin;
 import com.kscs.util.plugins.xjc.ImmutablePlugin;
 import com.kscs.util.plugins.xjc.MetaPlugin;
+import com.kscs.util.plugins.xjc.StaxPlugin;
+import com.kscs.util.plugins.xjc.TraversalPlugin;
 import org.junit.Test;
 
 /**
@@ -77,4 +84,46 @@ public class PluginUsageBuilderTest {
 		final MetaPlugin plugin = new MetaPlugin();
 		System.out.println(plugin.getUsage());
 	}
+
+	@Test
+	public void testPluginUsageCompact() {
+		final CompactPlugin plugin = new CompactPlugin();
+		System.out.println(plugin.getUsage());
+	}
+
+	@Test
+	public void testPluginUsageDirtyTracking() {
+		final DirtyTrackingPlugin plugin = new DirtyTrackingPlugin();
+		System.out.println(plugin.getUsage());
+	}
+
+	@Test
+	public void testPluginUsageTraversal() {
+		final TraversalPlugin plugin = new TraversalPlugin();
+		System.out.println(plugin.getUsage());
+	}
+
+	@Test
+	public void testPluginUsageBinaryCodec() {
+		final BinaryCodecPlugin plugin = new BinaryCodecPlugin();
+		System.out.println(plugin.getUsage());
+	}
+
+	@Test
+	public void testPluginUsageFootprint() {
+		final FootprintPlugin plugin = new FootprintPlugin();
+		System.out.println(plugin.getUsage());
+	}
+
+	@Test
+	public void testPluginUsageStax() {
+		final StaxPlugin plugin = new StaxPlugin();
+		System.out.println(plugin.getUsage());
+	}
+
+	@Test
+	public void testPluginUsageFacetValidator() {
+		final FacetValidatorPlugin plugin = new FacetValidatorPlugin();
+		System.out.println(plugin.getUsage());
+	}
 }